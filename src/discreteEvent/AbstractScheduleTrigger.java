@@ -2,20 +2,22 @@ package discreteEvent;
 
 public abstract class AbstractScheduleTrigger implements IScheduleTrigger {
 
-    protected static int count = 0;
-
-    private int id;
-
-    public AbstractScheduleTrigger() {
-        this.id = count++;
-    }
+    private int id = -1;
 
     @Override
     public abstract void trigger(Event eventAdded);
 
+    /**
+     * Returns the id of the trigger within its sim, assigned by the master
+     * scheduler when the trigger is added.
+     */
     @Override
     public int getId() {
         return this.id;
     }
 
+    void setId(int id) {
+        this.id = id;
+    }
+
 }
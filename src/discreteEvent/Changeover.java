@@ -1,16 +1,13 @@
 package discreteEvent;
 
-import org.apache.log4j.Logger;
-
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
+import util.HotPathLogger;
 
 public class Changeover extends Event {
 
-    private static Logger logger = Logger.getLogger(Changeover.class);
-
-    private boolean trace = logger.isTraceEnabled();
+    private static HotPathLogger logger = HotPathLogger.getLogger(Changeover.class);
 
     private Item changeTo;
 
@@ -33,19 +30,19 @@ public class Changeover extends Event {
         } else {
             changeoverTime = sim.getParams().getSetupTimes().get(changeTo.getId());
         }
-        if (trace) {
-            logger.trace("Changing the machine's setup to Item " + changeTo.getId() + " with a changeover time "
-                    + changeoverTime);
-        }
+        logger.trace("Changing the machine's setup to Item %d with a changeover time %f", changeTo.getId(),
+                changeoverTime);
         sim.getMachine().startChangeover(changeTo);
-        if (trace) {
-            logger.debug("Delaying all failure events by " + changeoverTime);
-        }
+        logger.debug("Delaying all failure events by %f", changeoverTime);
         sim.getMasterScheduler().delayEvents(changeoverTime);
         TimeInstant controlEventTime = sim.getTime().add(changeoverTime);
-        logger.trace(String.format("Scheduling a new control event for time %s", controlEventTime));
-        sim.getMasterScheduler().addEvent(new ControlEvent(controlEventTime));
+        logger.trace("Scheduling a new control event for time %s", controlEventTime);
+        sim.getMasterScheduler().requestControl(controlEventTime);
+
+    }
 
+    public Item getChangeTo() {
+        return changeTo;
     }
 
     @Override
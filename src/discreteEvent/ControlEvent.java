@@ -1,13 +1,12 @@
 package discreteEvent;
 
-import org.apache.log4j.Logger;
-
 import sim.Sim;
 import sim.TimeInstant;
+import util.HotPathLogger;
 
 public class ControlEvent extends Event {
 
-    private static Logger logger = Logger.getLogger(ControlEvent.class);
+    private static HotPathLogger logger = HotPathLogger.getLogger(ControlEvent.class);
 
     public ControlEvent(TimeInstant time) {
         super(time);
@@ -18,7 +17,7 @@ public class ControlEvent extends Event {
         // Because any other scheduled Control Event will be redundant after
         // handling this one, we clear the queue
         sim.getMasterScheduler().dumpEvents();
-        logger.debug("Processing " + this);
+        logger.debug("Processing %s", this);
         sim.getPolicy().updateControl(sim);
     }
 
@@ -1,14 +1,13 @@
 package discreteEvent;
 
-import org.apache.log4j.Logger;
-
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
+import util.HotPathLogger;
 
 public class DemandArrival extends Event {
 
-    private static Logger logger = Logger.getLogger(DemandArrival.class);
+    private static HotPathLogger logger = HotPathLogger.getLogger(DemandArrival.class);
 
     private Item   item;
     private double demand;
@@ -25,7 +24,7 @@ public class DemandArrival extends Event {
         super(time);
         this.item = item;
         this.demand = demand;
-        logger.debug("Creating demand arrival " + this.getId() + " for Item " + item.getId() + " with qty " + demand);
+        logger.debug("Creating demand arrival for Item %d with qty %f", item.getId(), demand);
     }
 
     @Override
@@ -36,7 +35,7 @@ public class DemandArrival extends Event {
         // Generate next arrival
         sim.getMasterScheduler().addEvent(sim.getDemandProcess().getNextDemandArrival(item, sim.getTime()));
         // Generate a control event
-        sim.getMasterScheduler().addEvent(new ControlEvent(sim.getTime()));
+        sim.getMasterScheduler().requestControl(sim.getTime());
     }
 
     public Item getItem() {
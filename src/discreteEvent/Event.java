@@ -6,10 +6,9 @@
 
 package discreteEvent;
 
-import org.apache.log4j.Logger;
-
 import sim.Sim;
 import sim.TimeInstant;
+import util.HotPathLogger;
 
 /**
  * The base class from which any other type of event should inherit. Takes care
@@ -21,36 +20,53 @@ import sim.TimeInstant;
  */
 public abstract class Event implements Comparable<Event> {
 
-    private static Logger logger = Logger.getLogger(Event.class);
+    private static HotPathLogger logger = HotPathLogger.getLogger(Event.class);
 
     protected TimeInstant time;
     protected double      deltaTime;
-    private long          id;
-    private static long   idCount = 0;
+    // The sequence number within the sim, assigned when the event is scheduled
+    private long          id      = -1;
+    // While the event is queued in a schedule, its time is brought up to date
+    // with the delays of the schedule whenever it is read
+    Schedule              schedule;
+    TimeInstant           scheduleKey;
+    long                  scheduleOffsetVersion;
 
     public Event(final TimeInstant time) {
         this.time = time;
-        this.id = idCount;
-        Event.idCount++;
-        logger.trace("Created " + this);
+        if (logger.isTraceEnabled()) {
+            logger.trace("Created " + this);
+        }
     }
 
+    /**
+     * Events are sorted by time and then by the order in which they were
+     * scheduled.
+     */
     public int compareTo(Event otherEvent) {
-        return this.time.compareTo(otherEvent.time);
+        int comparison = this.getTime().compareTo(otherEvent.getTime());
+        return comparison != 0 ? comparison : Long.compare(this.id, otherEvent.id);
     }
 
     public void handle(Sim sim) {
-        beforeHandle(sim);
-        if (logger.isDebugEnabled()) {
+        ListenersCoordinator listenersCoordinator = sim.getListenersCoordinator();
+        EventContext context = listenersCoordinator.getContext();
+        context.beforeEvent(this, sim);
+        if (logger.isTraceEnabled()) {
             logger.trace("Handling " + this);
+            logger.trace("Advancing sim time from " + sim.getTime() + " to " + time);
         }
-        deltaTime = this.time.subtract(sim.getTime()).doubleValue();
+        deltaTime = context.getDeltaTime();
+        // The listeners see the state of the items at the time of the event,
+        // but the sim time is only advanced after them
+        sim.advanceStateTo(time);
+        beforeHandle(listenersCoordinator, context, sim);
         // Advance time
-        logger.trace("Advancing sim time from " + sim.getTime() + " to " + time);
         sim.setTime(time);
         mainHandle(sim);
         sim.setLatestEvent(this);
-        afterHandle(sim);
+        context.afterEvent(sim);
+        afterHandle(listenersCoordinator, context, sim);
     }
 
     // This is the main method that each new event should override
@@ -58,21 +74,32 @@ public abstract class Event implements Comparable<Event> {
 
     public abstract ScheduleType getScheduleType();
 
-    private void beforeHandle(Sim sim) {
-        for (IEventListener listener : sim.getListenersCoordinator().getBeforeEventListeners()) {
-            logger.trace("Executing " + listener + " for " + this);
-            listener.execute(this, sim);
+    private void beforeHandle(ListenersCoordinator listenersCoordinator, EventContext context, Sim sim) {
+        IEventListener[] listeners = listenersCoordinator.getBeforeEventListeners(this.getClass(),
+                context.isTimeToRecordData());
+        for (int i = 0; i < listeners.length; i++) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Executing " + listeners[i] + " for " + this);
+            }
+            listeners[i].execute(context, sim);
         }
     }
 
-    private void afterHandle(Sim sim) {
-        for (IEventListener listener : sim.getListenersCoordinator().getAfterEventListener()) {
-            logger.trace("Executing " + listener);
-            listener.execute(this, sim);
+    private void afterHandle(ListenersCoordinator listenersCoordinator, EventContext context, Sim sim) {
+        IEventListener[] listeners = listenersCoordinator.getAfterEventListeners(this.getClass(),
+                context.isTimeToRecordData());
+        for (int i = 0; i < listeners.length; i++) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Executing " + listeners[i]);
+            }
+            listeners[i].execute(context, sim);
         }
     }
 
     public TimeInstant getTime() {
+        if (schedule != null) {
+            schedule.updateEventTime(this);
+        }
         return time;
     }
 
@@ -83,13 +110,23 @@ public abstract class Event implements Comparable<Event> {
         this.time = time;
     }
 
+    /**
+     * Returns the sequence number of the event within its sim, or -1 if the
+     * event has not been scheduled.
+     * 
+     * @return long
+     */
     public long getId() {
         return id;
     }
 
+    void setId(long id) {
+        this.id = id;
+    }
+
     @Override
     public String toString() {
-        return this.getClass().getSimpleName() + ":" + id + " (" + time + ")";
+        return this.getClass().getSimpleName() + ":" + id + " (" + getTime() + ")";
     }
 
 }
@@ -0,0 +1,80 @@
+package discreteEvent;
+
+import lombok.Getter;
+import sim.Sim;
+import sim.TimeInstant;
+import system.Item;
+import system.Machine;
+import system.Machine.FailureState;
+import system.Machine.OperationalState;
+
+/**
+ * Information about the event being handled that is shared by all of the event listeners, so that each listener does
+ * not need to recompute it. The context is computed once before the before-event listeners are called, and the
+ * machine state is refreshed once the event has been handled, before the after-event listeners are called. A single
+ * instance is reused for all events of a sim, so listeners should not keep a reference to it.
+ *
+ * @author ftubilla
+ *
+ */
+@Getter
+public class EventContext {
+
+    private Event            event;
+
+    /**
+     * The sim time before the event is handled.
+     */
+    private TimeInstant      previousTime;
+
+    /**
+     * The time at which the event occurs.
+     */
+    private TimeInstant      eventTime;
+
+    /**
+     * The length of the period between the previous sim time and the event time.
+     */
+    private double           deltaTime;
+
+    private FailureState     failureState;
+    private OperationalState operationalState;
+    private Item             setup;
+
+    /**
+     * Whether the metrics were being recorded at the time that the listeners were called.
+     */
+    private boolean          timeToRecordData;
+
+    void beforeEvent(Event event, Sim sim) {
+        this.event = event;
+        this.previousTime = sim.getTime();
+        this.eventTime = event.getTime();
+        this.deltaTime = this.eventTime.doubleValueSince(this.previousTime);
+        updateState(sim);
+    }
+
+    void afterEvent(Sim sim) {
+        updateState(sim);
+    }
+
+    private void updateState(Sim sim) {
+        this.timeToRecordData = sim.isTimeToRecordData();
+        Machine machine = sim.getMachine();
+        if (machine != null) {
+            this.failureState = machine.getFailureState();
+            this.operationalState = machine.getOperationalState();
+            this.setup = machine.getSetup();
+        }
+    }
+
+    /**
+     * Returns <tt>true</tt> if the machine was up when the context was computed.
+     *
+     * @return boolean
+     */
+    public boolean isMachineUp() {
+        return this.failureState == FailureState.UP;
+    }
+
+}
@@ -0,0 +1,130 @@
+package discreteEvent;
+
+import java.util.Arrays;
+
+import sim.TimeInstant;
+
+/**
+ * A 4-ary min-heap of events backed by an array, used by each {@link Schedule} to keep its events sorted by time.
+ * Compared to a binary heap, the tree is half as deep, which reduces the number of cache misses when sifting down.
+ * Each event is stored along with its own sorting key, which need not be equal to the event's time. This allows the
+ * schedule to shift the time of all of its events without touching the heap. Ties are broken by the sequence number
+ * of the events, so that events with the same key are returned in the order in which they were scheduled.
+ *
+ * @author ftubilla
+ *
+ */
+class EventHeap {
+
+    private static final int ARITY            = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Event[]       events;
+    private TimeInstant[] keys;
+    private int           size;
+
+    EventHeap() {
+        this.events = new Event[INITIAL_CAPACITY];
+        this.keys = new TimeInstant[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    void add(Event event, TimeInstant key) {
+        if (size == events.length) {
+            events = Arrays.copyOf(events, 2 * size);
+            keys = Arrays.copyOf(keys, 2 * size);
+        }
+        siftUp(size, event, key);
+        size++;
+    }
+
+    Event peek() {
+        return size == 0 ? null : events[0];
+    }
+
+    TimeInstant peekKey() {
+        return size == 0 ? null : keys[0];
+    }
+
+    Event poll() {
+        if (size == 0) {
+            return null;
+        }
+        Event first = events[0];
+        size--;
+        Event last = events[size];
+        TimeInstant lastKey = keys[size];
+        events[size] = null;
+        keys[size] = null;
+        if (size > 0) {
+            siftDown(0, last, lastKey);
+        }
+        return first;
+    }
+
+    /**
+     * Returns the event at the given position of the heap, in no particular
+     * order.
+     */
+    Event get(int index) {
+        return events[index];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(events, 0, size, null);
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    private void siftUp(int index, Event event, TimeInstant key) {
+        while (index > 0) {
+            int parent = (index - 1) / ARITY;
+            if (!precedes(key, event, keys[parent], events[parent])) {
+                break;
+            }
+            events[index] = events[parent];
+            keys[index] = keys[parent];
+            index = parent;
+        }
+        events[index] = event;
+        keys[index] = key;
+    }
+
+    private void siftDown(int index, Event event, TimeInstant key) {
+        while (true) {
+            int firstChild = ARITY * index + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + ARITY, size);
+            int minChild = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (precedes(keys[child], events[child], keys[minChild], events[minChild])) {
+                    minChild = child;
+                }
+            }
+            if (!precedes(keys[minChild], events[minChild], key, event)) {
+                break;
+            }
+            events[index] = events[minChild];
+            keys[index] = keys[minChild];
+            index = minChild;
+        }
+        events[index] = event;
+        keys[index] = key;
+    }
+
+    private static boolean precedes(TimeInstant key1, Event event1, TimeInstant key2, Event event2) {
+        int comparison = key1.compareTo(key2);
+        return comparison < 0 || (comparison == 0 && event1.getId() < event2.getId());
+    }
+
+}
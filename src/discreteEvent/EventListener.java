@@ -12,7 +12,7 @@ public abstract class EventListener implements IEventListener {
         id = count++;
     }
 
-    public abstract void execute(Event event, Sim sim);
+    public abstract void execute(EventContext context, Sim sim);
 
     @Override
     public int getId() {
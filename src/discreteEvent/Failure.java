@@ -1,13 +1,12 @@
 package discreteEvent;
 
-import org.apache.log4j.Logger;
-
 import sim.Sim;
 import sim.TimeInstant;
+import util.HotPathLogger;
 
 public class Failure extends Event {
 
-    private static Logger logger = Logger.getLogger(Failure.class);
+    private static HotPathLogger logger = HotPathLogger.getLogger(Failure.class);
 
     public Failure(TimeInstant time) {
         super(time);
@@ -18,7 +17,7 @@ public class Failure extends Event {
 
         // Repair machine and delay the production schedule
         double repairTime = sim.getTheRepairsGenerator().nextTimeInterval();
-        logger.debug("Processing failure event. Machine will be repaired after " + repairTime + " time units");
+        logger.debug("Processing failure event. Machine will be repaired after %f time units", repairTime);
         sim.getMasterScheduler().addEvent(new Repair(sim.getTime().add(repairTime)));
         sim.getMachine().breakDown();
         sim.getPolicy().updateControl(sim);
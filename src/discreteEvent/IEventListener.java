@@ -16,9 +16,10 @@ public interface IEventListener {
     /**
      * The method called when the event occurs.
      * 
-     * @param event - the event that triggered the listener
+     * @param context - the context of the event that triggered the listener,
+     *            which is shared by all listeners
      */
-    public void execute(Event event, Sim sim);
+    public void execute(EventContext context, Sim sim);
 
     public int getId();
 }
@@ -5,7 +5,8 @@ package discreteEvent;
  * A ScheduleTrigger provides a trigger method that is called the next time that
  * the master scheduler gets a new event added. This is useful for ensuring, for
  * e.g., that whenever some event is added to the master schedule, an
- * accompanying event is also included.
+ * accompanying event is also included. A trigger can also be restricted to
+ * events of a given schedule type or event class.
  * 
  * @author ftubilla
  * 
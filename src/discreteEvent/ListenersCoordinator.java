@@ -1,15 +1,21 @@
 package discreteEvent;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 
 /**
  * Holds the event listeners, which will be called before or after the event is
- * handled.
- * 
- * 
+ * handled. A listener can subscribe to all events or only to events of some
+ * classes (including their subclasses), and to all events or only to those
+ * handled during a given phase of the sim. The listeners that apply to each
+ * event class and phase are cached in arrays, so that dispatching an event
+ * does not require checking every listener.
+ *
+ *
  * @author ftubilla
  *
  */
@@ -21,30 +27,167 @@ public class ListenersCoordinator {
 
     @SuppressWarnings("unused") private boolean trace = logger.isTraceEnabled();
 
-    private List<IEventListener> beforeEventListeners;
-    private List<IEventListener> afterEventListeners;
+    /**
+     * The phase of the sim during which a listener should be called.
+     */
+    public static enum Phase {
+        /** Called for every event */
+        ALL,
+        /** Called only during the warmup period, before the metrics are recorded */
+        TRANSIENT,
+        /** Called only while the metrics are being recorded */
+        METRICS_RECORDING;
+
+        boolean includes(boolean timeToRecordData) {
+            switch (this) {
+                case TRANSIENT:
+                    return !timeToRecordData;
+                case METRICS_RECORDING:
+                    return timeToRecordData;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    private static final IEventListener[] NO_LISTENERS = new IEventListener[0];
+
+    private final List<Subscription>                               beforeEventSubscriptions;
+    private final List<Subscription>                               afterEventSubscriptions;
+    private final Map<Class<? extends Event>, IEventListener[][]> beforeEventListenersCache;
+    private final Map<Class<? extends Event>, IEventListener[][]> afterEventListenersCache;
+    private final EventContext                                     context;
 
     public ListenersCoordinator() {
-        beforeEventListeners = new LinkedList<IEventListener>();
-        afterEventListeners = new LinkedList<IEventListener>();
+        beforeEventSubscriptions = new ArrayList<Subscription>();
+        afterEventSubscriptions = new ArrayList<Subscription>();
+        beforeEventListenersCache = new HashMap<Class<? extends Event>, IEventListener[][]>();
+        afterEventListenersCache = new HashMap<Class<? extends Event>, IEventListener[][]>();
+        context = new EventContext();
     }
 
     public void addBeforeEventListener(IEventListener listener) {
-        logger.debug("Adding before-event listener " + listener.getId());
-        beforeEventListeners.add(listener);
+        addBeforeEventListener(listener, Phase.ALL);
     }
 
     public void addAfterEventListener(IEventListener listener) {
-        logger.debug("Adding after-event listener " + listener.getId());
-        afterEventListeners.add(listener);
+        addAfterEventListener(listener, Phase.ALL);
     }
 
-    public Iterable<IEventListener> getBeforeEventListeners() {
-        return beforeEventListeners;
+    /**
+     * Adds a listener that is called before handling the events of the given
+     * classes (or all events, if no class is given) during the given phase.
+     *
+     * @param listener
+     * @param phase
+     * @param eventClasses
+     */
+    @SafeVarargs
+    public final void addBeforeEventListener(IEventListener listener, Phase phase,
+            Class<? extends Event>... eventClasses) {
+        logger.debug("Adding before-event listener " + listener.getId() + " for phase " + phase);
+        beforeEventSubscriptions.add(new Subscription(listener, phase, eventClasses));
+        beforeEventListenersCache.clear();
     }
 
-    public Iterable<IEventListener> getAfterEventListener() {
-        return afterEventListeners;
+    /**
+     * Adds a listener that is called after handling the events of the given
+     * classes (or all events, if no class is given) during the given phase.
+     *
+     * @param listener
+     * @param phase
+     * @param eventClasses
+     */
+    @SafeVarargs
+    public final void addAfterEventListener(IEventListener listener, Phase phase,
+            Class<? extends Event>... eventClasses) {
+        logger.debug("Adding after-event listener " + listener.getId() + " for phase " + phase);
+        afterEventSubscriptions.add(new Subscription(listener, phase, eventClasses));
+        afterEventListenersCache.clear();
+    }
+
+    /**
+     * Returns the listeners to call before handling an event of the given
+     * class.
+     *
+     * @param eventClass
+     * @param timeToRecordData
+     *            whether the metrics are being recorded
+     * @return an array of listeners, in the order in which they were added
+     */
+    public IEventListener[] getBeforeEventListeners(Class<? extends Event> eventClass, boolean timeToRecordData) {
+        return getListeners(beforeEventSubscriptions, beforeEventListenersCache, eventClass, timeToRecordData);
+    }
+
+    /**
+     * Returns the listeners to call after handling an event of the given
+     * class.
+     *
+     * @param eventClass
+     * @param timeToRecordData
+     *            whether the metrics are being recorded
+     * @return an array of listeners, in the order in which they were added
+     */
+    public IEventListener[] getAfterEventListeners(Class<? extends Event> eventClass, boolean timeToRecordData) {
+        return getListeners(afterEventSubscriptions, afterEventListenersCache, eventClass, timeToRecordData);
+    }
+
+    /**
+     * Returns the context shared by the listeners of the event being handled.
+     *
+     * @return context
+     */
+    public EventContext getContext() {
+        return context;
+    }
+
+    private static IEventListener[] getListeners(List<Subscription> subscriptions,
+            Map<Class<? extends Event>, IEventListener[][]> cache, Class<? extends Event> eventClass,
+            boolean timeToRecordData) {
+        IEventListener[][] listenersByPhase = cache.get(eventClass);
+        if (listenersByPhase == null) {
+            listenersByPhase = new IEventListener[2][];
+            listenersByPhase[0] = collectListeners(subscriptions, eventClass, false);
+            listenersByPhase[1] = collectListeners(subscriptions, eventClass, true);
+            cache.put(eventClass, listenersByPhase);
+        }
+        return listenersByPhase[timeToRecordData ? 1 : 0];
+    }
+
+    private static IEventListener[] collectListeners(List<Subscription> subscriptions,
+            Class<? extends Event> eventClass, boolean timeToRecordData) {
+        List<IEventListener> listeners = new ArrayList<IEventListener>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.phase.includes(timeToRecordData) && subscription.appliesTo(eventClass)) {
+                listeners.add(subscription.listener);
+            }
+        }
+        return listeners.isEmpty() ? NO_LISTENERS : listeners.toArray(new IEventListener[listeners.size()]);
+    }
+
+    private static class Subscription {
+
+        private final IEventListener           listener;
+        private final Phase                    phase;
+        private final Class<? extends Event>[] eventClasses;
+
+        private Subscription(IEventListener listener, Phase phase, Class<? extends Event>[] eventClasses) {
+            this.listener = listener;
+            this.phase = phase;
+            this.eventClasses = eventClasses;
+        }
+
+        private boolean appliesTo(Class<? extends Event> eventClass) {
+            if (eventClasses.length == 0) {
+                return true;
+            }
+            for (Class<? extends Event> subscribedClass : eventClasses) {
+                if (subscribedClass.isAssignableFrom(eventClass)) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 
 }
@@ -1,71 +1,226 @@
 package discreteEvent;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
 
-import org.apache.log4j.Logger;
-
+import sim.CheckpointIO;
 import sim.Clock;
 import sim.Sim;
 import sim.TimeInstant;
+import system.Machine;
+import util.HotPathLogger;
 
 /**
  * The main schedule object used to get access and update events in the
  * schedules.
+ * <p>
+ * Requests for a control evaluation are coalesced into a single pending
+ * control slot that keeps only the earliest requested time. Since handling a
+ * control event makes any other pending control event redundant, the
+ * remaining requests are simply counted rather than allocated and queued.
  * 
  * @author ftubilla
  * 
  */
 public class MasterScheduler {
 
-    private static Logger logger = Logger.getLogger(MasterScheduler.class);
+    private static HotPathLogger logger = HotPathLogger.getLogger(MasterScheduler.class);
+
+    private static final ScheduleType[] SCHEDULE_TYPES = ScheduleType.values();
+    private static final int            CONTROL_SLOT   = SCHEDULE_TYPES.length;
 
     private boolean                     trace = logger.isTraceEnabled();
-    private Map<ScheduleType, Schedule> schedules;
-    private Queue<IScheduleTrigger>     scheduleTriggers;
+    private Schedule[]                  schedules;
     private Clock                       clock;
 
+    /*
+     * Triggers are kept in separate queues depending on the events that they
+     * listen to, so that adding an event only looks at the relevant triggers.
+     */
+    private Queue<IScheduleTrigger>                               anyEventTriggers;
+    private Queue<IScheduleTrigger>[]                             scheduleTypeTriggers;
+    private Map<Class<? extends Event>, Queue<IScheduleTrigger>> eventClassTriggers;
+    private int                                                   pendingTriggers;
+
+    /*
+     * The schedules with a pending (and not held) event, as well as the
+     * control slot, form a small indexed heap ordered by the time of their
+     * next event and then by the ordinal of their schedule type. Each schedule
+     * notifies the master scheduler when its next event changes, so the next
+     * event overall is always at the root.
+     */
+    private int[]                       nextEventHeap;
+    private int[]                       nextEventHeapPosition;
+    private int                         nextEventHeapSize;
+
+    /*
+     * The control slot alternates between two instances so that the control
+     * event being handled is never modified by a new request.
+     */
+    private final ControlEvent[]        controlEvents;
+    private int                         nextControlEvent;
+    private ControlEvent                pendingControl;
+    private long                        transientCoalescedControlRequests;
+    private long                        steadyStateCoalescedControlRequests;
+
+    // Sequence numbers used to break ties between events and to identify triggers
+    private long                        eventSequence;
+    private int                         triggerSequence;
+
     public MasterScheduler(Sim sim) {
         this(sim.getClock());
     }
 
     public MasterScheduler(Clock clock) {
         logger.debug("Creating the master schedule and initializing each schedule");
-        schedules = new HashMap<ScheduleType, Schedule>();
-        for (ScheduleType st : ScheduleType.values()) {
-            schedules.put(st, new Schedule(st, clock));
+        schedules = new Schedule[SCHEDULE_TYPES.length];
+        nextEventHeap = new int[SCHEDULE_TYPES.length + 1];
+        nextEventHeapPosition = new int[SCHEDULE_TYPES.length + 1];
+        nextEventHeapSize = 0;
+        for (ScheduleType st : SCHEDULE_TYPES) {
+            Schedule schedule = new Schedule(st, clock);
+            schedule.setMasterScheduler(this);
+            schedules[st.ordinal()] = schedule;
+            nextEventHeapPosition[st.ordinal()] = -1;
         }
-        scheduleTriggers = new LinkedList<IScheduleTrigger>();
+        nextEventHeapPosition[CONTROL_SLOT] = -1;
+        controlEvents = new ControlEvent[] { new ControlEvent(TimeInstant.INFINITY),
+                new ControlEvent(TimeInstant.INFINITY) };
+        anyEventTriggers = new ArrayDeque<IScheduleTrigger>();
+        scheduleTypeTriggers = newTriggerQueues(SCHEDULE_TYPES.length);
+        eventClassTriggers = new HashMap<Class<? extends Event>, Queue<IScheduleTrigger>>();
         this.clock = clock;
     }
 
     /**
      * Add an Event e to the master schedule. The type of the event is
      * determined by the method based on the event's class, as defined in
-     * Schedule Type.
+     * Schedule Type. Plain control events are not queued; they are treated as
+     * a request for control at the event's time. Events occurring at the same
+     * time and of the same schedule type are handled in the order in which
+     * they were added.
      * 
      * @param Event to add
      */
     public void addEvent(Event e) {
         if (e != null) {
-            if (e.time.compareTo(clock.getTime()) < 0) {
-                throw new RuntimeException(
-                        String.format("Cannot add events that occur in the past (event time %s, current time %s",
-                                e.time, clock.getTime()));
+            if (e.getClass() == ControlEvent.class) {
+                requestControl(e.time);
+                return;
+            }
+            checkNotInThePast(e.time);
+            if (trace) {
+                logger.trace("Adding event " + e + " to the master schedule");
+            }
+            e.setId(eventSequence++);
+            schedules[e.getScheduleType().ordinal()].addEvent(e);
+            callTriggers(e);
+        }
+    }
+
+    /**
+     * Requests a control evaluation at the given time. If a control evaluation
+     * is already pending, only the earliest of the two is kept, since the
+     * handling of a control event makes any other pending one redundant.
+     * The triggers are only called when a new control event is scheduled,
+     * not when a request is merged into the pending one.
+     * 
+     * @param time
+     */
+    public void requestControl(TimeInstant time) {
+        checkNotInThePast(time);
+        if (pendingControl == null) {
+            pendingControl = controlEvents[nextControlEvent];
+            nextControlEvent = 1 - nextControlEvent;
+            pendingControl.setId(eventSequence++);
+            pendingControl.updateTime(time);
+            updateNextEvent(CONTROL_SLOT);
+            // Only a newly scheduled control event calls the triggers
+            callTriggers(pendingControl);
+        } else {
+            if (time.compareTo(pendingControl.time) < 0) {
+                pendingControl.setId(eventSequence++);
+                pendingControl.updateTime(time);
+                updateNextEvent(CONTROL_SLOT);
+            }
+            if (clock.isTimeToRecordData()) {
+                steadyStateCoalescedControlRequests++;
+            } else {
+                transientCoalescedControlRequests++;
+            }
+        }
+        if (trace) {
+            logger.trace("Control requested at " + time + ". Pending control at " + pendingControl.time);
+        }
+    }
+
+    /**
+     * Returns the number of control requests that were merged into an already
+     * pending control evaluation before the metrics recording period started.
+     * 
+     * @return long
+     */
+    public long getTransientCoalescedControlRequests() {
+        return transientCoalescedControlRequests;
+    }
+
+    /**
+     * Returns the number of control requests that were merged into an already
+     * pending control evaluation during the metrics recording period.
+     * 
+     * @return long
+     */
+    public long getSteadyStateCoalescedControlRequests() {
+        return steadyStateCoalescedControlRequests;
+    }
+
+    private void checkNotInThePast(TimeInstant time) {
+        if (time.compareTo(clock.getTime()) < 0) {
+            throw new RuntimeException(
+                    String.format("Cannot add events that occur in the past (event time %s, current time %s",
+                            time, clock.getTime()));
+        }
+    }
+
+    private void callTriggers(Event e) {
+        if (pendingTriggers == 0) {
+            return;
+        }
+        callTriggers(anyEventTriggers, e);
+        callTriggers(scheduleTypeTriggers[e.getScheduleType().ordinal()], e);
+        if (!eventClassTriggers.isEmpty()) {
+            Queue<IScheduleTrigger> triggers = eventClassTriggers.get(e.getClass());
+            if (triggers != null) {
+                callTriggers(triggers, e);
             }
-            logger.trace("Adding event " + e + " to the master schedule");
-            schedules.get(e.getScheduleType()).addEvent(e);
+        }
+    }
 
-            // Since the triggers can add new triggers, need to loop only over
-            // the current triggers
-            int currentTriggers = scheduleTriggers.size();
-            for (int i = 0; i < currentTriggers; i++) {
-                logger.trace("Calling trigger " + scheduleTriggers.peek().getId());
-                scheduleTriggers.poll().trigger(e);
+    private void callTriggers(Queue<IScheduleTrigger> triggers, Event e) {
+        // Since the triggers can add new triggers, need to loop only over
+        // the current triggers
+        int currentTriggers = triggers.size();
+        for (int i = 0; i < currentTriggers; i++) {
+            if (trace) {
+                logger.trace("Calling trigger " + triggers.peek().getId());
             }
+            pendingTriggers--;
+            triggers.poll().trigger(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Queue<IScheduleTrigger>[] newTriggerQueues(int size) {
+        Queue<IScheduleTrigger>[] queues = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            queues[i] = new ArrayDeque<IScheduleTrigger>();
         }
+        return queues;
     }
 
     /**
@@ -75,22 +230,26 @@ public class MasterScheduler {
      * @return The next event
      */
     public Event getNextEvent() {
-
-        ScheduleType nextType = null;
-        TimeInstant nextEventTime = TimeInstant.INFINITY;
-
-        for (ScheduleType st : ScheduleType.values()) {
-            if (!schedules.get(st).eventsComplete() && schedules.get(st).nextEventTime().compareTo(nextEventTime) < 0 ) {
-                // Note that because we use a < sign here, if two or more
-                // events occur at the same time, the first schedule type wins.
-                nextType = st;
-                nextEventTime = schedules.get(st).nextEventTime();
+        if (nextEventHeapSize == 0) {
+            if (trace) {
+                logger.trace("There are no events available");
+            }
+            return null;
+        }
+        if (nextEventHeap[0] == CONTROL_SLOT) {
+            ControlEvent control = pendingControl;
+            if (trace) {
+                logger.trace("Next event occurring is a control event and occurs at " + control.time);
             }
+            clearPendingControl();
+            return control;
         }
+        Schedule nextSchedule = schedules[nextEventHeap[0]];
         if (trace) {
-            logger.trace("Next event occurring is of schedule type " + nextType + " and occurs at " + nextEventTime);
+            logger.trace("Next event occurring is of schedule type " + nextSchedule.getType() + " and occurs at "
+                    + nextSchedule.nextEventTime());
         }
-        return nextType == null ? null : (schedules.get(nextType).getNextEvent());
+        return nextSchedule.getNextEvent();
     }
 
     /**
@@ -114,21 +273,10 @@ public class MasterScheduler {
     }
 
     private Event peekNextEvent() {
-        Event nextEvent = null;
-        ScheduleType nextType = null;
-        TimeInstant nextEventTime = TimeInstant.INFINITY;
-
-        for (ScheduleType st : ScheduleType.values()) {
-            if (!schedules.get(st).eventsComplete() && schedules.get(st).nextEventTime().compareTo(nextEventTime) < 0 ) {
-                nextType = st;
-                nextEvent = schedules.get(st).peekNextEvent();
-                nextEventTime = schedules.get(st).nextEventTime();
-            }
-        }
-        if (trace) {
-            logger.trace("Next event occurring is of type " + nextType + " and occurs at " + nextEventTime);
+        if (nextEventHeapSize == 0) {
+            return null;
         }
-        return nextEvent;
+        return nextEvent(nextEventHeap[0]);
     }
 
     /**
@@ -139,7 +287,7 @@ public class MasterScheduler {
      * @return schedule
      */
     public Schedule getSchedule(ScheduleType st) {
-        return schedules.get(st);
+        return schedules[st.ordinal()];
     }
 
     /**
@@ -149,8 +297,11 @@ public class MasterScheduler {
      * @return true if all schedules are complete
      */
     public boolean eventsComplete() {
-        for (ScheduleType st : ScheduleType.values()) {
-            if (!schedules.get(st).eventsComplete()) {
+        if (pendingControl != null) {
+            return false;
+        }
+        for (ScheduleType st : SCHEDULE_TYPES) {
+            if (!schedules[st.ordinal()].eventsComplete()) {
                 return false;
             }
         }
@@ -161,14 +312,22 @@ public class MasterScheduler {
      * Dumps all events from schedules that are dumpable
      */
     public void dumpEvents() {
-        for (ScheduleType st : ScheduleType.values()) {
+        for (ScheduleType st : SCHEDULE_TYPES) {
             if (st.isDumpable()) {
                 if (trace) {
                     logger.trace("Dumping events on " + st);
                 }
-                schedules.get(st).dumpEvents();
+                schedules[st.ordinal()].dumpEvents();
             }
         }
+        if (pendingControl != null) {
+            clearPendingControl();
+        }
+    }
+
+    private void clearPendingControl() {
+        pendingControl = null;
+        updateNextEvent(CONTROL_SLOT);
     }
 
     public void delayEvents(double delay) {
@@ -181,12 +340,12 @@ public class MasterScheduler {
      * @param delay
      */
     public void delayEvents(TimeInstant delay) {
-        for (ScheduleType st : ScheduleType.values()) {
+        for (ScheduleType st : SCHEDULE_TYPES) {
             if (st.isDelayable()) {
                 if (trace) {
                     logger.trace("Delaying events on " + st);
                 }
-                schedules.get(st).delayEvents(delay);
+                schedules[st.ordinal()].delayEvents(delay);
             }
         }
     }
@@ -195,12 +354,12 @@ public class MasterScheduler {
      * Holds all schedules that are delayable.
      */
     public void holdDelayableEvents() {
-        for (ScheduleType st : ScheduleType.values()) {
+        for (ScheduleType st : SCHEDULE_TYPES) {
             if (st.isDelayable()) {
                 if (trace) {
                     logger.trace("Holding events on " + st);
                 }
-                schedules.get(st).holdEvents();
+                schedules[st.ordinal()].holdEvents();
             }
         }
     }
@@ -209,12 +368,12 @@ public class MasterScheduler {
      * Releases all events that were held and delays them.
      */
     public void releaseAndDelayEvents() {
-        for (ScheduleType st : ScheduleType.values()) {
-            if (st.isDelayable() && schedules.get(st).isOnHold()) {
+        for (ScheduleType st : SCHEDULE_TYPES) {
+            if (st.isDelayable() && schedules[st.ordinal()].isOnHold()) {
                 if (trace) {
                     logger.trace("Releasing events on " + st);
                 }
-                schedules.get(st).releaseAndDelayEvents();
+                schedules[st.ordinal()].releaseAndDelayEvents();
             }
         }
     }
@@ -224,7 +383,206 @@ public class MasterScheduler {
      * whenever a new event is added.
      */
     public void addTrigger(IScheduleTrigger scheduleTrigger) {
-        logger.trace("Adding trigger " + scheduleTrigger.getId());
-        scheduleTriggers.add(scheduleTrigger);
+        registerTrigger(scheduleTrigger, anyEventTriggers);
+    }
+
+    /**
+     * Adds a trigger to the schedule, which will be called (and removed) the
+     * next time that an event of the given schedule type is added.
+     * 
+     * @param scheduleTrigger
+     * @param scheduleType
+     */
+    public void addTrigger(IScheduleTrigger scheduleTrigger, ScheduleType scheduleType) {
+        registerTrigger(scheduleTrigger, scheduleTypeTriggers[scheduleType.ordinal()]);
+    }
+
+    /**
+     * Adds a trigger to the schedule, which will be called (and removed) the
+     * next time that an event of exactly the given class is added.
+     * 
+     * @param scheduleTrigger
+     * @param eventClass
+     */
+    public void addTrigger(IScheduleTrigger scheduleTrigger, Class<? extends Event> eventClass) {
+        Queue<IScheduleTrigger> triggers = eventClassTriggers.get(eventClass);
+        if (triggers == null) {
+            triggers = new ArrayDeque<IScheduleTrigger>();
+            eventClassTriggers.put(eventClass, triggers);
+        }
+        registerTrigger(scheduleTrigger, triggers);
+    }
+
+    private void registerTrigger(IScheduleTrigger scheduleTrigger, Queue<IScheduleTrigger> triggers) {
+        if (scheduleTrigger instanceof AbstractScheduleTrigger) {
+            ((AbstractScheduleTrigger) scheduleTrigger).setId(triggerSequence++);
+        }
+        if (trace) {
+            logger.trace("Adding trigger " + scheduleTrigger.getId());
+        }
+        triggers.add(scheduleTrigger);
+        pendingTriggers++;
+    }
+
+    /**
+     * Writes the events of every schedule and the pending control event, so
+     * that they can be restored with {@link #readState(DataInputStream, Machine)}.
+     * Triggers cannot be written, so there must be none pending.
+     * 
+     * @param out
+     * @throws IOException
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        if (pendingTriggers > 0) {
+            throw new IllegalStateException(
+                    String.format("Cannot write the state of the schedules with %d pending triggers", pendingTriggers));
+        }
+        for (Schedule schedule : schedules) {
+            schedule.writeState(out);
+        }
+        out.writeInt(nextControlEvent);
+        out.writeBoolean(pendingControl != null);
+        if (pendingControl != null) {
+            out.writeLong(pendingControl.getId());
+            CheckpointIO.writeTime(out, pendingControl.time);
+        }
+        out.writeLong(transientCoalescedControlRequests);
+        out.writeLong(steadyStateCoalescedControlRequests);
+        out.writeLong(eventSequence);
+        out.writeInt(triggerSequence);
+    }
+
+    /**
+     * Replaces the events of every schedule and the pending control event with
+     * those written by {@link #writeState(DataOutputStream)}, resolving their
+     * items against the given machine.
+     * 
+     * @param in
+     * @param machine
+     * @throws IOException
+     */
+    public void readState(DataInputStream in, Machine machine) throws IOException {
+        for (Schedule schedule : schedules) {
+            schedule.readState(in, machine);
+        }
+        nextControlEvent = in.readInt();
+        pendingControl = null;
+        if (in.readBoolean()) {
+            // The pending control event is always the one used last
+            pendingControl = controlEvents[1 - nextControlEvent];
+            pendingControl.setId(in.readLong());
+            pendingControl.updateTime(CheckpointIO.readTime(in));
+        }
+        transientCoalescedControlRequests = in.readLong();
+        steadyStateCoalescedControlRequests = in.readLong();
+        eventSequence = in.readLong();
+        triggerSequence = in.readInt();
+
+        // Rebuild the heap of next events
+        nextEventHeapSize = 0;
+        for (int ordinal = 0; ordinal <= CONTROL_SLOT; ordinal++) {
+            nextEventHeapPosition[ordinal] = -1;
+        }
+        for (int ordinal = 0; ordinal <= CONTROL_SLOT; ordinal++) {
+            updateNextEvent(ordinal);
+        }
+    }
+
+    /**
+     * Updates the position of the given schedule in the heap of next events.
+     * Called by the schedule whenever the event at its head changes or it is
+     * put on or released from hold.
+     * 
+     * @param schedule
+     */
+    void updateNextEvent(Schedule schedule) {
+        updateNextEvent(schedule.getType().ordinal());
+    }
+
+    private void updateNextEvent(int ordinal) {
+        int position = nextEventHeapPosition[ordinal];
+        boolean hasNextEvent = nextEventTime(ordinal).compareTo(TimeInstant.INFINITY) < 0;
+        if (hasNextEvent) {
+            if (position < 0) {
+                position = nextEventHeapSize++;
+                nextEventHeap[position] = ordinal;
+                nextEventHeapPosition[ordinal] = position;
+            }
+            siftDown(siftUp(position));
+        } else if (position >= 0) {
+            int last = --nextEventHeapSize;
+            nextEventHeapPosition[ordinal] = -1;
+            if (position < last) {
+                nextEventHeap[position] = nextEventHeap[last];
+                nextEventHeapPosition[nextEventHeap[position]] = position;
+                siftDown(siftUp(position));
+            }
+        }
+    }
+
+    private int siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!precedes(nextEventHeap[position], nextEventHeap[parent])) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+        return position;
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= nextEventHeapSize) {
+                return;
+            }
+            if (child + 1 < nextEventHeapSize && precedes(nextEventHeap[child + 1], nextEventHeap[child])) {
+                child++;
+            }
+            if (!precedes(nextEventHeap[child], nextEventHeap[position])) {
+                return;
+            }
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private boolean precedes(int ordinal1, int ordinal2) {
+        // Ties are broken by the order of declaration of the schedule types
+        int comparison = nextEventTime(ordinal1).compareTo(nextEventTime(ordinal2));
+        if (comparison == 0) {
+            comparison = Integer.compare(scheduleTypeOrdinal(ordinal1), scheduleTypeOrdinal(ordinal2));
+        }
+        if (comparison == 0) {
+            // Only the control slot and control schedule can tie here
+            comparison = Long.compare(nextEvent(ordinal1).getId(), nextEvent(ordinal2).getId());
+        }
+        return comparison < 0;
+    }
+
+    private Event nextEvent(int ordinal) {
+        return ordinal == CONTROL_SLOT ? pendingControl : schedules[ordinal].peekNextEvent();
+    }
+
+    private TimeInstant nextEventTime(int ordinal) {
+        if (ordinal == CONTROL_SLOT) {
+            return pendingControl == null ? TimeInstant.INFINITY : pendingControl.time;
+        }
+        return schedules[ordinal].nextEventTime();
+    }
+
+    private static int scheduleTypeOrdinal(int ordinal) {
+        return ordinal == CONTROL_SLOT ? ScheduleType.CONTROL.ordinal() : ordinal;
+    }
+
+    private void swap(int position1, int position2) {
+        int ordinal1 = nextEventHeap[position1];
+        int ordinal2 = nextEventHeap[position2];
+        nextEventHeap[position1] = ordinal2;
+        nextEventHeap[position2] = ordinal1;
+        nextEventHeapPosition[ordinal2] = position1;
+        nextEventHeapPosition[ordinal1] = position2;
     }
 }
@@ -1,15 +1,13 @@
 package discreteEvent;
 
-import org.apache.log4j.Logger;
-
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
+import util.HotPathLogger;
 
 public class ProductionDeparture extends Event {
 
-    private static Logger logger = Logger.getLogger(ProductionDeparture.class);
-    private static int    count;
+    private static HotPathLogger logger = HotPathLogger.getLogger(ProductionDeparture.class);
 
     private Item   item;
     private double productionAmount;
@@ -18,9 +16,7 @@ public class ProductionDeparture extends Event {
         super(time);
         this.item = item;
         this.productionAmount = productionAmount;
-        ProductionDeparture.count++;
-        logger.debug("Creating production departure " + this.getId() + " for Item " + item.getId() + " with qty "
-                + productionAmount);
+        logger.debug("Creating production departure for Item %d with qty %f", item.getId(), productionAmount);
     }
 
     @Override
@@ -30,7 +26,7 @@ public class ProductionDeparture extends Event {
         // Generate next departure
         sim.getMasterScheduler().addEvent(sim.getProductionProcess().getNextProductionDeparture(item, sim.getTime()));
         // Generate a control event
-        sim.getMasterScheduler().addEvent(new ControlEvent(sim.getTime()));
+        sim.getMasterScheduler().requestControl(sim.getTime());
     }
 
     public Item getItem() {
@@ -41,10 +37,6 @@ public class ProductionDeparture extends Event {
         return productionAmount;
     }
 
-    public static int getCount() {
-        return ProductionDeparture.count;
-    }
-
     @Override
     public ScheduleType getScheduleType() {
         return ScheduleType.PRODUCTION;
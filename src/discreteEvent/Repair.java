@@ -1,13 +1,12 @@
 package discreteEvent;
 
-import org.apache.log4j.Logger;
-
 import sim.Sim;
 import sim.TimeInstant;
+import util.HotPathLogger;
 
 public class Repair extends Event {
 
-    private static Logger logger = Logger.getLogger(Repair.class);
+    private static HotPathLogger logger = HotPathLogger.getLogger(Repair.class);
 
     public Repair(TimeInstant time) {
         super(time);
@@ -22,7 +21,7 @@ public class Repair extends Event {
         // Generate the next failure
         double nextTimeToFailure = sim.getTheFailuresGenerator().nextTimeInterval();
         sim.getMasterScheduler().addEvent(new Failure(sim.getTime().add(nextTimeToFailure)));
-        logger.debug("Finished repairing the machine. Next TTF is " + nextTimeToFailure);
+        logger.debug("Finished repairing the machine. Next TTF is %f", nextTimeToFailure);
     }
 
     @Override
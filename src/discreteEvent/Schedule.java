@@ -6,13 +6,18 @@
 
 package discreteEvent;
 
-import java.util.PriorityQueue;
-import java.util.Queue;
-
-import org.apache.log4j.Logger;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
+import sim.CheckpointIO;
 import sim.Clock;
 import sim.TimeInstant;
+import system.Item;
+import system.Machine;
+import util.HotPathLogger;
 
 /**
  * A schedule keeps track of the upcoming events. If the schedule is dumpable,
@@ -21,28 +26,45 @@ import sim.TimeInstant;
  * events by a known amount in advance, or hold the events for an undefined
  * period and then release them with a delay equal to the amount of time that
  * they were held.
+ * <p>
+ * Delays are applied lazily: the schedule keeps a time offset that applies
+ * to all of its events, and the time of a queued event is only updated when
+ * it is read (see {@link Event#getTime()}). Thus, delaying, holding and
+ * releasing a schedule take constant time regardless of the number of pending
+ * events.
  * 
  * @author ftubilla
  * 
  */
 public class Schedule {
 
-    private static Logger logger = Logger.getLogger(Schedule.class);
+    private static HotPathLogger logger = HotPathLogger.getLogger(Schedule.class);
+
+    private static final TimeInstant NO_OFFSET = new TimeInstant(0);
+
+    // The classes of the events that can be written to a checkpoint, indexed by their tag
+    private static final List<Class<? extends Event>> CHECKPOINT_EVENT_CLASSES = Arrays.asList(DemandArrival.class,
+            ProductionDeparture.class, Failure.class, Repair.class, Changeover.class, ControlEvent.class,
+            SurplusControlEvent.class);
 
-    private boolean      trace         = logger.isTraceEnabled();
-    private Queue<Event> eventQueue;
-    private ScheduleType type;
-    private boolean      isOnHold;
-    private TimeInstant       onHoldSince;
-    private Clock        clock;
-    private TimeInstant       lastEventTime = new TimeInstant(0);
-    private TimeInstant       lastInterEventTime;
+    private boolean         trace         = logger.isTraceEnabled();
+    private EventHeap       eventQueue;
+    private MasterScheduler masterScheduler;
+    private ScheduleType    type;
+    private boolean         isOnHold;
+    private TimeInstant     onHoldSince;
+    private Clock           clock;
+    private TimeInstant     lastEventTime = new TimeInstant(0);
+    private TimeInstant     previousEventTime;
+
+    // The delay applied to all events in the schedule since they were added
+    private TimeInstant     timeOffset    = NO_OFFSET;
+    private long            timeOffsetVersion;
 
     public Schedule(ScheduleType type, Clock clock) {
-        this.eventQueue = new PriorityQueue<Event>();
+        this.eventQueue = new EventHeap();
         this.type = type;
-        logger.debug(
-                "Creating schedule " + type + " dumpable? " + type.isDumpable() + " delayable? " + type.isDelayable());
+        logger.debug("Creating schedule %s dumpable? %s delayable? %s", type, type.isDumpable(), type.isDelayable());
         this.isOnHold = false;
         this.onHoldSince = null;
         this.clock = clock;
@@ -53,17 +75,31 @@ public class Schedule {
         if (trace) {
             logger.trace("Adding " + e + " to " + this);
         }
-        this.eventQueue.add(e);
+        // Store the event with a key such that key + offset = event time
+        TimeInstant key = timeOffset == NO_OFFSET ? e.time : e.time.subtract(timeOffset);
+        e.schedule = this;
+        e.scheduleKey = key;
+        e.scheduleOffsetVersion = timeOffsetVersion;
+        this.eventQueue.add(e, key);
+        if (e == eventQueue.peek()) {
+            notifyHeadChanged();
+        }
     }
 
     public Event getNextEvent() {
         if (!isOnHold) {
-            Event returnEvent = eventQueue.poll();
+            Event returnEvent = peekNextEvent();
+            eventQueue.poll();
+            leaveSchedule(returnEvent);
             if (trace) {
                 logger.trace("Returning " + returnEvent + " from " + this);
             }
-            lastInterEventTime = returnEvent.time.subtract(lastEventTime);
+            previousEventTime = lastEventTime;
             lastEventTime = returnEvent.time;
+            if (eventQueue.isEmpty()) {
+                timeOffset = NO_OFFSET;
+            }
+            notifyHeadChanged();
             return returnEvent;
         } else {
             if (trace) {
@@ -74,7 +110,25 @@ public class Schedule {
     }
 
     public Event peekNextEvent() {
-        return eventQueue.peek();
+        Event head = eventQueue.peek();
+        if (head != null) {
+            updateEventTime(head);
+        }
+        return head;
+    }
+
+    /**
+     * Applies to a queued event the delays of the schedule since its time was
+     * last updated.
+     * 
+     * @param e
+     */
+    void updateEventTime(Event e) {
+        if (e.scheduleOffsetVersion != timeOffsetVersion) {
+            // Mark the time as updated first, since updateTime may log the event
+            e.scheduleOffsetVersion = timeOffsetVersion;
+            e.updateTime(timeOffset == NO_OFFSET ? e.scheduleKey : e.scheduleKey.add(timeOffset));
+        }
     }
 
     public TimeInstant nextEventTime() {
@@ -82,7 +136,7 @@ public class Schedule {
         if (eventQueue.isEmpty() || isOnHold) {
             nextTime = TimeInstant.INFINITY;
         } else {
-            nextTime = eventQueue.peek().getTime();
+            nextTime = peekNextEvent().getTime();
         }
         if (trace) {
             logger.trace("Next event time is " + nextTime + " for " + this);
@@ -97,19 +151,12 @@ public class Schedule {
     public void delayEvents(TimeInstant delay) {
         assert type.isDelayable() : "Cannot delay " + this;
         assert!isOnHold : "Cannot delay a schedule that is currently on hold!";
-        delayEventsRecursive(delay);
-        logger.debug("Delayed all events in " + this + " by " + delay);
-    }
-
-    private void delayEventsRecursive(TimeInstant delay) {
-        // Delays all events in the queue using recursion
-        if (this.eventQueue.isEmpty()) {
-            return;
+        if (!eventQueue.isEmpty()) {
+            timeOffset = timeOffset.add(delay);
+            timeOffsetVersion++;
+            notifyHeadChanged();
         }
-        Event e = this.eventQueue.poll();
-        delayEventsRecursive(delay);
-        e.updateTime(e.getTime().add(delay));
-        this.eventQueue.add(e);
+        logger.debug("Delayed all events in %s by %s", this, delay);
     }
 
     /**
@@ -120,9 +167,10 @@ public class Schedule {
     public void holdEvents() {
         assert type.isDelayable() : "Cannot hold a nondelayable schedule!";
         assert!isOnHold : "Schedule is already on hold!";
-        logger.debug("Putting " + this + " on hold");
+        logger.debug("Putting %s on hold", this);
         isOnHold = true;
         onHoldSince = clock.getTime();
+        notifyHeadChanged();
     }
 
     /**
@@ -131,16 +179,22 @@ public class Schedule {
      */
     public void releaseAndDelayEvents() {
         assert isOnHold : "Cannot release a schedule that is not on hold!";
-        logger.debug("Releasing " + this + " and delaying its events");
+        logger.debug("Releasing %s and delaying its events", this);
         isOnHold = false;
         delayEvents(clock.getTime().subtract(onHoldSince));
         onHoldSince = null;
+        notifyHeadChanged();
     }
 
     public void dumpEvents() {
         assert type.isDumpable() : "Cannot dump this type of schedule!";
-        logger.debug("Dumping all events in " + this);
+        logger.debug("Dumping all events in %s", this);
+        for (int i = 0; i < eventQueue.size(); i++) {
+            leaveSchedule(eventQueue.get(i));
+        }
         eventQueue.clear();
+        timeOffset = NO_OFFSET;
+        notifyHeadChanged();
     }
 
     public ScheduleType getType() {
@@ -158,7 +212,131 @@ public class Schedule {
      * @return
      */
     public TimeInstant getLastInterEventTime() {
-        return lastInterEventTime;
+        // Computed on demand, since it is only needed by some recorders
+        return previousEventTime == null ? null : lastEventTime.subtract(previousEventTime);
+    }
+
+    /**
+     * Registers the master scheduler that keeps track of the next event of each
+     * schedule, so that it is notified whenever the event at the head of this
+     * schedule changes.
+     * 
+     * @param masterScheduler
+     */
+    void setMasterScheduler(MasterScheduler masterScheduler) {
+        this.masterScheduler = masterScheduler;
+    }
+
+    /**
+     * Writes the state of the schedule and its events, with their times as
+     * last updated and the keys and offset versions that bring them up to
+     * date.
+     * 
+     * @param out
+     * @throws IOException
+     */
+    void writeState(DataOutputStream out) throws IOException {
+        out.writeBoolean(isOnHold);
+        CheckpointIO.writeTime(out, onHoldSince);
+        CheckpointIO.writeTime(out, lastEventTime);
+        CheckpointIO.writeTime(out, previousEventTime);
+        CheckpointIO.writeTime(out, timeOffset == NO_OFFSET ? null : timeOffset);
+        out.writeLong(timeOffsetVersion);
+        out.writeInt(eventQueue.size());
+        for (int i = 0; i < eventQueue.size(); i++) {
+            writeEvent(out, eventQueue.get(i));
+        }
+    }
+
+    /**
+     * Replaces the state and the events of the schedule with those written by
+     * {@link #writeState(DataOutputStream)}. The master scheduler is not
+     * notified, so it must update its next events afterwards.
+     * 
+     * @param in
+     * @param machine
+     * @throws IOException
+     */
+    void readState(DataInputStream in, Machine machine) throws IOException {
+        eventQueue.clear();
+        isOnHold = in.readBoolean();
+        onHoldSince = CheckpointIO.readTime(in);
+        lastEventTime = CheckpointIO.readTime(in);
+        previousEventTime = CheckpointIO.readTime(in);
+        TimeInstant offset = CheckpointIO.readTime(in);
+        timeOffset = offset == null ? NO_OFFSET : offset;
+        timeOffsetVersion = in.readLong();
+        int numEvents = in.readInt();
+        for (int i = 0; i < numEvents; i++) {
+            Event e = readEvent(in, machine);
+            e.schedule = this;
+            this.eventQueue.add(e, e.scheduleKey);
+        }
+    }
+
+    private static void writeEvent(DataOutputStream out, Event e) throws IOException {
+        int tag = CHECKPOINT_EVENT_CLASSES.indexOf(e.getClass());
+        if (tag < 0) {
+            throw new UnsupportedOperationException("Cannot write events of class " + e.getClass().getName());
+        }
+        out.writeByte(tag);
+        out.writeLong(e.getId());
+        CheckpointIO.writeTime(out, e.time);
+        CheckpointIO.writeTime(out, e.scheduleKey);
+        out.writeLong(e.scheduleOffsetVersion);
+        if (e instanceof DemandArrival) {
+            DemandArrival arrival = (DemandArrival) e;
+            CheckpointIO.writeItem(out, arrival.getItem());
+            out.writeDouble(arrival.getDemand());
+        } else if (e instanceof ProductionDeparture) {
+            ProductionDeparture departure = (ProductionDeparture) e;
+            CheckpointIO.writeItem(out, departure.getItem());
+            out.writeDouble(departure.getProductionAmount());
+        } else if (e instanceof Changeover) {
+            CheckpointIO.writeItem(out, ((Changeover) e).getChangeTo());
+        }
+    }
+
+    private static Event readEvent(DataInputStream in, Machine machine) throws IOException {
+        Class<? extends Event> eventClass = CHECKPOINT_EVENT_CLASSES.get(in.readByte());
+        long id = in.readLong();
+        TimeInstant time = CheckpointIO.readTime(in);
+        TimeInstant key = CheckpointIO.readTime(in);
+        long offsetVersion = in.readLong();
+        Event e;
+        if (eventClass == DemandArrival.class) {
+            Item item = CheckpointIO.readItem(in, machine);
+            e = new DemandArrival(item, time, in.readDouble());
+        } else if (eventClass == ProductionDeparture.class) {
+            Item item = CheckpointIO.readItem(in, machine);
+            e = new ProductionDeparture(item, time, in.readDouble());
+        } else if (eventClass == Changeover.class) {
+            e = new Changeover(time, CheckpointIO.readItem(in, machine));
+        } else if (eventClass == Failure.class) {
+            e = new Failure(time);
+        } else if (eventClass == Repair.class) {
+            e = new Repair(time);
+        } else if (eventClass == SurplusControlEvent.class) {
+            e = new SurplusControlEvent(time);
+        } else {
+            e = new ControlEvent(time);
+        }
+        e.setId(id);
+        e.scheduleKey = key;
+        e.scheduleOffsetVersion = offsetVersion;
+        return e;
+    }
+
+    private void leaveSchedule(Event e) {
+        updateEventTime(e);
+        e.schedule = null;
+        e.scheduleKey = null;
+    }
+
+    private void notifyHeadChanged() {
+        if (masterScheduler != null) {
+            masterScheduler.updateNextEvent(this);
+        }
     }
 
     @Override
@@ -1,7 +1,5 @@
 package discreteEvent;
 
-import org.apache.log4j.Logger;
-
 import sim.TimeInstant;
 import system.Item;
 
@@ -16,18 +14,21 @@ import system.Item;
  */
 public class SurplusControlEvent extends ControlEvent {
 
-    private static Logger logger = Logger.getLogger(SurplusControlEvent.class);
-
-    @SuppressWarnings("unused")
-    private boolean debug = logger.isDebugEnabled();
-    @SuppressWarnings("unused")
-    private boolean trace = logger.isTraceEnabled();
-
     public SurplusControlEvent(Item item, double targetSurplus, TimeInstant currentTime, boolean hasDiscreteMaterial) {
         // Estimate the time to hit and create the event
         super(computeTimeToHit(item, targetSurplus, hasDiscreteMaterial).add(currentTime));
     }
 
+    /**
+     * Creates the event at the given time, when it is restored from a
+     * checkpoint.
+     * 
+     * @param time
+     */
+    SurplusControlEvent(TimeInstant time) {
+        super(time);
+    }
+
     private static TimeInstant computeTimeToHit(Item item, double targetSurplus, boolean hasDiscreteMaterial) {
         if (!hasDiscreteMaterial) {
             assert item.isUnderProduction() : "Cannot create this event for an item that's not under production!";
@@ -1,5 +1,8 @@
 package metrics;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -7,27 +10,33 @@ import java.util.Map;
 
 import org.apache.commons.lang3.tuple.Pair;
 
-import discreteEvent.Event;
+import discreteEvent.EventContext;
 import discreteEvent.EventListener;
+import discreteEvent.ListenersCoordinator.Phase;
 import lombok.extern.apachecommons.CommonsLog;
 import metrics.surplusstatistics.BatchSurplusStatisticsCalculator;
 import metrics.surplusstatistics.SurplusStatistics;
+import sim.CheckpointIO;
+import sim.ICheckpointable;
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
+import system.Machine;
 
 @CommonsLog
-public class AverageSurplusByServiceLevelMetrics {
+public class AverageSurplusByServiceLevelMetrics implements ICheckpointable {
 
     private static final int MAX_IT = 1000;
 
     private final Map<Item, List<Pair<TimeInstant, Double>>> surplusDataPoints;
     private final Map<Item, Double>                     originalSurplusTargets;
     private final double                                tolerance;
+    private final Machine                               machine;
 
     public AverageSurplusByServiceLevelMetrics(Sim sim) {
 
         this.tolerance = sim.getParams().getConvergenceTolerance();
+        this.machine = sim.getMachine();
         surplusDataPoints = new HashMap<Item, List<Pair<TimeInstant, Double>>>();
         originalSurplusTargets = new HashMap<Item, Double>();
 
@@ -38,15 +47,13 @@ public class AverageSurplusByServiceLevelMetrics {
 
         sim.getListenersCoordinator().addAfterEventListener(new EventListener() {
             @Override
-            public void execute(Event event, Sim sim) {
-                if (sim.isTimeToRecordData()) {
-                    for (Item item : sim.getMachine()) {
-                        Pair<TimeInstant, Double> dataPoint = Pair.of(sim.getTime(), item.getSurplus());
-                        surplusDataPoints.get(item).add(dataPoint);
-                    }
+            public void execute(EventContext context, Sim sim) {
+                for (Item item : sim.getMachine()) {
+                    Pair<TimeInstant, Double> dataPoint = Pair.of(sim.getTime(), item.getSurplus());
+                    surplusDataPoints.get(item).add(dataPoint);
                 }
             }
-        });
+        }, Phase.METRICS_RECORDING);
 
     }
 
@@ -124,4 +131,48 @@ public class AverageSurplusByServiceLevelMetrics {
 
         return Pair.of(optimalOffset, newStats);
     }
+
+    /**
+     * Returns the sum over the items of the inventory and backlog costs after
+     * offsetting the trajectory of each item to achieve its desired service
+     * level.
+     * 
+     * @param desiredServiceLevels
+     *            the service levels indexed by item id
+     * @return double
+     */
+    public double getAverageCost(List<Double> desiredServiceLevels) {
+        double cost = 0.0;
+        for (Item item : surplusDataPoints.keySet()) {
+            SurplusStatistics stats = findOptimalOffsetForServiceLevel(item,
+                    desiredServiceLevels.get(item.getId())).getRight();
+            cost += stats.getAverageInventory() * item.getInventoryCostRate()
+                    + stats.getAverageBacklog() * item.getBacklogCostRate();
+        }
+        return cost;
+    }
+
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        for (Item item : machine) {
+            List<Pair<TimeInstant, Double>> dataPoints = surplusDataPoints.get(item);
+            out.writeInt(dataPoints.size());
+            for (Pair<TimeInstant, Double> dataPoint : dataPoints) {
+                CheckpointIO.writeTime(out, dataPoint.getLeft());
+                out.writeDouble(dataPoint.getRight());
+            }
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        for (Item item : machine) {
+            int numDataPoints = in.readInt();
+            List<Pair<TimeInstant, Double>> dataPoints = new ArrayList<>(numDataPoints);
+            for (int i = 0; i < numDataPoints; i++) {
+                dataPoints.add(Pair.of(CheckpointIO.readTime(in), in.readDouble()));
+            }
+            surplusDataPoints.put(item, dataPoints);
+        }
+    }
 }
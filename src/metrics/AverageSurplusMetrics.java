@@ -1,18 +1,25 @@
 package metrics;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 import discreteEvent.Event;
+import discreteEvent.EventContext;
 import discreteEvent.EventListener;
+import discreteEvent.ListenersCoordinator.Phase;
 import lombok.extern.apachecommons.CommonsLog;
 import metrics.surplusstatistics.StreamSurplusStatisticsCalculator;
+import sim.CheckpointIO;
+import sim.ICheckpointable;
 import sim.Sim;
 import system.Item;
 import system.Machine;
 
 @CommonsLog
-public class AverageSurplusMetrics {
+public class AverageSurplusMetrics implements ICheckpointable {
 
     private Map<Item, StreamSurplusStatisticsCalculator> surplusStatsCalculators;
     private Machine                                      machine;
@@ -28,9 +35,9 @@ public class AverageSurplusMetrics {
 
         sim.getListenersCoordinator().addAfterEventListener(new EventListener() {
             @Override
-            public void execute(Event event, Sim sim) {
+            public void execute(EventContext context, Sim sim) {
 
-                if ( canRecordEvent(event, sim) ) {
+                if ( canRecordEvent(context.getEvent(), sim) ) {
                     log.trace("Recording data point");
                     for (Item item : machine) {
                         StreamSurplusStatisticsCalculator calculator = surplusStatsCalculators.get(item);
@@ -38,13 +45,29 @@ public class AverageSurplusMetrics {
                     }
                 }
             }
-        });
+        }, Phase.METRICS_RECORDING);
     }
 
+    /**
+     * Note that this method is only called while the metrics are being
+     * recorded.
+     */
     protected boolean canRecordEvent(Event event, Sim sim) {
         return sim.isTimeToRecordData();
     }
 
+    /**
+     * Returns true if the metrics have been recorded over a positive length of
+     * time.
+     * 
+     * @return boolean
+     */
+    public boolean hasRecordedData() {
+        StreamSurplusStatisticsCalculator calculator = surplusStatsCalculators.get(machine.getItemById(0));
+        return calculator.getFinalTime() != null
+                && calculator.getFinalTime().hasPassedEpoch(calculator.getInitialTime());
+    }
+
     public double getAverageInventory(Item item) {
         return surplusStatsCalculators.get(item).getAverageInventory();
     }
@@ -61,4 +84,29 @@ public class AverageSurplusMetrics {
         return surplusStatsCalculators.get(item).getMinSurplus();
     }
 
+    /**
+     * Returns the sum over the items of the inventory and backlog costs at the
+     * average inventory and backlog.
+     * 
+     * @return double
+     */
+    public double getAverageCost() {
+        double cost = 0.0;
+        for (Item item : machine) {
+            cost += getAverageInventory(item) * item.getInventoryCostRate()
+                    + getAverageBacklog(item) * item.getBacklogCostRate();
+        }
+        return cost;
+    }
+
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        CheckpointIO.writeItemStates(out, surplusStatsCalculators, machine);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        surplusStatsCalculators = CheckpointIO.readItemStates(in, machine, StreamSurplusStatisticsCalculator::new);
+    }
+
 }
@@ -0,0 +1,201 @@
+package metrics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import discreteEvent.EventContext;
+import discreteEvent.EventListener;
+import discreteEvent.ListenersCoordinator.Phase;
+import lombok.extern.apachecommons.CommonsLog;
+import metrics.surplusstatistics.StreamSurplusStatisticsCalculator;
+import sim.CheckpointIO;
+import sim.ICheckpointable;
+import sim.Sim;
+import sim.TimeInstant;
+import system.Item;
+import system.Machine;
+
+/**
+ * Estimates the standard error of the average cost on-line with batch means,
+ * so that a sim can stop as soon as its average cost is precise enough. Unlike
+ * {@link BatchedAverageSurplusMetrics}, the number of batches is not fixed in
+ * advance. The batches start with the length given in the params, and every
+ * time {@link #MAX_BATCHES} batches have been completed, consecutive pairs of
+ * batches are merged, so that the batch length doubles and the batch means
+ * become less correlated as the run grows.
+ * <p>
+ * A batch ends at the first event at or after its nominal end, and the mean of
+ * merged batches is weighted by their actual durations.
+ *
+ */
+@CommonsLog
+public class BatchMeansCostMetrics implements ICheckpointable {
+
+    public static final int MIN_BATCHES = 16;
+    public static final int MAX_BATCHES = 64;
+
+    private final Machine  machine;
+    private final double   targetStandardError;
+    private final double[] batchMeans     = new double[MAX_BATCHES];
+    private final double[] batchDurations = new double[MAX_BATCHES];
+    private double         batchLength;
+    private int            numBatches;
+    private double         standardError  = Double.NaN;
+
+    private Map<Item, StreamSurplusStatisticsCalculator> currentBatch;
+    private TimeInstant                                  currentBatchStart;
+
+    public BatchMeansCostMetrics(Sim sim) {
+        this.machine = sim.getMachine();
+        this.targetStandardError = sim.getParams().getBatchMeansTargetStandardError();
+        this.batchLength = sim.getParams().getBatchMeansInitialBatchLength();
+        if (!(batchLength > 0)) {
+            throw new IllegalArgumentException("The initial batch length must be positive but was " + batchLength);
+        }
+
+        sim.getListenersCoordinator().addAfterEventListener(new EventListener() {
+            @Override
+            public void execute(EventContext context, Sim sim) {
+                if (sim.isTimeToRecordData()) {
+                    addPoint(sim.getTime());
+                }
+            }
+        }, Phase.METRICS_RECORDING);
+    }
+
+    private void addPoint(TimeInstant time) {
+        if (currentBatch == null) {
+            startBatch(time);
+            return;
+        }
+        for (Item item : machine) {
+            currentBatch.get(item).addPoint(time, item.getSurplus());
+        }
+        if (time.doubleValueSince(currentBatchStart) >= batchLength) {
+            closeBatch(time);
+            startBatch(time);
+        }
+    }
+
+    private void startBatch(TimeInstant time) {
+        currentBatch = new HashMap<Item, StreamSurplusStatisticsCalculator>();
+        for (Item item : machine) {
+            StreamSurplusStatisticsCalculator calculator = new StreamSurplusStatisticsCalculator();
+            calculator.addPoint(time, item.getSurplus());
+            currentBatch.put(item, calculator);
+        }
+        currentBatchStart = time;
+    }
+
+    private void closeBatch(TimeInstant time) {
+        double cost = 0.0;
+        for (Item item : machine) {
+            StreamSurplusStatisticsCalculator calculator = currentBatch.get(item);
+            cost += calculator.getAverageInventory() * item.getInventoryCostRate()
+                    + calculator.getAverageBacklog() * item.getBacklogCostRate();
+        }
+        batchMeans[numBatches] = cost;
+        batchDurations[numBatches] = time.doubleValueSince(currentBatchStart);
+        numBatches++;
+        if (numBatches == MAX_BATCHES) {
+            mergeBatches();
+        }
+        updateStandardError();
+        log.trace(String.format("Closed batch %d of length %.3f with mean cost %.5f, standard error is %.5f",
+                numBatches, batchLength, cost, standardError));
+    }
+
+    private void mergeBatches() {
+        for (int i = 0; i < MAX_BATCHES / 2; i++) {
+            double duration = batchDurations[2 * i] + batchDurations[2 * i + 1];
+            batchMeans[i] = (batchMeans[2 * i] * batchDurations[2 * i]
+                    + batchMeans[2 * i + 1] * batchDurations[2 * i + 1]) / duration;
+            batchDurations[i] = duration;
+        }
+        numBatches = MAX_BATCHES / 2;
+        batchLength *= 2;
+    }
+
+    private void updateStandardError() {
+        if (numBatches < 2) {
+            return;
+        }
+        double mean = 0.0;
+        for (int i = 0; i < numBatches; i++) {
+            mean += batchMeans[i];
+        }
+        mean /= numBatches;
+        double sumOfSquares = 0.0;
+        for (int i = 0; i < numBatches; i++) {
+            sumOfSquares += (batchMeans[i] - mean) * (batchMeans[i] - mean);
+        }
+        standardError = Math.sqrt(sumOfSquares / (numBatches - 1) / numBatches);
+    }
+
+    /**
+     * Returns the batch-means estimate of the standard error of the average
+     * cost over the completed batches, or NaN if fewer than two batches have
+     * been completed.
+     *
+     * @return double
+     */
+    public double getStandardError() {
+        return standardError;
+    }
+
+    public int getNumBatches() {
+        return numBatches;
+    }
+
+    public double getBatchLength() {
+        return batchLength;
+    }
+
+    /**
+     * Returns true if a target standard error was given in the params and the
+     * estimate over at least {@link #MIN_BATCHES} batches has reached it.
+     *
+     * @return boolean
+     */
+    public boolean hasConverged() {
+        return targetStandardError > 0 && numBatches >= MIN_BATCHES && standardError <= targetStandardError;
+    }
+
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(batchLength);
+        out.writeInt(numBatches);
+        for (int i = 0; i < numBatches; i++) {
+            out.writeDouble(batchMeans[i]);
+            out.writeDouble(batchDurations[i]);
+        }
+        out.writeDouble(standardError);
+        out.writeBoolean(currentBatch != null);
+        if (currentBatch != null) {
+            CheckpointIO.writeItemStates(out, currentBatch, machine);
+            CheckpointIO.writeTime(out, currentBatchStart);
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        batchLength = in.readDouble();
+        numBatches = in.readInt();
+        for (int i = 0; i < numBatches; i++) {
+            batchMeans[i] = in.readDouble();
+            batchDurations[i] = in.readDouble();
+        }
+        standardError = in.readDouble();
+        if (in.readBoolean()) {
+            currentBatch = CheckpointIO.readItemStates(in, machine, StreamSurplusStatisticsCalculator::new);
+            currentBatchStart = CheckpointIO.readTime(in);
+        } else {
+            currentBatch = null;
+            currentBatchStart = null;
+        }
+    }
+
+}
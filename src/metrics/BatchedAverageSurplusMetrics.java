@@ -1,6 +1,11 @@
 package metrics;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import discreteEvent.Event;
+import sim.ICheckpointable;
 import sim.Sim;
 import system.Item;
 
@@ -10,61 +15,119 @@ import system.Item;
  * cost across batches. Note that this metric is not adjusting the target
  * surplus to match the desired surplus level, so it should be compared with the
  * raw costs and not the service-level adjusted costs.
+ * <p>
+ * The batches split the time from the actual start of the metrics (which
+ * may come before the metrics start time in the params if the end of the
+ * warmup is detected automatically) to the final time.
  *
  */
-public class BatchedAverageSurplusMetrics {
+public class BatchedAverageSurplusMetrics implements ICheckpointable {
 
     private final AverageSurplusMetrics[] batches;
     private final Sim sim;
+    private double batchesStartTime = Double.NaN;
+    private double batchTime;
 
     public BatchedAverageSurplusMetrics(final int numBatches, final Sim sim) {
         this.batches = new AverageSurplusMetrics[numBatches];
         this.sim = sim;
-        double metricsStartTime = sim.getParams().getMetricsStartTime();
-        double finalTime = sim.getParams().getFinalTime();
-        double recordTime = finalTime - metricsStartTime;
-        double batchTime = recordTime / (double) numBatches;
         for ( int i = 0; i < numBatches; i++ ) {
-            double from = metricsStartTime + i * batchTime;
-            double to = from + batchTime;
-            TimeSegmentedAverageSurplusMetrics batchMetrics =
-                    new TimeSegmentedAverageSurplusMetrics(sim, from, to);
-            this.batches[i] = batchMetrics;
+            this.batches[i] = new TimeSegmentedAverageSurplusMetrics(sim, i);
+        }
+    }
+
+    /**
+     * Returns the start of the given batch. The batches are only laid out once
+     * the metrics start, since the actual start time is not known before.
+     */
+    private double getBatchStartTime(int batch) {
+        if ( Double.isNaN(this.batchesStartTime) ) {
+            this.batchesStartTime = this.sim.getClock().getMetricsInitialTime();
+            this.batchTime = (this.sim.getParams().getFinalTime() - this.batchesStartTime) / this.batches.length;
         }
+        return this.batchesStartTime + batch * this.batchTime;
     }
 
     public class TimeSegmentedAverageSurplusMetrics extends AverageSurplusMetrics {
 
-        private final double from;
-        private final double to;
+        private final int batch;
 
-        public TimeSegmentedAverageSurplusMetrics(Sim sim, double from, double to) {
+        public TimeSegmentedAverageSurplusMetrics(Sim sim, int batch) {
             super(sim);
-            this.from = from;
-            this.to = to;
+            this.batch = batch;
         }
 
         @Override
         protected boolean canRecordEvent(Event event, Sim sim) {
-            return sim.getClock().hasPassedEpoch(this.from) && 
-                    ! sim.getClock().hasReachedEpoch(this.to);
+            if ( !sim.isTimeToRecordData() ) {
+                return false;
+            }
+            double from = getBatchStartTime(this.batch);
+            return sim.getClock().hasReachedEpoch(from) &&
+                    ! sim.getClock().hasReachedEpoch(from + batchTime);
         }
 
     }
 
+    /**
+     * Returns the length of the batches, or 0 if the metrics have not
+     * started yet.
+     * 
+     * @return double
+     */
+    public double getBatchTime() {
+        return this.batchTime;
+    }
+
+    /**
+     * Returns the average cost of each batch in which the metrics were
+     * recorded. If the sim stopped before the final time (e.g., because the
+     * batch-means stopping rule was met), the batches after the stop are
+     * empty and are left out, and the last batch may be shorter than the
+     * others.
+     * 
+     * @return double[]
+     */
     public double[] getBatchedAverageCosts() {
-        double[] costs = new double[this.batches.length];
-        for ( int i = 0; i < costs.length; i++ ) {
-            AverageSurplusMetrics batchMetrics = this.batches[i];
+        int numRecordedBatches = 0;
+        for ( AverageSurplusMetrics batchMetrics : this.batches ) {
+            if ( batchMetrics.hasRecordedData() ) {
+                numRecordedBatches++;
+            }
+        }
+        double[] costs = new double[numRecordedBatches];
+        int i = 0;
+        for ( AverageSurplusMetrics batchMetrics : this.batches ) {
+            if ( !batchMetrics.hasRecordedData() ) {
+                continue;
+            }
             double cost = 0;
             for ( Item item : this.sim.getMachine() ) {
                 double aveInventory = batchMetrics.getAverageInventory(item);
                 double aveBacklog = batchMetrics.getAverageBacklog(item);
                 cost += aveInventory * item.getInventoryCostRate() + aveBacklog * item.getBacklogCostRate();
             }
-            costs[i] = cost;
+            costs[i++] = cost;
         }
         return costs;
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(this.batchesStartTime);
+        out.writeDouble(this.batchTime);
+        for (AverageSurplusMetrics batchMetrics : this.batches) {
+            batchMetrics.writeState(out);
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        this.batchesStartTime = in.readDouble();
+        this.batchTime = in.readDouble();
+        for (AverageSurplusMetrics batchMetrics : this.batches) {
+            batchMetrics.readState(in);
+        }
+    }
+
 }
@@ -1,5 +1,8 @@
 package metrics;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 
@@ -7,25 +10,31 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import discreteEvent.Event;
+import discreteEvent.EventContext;
 import discreteEvent.EventListener;
+import discreteEvent.MasterScheduler;
+import sim.ICheckpointable;
 import sim.Sim;
 
-public class EventCountMetrics {
+public class EventCountMetrics implements ICheckpointable {
 
     private final Map<Class<? extends Event>, Integer> transientCount;
     private final Map<Class<? extends Event>, Integer> steadyStateCount;
     private final Set<Class<? extends Event>> eventTypes;
+    private final MasterScheduler masterScheduler;
 
     public EventCountMetrics(final Sim sim) {
         this.transientCount = Maps.newHashMap();
         this.steadyStateCount = Maps.newHashMap();
         this.eventTypes = Sets.newHashSet();
+        this.masterScheduler = sim.getMasterScheduler();
 
         sim.getListenersCoordinator().addAfterEventListener(new EventListener() {
             @Override
-            public void execute(Event event, Sim sim) {
+            public void execute(EventContext context, Sim sim) {
+                Event event = context.getEvent();
                 Map<Class<? extends Event>, Integer> mapToUse;
-                if ( !sim.isTimeToRecordData() ) {
+                if ( !context.isTimeToRecordData() ) {
                     mapToUse = transientCount;
                 } else {
                     mapToUse = steadyStateCount;
@@ -44,8 +53,73 @@ public class EventCountMetrics {
         return this.steadyStateCount.getOrDefault(eventClass, 0);
     }
 
+    /**
+     * Returns the number of control requests during the transient period that did not result in a separate control
+     * evaluation because one was already pending.
+     */
+    public long getTransientCoalescedControlRequests() {
+        return this.masterScheduler.getTransientCoalescedControlRequests();
+    }
+
+    /**
+     * Returns the number of control requests during the steady state that did not result in a separate control
+     * evaluation because one was already pending.
+     */
+    public long getSteadyStateCoalescedControlRequests() {
+        return this.masterScheduler.getSteadyStateCoalescedControlRequests();
+    }
+
     public Iterable<Class<? extends Event>> getEventTypes() {
         return this.eventTypes;
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        writeCounts(out, this.transientCount);
+        writeCounts(out, this.steadyStateCount);
+        out.writeInt(this.eventTypes.size());
+        for (Class<? extends Event> eventClass : this.eventTypes) {
+            out.writeUTF(eventClass.getName());
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        readCounts(in, this.transientCount);
+        readCounts(in, this.steadyStateCount);
+        this.eventTypes.clear();
+        int numEventTypes = in.readInt();
+        for (int i = 0; i < numEventTypes; i++) {
+            this.eventTypes.add(readEventClass(in));
+        }
+    }
+
+    private static void writeCounts(DataOutputStream out, Map<Class<? extends Event>, Integer> counts)
+            throws IOException {
+        out.writeInt(counts.size());
+        for (Map.Entry<Class<? extends Event>, Integer> entry : counts.entrySet()) {
+            out.writeUTF(entry.getKey().getName());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static void readCounts(DataInputStream in, Map<Class<? extends Event>, Integer> counts)
+            throws IOException {
+        counts.clear();
+        int numCounts = in.readInt();
+        for (int i = 0; i < numCounts; i++) {
+            Class<? extends Event> eventClass = readEventClass(in);
+            counts.put(eventClass, in.readInt());
+        }
+    }
+
+    private static Class<? extends Event> readEventClass(DataInputStream in) throws IOException {
+        String className = in.readUTF();
+        try {
+            return Class.forName(className).asSubclass(Event.class);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown event class " + className, e);
+        }
+    }
+
 }
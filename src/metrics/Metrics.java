@@ -1,16 +1,23 @@
 package metrics;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import lombok.Getter;
+import sim.ICheckpointable;
 import sim.Sim;
 
 @Getter
-public class Metrics {
+public class Metrics implements ICheckpointable {
 
     private final TimeFractionsMetrics timeFractionsMetrics;
     private final AverageSurplusMetrics averageSurplusMetrics;
     private final AverageSurplusByServiceLevelMetrics averageSurplusByServiceLevelMetrics;
     private final BatchedAverageSurplusMetrics batchedAverageSurplusMetrics;
     private final EventCountMetrics eventCountMetrics;
+    // Null unless the params set a target standard error for the average cost
+    private final BatchMeansCostMetrics batchMeansCostMetrics;
 
     public Metrics(Sim sim) {
         this.timeFractionsMetrics = new TimeFractionsMetrics(sim);
@@ -18,6 +25,32 @@ public class Metrics {
         this.averageSurplusByServiceLevelMetrics = new AverageSurplusByServiceLevelMetrics(sim);
         this.batchedAverageSurplusMetrics = new BatchedAverageSurplusMetrics(sim.getParams().getNumBatchesForBatchedMetrics(), sim);
         this.eventCountMetrics = new EventCountMetrics(sim);
+        this.batchMeansCostMetrics = sim.getParams().getBatchMeansTargetStandardError() > 0
+                ? new BatchMeansCostMetrics(sim) : null;
+    }
+
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        timeFractionsMetrics.writeState(out);
+        averageSurplusMetrics.writeState(out);
+        averageSurplusByServiceLevelMetrics.writeState(out);
+        batchedAverageSurplusMetrics.writeState(out);
+        eventCountMetrics.writeState(out);
+        if (batchMeansCostMetrics != null) {
+            batchMeansCostMetrics.writeState(out);
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        timeFractionsMetrics.readState(in);
+        averageSurplusMetrics.readState(in);
+        averageSurplusByServiceLevelMetrics.readState(in);
+        batchedAverageSurplusMetrics.readState(in);
+        eventCountMetrics.readState(in);
+        if (batchMeansCostMetrics != null) {
+            batchMeansCostMetrics.readState(in);
+        }
     }
 
 }
@@ -1,19 +1,24 @@
 package metrics;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.log4j.Logger;
 
+import sim.CheckpointIO;
 import sim.Clock;
+import sim.ICheckpointable;
 import sim.Sim;
 import system.Item;
 import system.Machine;
-import system.Machine.FailureState;
-import discreteEvent.Event;
+import discreteEvent.EventContext;
 import discreteEvent.EventListener;
+import discreteEvent.ListenersCoordinator.Phase;
 
-public class TimeFractionsMetrics {
+public class TimeFractionsMetrics implements ICheckpointable {
 
     private static Logger logger = Logger.getLogger(TimeFractionsMetrics.class);
 
@@ -25,10 +30,11 @@ public class TimeFractionsMetrics {
 
     private Map<Metric, Map<Item, Double>> metricToItemToFraction;
     private Clock                          clock;
+    private Machine                        machine;
 
     public TimeFractionsMetrics(Sim sim) {
         metricToItemToFraction = new HashMap<Metric, Map<Item, Double>>(Metric.values().length);
-        final Machine machine = sim.getMachine();
+        machine = sim.getMachine();
         clock = sim.getClock();
 
         for (Metric metric : Metric.values()) {
@@ -41,27 +47,22 @@ public class TimeFractionsMetrics {
 
         sim.getListenersCoordinator().addBeforeEventListener(new EventListener() {
             @Override
-            public void execute(Event event, Sim sim) {
-                double deltaTime = event.getTime().subtract(sim.getTime()).doubleValue();
+            public void execute(EventContext context, Sim sim) {
+                double deltaTime = context.getDeltaTime();
                 if (trace) {
                     logger.trace(
                             "Updating time fractions with delta time " + deltaTime + " current time " + sim.getTime());
                 }
 
-                // Update the items' surpluses
-                for (Item item : machine) {
-                    // Execute if the machine has this setup
-                    if (machine.getSetup().equals(item)) {
-                        // Machine up
-                        if (machine.getFailureState() == FailureState.UP) {
-                            increment(Metric.valueOf(machine.getOperationalState() + ""), item, deltaTime);
-                        } else {
-                            increment(TimeFractionsMetrics.Metric.REPAIR, item, deltaTime);
-                        }
-                    }
+                // Only the item that the machine is set up for is updated
+                Item setup = context.getSetup();
+                if (context.isMachineUp()) {
+                    increment(Metric.valueOf(context.getOperationalState() + ""), setup, deltaTime);
+                } else {
+                    increment(TimeFractionsMetrics.Metric.REPAIR, setup, deltaTime);
                 }
             }
-        });
+        }, Phase.METRICS_RECORDING);
     }
 
     public void increment(Metric theMetric, Item theItem, Double theIncrement) {
@@ -83,4 +84,18 @@ public class TimeFractionsMetrics {
         return metricToItemToFraction.get(metric).get(item) / clock.getMetricsRecordingTime();
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        for (Metric metric : Metric.values()) {
+            CheckpointIO.writeItemValues(out, metricToItemToFraction.get(metric), machine);
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        for (Metric metric : Metric.values()) {
+            CheckpointIO.readItemValues(in, metricToItemToFraction.get(metric), machine);
+        }
+    }
+
 }
@@ -30,7 +30,7 @@ public abstract class AbstractSurplusStatisticsCalculator {
             }
         }
         assert y1 >= 0 && y2 >= 0 : "Check the area calculating function!";
-        double timeDelta = t2.subtract(t1).doubleValue();
+        double timeDelta = t2.doubleValueSince(t1);
         return Math.min( y1, y2 ) * timeDelta + 0.5 * timeDelta * Math.abs( y2 - y1 );
     }
 
@@ -45,15 +45,15 @@ public abstract class AbstractSurplusStatisticsCalculator {
         }
         if (y1 > 0 && y2 > 0) {
             // Both points are above the x-axis
-            return t2.subtract(t1).doubleValue();
+            return t2.doubleValueSince(t1);
         }
         TimeInstant tC = findCrossoverTime(t1, y1, t2, y2);
         if (y1 <= 0 && y2 > 0) {
             // Slope is positive
-            return t2.subtract(tC).doubleValue();
+            return t2.doubleValueSince(tC);
         } else {
             // Slope is negative
-            return tC.subtract(t1).doubleValue();
+            return tC.doubleValueSince(t1);
         }
     }
 
@@ -67,7 +67,7 @@ public abstract class AbstractSurplusStatisticsCalculator {
      * @return timeInstant
      */
     protected TimeInstant findCrossoverTime(TimeInstant t1, double y1, TimeInstant t2, double y2) {
-        return t1.add( -y1 * ( t2.subtract(t1).doubleValue() ) / ( (double) (y2 - y1) ) );
+        return t1.add( -y1 * ( t2.doubleValueSince(t1) ) / ( (double) (y2 - y1) ) );
     }
 
 }
@@ -1,7 +1,13 @@
 package metrics.surplusstatistics;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import lombok.AccessLevel;
 import lombok.Getter;
+import sim.CheckpointIO;
+import sim.ICheckpointable;
 import sim.TimeInstant;
 
 /**
@@ -13,7 +19,7 @@ import sim.TimeInstant;
  */
 @Getter
 public class StreamSurplusStatisticsCalculator extends AbstractSurplusStatisticsCalculator
-        implements SurplusStatistics {
+        implements SurplusStatistics, ICheckpointable {
 
     private double averageInventory;
     private double averageBacklog;
@@ -43,8 +49,8 @@ public class StreamSurplusStatisticsCalculator extends AbstractSurplusStatistics
             }
             
             if (time.hasPassedEpoch(initialTime)) {
-                double prevDeltaT = finalTime.subtract(initialTime).doubleValue();
-                double newDeltaT = time.subtract(initialTime).doubleValue();
+                double prevDeltaT = finalTime.doubleValueSince(initialTime);
+                double newDeltaT = time.doubleValueSince(initialTime);
                 averageInventory = (averageInventory * prevDeltaT
                         + findAreaAboveTimeAxis(previousTime, previousSurplus, time, surplus)) / newDeltaT;
 
@@ -74,4 +80,32 @@ public class StreamSurplusStatisticsCalculator extends AbstractSurplusStatistics
         return this;
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(averageInventory);
+        out.writeDouble(averageBacklog);
+        out.writeDouble(serviceLevel);
+        out.writeDouble(minSurplus);
+        out.writeDouble(maxSurplus);
+        out.writeInt(numDataPoints);
+        CheckpointIO.writeTime(out, initialTime);
+        CheckpointIO.writeTime(out, finalTime);
+        CheckpointIO.writeTime(out, previousTime);
+        CheckpointIO.writeDouble(out, previousSurplus);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        averageInventory = in.readDouble();
+        averageBacklog = in.readDouble();
+        serviceLevel = in.readDouble();
+        minSurplus = in.readDouble();
+        maxSurplus = in.readDouble();
+        numDataPoints = in.readInt();
+        initialTime = CheckpointIO.readTime(in);
+        finalTime = CheckpointIO.readTime(in);
+        previousTime = CheckpointIO.readTime(in);
+        previousSurplus = CheckpointIO.readDouble(in);
+    }
+
 }
@@ -1,5 +1,7 @@
 package output;
 
+import java.io.File;
+
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.log4j.Logger;
 
@@ -22,7 +24,11 @@ public class AverageSurplusByServiceLevelMetricsRecorder extends Recorder {
     };
 
     public AverageSurplusByServiceLevelMetricsRecorder() {
-        super("output/average_surplus_by_service_level_metrics.txt");
+        this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    public AverageSurplusByServiceLevelMetricsRecorder(File outputDir, RecorderOptions options) {
+        super(new File(outputDir, options.getFormat().getFileName("average_surplus_by_service_level_metrics")).getPath(), options);
         super.writeHeader(Column.class);
     }
 
@@ -1,5 +1,7 @@
 package output;
 
+import java.io.File;
+
 import metrics.AverageSurplusMetrics;
 
 import org.apache.log4j.Logger;
@@ -21,7 +23,11 @@ public class AverageSurplusMetricsRecorder extends Recorder {
     };
 
     public AverageSurplusMetricsRecorder() {
-        super("output/average_surplus_metrics.txt");
+        this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    public AverageSurplusMetricsRecorder(File outputDir, RecorderOptions options) {
+        super(new File(outputDir, options.getFormat().getFileName("average_surplus_metrics")).getPath(), options);
         super.writeHeader(Column.class);
     }
 
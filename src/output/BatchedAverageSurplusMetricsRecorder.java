@@ -1,5 +1,7 @@
 package output;
 
+import java.io.File;
+
 import metrics.BatchedAverageSurplusMetrics;
 import sim.Sim;
 
@@ -10,7 +12,11 @@ public class BatchedAverageSurplusMetricsRecorder extends Recorder {
     };
 
     public BatchedAverageSurplusMetricsRecorder() {
-        super("output/batched_average_surplus_metrics.txt");
+        this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    public BatchedAverageSurplusMetricsRecorder(File outputDir, RecorderOptions options) {
+        super(new File(outputDir, options.getFormat().getFileName("batched_average_surplus_metrics")).getPath(), options);
         super.writeHeader(Column.class);
     }
 
@@ -0,0 +1,310 @@
+package output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The layout of the binary files written by a {@link Recorder} with the
+ * {@link OutputFormat#BINARY} format. A file starts with a header holding the
+ * name and the type of each column, followed by blocks of rows. Each block
+ * starts with its length in bytes and its number of rows, followed by the
+ * minimum and maximum values and the length of the data of each column, and
+ * then the data of each column. The type of a column is fixed in the header,
+ * from the values of the first block, so every block of a file stores a
+ * column the same way:
+ * <ul>
+ * <li>{@link #TYPE_LONG} if every value is an integer, stored as the varint of
+ * the zigzag-encoded difference from the previous value, so that sorted or
+ * repeated ids (e.g., the sim id or the item) take about a byte per row</li>
+ * <li>{@link #TYPE_DOUBLE} if every value is a number, stored as the varint of
+ * the bits of the value xor those of the previous value, so that close values
+ * (e.g., the time) take fewer than 8 bytes per row</li>
+ * <li>{@link #TYPE_STRING} otherwise, stored as a dictionary of the distinct
+ * values followed by the varint of the index of each value</li>
+ * </ul>
+ * The minimum and maximum of a column are those of its numeric values, so a
+ * reader can skip the blocks whose rows cannot match a filter without decoding
+ * them. A value that does not fit the type of its column (e.g., a decimal in a
+ * column whose first block held only integers) cannot be encoded. All numbers
+ * are big-endian.
+ *
+ * @author ftubilla
+ *
+ */
+final class ColumnarFormat {
+
+    static final int  MAGIC       = 0x4A53424E;
+    static final byte TYPE_LONG   = 0;
+    static final byte TYPE_DOUBLE = 1;
+    static final byte TYPE_STRING = 2;
+
+    /**
+     * The size in bytes of the metadata of each column in a block.
+     */
+    static final int COLUMN_METADATA_SIZE = 8 + 8 + 4;
+
+    private ColumnarFormat() {
+    }
+
+    static byte[] encodeHeader(String[] columnNames, byte[] columnTypes) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(columnNames.length);
+            for (int col = 0; col < columnNames.length; col++) {
+                out.writeUTF(columnNames[col]);
+                out.writeByte(columnTypes[col]);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode the header", e);
+        }
+    }
+
+    /**
+     * Returns the narrowest type that holds every value of each column of the
+     * given rows.
+     *
+     * @param rows
+     * @param numColumns
+     * @return the type of each column
+     */
+    static byte[] getColumnTypes(List<Object[]> rows, int numColumns) {
+        byte[] types = new byte[numColumns];
+        for (int col = 0; col < numColumns; col++) {
+            types[col] = getType(rows, col);
+        }
+        return types;
+    }
+
+    /**
+     * Encodes the given rows as a block, storing each column with the given
+     * type.
+     *
+     * @param rows
+     * @param types
+     * @return bytes
+     * @throws IllegalArgumentException
+     *             if a value does not fit the type of its column
+     */
+    static byte[] encodeBlock(List<Object[]> rows, byte[] types) {
+        int numColumns = types.length;
+        double[] mins = new double[numColumns];
+        double[] maxs = new double[numColumns];
+        byte[][] data = new byte[numColumns][];
+        int blockLength = 4 + numColumns * COLUMN_METADATA_SIZE;
+        for (int col = 0; col < numColumns; col++) {
+            mins[col] = Double.POSITIVE_INFINITY;
+            maxs[col] = Double.NEGATIVE_INFINITY;
+            for (Object[] row : rows) {
+                if (row[col] instanceof Number) {
+                    double value = ((Number) row[col]).doubleValue();
+                    mins[col] = Math.min(mins[col], value);
+                    maxs[col] = Math.max(maxs[col], value);
+                }
+            }
+            data[col] = encodeColumn(rows, col, types[col]);
+            blockLength += data[col].length;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4 + blockLength);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(blockLength);
+            out.writeInt(rows.size());
+            for (int col = 0; col < numColumns; col++) {
+                out.writeDouble(mins[col]);
+                out.writeDouble(maxs[col]);
+                out.writeInt(data[col].length);
+            }
+            for (int col = 0; col < numColumns; col++) {
+                out.write(data[col]);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode the block", e);
+        }
+    }
+
+    /**
+     * Decodes the given number of values of a column from the buffer.
+     *
+     * @param data
+     * @param type
+     * @param numRows
+     * @return values, as longs, doubles or strings
+     */
+    static Object[] decodeColumn(ByteBuffer data, byte type, int numRows) {
+        Object[] values = new Object[numRows];
+        switch (type) {
+        case TYPE_LONG:
+            long previousLong = 0;
+            for (int i = 0; i < numRows; i++) {
+                long delta = readVarLong(data);
+                previousLong += (delta >>> 1) ^ -(delta & 1);
+                values[i] = previousLong;
+            }
+            break;
+        case TYPE_DOUBLE:
+            long previousBits = 0;
+            for (int i = 0; i < numRows; i++) {
+                previousBits ^= readVarLong(data);
+                values[i] = Double.longBitsToDouble(previousBits);
+            }
+            break;
+        case TYPE_STRING:
+            String[] dictionary = new String[(int) readVarLong(data)];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[(int) readVarLong(data)];
+                data.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            for (int i = 0; i < numRows; i++) {
+                values[i] = dictionary[(int) readVarLong(data)];
+            }
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown column type " + type);
+        }
+        return values;
+    }
+
+    /**
+     * Splits a line recorded as text into the given number of values, parsing
+     * the numbers. The last value takes the rest of the line.
+     *
+     * @param line
+     * @param numColumns
+     * @return row
+     */
+    static Object[] parseLine(String line, int numColumns) {
+        String[] tokens = line.trim().split(" +", numColumns);
+        if (tokens.length != numColumns) {
+            throw new IllegalArgumentException(String.format("Expected %d columns but got '%s'", numColumns, line));
+        }
+        Object[] row = new Object[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            row[i] = parseToken(tokens[i]);
+        }
+        return row;
+    }
+
+    private static Object parseToken(String token) {
+        if (token.isEmpty()) {
+            return token;
+        }
+        char first = token.charAt(0);
+        if ((first >= '0' && first <= '9') || first == '-' || first == '.' || first == 'N' || first == 'I') {
+            try {
+                return Long.parseLong(token);
+            } catch (NumberFormatException e) {
+                // Not an integer
+            }
+            try {
+                return Double.parseDouble(token);
+            } catch (NumberFormatException e) {
+                // Not a number
+            }
+        }
+        return token;
+    }
+
+    private static byte getType(List<Object[]> rows, int col) {
+        byte type = TYPE_LONG;
+        for (Object[] row : rows) {
+            Object value = row[col];
+            if (isInteger(value)) {
+                continue;
+            } else if (value instanceof Number) {
+                type = TYPE_DOUBLE;
+            } else {
+                return TYPE_STRING;
+            }
+        }
+        return type;
+    }
+
+    private static boolean isInteger(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static byte[] encodeColumn(List<Object[]> rows, int col, byte type) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows.size() * 2);
+        switch (type) {
+        case TYPE_LONG:
+            long previousLong = 0;
+            for (Object[] row : rows) {
+                if (!isInteger(row[col])) {
+                    throw new IllegalArgumentException(
+                            String.format("Column %d holds integers but got '%s'", col, row[col]));
+                }
+                long value = ((Number) row[col]).longValue();
+                long delta = value - previousLong;
+                writeVarLong(out, (delta << 1) ^ (delta >> 63));
+                previousLong = value;
+            }
+            break;
+        case TYPE_DOUBLE:
+            long previousBits = 0;
+            for (Object[] row : rows) {
+                if (!(row[col] instanceof Number)) {
+                    throw new IllegalArgumentException(
+                            String.format("Column %d holds numbers but got '%s'", col, row[col]));
+                }
+                long bits = Double.doubleToLongBits(((Number) row[col]).doubleValue());
+                writeVarLong(out, bits ^ previousBits);
+                previousBits = bits;
+            }
+            break;
+        default:
+            Map<String, Integer> dictionary = new LinkedHashMap<String, Integer>();
+            int[] indices = new int[rows.size()];
+            for (int i = 0; i < indices.length; i++) {
+                String value = String.valueOf(rows.get(i)[col]);
+                Integer index = dictionary.get(value);
+                if (index == null) {
+                    index = dictionary.size();
+                    dictionary.put(value, index);
+                }
+                indices[i] = index;
+            }
+            writeVarLong(out, dictionary.size());
+            for (String value : dictionary.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+            for (int index : indices) {
+                writeVarLong(out, index);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer data) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+}
@@ -0,0 +1,302 @@
+package output;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Reads the binary files written by a {@link Recorder} with the
+ * {@link OutputFormat#BINARY} format (see {@link ColumnarFormat}). The file is
+ * memory-mapped and only the metadata of the blocks is read when the reader
+ * is created. When the rows are filtered by the values of a column (e.g., by
+ * sim id or by time), the blocks whose minimum and maximum values do not
+ * overlap the filter are skipped, and the other columns of a block are only
+ * decoded if some of its rows match the filter.
+ * <p>
+ * The values are returned as longs, doubles or strings, depending on the type
+ * of their column. A block cut short (e.g., because the sim crashed while
+ * writing it) is ignored, along with anything after it.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+public class ColumnarReader {
+
+    public static final String SIM_ID_COLUMN = "SIM_ID";
+    public static final String TIME_COLUMN   = "TIME";
+
+    // The files are mapped in segments of at most this size, since a single
+    // mapping cannot exceed 2 GB
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final File        file;
+    private final String[]    columnNames;
+    private final byte[]      columnTypes;
+    private final List<Block> blocks = new ArrayList<Block>();
+    private long              completeLength;
+    private int               numDecodedBlocks;
+
+    public ColumnarReader(File file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer segment = channel.map(MapMode.READ_ONLY, 0, Math.min(fileSize, MAX_SEGMENT_SIZE));
+            if (segment.remaining() < 8 || segment.getInt() != ColumnarFormat.MAGIC) {
+                throw new IOException(file + " is not a binary recorder file");
+            }
+            columnNames = new String[segment.getInt()];
+            columnTypes = new byte[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                byte[] bytes = new byte[segment.getShort() & 0xFFFF];
+                segment.get(bytes);
+                columnNames[i] = new String(bytes, StandardCharsets.UTF_8);
+                columnTypes[i] = segment.get();
+            }
+
+            long segmentStart = 0;
+            long position = segment.position();
+            while (position + 4 <= fileSize) {
+                if (position + 4 > segmentStart + segment.capacity()) {
+                    segmentStart = position;
+                    segment = channel.map(MapMode.READ_ONLY, segmentStart,
+                            Math.min(fileSize - segmentStart, MAX_SEGMENT_SIZE));
+                }
+                int blockLength = segment.getInt((int) (position - segmentStart));
+                long blockEnd = position + 4 + blockLength;
+                if (blockLength < 4 || blockEnd > fileSize) {
+                    log.warn(String.format("Ignoring a block cut short at byte %d of %s", position, file));
+                    break;
+                }
+                if (blockEnd > segmentStart + segment.capacity()) {
+                    segmentStart = position;
+                    segment = channel.map(MapMode.READ_ONLY, segmentStart,
+                            Math.min(fileSize - segmentStart, MAX_SEGMENT_SIZE));
+                }
+                ByteBuffer blockBuffer = segment.duplicate();
+                blockBuffer.position((int) (position - segmentStart) + 4);
+                blockBuffer.limit((int) (blockEnd - segmentStart));
+                blocks.add(new Block(blockBuffer.slice(), columnTypes));
+                position = blockEnd;
+            }
+            completeLength = position;
+        }
+        log.debug(String.format("Read the metadata of %d blocks of %s", blocks.size(), file));
+    }
+
+    /**
+     * Truncates the file at the end of its last complete block, so that new
+     * blocks can be appended to it, and returns a reader of the blocks kept.
+     *
+     * @param file
+     * @return reader
+     * @throws IOException
+     */
+    static ColumnarReader truncateToCompleteBlocks(File file) throws IOException {
+        ColumnarReader reader = new ColumnarReader(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (reader.completeLength < raf.length()) {
+                log.warn(String.format("Truncating %s from %d to %d bytes", file, raf.length(),
+                        reader.completeLength));
+                raf.getChannel().truncate(reader.completeLength);
+            }
+        }
+        return reader;
+    }
+
+    public List<String> getColumnNames() {
+        return Arrays.asList(columnNames);
+    }
+
+    /**
+     * Returns the type of each column, as given in the header (see
+     * {@link ColumnarFormat}).
+     *
+     * @return types
+     */
+    byte[] getColumnTypes() {
+        return columnTypes.clone();
+    }
+
+    public int getNumBlocks() {
+        return blocks.size();
+    }
+
+    public int getNumRows() {
+        int numRows = 0;
+        for (Block block : blocks) {
+            numRows += block.numRows;
+        }
+        return numRows;
+    }
+
+    /**
+     * Returns all the rows in the file.
+     *
+     * @return rows
+     */
+    public List<Object[]> readAll() {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        for (int block = 0; block < blocks.size(); block++) {
+            rows.addAll(readBlock(block));
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rows of the given block.
+     *
+     * @param blockIndex
+     * @return rows
+     */
+    List<Object[]> readBlock(int blockIndex) {
+        Block block = blocks.get(blockIndex);
+        Object[][] columns = new Object[columnNames.length][];
+        for (int col = 0; col < columnNames.length; col++) {
+            columns[col] = block.decodeColumn(col);
+        }
+        numDecodedBlocks++;
+        List<Object[]> rows = new ArrayList<Object[]>(block.numRows);
+        for (int i = 0; i < block.numRows; i++) {
+            rows.add(getRow(columns, i));
+        }
+        return rows;
+    }
+
+    public List<Object[]> readSim(int simId) {
+        return read(SIM_ID_COLUMN, simId, simId);
+    }
+
+    public List<Object[]> readTimeRange(double startTime, double endTime) {
+        return read(TIME_COLUMN, startTime, endTime);
+    }
+
+    /**
+     * Returns the rows whose value in the given column is a number between
+     * the given minimum and maximum, inclusive.
+     *
+     * @param columnName
+     * @param min
+     * @param max
+     * @return rows
+     */
+    public List<Object[]> read(String columnName, double min, double max) {
+        int filterCol = getColumnIndex(columnName);
+        List<Object[]> rows = new ArrayList<Object[]>();
+        for (Block block : blocks) {
+            if (block.maxs[filterCol] < min || block.mins[filterCol] > max) {
+                continue;
+            }
+            Object[] filterValues = block.decodeColumn(filterCol);
+            boolean[] matches = new boolean[block.numRows];
+            boolean anyMatch = false;
+            for (int i = 0; i < block.numRows; i++) {
+                double value = toDouble(filterValues[i]);
+                matches[i] = value >= min && value <= max;
+                anyMatch |= matches[i];
+            }
+            if (!anyMatch) {
+                continue;
+            }
+            Object[][] columns = new Object[columnNames.length][];
+            for (int col = 0; col < columnNames.length; col++) {
+                columns[col] = col == filterCol ? filterValues : block.decodeColumn(col);
+            }
+            numDecodedBlocks++;
+            for (int i = 0; i < block.numRows; i++) {
+                if (matches[i]) {
+                    rows.add(getRow(columns, i));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the number of blocks whose columns have been decoded in full.
+     *
+     * @return int
+     */
+    int getNumDecodedBlocks() {
+        return numDecodedBlocks;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarReader:" + file;
+    }
+
+    private int getColumnIndex(String columnName) {
+        for (int col = 0; col < columnNames.length; col++) {
+            if (columnNames[col].equals(columnName)) {
+                return col;
+            }
+        }
+        throw new IllegalArgumentException(String.format("%s has no column %s", file, columnName));
+    }
+
+    private static Object[] getRow(Object[][] columns, int i) {
+        Object[] row = new Object[columns.length];
+        for (int col = 0; col < columns.length; col++) {
+            row[col] = columns[col][i];
+        }
+        return row;
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return Double.parseDouble((String) value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static class Block {
+
+        private final ByteBuffer data;
+        private final int        numRows;
+        private final byte[]     types;
+        private final double[]   mins;
+        private final double[]   maxs;
+        private final int[]      dataOffsets;
+
+        private Block(ByteBuffer data, byte[] types) {
+            int numColumns = types.length;
+            this.data = data;
+            this.numRows = data.getInt(0);
+            this.types = types;
+            this.mins = new double[numColumns];
+            this.maxs = new double[numColumns];
+            this.dataOffsets = new int[numColumns];
+            int offset = 4 + numColumns * ColumnarFormat.COLUMN_METADATA_SIZE;
+            for (int col = 0; col < numColumns; col++) {
+                int metadataOffset = 4 + col * ColumnarFormat.COLUMN_METADATA_SIZE;
+                mins[col] = data.getDouble(metadataOffset);
+                maxs[col] = data.getDouble(metadataOffset + 8);
+                dataOffsets[col] = offset;
+                offset += data.getInt(metadataOffset + 16);
+            }
+        }
+
+        private Object[] decodeColumn(int col) {
+            ByteBuffer columnData = data.duplicate();
+            columnData.position(dataOffsets[col]);
+            return ColumnarFormat.decodeColumn(columnData, types[col], numRows);
+        }
+
+    }
+
+}
@@ -1,5 +1,7 @@
 package output;
 
+import java.io.File;
+
 import discreteEvent.Event;
 import metrics.EventCountMetrics;
 import sim.Sim;
@@ -9,7 +11,11 @@ public class EventCountMetricsRecorder extends Recorder {
     enum Column { SIM_ID, EVENT, PERIOD, COUNT };
 
     public EventCountMetricsRecorder() {
-        super("output/event_counts.txt");
+        this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    public EventCountMetricsRecorder(File outputDir, RecorderOptions options) {
+        super(new File(outputDir, options.getFormat().getFileName("event_counts")).getPath(), options);
         super.writeHeader(Column.class);
     }
 
@@ -31,6 +37,17 @@ public class EventCountMetricsRecorder extends Recorder {
             row[3] = metrics.getSteadyStateCount(eventType);
             record(row);
         }
+
+        // Control requests that were merged into a pending control event
+        Object[] row = new Object[4];
+        row[0] = sim.getId();
+        row[1] = "CoalescedControlRequest";
+        row[2] = "TRANSIENT";
+        row[3] = metrics.getTransientCoalescedControlRequests();
+        record(row);
+        row[2] = "STEADY_STATE";
+        row[3] = metrics.getSteadyStateCoalescedControlRequests();
+        record(row);
     }
 
 }
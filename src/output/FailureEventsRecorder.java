@@ -1,5 +1,9 @@
 package output;
 
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import sim.Sim;
 import discreteEvent.Event;
 import discreteEvent.Failure;
@@ -7,15 +11,19 @@ import discreteEvent.Repair;
 
 public class FailureEventsRecorder extends Recorder {
 
-    int accumulatedFailures = 0;
-    int accumulatedRepairs  = 0;
+    // The accumulated failures and repairs of each sim
+    private final Map<Sim, int[]> accumulatedCounts = new ConcurrentHashMap<Sim, int[]>();
 
     enum Column {
         SIM_ID, TIME, EVENT, ACCUMULATED_FAILURES, ACCUMULATED_REPAIRS, SETUP, IS_UP
     };
 
     public FailureEventsRecorder() {
-        super("output/failure_events.txt");
+        this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    public FailureEventsRecorder(File outputDir, RecorderOptions options) {
+        super(new File(outputDir, options.getFormat().getFileName("failure_events")).getPath(), options);
         super.writeHeader(Column.class);
     }
 
@@ -23,15 +31,32 @@ public class FailureEventsRecorder extends Recorder {
     public void recordAfterEvent(Sim sim, Event event) {
 
         String eventType = event.getClass().getSimpleName().toUpperCase();
+        int[] counts = accumulatedCounts.get(sim);
+        if (counts == null) {
+            counts = new int[2];
+            accumulatedCounts.put(sim, counts);
+        }
         if (event instanceof Failure) {
-            accumulatedFailures++;
+            counts[0]++;
         }
         if (event instanceof Repair) {
-            accumulatedRepairs++;
+            counts[1]++;
         }
 
-        record(sim.getId() + " " + sim.getTime() + " " + eventType + " " + accumulatedFailures + " "
-                + accumulatedRepairs + " " + sim.getMachine().getSetup() + " " + sim.getMachine().isUp());
+        newRow().writeInt(sim.getId())
+                .writeTime(sim.getTime())
+                .writeString(eventType)
+                .writeInt(counts[0])
+                .writeInt(counts[1])
+                .writeString(String.valueOf(sim.getMachine().getSetup()))
+                .writeString(String.valueOf(sim.getMachine().isUp()))
+                .endRow();
+    }
+
+    @Override
+    public void recordEndOfSim(Sim sim) {
+        // Remove the sim instance from the map to preserve memory
+        accumulatedCounts.remove(sim);
     }
 
 }
@@ -0,0 +1,89 @@
+package output;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import output.Recorder.CapturedRows;
+import params.FilterParams;
+import sim.Sim;
+
+/**
+ * The filters of the high frequency rows of a recorder in a sim, built from
+ * the {@link FilterParams} of the recorder. The rows recorded at an event are
+ * recorded only if the event passes every {@link IFilter} of the chain, in
+ * order, and then, if the chain ends with a
+ * {@link LargestTriangleThreeBucketsFilter}, only if that filter keeps them.
+ * Since the filters keep state, a chain must not be shared by sims.
+ *
+ * @author ftubilla
+ *
+ */
+final class FilterChain {
+
+    private final List<IFilter>                     filters = new ArrayList<IFilter>();
+    private final LargestTriangleThreeBucketsFilter decimationFilter;
+
+    FilterChain(List<FilterParams> filterParamsList) {
+        LargestTriangleThreeBucketsFilter decimationFilter = null;
+        for (FilterParams filterParams : filterParamsList) {
+            if (decimationFilter != null) {
+                throw new IllegalArgumentException(String.format("The %s must be the last filter of the chain %s",
+                        LargestTriangleThreeBucketsFilter.class.getSimpleName(), filterParamsList));
+            }
+            String name = filterParams.getName();
+            if (name.equals(SampleRateFilter.class.getSimpleName())) {
+                filters.add(new SampleRateFilter(filterParams.getSamplePeriod()));
+            } else if (name.equals(SmallDeviationsFilter.class.getSimpleName())) {
+                filters.add(new SmallDeviationsFilter(filterParams.getDeviationCutoff()));
+            } else if (name.equals(LargestTriangleThreeBucketsFilter.class.getSimpleName())) {
+                decimationFilter = new LargestTriangleThreeBucketsFilter(filterParams.getBucketLength());
+            } else {
+                throw new IllegalArgumentException("Unknown filter " + name);
+            }
+        }
+        this.decimationFilter = decimationFilter;
+    }
+
+    /**
+     * Records the rows of the current event of the sim with the given method
+     * of the recorder, if the event passes the filters.
+     *
+     * @param recorder
+     * @param sim
+     * @param recordMethod
+     */
+    void record(Recorder recorder, Sim sim, Consumer<Recorder> recordMethod) {
+        for (IFilter filter : filters) {
+            if (!filter.passFilter(sim)) {
+                return;
+            }
+        }
+        if (decimationFilter == null) {
+            recordMethod.accept(recorder);
+            return;
+        }
+        CapturedRows rows;
+        recorder.beginCapture();
+        try {
+            recordMethod.accept(recorder);
+        } finally {
+            rows = recorder.endCapture();
+        }
+        if (!rows.isEmpty()) {
+            decimationFilter.add(sim, rows, recorder);
+        }
+    }
+
+    /**
+     * Records the rows still held by the chain at the end of the sim.
+     *
+     * @param recorder
+     */
+    void finish(Recorder recorder) {
+        if (decimationFilter != null) {
+            decimationFilter.finish(recorder);
+        }
+    }
+
+}
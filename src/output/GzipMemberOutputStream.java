@@ -0,0 +1,150 @@
+package output;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses a file as a sequence of gzip members, finishing the current
+ * member on every flush. Any gzip reader (e.g., <tt>zcat</tt>, R's
+ * <tt>gzfile</tt> or Python's <tt>gzip</tt>) reads the members as a single
+ * file. Since every flushed row is in a complete member, a file whose last
+ * member was cut short can be fixed by truncating it at the end of the last
+ * complete member (see {@link #truncateToCompleteMembers(File)}), and then new
+ * members can be appended to it.
+ *
+ * @author ftubilla
+ *
+ */
+final class GzipMemberOutputStream extends OutputStream {
+
+    private static final int HEADER_LENGTH  = 10;
+    private static final int TRAILER_LENGTH = 8;
+
+    private final OutputStream out;
+    private final int          level;
+    private final int          bufferSize;
+    private Member             member;
+
+    GzipMemberOutputStream(OutputStream out, int level, int bufferSize) {
+        this.out = out;
+        this.level = level;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        getMember().write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        getMember().write(bytes, offset, length);
+    }
+
+    /**
+     * Finishes the current member and flushes the file.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (member != null) {
+            member.finishAndEnd();
+            member = null;
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    /**
+     * Truncates the file at the end of its last complete gzip member, and
+     * returns its new length.
+     *
+     * @param file
+     * @return length
+     * @throws IOException
+     */
+    static long truncateToCompleteMembers(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            long end = 0;
+            byte[] buffer = new byte[1 << 16];
+            byte[] inflated = new byte[1 << 16];
+            Inflater inflater = new Inflater(true);
+            try {
+                while (end + HEADER_LENGTH + TRAILER_LENGTH <= size) {
+                    raf.seek(end);
+                    raf.readFully(buffer, 0, HEADER_LENGTH);
+                    // The members written by this class have no optional
+                    // header fields
+                    if ((buffer[0] & 0xFF) != 0x1F || (buffer[1] & 0xFF) != 0x8B || buffer[2] != 8
+                            || buffer[3] != 0) {
+                        break;
+                    }
+                    inflater.reset();
+                    long position = end + HEADER_LENGTH;
+                    while (!inflater.finished()) {
+                        if (inflater.needsInput()) {
+                            int numRead = raf.read(buffer);
+                            if (numRead <= 0) {
+                                break;
+                            }
+                            inflater.setInput(buffer, 0, numRead);
+                            position += numRead;
+                        }
+                        inflater.inflate(inflated);
+                    }
+                    long memberEnd = position - inflater.getRemaining() + TRAILER_LENGTH;
+                    if (!inflater.finished() || memberEnd > size) {
+                        break;
+                    }
+                    end = memberEnd;
+                }
+            } catch (DataFormatException e) {
+                // The member is corrupt; keep the members before it
+            } finally {
+                inflater.end();
+            }
+            if (end < size) {
+                channel.truncate(end);
+            }
+            return end;
+        }
+    }
+
+    private Member getMember() throws IOException {
+        if (member == null) {
+            member = new Member(out, bufferSize, level);
+        }
+        return member;
+    }
+
+    private static class Member extends GZIPOutputStream {
+
+        private Member(OutputStream out, int bufferSize, int level) throws IOException {
+            super(out, bufferSize);
+            def.setLevel(level);
+        }
+
+        /**
+         * Writes the trailer of the member, leaving the file open, and
+         * releases the deflater.
+         */
+        private void finishAndEnd() throws IOException {
+            finish();
+            def.end();
+        }
+
+    }
+
+}
@@ -1,5 +1,7 @@
 package output;
 
+import java.io.File;
+
 import discreteEvent.Event;
 import discreteEvent.ScheduleType;
 import sim.Sim;
@@ -12,7 +14,11 @@ public class InterEventLengthsRecorder extends Recorder {
     };
 
     public InterEventLengthsRecorder() {
-        super("output/inter_event_times.txt");
+        this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    public InterEventLengthsRecorder(File outputDir, RecorderOptions options) {
+        super(new File(outputDir, options.getFormat().getFileName("inter_event_times")).getPath(), options);
         super.writeHeader(Column.class);
     }
 
@@ -27,7 +33,7 @@ public class InterEventLengthsRecorder extends Recorder {
     }
 
     private void record(int simId, String eventName, TimeInstant duration) {
-        super.record(simId + " " + eventName.toUpperCase() + " " + duration);
+        newRow().writeInt(simId).writeString(eventName.toUpperCase()).writeTime(duration).endRow();
     }
 
 }
@@ -0,0 +1,168 @@
+package output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import output.Recorder.CapturedRows;
+import sim.Sim;
+import system.Item;
+
+/**
+ * Decimates the rows recorded at each event with the
+ * largest-triangle-three-buckets algorithm, applied to the surplus of each
+ * item as the sim runs, so that the plots of the surplus keep their shape with
+ * a small fraction of the rows.
+ * <p>
+ * The time is split into buckets of the given length. For each item, the
+ * filter keeps the event of a bucket at which the surplus forms the largest
+ * triangle with the surplus at the event kept for the item in the previous
+ * bucket and the average surplus in the next bucket. The rows of an event are
+ * recorded if the event is kept for some item, so at most one event per item
+ * is kept in each bucket. The first and the last events are always kept.
+ * <p>
+ * The rows of the events in the current and the next bucket are held until
+ * the next bucket is complete, so they are recorded with a delay of up to two
+ * buckets, and the last ones when the sim ends (see {@link #finish(Recorder)}).
+ * A filter keeps the state of a single sim.
+ *
+ * @author ftubilla
+ *
+ */
+public class LargestTriangleThreeBucketsFilter {
+
+    private final double bucketLength;
+    private double       startTime    = Double.NaN;
+    // The time and the surplus of the event last kept for each item
+    private double[]     keptTimes;
+    private double[]     keptSurpluses;
+    private List<Point>  bucket       = new ArrayList<Point>();
+    private List<Point>  nextBucket   = new ArrayList<Point>();
+    private long         bucketIndex;
+    private long         nextBucketIndex;
+
+    public LargestTriangleThreeBucketsFilter(double bucketLength) {
+        if (!(bucketLength > 0)) {
+            throw new IllegalArgumentException("The bucket length must be positive but is " + bucketLength);
+        }
+        this.bucketLength = bucketLength;
+    }
+
+    /**
+     * Adds the rows recorded at the current event of the sim, and records the
+     * rows of the events that are kept once their bucket is complete.
+     *
+     * @param sim
+     * @param rows
+     * @param recorder
+     */
+    void add(Sim sim, CapturedRows rows, Recorder recorder) {
+        double time = sim.getTime().doubleValue();
+        double[] surpluses = new double[sim.getMachine().getNumItems()];
+        int i = 0;
+        for (Item item : sim.getMachine()) {
+            surpluses[i++] = item.getSurplus();
+        }
+        Point point = new Point(time, surpluses, rows);
+
+        if (Double.isNaN(startTime)) {
+            startTime = time;
+            keptTimes = new double[surpluses.length];
+            Arrays.fill(keptTimes, time);
+            keptSurpluses = surpluses.clone();
+            recorder.recordCaptured(rows);
+            return;
+        }
+        long index = (long) Math.floor((time - startTime) / bucketLength);
+        if (bucket.isEmpty()) {
+            bucketIndex = index;
+            bucket.add(point);
+        } else if (nextBucket.isEmpty() && index <= bucketIndex) {
+            bucket.add(point);
+        } else if (nextBucket.isEmpty()) {
+            nextBucketIndex = index;
+            nextBucket.add(point);
+        } else if (index <= nextBucketIndex) {
+            nextBucket.add(point);
+        } else {
+            double[] averageSurpluses = new double[surpluses.length];
+            double averageTime = 0.0;
+            for (Point nextPoint : nextBucket) {
+                averageTime += nextPoint.time / nextBucket.size();
+                for (int j = 0; j < surpluses.length; j++) {
+                    averageSurpluses[j] += nextPoint.surpluses[j] / nextBucket.size();
+                }
+            }
+            recordLargestTriangles(averageTime, averageSurpluses, recorder);
+            bucket = nextBucket;
+            bucketIndex = nextBucketIndex;
+            nextBucket = new ArrayList<Point>();
+            nextBucketIndex = index;
+            nextBucket.add(point);
+        }
+    }
+
+    /**
+     * Records the rows of the events kept from the buckets that have not been
+     * completed, including the last event.
+     *
+     * @param recorder
+     */
+    void finish(Recorder recorder) {
+        if (!nextBucket.isEmpty()) {
+            Point lastPoint = nextBucket.get(nextBucket.size() - 1);
+            recordLargestTriangles(lastPoint.time, lastPoint.surpluses, recorder);
+            recorder.recordCaptured(lastPoint.rows);
+        } else if (!bucket.isEmpty()) {
+            recorder.recordCaptured(bucket.get(bucket.size() - 1).rows);
+        }
+        bucket.clear();
+        nextBucket.clear();
+    }
+
+    /**
+     * Records the rows of the events of the bucket that form the largest
+     * triangle for some item, given the time and surpluses of the third
+     * vertex.
+     */
+    private void recordLargestTriangles(double nextTime, double[] nextSurpluses, Recorder recorder) {
+        boolean[] isKept = new boolean[bucket.size()];
+        for (int j = 0; j < keptSurpluses.length; j++) {
+            int largest = 0;
+            double largestArea = -1.0;
+            for (int i = 0; i < bucket.size(); i++) {
+                Point point = bucket.get(i);
+                // Twice the area of the triangle
+                double area = Math.abs((point.time - keptTimes[j]) * (nextSurpluses[j] - keptSurpluses[j])
+                        - (nextTime - keptTimes[j]) * (point.surpluses[j] - keptSurpluses[j]));
+                if (area > largestArea) {
+                    largest = i;
+                    largestArea = area;
+                }
+            }
+            isKept[largest] = true;
+            keptTimes[j] = bucket.get(largest).time;
+            keptSurpluses[j] = bucket.get(largest).surpluses[j];
+        }
+        for (int i = 0; i < isKept.length; i++) {
+            if (isKept[i]) {
+                recorder.recordCaptured(bucket.get(i).rows);
+            }
+        }
+    }
+
+    private static class Point {
+
+        private final double       time;
+        private final double[]     surpluses;
+        private final CapturedRows rows;
+
+        private Point(double time, double[] surpluses, CapturedRows rows) {
+            this.time = time;
+            this.surpluses = surpluses;
+            this.rows = rows;
+        }
+
+    }
+
+}
@@ -0,0 +1,31 @@
+package output;
+
+/**
+ * The format of the files written by a {@link Recorder}.
+ *
+ * @author ftubilla
+ *
+ */
+public enum OutputFormat {
+
+    /**
+     * Space-separated text, with a header line.
+     */
+    TEXT(".txt"),
+
+    /**
+     * Typed columns in blocks of rows, readable with a {@link ColumnarReader}.
+     */
+    BINARY(".bin");
+
+    private final String extension;
+
+    private OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getFileName(String baseName) {
+        return baseName + extension;
+    }
+
+}
@@ -1,5 +1,7 @@
 package output;
 
+import java.io.File;
+
 import params.DerivedParams;
 import params.Params;
 import sim.Sim;
@@ -9,7 +11,11 @@ public class ParamsRecorder extends Recorder {
 	public enum Column {SIM_ID, PARAMETER, TYPE, ITEM, VALUE};
 	
 	public ParamsRecorder() {
-		super("output/params.txt");
+		this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+	}
+
+	public ParamsRecorder(File outputDir, RecorderOptions options) {
+		super(new File(outputDir, options.getFormat().getFileName("params")).getPath(), options);
 		super.writeHeader(Column.class);
 	}
 
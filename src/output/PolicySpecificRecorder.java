@@ -1,5 +1,6 @@
 package output;
 
+import java.io.File;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
@@ -20,7 +21,11 @@ public class PolicySpecificRecorder extends Recorder {
     };
 
     public PolicySpecificRecorder() {
-        super("output/policy_specific_metrics.txt");
+        this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    public PolicySpecificRecorder(File outputDir, RecorderOptions options) {
+        super(new File(outputDir, options.getFormat().getFileName("policy_specific_metrics")).getPath(), options);
         super.writeHeader(Column.class);
     }
 
@@ -1,69 +1,229 @@
 package output;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 
 import sim.Sim;
+import sim.TimeInstant;
 import discreteEvent.Event;
 
 /**
  * A thread-safe class for writing metrics to files.
+ * <p>
+ * The rows recorded by each thread are appended to a buffer of that thread,
+ * which is handed to the writer thread of the file when it fills up, when the
+ * thread finishes a sim (see {@link #handOffBufferedRows()}) and when the
+ * recorder is flushed or closed. Only the writer thread writes to the file, so
+ * the sims running in parallel never wait on each other to record their rows.
+ * Since each sim runs on a single thread and the buffers are written in the
+ * order in which they are handed off, the rows of each sim appear in the file
+ * in the order in which they were recorded, although the rows of different
+ * sims may be interleaved in blocks. The writer thread stops when it has been
+ * idle for a while and is started again when there are more rows to write.
+ * At most {@link #MAX_PENDING_WRITES} buffers wait for the writer thread; if
+ * it falls behind, the threads handing off their rows block until it catches
+ * up, so the memory held by the pending rows stays bounded.
+ * <p>
+ * The rows are written as text by default. With the
+ * {@link OutputFormat#BINARY} format, the rows buffered by a thread are
+ * written as a block of typed columns instead (see {@link ColumnarFormat}),
+ * which is smaller, faster to write and can be read with a
+ * {@link ColumnarReader}. The columns are those given to
+ * {@link #writeHeader(Class)}, and the rows recorded as text lines are split
+ * on spaces. The header is written with the first block, since the type of
+ * each column is fixed from its values; when appending, the types are read
+ * from the header of the file.
+ * <p>
+ * If a compression level is given, the file is compressed with gzip as it is
+ * written, by the writer thread of the file, so the files of the recorders
+ * are compressed in parallel. The name of the file gets a <tt>.gz</tt> suffix,
+ * and every flush completes a gzip member (see
+ * {@link GzipMemberOutputStream}). The binary files cannot be compressed,
+ * since a {@link ColumnarReader} maps them into memory.
  * 
  * @author ftubilla
  *
  */
 public class Recorder {
 
-    public static final int DEFAULT_DIGITS = 6;
+    public static final int    DEFAULT_DIGITS     = 6;
+    public static final String DEFAULT_OUTPUT_DIR = "output";
+    public static final int    BUFFER_SIZE        = 1 << 16;
+    public static final int    BLOCK_NUM_ROWS     = 1 << 12;
+    public static final int    UNCOMPRESSED       = -2;
+    public static final int    MAX_PENDING_WRITES = 64;
+
+    private static final String LINE_SEPARATOR           = System.lineSeparator();
+    private static final long   WRITER_KEEP_ALIVE_MILLIS = 1000;
+    private static final int    CAPTURE_BUFFER_SIZE      = 1 << 10;
+
     private Logger          logger         = Logger.getLogger(Recorder.class);
 
-    private BufferedWriter writer;
-    private String         filename;
-    private NumberFormat   decimalFormatter;
+    private OutputStream       out;
+    private String             filename;
+    private int                digits;
+    private OutputFormat       format;
+    private String[]           columnNames;
+    private byte[]             columnTypes;
+    private boolean            hasContent;
+    private ThreadPoolExecutor writerThread;
+
+    private final Queue<RowBuffer>      rowBuffers      = new ConcurrentLinkedQueue<RowBuffer>();
+    private final ThreadLocal<RowBuffer> threadRowBuffer = new ThreadLocal<RowBuffer>() {
+        @Override
+        protected RowBuffer initialValue() {
+            RowBuffer rowBuffer = newRowBuffer(BUFFER_SIZE, false);
+            rowBuffers.add(rowBuffer);
+            return rowBuffer;
+        }
+    };
+    private final ThreadLocal<RowBuffer> threadCaptureBuffer = new ThreadLocal<RowBuffer>() {
+        @Override
+        protected RowBuffer initialValue() {
+            return newRowBuffer(CAPTURE_BUFFER_SIZE, true);
+        }
+    };
 
     public Recorder(String filename) {
-        this(filename, DEFAULT_DIGITS);
+        this(filename, RecorderOptions.DEFAULTS);
     }
 
     public Recorder(String filename, int digits) {
+        this(filename, RecorderOptions.builder().digits(digits).build());
+    }
+
+    /**
+     * Creates a recorder writing to the given file with the given options. If
+     * the options append, the rows are added to the end of an existing file
+     * without writing the header again. If the compression level is not
+     * {@link #UNCOMPRESSED}, the file is compressed with gzip at that level
+     * (see {@link java.util.zip.Deflater}) and its name gets a <tt>.gz</tt>
+     * suffix. When appending, the last gzip member, binary block or text line
+     * of the file is dropped if it was cut short, and so are the rows of the
+     * sims not kept by the options (see {@link RecorderOptions}).
+     * 
+     * @param filename
+     * @param options
+     * @throws IllegalArgumentException
+     *             if the options compress a binary file
+     */
+    public Recorder(String filename, RecorderOptions options) {
+        if (options.getFormat() == OutputFormat.BINARY && options.getCompressionLevel() != UNCOMPRESSED) {
+            throw new IllegalArgumentException("The binary file " + filename + " cannot be compressed");
+        }
+        boolean append = options.isAppend();
+        int compressionLevel = options.getCompressionLevel();
+        if (compressionLevel != UNCOMPRESSED) {
+            filename = filename + ".gz";
+        }
         try {
             logger.info("Creating " + this.getClass().getSimpleName());
-            writer = new BufferedWriter(new FileWriter(filename));
+            File file = new File(filename);
+            if (append && file.length() > 0) {
+                if (compressionLevel != UNCOMPRESSED) {
+                    GzipMemberOutputStream.truncateToCompleteMembers(file);
+                } else if (options.getFormat() == OutputFormat.BINARY) {
+                    ColumnarReader.truncateToCompleteBlocks(file);
+                } else {
+                    truncateToCompleteLines(file);
+                }
+                if (options.getKeptSimIds() != null && file.length() > 0) {
+                    SimRowFilter.keepSims(file, options, options.getKeptSimIds());
+                }
+            }
+            if (append && options.getFormat() == OutputFormat.BINARY && file.length() > 0) {
+                ColumnarReader reader = new ColumnarReader(file);
+                if (reader.getNumBlocks() > 0) {
+                    columnTypes = reader.getColumnTypes();
+                } else {
+                    // Only the header, whose types were not fixed by any row
+                    append = false;
+                }
+            }
+            hasContent = append && file.length() > 0;
+            if (compressionLevel != UNCOMPRESSED) {
+                out = new GzipMemberOutputStream(new BufferedOutputStream(new FileOutputStream(filename, append)),
+                        compressionLevel, BUFFER_SIZE);
+            } else {
+                out = new BufferedOutputStream(new FileOutputStream(filename, append), BUFFER_SIZE);
+            }
             this.filename = filename;
         } catch (IOException e) {
             System.out.println("Problems creating " + filename);
             e.printStackTrace();
             System.exit(-1);
         }
-        decimalFormatter = NumberFormat.getNumberInstance();
-        decimalFormatter.setMaximumFractionDigits(digits);
-        decimalFormatter.setGroupingUsed(false);
+        this.digits = options.getDigits();
+        this.format = options.getFormat();
+        final String threadName = "writer-" + new File(filename).getName();
+        writerThread = new ThreadPoolExecutor(0, 1, WRITER_KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(MAX_PENDING_WRITES), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, new RejectedExecutionHandler() {
+                    @Override
+                    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+                        // The queue is full, so wait for the writer thread
+                        // to make room instead of dropping the rows
+                        if (executor.isShutdown()) {
+                            throw new RejectedExecutionException(threadName + " is closed");
+                        }
+                        try {
+                            executor.getQueue().put(runnable);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Interrupted while waiting for " + threadName, e);
+                        }
+                    }
+                });
     }
 
     public void record(String line) {
-        writeToFile(line);
+        threadRowBuffer.get().appendLine(line);
     }
 
     public void record(Object[] row) {
-        StringBuilder line = new StringBuilder();
-        for (int i = 0; i < row.length; i++) {
-            if (row[i] instanceof Double) {
-                Double number = (Double) row[i];
-                if ( number.isInfinite() || number.isNaN() ) {
-                    line.append(String.format("%s", number));
-                } else {
-                    line.append(decimalFormatter.format(number));
-                }
-            } else {
-                line.append(row[i]);
-            }
-            line.append(" ");
-        }
-        record(line.toString());
+        threadRowBuffer.get().appendRow(row);
+    }
+
+    /**
+     * Returns the writer of a new row for the calling thread, which formats
+     * the values straight into the buffer of the thread. The row must be
+     * ended before another row is written by the same thread.
+     * 
+     * @return row writer
+     */
+    public RowWriter newRow() {
+        return threadRowBuffer.get();
+    }
+
+    public OutputFormat getFormat() {
+        return format;
     }
 
     public void recordBeforeEvent(Sim sim, Event event) {
@@ -86,34 +246,480 @@ public class Recorder {
 
     }
 
+    /**
+     * Hands the rows buffered by the calling thread to the writer thread,
+     * without waiting for them to be written.
+     */
+    public void handOffBufferedRows() {
+        threadRowBuffer.get().handOff();
+    }
+
+    /**
+     * Starts capturing the rows recorded by the calling thread, which are kept
+     * apart from its other rows until {@link #endCapture()} is called, so that
+     * a filter can decide later whether to record them (see
+     * {@link #recordCaptured(CapturedRows)}) or drop them.
+     */
+    void beginCapture() {
+        RowBuffer captureBuffer = threadCaptureBuffer.get();
+        captureBuffer.capturedFrom = threadRowBuffer.get();
+        threadRowBuffer.set(captureBuffer);
+    }
+
+    /**
+     * Stops capturing the rows recorded by the calling thread and returns
+     * them.
+     * 
+     * @return rows
+     */
+    CapturedRows endCapture() {
+        RowBuffer captureBuffer = threadRowBuffer.get();
+        threadRowBuffer.set(captureBuffer.capturedFrom);
+        captureBuffer.capturedFrom = null;
+        return captureBuffer.takeRows();
+    }
+
+    /**
+     * Records the captured rows as if the calling thread had just recorded
+     * them.
+     * 
+     * @param rows
+     */
+    void recordCaptured(CapturedRows rows) {
+        threadRowBuffer.get().appendRows(rows);
+    }
+
+    /**
+     * Writes the rows buffered by all the threads to the file, and blocks
+     * until they have been written.
+     */
+    public void flush() {
+        handOffAllBufferedRows();
+        Future<?> flushed = writerThread.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    System.out.println("Problems flushing metric at " + filename);
+                    System.exit(-1);
+                }
+            }
+        });
+        try {
+            flushed.get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.out.println("Problems flushing metric at " + filename);
+            System.exit(-1);
+        }
+    }
+
     public void close() {
         try {
             logger.info("Closing " + this.getClass().getSimpleName());
-            writer.close();
-        } catch (IOException e) {
+            handOffAllBufferedRows();
+            if (format == OutputFormat.BINARY && columnNames != null) {
+                // Write the header even if no rows were recorded
+                fixColumnTypes(new ArrayList<Object[]>());
+            }
+            writerThread.shutdown();
+            writerThread.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            out.close();
+        } catch (IOException | InterruptedException e) {
             System.out.println("Problems closing metric at " + filename);
             System.exit(-1);
         }
     }
 
     public void writeHeader(Class<?> columns) {
-        String header = "";
-        for (Object col : columns.getEnumConstants()) {
-            header += col.toString() + " ";
+        Object[] constants = columns.getEnumConstants();
+        columnNames = new String[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            columnNames[i] = constants[i].toString();
+        }
+        if (hasContent) {
+            // Appending to a file that already has the header
+            return;
+        }
+        // Bypass the buffer of the thread so that the header is written first.
+        // The binary header is written with the first block
+        if (format != OutputFormat.BINARY) {
+            String header = "";
+            for (String columnName : columnNames) {
+                header += columnName + " ";
+            }
+            writeToFile((header + LINE_SEPARATOR).getBytes(Charset.defaultCharset()));
         }
-        writeToFile(header);
     }
 
-    private void writeToFile(String line) {
-        try {
-            synchronized (writer) {
-                writer.write(line);
-                writer.newLine();
+    /**
+     * Returns the number of buffers waiting for the writer thread.
+     */
+    int getNumPendingWrites() {
+        return writerThread.getQueue().size();
+    }
+
+    /**
+     * Fixes the type of each column from the given rows of the first block
+     * and writes the header, unless the types have been fixed already.
+     *
+     * @param rows
+     * @return the type of each column
+     */
+    private synchronized byte[] fixColumnTypes(List<Object[]> rows) {
+        if (columnTypes == null) {
+            columnTypes = ColumnarFormat.getColumnTypes(rows, columnNames.length);
+            writeToFile(ColumnarFormat.encodeHeader(columnNames, columnTypes));
+        }
+        return columnTypes;
+    }
+
+    /**
+     * Truncates the text file after its last line separator, dropping the
+     * row that was cut short when the file was last written, if any.
+     */
+    private static void truncateToCompleteLines(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long size = raf.length();
+            long end = size;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (end > 0) {
+                int numRead = (int) Math.min(buffer.length, end);
+                raf.seek(end - numRead);
+                raf.readFully(buffer, 0, numRead);
+                int i = numRead - 1;
+                while (i >= 0 && buffer[i] != '\n') {
+                    i--;
+                }
+                end -= numRead - i - 1;
+                if (i >= 0) {
+                    break;
+                }
             }
-        } catch (IOException e) {
-            System.out.println("Problems writing line in " + filename);
-            System.exit(-1);
+            if (end < size) {
+                Logger.getLogger(Recorder.class).warn(
+                        String.format("Truncating %s from %d to %d bytes", file, size, end));
+                raf.getChannel().truncate(end);
+            }
+        }
+    }
+
+    private static NumberFormat newDecimalFormatter(int digits) {
+        NumberFormat decimalFormatter = NumberFormat.getNumberInstance();
+        decimalFormatter.setMaximumFractionDigits(digits);
+        decimalFormatter.setGroupingUsed(false);
+        return decimalFormatter;
+    }
+
+    private RowBuffer newRowBuffer(int capacity, boolean isCapture) {
+        return format == OutputFormat.BINARY ? new ColumnarRowBuffer(isCapture) : new TextRowBuffer(capacity, isCapture);
+    }
+
+    private void handOffAllBufferedRows() {
+        for (RowBuffer rowBuffer : rowBuffers) {
+            rowBuffer.handOff();
+        }
+    }
+
+    private void writeToFile(final byte[] bytes) {
+        writerThread.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    out.write(bytes);
+                } catch (IOException e) {
+                    System.out.println("Problems writing line in " + filename);
+                    System.exit(-1);
+                }
+            }
+        });
+    }
+
+    /**
+     * The rows recorded by a thread, as captured by
+     * {@link Recorder#endCapture()}.
+     */
+    static final class CapturedRows {
+
+        private final byte[]         text;
+        private final List<Object[]> rows;
+
+        private CapturedRows(byte[] text, List<Object[]> rows) {
+            this.text = text;
+            this.rows = rows;
+        }
+
+        boolean isEmpty() {
+            return text != null ? text.length == 0 : rows.isEmpty();
+        }
+
+    }
+
+    /**
+     * The rows recorded by a thread that have not been handed to the writer
+     * thread yet. Only its thread appends to the buffer, but other threads may
+     * hand it off when flushing or closing the recorder. A buffer capturing
+     * the rows of its thread is never handed off; its rows are taken instead.
+     */
+    private abstract class RowBuffer implements RowWriter {
+
+        final boolean isCapture;
+        RowBuffer     capturedFrom;
+
+        RowBuffer(boolean isCapture) {
+            this.isCapture = isCapture;
+        }
+
+        abstract void appendLine(String line);
+
+        abstract void appendRow(Object[] row);
+
+        abstract void appendRows(CapturedRows rows);
+
+        abstract CapturedRows takeRows();
+
+        abstract void handOff();
+
+    }
+
+    private class TextRowBuffer extends RowBuffer {
+
+        private final TextBuffer   rows;
+        // The row being written, which only its thread touches, so the values
+        // are formatted without holding the lock of the buffer
+        private final TextBuffer   row;
+        private final boolean      isDotSeparator  = DecimalFormatSymbols.getInstance().getDecimalSeparator() == '.';
+        private final NumberFormat decimalFormatter;
+
+        private TextRowBuffer(int capacity, boolean isCapture) {
+            super(isCapture);
+            rows = new TextBuffer(capacity);
+            row = new TextBuffer(CAPTURE_BUFFER_SIZE);
+            decimalFormatter = newDecimalFormatter(digits);
+        }
+
+        @Override
+        void appendLine(String line) {
+            row.append(line);
+            endRow();
+        }
+
+        @Override
+        void appendRow(Object[] row) {
+            for (int i = 0; i < row.length; i++) {
+                writeObject(row[i]);
+            }
+            endRow();
+        }
+
+        @Override
+        public RowWriter writeInt(int value) {
+            return writeLong(value);
+        }
+
+        @Override
+        public RowWriter writeLong(long value) {
+            row.append(value);
+            row.append(' ');
+            return this;
+        }
+
+        @Override
+        public RowWriter writeDouble(double value) {
+            return writeDouble(value, digits);
+        }
+
+        @Override
+        public RowWriter writeDouble(double value, int digits) {
+            if (Double.isInfinite(value) || Double.isNaN(value)) {
+                row.append(Double.toString(value));
+            } else if (!isDotSeparator || !row.appendDecimal(value, digits, false)) {
+                NumberFormat formatter = digits == Recorder.this.digits ? decimalFormatter
+                        : newDecimalFormatter(digits);
+                row.append(formatter.format(value));
+            }
+            row.append(' ');
+            return this;
+        }
+
+        @Override
+        public RowWriter writeTime(TimeInstant time) {
+            double value = time.doubleValue();
+            if (!isDotSeparator || !row.appendDecimal(value, 5, true)) {
+                row.append(time.toString());
+            }
+            row.append(' ');
+            return this;
+        }
+
+        @Override
+        public RowWriter writeString(String value) {
+            row.append(value);
+            row.append(' ');
+            return this;
+        }
+
+        @Override
+        public RowWriter writeObject(Object value) {
+            if (value instanceof Double) {
+                return writeDouble((Double) value);
+            } else if (value instanceof TimeInstant) {
+                return writeTime((TimeInstant) value);
+            } else if (value instanceof Integer || value instanceof Long) {
+                return writeLong(((Number) value).longValue());
+            } else {
+                return writeString(String.valueOf(value));
+            }
+        }
+
+        @Override
+        public void endRow() {
+            row.append(LINE_SEPARATOR);
+            appendCompleteRow();
+        }
+
+        private synchronized void appendCompleteRow() {
+            rows.append(row);
+            row.clear();
+            if (rows.length() >= BUFFER_SIZE && !isCapture) {
+                handOff();
+            }
+        }
+
+        @Override
+        synchronized void appendRows(CapturedRows captured) {
+            rows.append(captured.text);
+            if (rows.length() >= BUFFER_SIZE && !isCapture) {
+                handOff();
+            }
+        }
+
+        @Override
+        synchronized CapturedRows takeRows() {
+            return new CapturedRows(rows.removeFirst(rows.length()), null);
+        }
+
+        @Override
+        synchronized void handOff() {
+            if (rows.length() > 0) {
+                writeToFile(rows.removeFirst(rows.length()));
+            }
+        }
+
+    }
+
+    private class ColumnarRowBuffer extends RowBuffer {
+
+        private final List<Object[]> rows;
+        private Object[]             row;
+        private int                  numValues;
+
+        private ColumnarRowBuffer(boolean isCapture) {
+            super(isCapture);
+            rows = isCapture ? new ArrayList<Object[]>() : new ArrayList<Object[]>(BLOCK_NUM_ROWS);
+        }
+
+        @Override
+        void appendLine(String line) {
+            appendRow(ColumnarFormat.parseLine(line, getNumColumns()));
+        }
+
+        @Override
+        synchronized void appendRow(Object[] row) {
+            if (row.length != getNumColumns()) {
+                throw new IllegalArgumentException(String.format("Expected %d columns in %s but got %d",
+                        getNumColumns(), filename, row.length));
+            }
+            // The recorders may reuse their row arrays
+            rows.add(row.clone());
+            if (rows.size() >= BLOCK_NUM_ROWS && !isCapture) {
+                handOff();
+            }
+        }
+
+        @Override
+        synchronized void appendRows(CapturedRows captured) {
+            rows.addAll(captured.rows);
+            if (rows.size() >= BLOCK_NUM_ROWS && !isCapture) {
+                handOff();
+            }
+        }
+
+        @Override
+        synchronized CapturedRows takeRows() {
+            CapturedRows captured = new CapturedRows(null, new ArrayList<Object[]>(rows));
+            rows.clear();
+            return captured;
+        }
+
+        @Override
+        public RowWriter writeInt(int value) {
+            return writeObject(value);
+        }
+
+        @Override
+        public RowWriter writeLong(long value) {
+            return writeObject(value);
         }
+
+        @Override
+        public RowWriter writeDouble(double value) {
+            return writeObject(value);
+        }
+
+        @Override
+        public RowWriter writeDouble(double value, int digits) {
+            return writeObject(value);
+        }
+
+        @Override
+        public RowWriter writeTime(TimeInstant time) {
+            return writeObject(time.doubleValue());
+        }
+
+        @Override
+        public RowWriter writeString(String value) {
+            return writeObject(value);
+        }
+
+        @Override
+        public RowWriter writeObject(Object value) {
+            if (row == null) {
+                row = new Object[getNumColumns()];
+            }
+            if (numValues == row.length) {
+                throw new IllegalArgumentException(String.format("Expected %d columns in %s", row.length, filename));
+            }
+            row[numValues++] = value;
+            return this;
+        }
+
+        @Override
+        public void endRow() {
+            int numColumns = numValues;
+            numValues = 0;
+            if (row == null || numColumns != row.length) {
+                throw new IllegalArgumentException(String.format("Expected %d columns in %s but got %d",
+                        getNumColumns(), filename, numColumns));
+            }
+            appendRow(row);
+        }
+
+        @Override
+        synchronized void handOff() {
+            if (!rows.isEmpty()) {
+                writeToFile(ColumnarFormat.encodeBlock(rows, fixColumnTypes(rows)));
+                rows.clear();
+            }
+        }
+
+        private int getNumColumns() {
+            if (columnNames == null) {
+                throw new IllegalStateException("The columns of " + filename + " must be given in the header");
+            }
+            return columnNames.length;
+        }
+
     }
 
 }
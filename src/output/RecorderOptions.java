@@ -0,0 +1,54 @@
+package output;
+
+import java.util.Set;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The options of the files written by a {@link Recorder}. The defaults write
+ * a new text file, uncompressed and with {@link Recorder#DEFAULT_DIGITS}
+ * fraction digits.
+ *
+ * @author ftubilla
+ *
+ */
+@ToString
+@Getter
+@Builder(toBuilder = true)
+public class RecorderOptions {
+
+    public static final RecorderOptions DEFAULTS = RecorderOptions.builder().build();
+
+    /*
+     * If true, the rows are added to the end of an existing file (e.g., when
+     * resuming an experiment) without writing the header again
+     */
+    @Builder.Default
+    private final boolean append = false;
+
+    @Builder.Default
+    private final OutputFormat format = OutputFormat.TEXT;
+
+    /*
+     * The gzip level of the file (see java.util.zip.Deflater), or
+     * Recorder.UNCOMPRESSED. Binary files cannot be compressed
+     */
+    @Builder.Default
+    private final int compressionLevel = Recorder.UNCOMPRESSED;
+
+    /*
+     * The maximum number of fraction digits of the decimals written as text
+     */
+    @Builder.Default
+    private final int digits = Recorder.DEFAULT_DIGITS;
+
+    /*
+     * If not null, the rows of any other sim are dropped from an existing file
+     * before appending to it (e.g., the rows of the sims that were cut short
+     * when resuming an experiment)
+     */
+    private final Set<Integer> keptSimIds;
+
+}
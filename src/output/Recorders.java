@@ -1,72 +1,129 @@
 package output;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import discreteEvent.Event;
+import params.FilterParams;
+import params.Params;
 import sim.Sim;
 
+/**
+ * The recorders of an experiment. The recorders can be shared by sims running
+ * in parallel, as long as each sim runs on a single thread at a time; the
+ * state that a recorder keeps for a sim is kept separately for each sim.
+ * <p>
+ * The high frequency rows of a recorder pass through the filters given for it
+ * in the params of the sim (see {@link Params#getRecorderFilters()}), with a
+ * separate {@link FilterChain} for the rows recorded before and after each
+ * event.
+ * 
+ * @author ftubilla
+ *
+ */
 public class Recorders {
 
     private Set<Recorder> recorders = new LinkedHashSet<Recorder>();
 
+    private final Map<Sim, Map<Recorder, FilterChain>> beforeEventFilterChains = new ConcurrentHashMap<Sim, Map<Recorder, FilterChain>>();
+    private final Map<Sim, Map<Recorder, FilterChain>> afterEventFilterChains  = new ConcurrentHashMap<Sim, Map<Recorder, FilterChain>>();
+
     public Recorders() {
-        recorders.add(new InterEventLengthsRecorder());
-        recorders.add(new FailureEventsRecorder());
-        recorders.add(new TimeMetricsRecorder());
-        recorders.add(new ParamsRecorder());
-        recorders.add(new AverageSurplusMetricsRecorder());
-        recorders.add(new AverageSurplusByServiceLevelMetricsRecorder());
-        recorders.add(new TimeFractionsRecorder());
-        recorders.add(new PolicySpecificRecorder());
-        recorders.add(new BatchedAverageSurplusMetricsRecorder());
-        recorders.add(new ServiceLevelControllerRecorder());
-        recorders.add(new EventCountMetricsRecorder());
+        this(new File(Recorder.DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    /**
+     * Creates the default recorders, writing their files to the given
+     * directory with the given options.
+     * 
+     * @param outputDir
+     * @param options
+     */
+    public Recorders(File outputDir, RecorderOptions options) {
+        recorders.add(new InterEventLengthsRecorder(outputDir, options));
+        recorders.add(new FailureEventsRecorder(outputDir, options));
+        recorders.add(new TimeMetricsRecorder(outputDir, options));
+        recorders.add(new ParamsRecorder(outputDir, options));
+        recorders.add(new AverageSurplusMetricsRecorder(outputDir, options));
+        recorders.add(new AverageSurplusByServiceLevelMetricsRecorder(outputDir, options));
+        recorders.add(new TimeFractionsRecorder(outputDir, options));
+        recorders.add(new PolicySpecificRecorder(outputDir, options));
+        recorders.add(new BatchedAverageSurplusMetricsRecorder(outputDir, options));
+        recorders.add(new ServiceLevelControllerRecorder(outputDir, options));
+        recorders.add(new EventCountMetricsRecorder(outputDir, options));
     }
 
     public Recorders(Collection<Recorder> recordersCollection) {
         recorders.addAll(recordersCollection);
     }
 
-    public synchronized void updateBeforeEvent(Sim sim, Event event) {
+    public void updateBeforeEvent(Sim sim, Event event) {
         for (Recorder recorder : recorders) {
             recorder.updateBeforeEvent(sim, event);
         }
     }
 
-    public synchronized void recordBeforeEvent(Sim sim, Event event) {
-        if (sim.isTimeToRecordData()) {
+    public void recordBeforeEvent(Sim sim, Event event) {
+        if (sim.isTimeToRecordData() && sim.getParams().isRecordHighFreq()) {
+            Map<Recorder, FilterChain> filterChains = getFilterChains(beforeEventFilterChains, sim);
             for (Recorder recorder : recorders) {
-                if (sim.getParams().isRecordHighFreq()) {
+                FilterChain filterChain = filterChains.get(recorder);
+                if (filterChain == null) {
                     recorder.recordBeforeEvent(sim, event);
+                } else {
+                    filterChain.record(recorder, sim, r -> r.recordBeforeEvent(sim, event));
                 }
             }
         }
     }
 
-    public synchronized void updateAfterEvent(Sim sim, Event event) {
+    public void updateAfterEvent(Sim sim, Event event) {
         for (Recorder recorder : recorders) {
             recorder.updateAfterEvent(sim, event);
         }
     }
 
-    public synchronized void recordAfterEvent(Sim sim, Event event) {
-        if (sim.isTimeToRecordData()) {
+    public void recordAfterEvent(Sim sim, Event event) {
+        if (sim.isTimeToRecordData() && sim.getParams().isRecordHighFreq()) {
+            Map<Recorder, FilterChain> filterChains = getFilterChains(afterEventFilterChains, sim);
             for (Recorder recorder : recorders) {
-                if (sim.getParams().isRecordHighFreq()) {
+                FilterChain filterChain = filterChains.get(recorder);
+                if (filterChain == null) {
                     recorder.recordAfterEvent(sim, event);
+                } else {
+                    filterChain.record(recorder, sim, r -> r.recordAfterEvent(sim, event));
                 }
             }
         }
     }
 
-    public synchronized void recordEndOfSim(Sim sim) {
+    public void recordEndOfSim(Sim sim) {
+        finishFilterChains(beforeEventFilterChains.remove(sim));
+        finishFilterChains(afterEventFilterChains.remove(sim));
         if (sim.isTimeToRecordData()) {
             for (Recorder recorder : recorders) {
                 recorder.recordEndOfSim(sim);
             }
         }
+        for (Recorder recorder : recorders) {
+            recorder.handOffBufferedRows();
+        }
+    }
+
+    /**
+     * Writes the buffered rows of all the recorders to their files.
+     */
+    public void flushAll() {
+        for (Recorder recorder : recorders) {
+            recorder.flush();
+        }
     }
 
     public void closeAll() {
@@ -75,4 +132,31 @@ public class Recorders {
         }
     }
 
+    private Map<Recorder, FilterChain> getFilterChains(Map<Sim, Map<Recorder, FilterChain>> simFilterChains, Sim sim) {
+        Map<String, ? extends List<FilterParams>> recorderFilters = sim.getParams().getRecorderFilters();
+        if (recorderFilters == null || recorderFilters.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Recorder, FilterChain> filterChains = simFilterChains.get(sim);
+        if (filterChains == null) {
+            filterChains = new HashMap<Recorder, FilterChain>();
+            for (Recorder recorder : recorders) {
+                List<FilterParams> filterParamsList = recorderFilters.get(recorder.getClass().getSimpleName());
+                if (filterParamsList != null && !filterParamsList.isEmpty()) {
+                    filterChains.put(recorder, new FilterChain(filterParamsList));
+                }
+            }
+            simFilterChains.put(sim, filterChains);
+        }
+        return filterChains;
+    }
+
+    private void finishFilterChains(Map<Recorder, FilterChain> filterChains) {
+        if (filterChains != null) {
+            for (Map.Entry<Recorder, FilterChain> entry : filterChains.entrySet()) {
+                entry.getValue().finish(entry.getKey());
+            }
+        }
+    }
+
 }
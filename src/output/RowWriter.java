@@ -0,0 +1,51 @@
+package output;
+
+import sim.TimeInstant;
+
+/**
+ * Writes a row of a {@link Recorder} value by value, without boxing the
+ * values or creating intermediate strings. The values are written in the
+ * order of the columns and the row is complete once {@link #endRow()} is
+ * called, e.g.,
+ * 
+ * <pre>
+ * recorder.newRow().writeInt(sim.getId()).writeTime(sim.getTime()).writeDouble(surplus).endRow();
+ * </pre>
+ * 
+ * The text written for each value is the same as that of
+ * {@link Recorder#record(Object[])}.
+ * 
+ * @author ftubilla
+ *
+ */
+public interface RowWriter {
+
+    public RowWriter writeInt(int value);
+
+    public RowWriter writeLong(long value);
+
+    /**
+     * Writes the value with the number of digits of the recorder.
+     * 
+     * @param value
+     * @return this
+     */
+    public RowWriter writeDouble(double value);
+
+    public RowWriter writeDouble(double value, int digits);
+
+    /**
+     * Writes the time with 5 fixed digits, as {@link TimeInstant#toString()}.
+     * 
+     * @param time
+     * @return this
+     */
+    public RowWriter writeTime(TimeInstant time);
+
+    public RowWriter writeString(String value);
+
+    public RowWriter writeObject(Object value);
+
+    public void endRow();
+
+}
@@ -1,5 +1,7 @@
 package output;
 
+import java.io.File;
+
 import discreteEvent.ControlEvent;
 import discreteEvent.Event;
 import policies.IServiceLevelController;
@@ -13,7 +15,11 @@ public class ServiceLevelControllerRecorder extends Recorder {
     };
 
     public ServiceLevelControllerRecorder() {
-        super("output/service_level_controller_metrics.txt");
+        this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    public ServiceLevelControllerRecorder(File outputDir, RecorderOptions options) {
+        super(new File(outputDir, options.getFormat().getFileName("service_level_controller_metrics")).getPath(), options);
         super.writeHeader(Column.class);
     }
 
@@ -0,0 +1,147 @@
+package output;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * Drops the rows of a recorder file whose sim id is not in a given set, so
+ * that the rows left by the sims that were cut short when an experiment
+ * stopped are not mixed with those of the sims that run again when it is
+ * resumed. The file is rewritten to a temporary file, which is then moved
+ * into place, and a file without a {@link ColumnarReader#SIM_ID_COLUMN}
+ * column is left as it is. The file must end with a complete row, gzip member
+ * or block.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+final class SimRowFilter {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private SimRowFilter() {
+        /* Do not instantiate */
+    }
+
+    /**
+     * Keeps only the rows of the given sims in the file, which was written
+     * with the given options.
+     *
+     * @param file
+     * @param options
+     * @param simIds
+     * @throws IOException
+     */
+    static void keepSims(File file, RecorderOptions options, Set<Integer> simIds) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        int numDropped = options.getFormat() == OutputFormat.BINARY ? keepBinarySims(file, tempFile, simIds)
+                : keepTextSims(file, tempFile, options.getCompressionLevel(), simIds);
+        if (numDropped < 0) {
+            Files.deleteIfExists(tempFile.toPath());
+            return;
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        if (numDropped > 0) {
+            log.warn(String.format("Dropped %d rows of incomplete sims from %s", numDropped, file));
+        }
+    }
+
+    /**
+     * Returns the number of rows dropped, or -1 if the file has no sim ids.
+     */
+    private static int keepTextSims(File file, File tempFile, int compressionLevel, Set<Integer> simIds)
+            throws IOException {
+        Charset charset = Charset.defaultCharset();
+        InputStream in = new FileInputStream(file);
+        if (compressionLevel != Recorder.UNCOMPRESSED) {
+            in = new GZIPInputStream(in, Recorder.BUFFER_SIZE);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset), Recorder.BUFFER_SIZE)) {
+            String header = reader.readLine();
+            int simIdCol = header == null ? -1
+                    : Arrays.asList(header.trim().split(" +")).indexOf(ColumnarReader.SIM_ID_COLUMN);
+            if (simIdCol < 0) {
+                return -1;
+            }
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile), Recorder.BUFFER_SIZE);
+            if (compressionLevel != Recorder.UNCOMPRESSED) {
+                out = new GzipMemberOutputStream(out, compressionLevel, Recorder.BUFFER_SIZE);
+            }
+            int numDropped = 0;
+            try {
+                out.write((header + LINE_SEPARATOR).getBytes(charset));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] tokens = line.trim().split(" +", simIdCol + 2);
+                    if (tokens.length > simIdCol && isKept(tokens[simIdCol], simIds)) {
+                        out.write((line + LINE_SEPARATOR).getBytes(charset));
+                    } else {
+                        numDropped++;
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            return numDropped;
+        }
+    }
+
+    /**
+     * Returns the number of rows dropped, or -1 if the file has no sim ids.
+     */
+    private static int keepBinarySims(File file, File tempFile, Set<Integer> simIds) throws IOException {
+        ColumnarReader reader = new ColumnarReader(file);
+        int simIdCol = reader.getColumnNames().indexOf(ColumnarReader.SIM_ID_COLUMN);
+        if (simIdCol < 0) {
+            return -1;
+        }
+        String[] columnNames = reader.getColumnNames().toArray(new String[0]);
+        byte[] columnTypes = reader.getColumnTypes();
+        int numDropped = 0;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile), Recorder.BUFFER_SIZE)) {
+            out.write(ColumnarFormat.encodeHeader(columnNames, columnTypes));
+            for (int block = 0; block < reader.getNumBlocks(); block++) {
+                List<Object[]> keptRows = new ArrayList<Object[]>();
+                for (Object[] row : reader.readBlock(block)) {
+                    if (row[simIdCol] instanceof Number && simIds.contains(((Number) row[simIdCol]).intValue())) {
+                        keptRows.add(row);
+                    } else {
+                        numDropped++;
+                    }
+                }
+                if (!keptRows.isEmpty()) {
+                    out.write(ColumnarFormat.encodeBlock(keptRows, columnTypes));
+                }
+            }
+        }
+        return numDropped;
+    }
+
+    private static boolean isKept(String simId, Set<Integer> simIds) {
+        try {
+            return simIds.contains(Integer.parseInt(simId));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+}
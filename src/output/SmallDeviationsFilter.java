@@ -8,7 +8,18 @@ public class SmallDeviationsFilter implements IFilter {
 	private double cutoff;
 	private Item item;
 	
+	/**
+	 * Passes the events at which the surplus deviation of some item is at
+	 * least the cutoff.
+	 *
+	 * @param cutoff
+	 */
+	public SmallDeviationsFilter(double cutoff){
+		this(null, cutoff);
+	}
+
 	public SmallDeviationsFilter(Item item, double cutoff){
+		this.item = item;
 		this.cutoff = cutoff;
 	}
 	
@@ -16,7 +27,15 @@ public class SmallDeviationsFilter implements IFilter {
 	@Override
 	public boolean passFilter(Sim sim) {
 		
-		
+		if (item == null) {
+			for (Item anItem : sim.getMachine()) {
+				if (anItem.getSurplusDeviation() >= cutoff) {
+					return true;
+				}
+			}
+			return false;
+		}
+
 		if ( item.getSurplusDeviation() >= cutoff){
 			return true;
 		} else{
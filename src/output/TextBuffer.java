@@ -0,0 +1,242 @@
+package output;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A growable array of bytes into which the values of the rows of a text file
+ * are formatted directly, without creating intermediate strings.
+ * <p>
+ * The decimals are rounded as the JDK formatters round them, with longs
+ * instead of strings. The values that are too large or have
+ * more than 9 digits, and those too close to a tie, are not formatted, so
+ * that the caller can fall back on the slower JDK formatters and the output
+ * is always the same.
+ *
+ * @author ftubilla
+ *
+ */
+final class TextBuffer {
+
+    static final int MAX_FAST_DIGITS = 9;
+
+    private static final long[] POWERS_OF_TEN  = new long[19];
+    private static final double MAX_FAST_VALUE = 1L << 53;
+    private static final double TIE_TOLERANCE  = 1e-6;
+    private static final double ULP_TOLERANCE  = 1e-7;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = 10 * POWERS_OF_TEN[i - 1];
+        }
+    }
+
+    private byte[] bytes;
+    private int    length;
+
+    TextBuffer(int capacity) {
+        bytes = new byte[capacity];
+    }
+
+    int length() {
+        return length;
+    }
+
+    void append(char c) {
+        ensureCapacity(1);
+        bytes[length++] = (byte) c;
+    }
+
+    void append(String value) {
+        int n = value.length();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Let the charset encode the rest of the string
+                byte[] encoded = value.substring(i).getBytes(Charset.defaultCharset());
+                ensureCapacity(encoded.length);
+                System.arraycopy(encoded, 0, bytes, length, encoded.length);
+                length += encoded.length;
+                return;
+            }
+            bytes[length++] = (byte) c;
+        }
+    }
+
+    void append(byte[] values) {
+        ensureCapacity(values.length);
+        System.arraycopy(values, 0, bytes, length, values.length);
+        length += values.length;
+    }
+
+    void append(TextBuffer other) {
+        ensureCapacity(other.length);
+        System.arraycopy(other.bytes, 0, bytes, length, other.length);
+        length += other.length;
+    }
+
+    void append(long value) {
+        if (value == Long.MIN_VALUE) {
+            append(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        appendDigits(value, 1);
+    }
+
+    /**
+     * Appends the value rounded to the given number of fraction digits, as
+     * {@link java.text.NumberFormat} does, or as
+     * <tt>String.format("%.5f", value)</tt> does if fixed is true. If fixed is
+     * true, the trailing zeros are kept; otherwise, they are dropped along
+     * with the decimal point. Returns false without appending anything if the
+     * value cannot be formatted by this method.
+     *
+     * @param value
+     * @param digits
+     * @param fixed
+     * @return true if the value was appended
+     */
+    boolean appendDecimal(double value, int digits, boolean fixed) {
+        double abs = Math.abs(value);
+        if (digits > MAX_FAST_DIGITS || !(abs < MAX_FAST_VALUE)) {
+            return false;
+        }
+        long scaled;
+        if (Math.ulp(abs) * POWERS_OF_TEN[digits] < ULP_TOLERANCE) {
+            scaled = roundExact(abs, digits);
+        } else {
+            scaled = roundWithinUlp(abs, digits);
+        }
+        if (scaled < 0) {
+            return false;
+        }
+        long integerPart = scaled / POWERS_OF_TEN[digits];
+        long fraction = scaled % POWERS_OF_TEN[digits];
+        if (Double.doubleToRawLongBits(value) < 0) {
+            append('-');
+        }
+        appendDigits(integerPart, 1);
+        if (fixed) {
+            if (digits > 0) {
+                append('.');
+                appendDigits(fraction, digits);
+            }
+        } else if (fraction > 0) {
+            int numDigits = digits;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                numDigits--;
+            }
+            append('.');
+            appendDigits(fraction, numDigits);
+        }
+        return true;
+    }
+
+    void clear() {
+        length = 0;
+    }
+
+    /**
+     * Returns a copy of the first bytes and removes them from the buffer.
+     *
+     * @param n
+     * @return bytes
+     */
+    byte[] removeFirst(int n) {
+        byte[] first = Arrays.copyOf(bytes, n);
+        System.arraycopy(bytes, n, bytes, 0, length - n);
+        length -= n;
+        return first;
+    }
+
+    /**
+     * Appends the digits of a non-negative value, padded with zeros on the
+     * left to the given minimum number of digits.
+     */
+    private void appendDigits(long value, int minDigits) {
+        int numDigits = 1;
+        while (numDigits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[numDigits]) {
+            numDigits++;
+        }
+        numDigits = Math.max(numDigits, minDigits);
+        ensureCapacity(numDigits);
+        for (int i = length + numDigits - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += numDigits;
+    }
+
+    /**
+     * Rounds the value times 10<sup>digits</sup> to the nearest long, or
+     * returns -1 if it is too close to a tie. The JDK formatters round the
+     * shortest decimal that uniquely distinguishes the value (see
+     * {@link Double#toString(double)}), which is within half an ulp of the
+     * value, so rounding the value itself gives the same result when the ulp
+     * is small and the value is not close to a tie.
+     */
+    private static long roundExact(double abs, int digits) {
+        long integerPart = (long) abs;
+        // The subtraction is exact and the product is within 1e-7 of the
+        // exact value, well inside the tolerance around the ties
+        double scaledFraction = (abs - integerPart) * POWERS_OF_TEN[digits];
+        long fraction = (long) scaledFraction;
+        double remainder = scaledFraction - fraction;
+        if (Math.abs(remainder - 0.5) < TIE_TOLERANCE) {
+            return -1;
+        }
+        if (remainder > 0.5) {
+            fraction++;
+        }
+        return integerPart * POWERS_OF_TEN[digits] + fraction;
+    }
+
+    /**
+     * Rounds the value times 10<sup>digits</sup> to the nearest long, or
+     * returns -1 if there is a tie within half an ulp of the value. The
+     * fraction of the value is a whole number of ulps, which are at least
+     * 2<sup>-53</sup> when this method is used, so its digits and the
+     * remainder are computed exactly with longs. The shortest decimal rounded
+     * by the JDK formatters is within half an ulp of the value, so both round
+     * to the same long when there is no tie in between.
+     */
+    private static long roundWithinUlp(double abs, int digits) {
+        int ulpExponent = -Math.getExponent(Math.ulp(abs));
+        if (ulpExponent <= 0 || ulpExponent > 53) {
+            return -1;
+        }
+        long integerPart = (long) abs;
+        // The fraction is exactly numerator / 2^ulpExponent
+        long numerator = (long) Math.scalb(abs - integerPart, ulpExponent);
+        long denominator = 1L << ulpExponent;
+        long fraction = 0;
+        for (int i = 0; i < digits; i++) {
+            numerator *= 10;
+            fraction = 10 * fraction + (numerator >>> ulpExponent);
+            numerator &= denominator - 1;
+        }
+        // The remainder is numerator / denominator and half an ulp is
+        // 10^digits / (2 * denominator) after scaling
+        if (Math.abs(2 * numerator - denominator) <= POWERS_OF_TEN[digits]) {
+            return -1;
+        }
+        if (2 * numerator > denominator) {
+            fraction++;
+        }
+        return integerPart * POWERS_OF_TEN[digits] + fraction;
+    }
+
+    private void ensureCapacity(int n) {
+        if (length + n > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + n));
+        }
+    }
+
+}
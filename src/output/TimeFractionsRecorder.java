@@ -1,5 +1,7 @@
 package output;
 
+import java.io.File;
+
 import metrics.TimeFractionsMetrics;
 import sim.Sim;
 import system.Item;
@@ -8,8 +10,12 @@ public class TimeFractionsRecorder extends Recorder {
 
 	public enum Column {SIM_ID, METRIC, ITEM, VALUE};
 
-	public TimeFractionsRecorder(){
-		super("output/time_fractions.txt");
+	public TimeFractionsRecorder() {
+		this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+	}
+
+	public TimeFractionsRecorder(File outputDir, RecorderOptions options) {
+		super(new File(outputDir, options.getFormat().getFileName("time_fractions")).getPath(), options);
 		super.writeHeader(Column.class);
 	}
 
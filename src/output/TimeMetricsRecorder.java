@@ -1,8 +1,10 @@
 package output;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 
@@ -33,9 +35,13 @@ public class TimeMetricsRecorder extends Recorder {
     };
 
     public TimeMetricsRecorder() {
-        super("output/time_metrics.txt");
+        this(new File(DEFAULT_OUTPUT_DIR), RecorderOptions.DEFAULTS);
+    }
+
+    public TimeMetricsRecorder(File outputDir, RecorderOptions options) {
+        super(new File(outputDir, options.getFormat().getFileName("time_metrics")).getPath(), options);
         super.writeHeader(Column.class);
-        lastNRows = new HashMap<Sim, Map<Item, Queue<Object[]>>>();
+        lastNRows = new ConcurrentHashMap<Sim, Map<Item, Queue<Object[]>>>();
     }
 
     @Override
@@ -44,8 +50,14 @@ public class TimeMetricsRecorder extends Recorder {
             logger.trace("Recording state of machine at time " + sim.getTime());
         }
         for (Item item : sim.getMachine()) {
-            Object[] row = getRow(item, sim);
-            record(row);
+            newRow().writeInt(sim.getId())
+                    .writeTime(sim.getTime())
+                    .writeInt(sim.getMachine().getSetup().getId())
+                    .writeInt(item.getId())
+                    .writeDouble(item.getSurplus())
+                    .writeDouble(item.getCumulativeProduction())
+                    .writeDouble(item.getCumulativeDemand())
+                    .endRow();
         }
     }
 
@@ -7,6 +7,7 @@ import com.google.common.collect.ImmutableList;
 import lombok.Getter;
 import lombok.ToString;
 import lowerbounds.SurplusCostLowerBound;
+import metrics.BatchMeansCostMetrics;
 import sequences.OptimalFCyclicSchedule;
 import system.Item;
 
@@ -20,6 +21,11 @@ public class DerivedParams extends AbstractParams {
     protected ImmutableList<Double>  surplusCostLowerBoundIdealSetupFreq;
     protected String                 gallegoRecoveryPolicySequence;
     protected double                 gallegoRecoveryPolicyOptimalFCyclicCost;
+    protected double                 runLength;
+    protected double                 metricsActualStartTime;
+    protected double                 warmupTruncationTime = Double.NaN;
+    protected double                 batchMeansStandardError = Double.NaN;
+    protected int                    batchMeansNumBatches;
 
     public DerivedParams(final Params params) {
 
@@ -47,6 +53,25 @@ public class DerivedParams extends AbstractParams {
         surplusCostLowerBoundIdealSetupFreq = freqListBuilder.build();
     }
 
+    /**
+     * Sets the length of the run and the actual start of the metrics. The
+     * batch-means estimate is only set if the batch-means metrics were kept,
+     * i.e., if the params set a target standard error.
+     */
+    public void setEndOfRun(final double runLength, final double metricsActualStartTime,
+            final BatchMeansCostMetrics batchMeansCostMetrics) {
+        this.runLength = runLength;
+        this.metricsActualStartTime = metricsActualStartTime;
+        if (batchMeansCostMetrics != null) {
+            this.batchMeansStandardError = batchMeansCostMetrics.getStandardError();
+            this.batchMeansNumBatches = batchMeansCostMetrics.getNumBatches();
+        }
+    }
+
+    public void setWarmupTruncationTime(final double warmupTruncationTime) {
+        this.warmupTruncationTime = warmupTruncationTime;
+    }
+
     public void setGallegoRecoveryPolicySequence(final OptimalFCyclicSchedule schedule) {
         StringBuilder sb = new StringBuilder();
         sb.append("[");
@@ -0,0 +1,60 @@
+package params;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import output.SampleRateFilter;
+
+/**
+ * The parameters of a filter of the high frequency rows of a recorder. The
+ * name is the simple name of the filter class, and only the parameters of
+ * that filter are used.
+ *
+ * @author ftubilla
+ *
+ */
+@AllArgsConstructor(staticName = "of")
+@ToString
+@Getter
+@Setter(AccessLevel.PACKAGE)
+@Builder(toBuilder = true)
+@JsonDeserialize( builder = FilterParams.FilterParamsBuilder.class )
+public class FilterParams extends AbstractParams {
+
+    @JsonProperty
+    @Builder.Default
+    protected String name = SampleRateFilter.class.getSimpleName();
+
+    /*
+     * For the SampleRateFilter
+     */
+    @JsonProperty
+    @Builder.Default
+    protected double samplePeriod = 1.0;
+
+    /*
+     * For the SmallDeviationsFilter
+     */
+    @JsonProperty
+    @Builder.Default
+    protected double deviationCutoff = 0.0;
+
+    /*
+     * For the LargestTriangleThreeBucketsFilter
+     */
+    @JsonProperty
+    @Builder.Default
+    protected double bucketLength = 1.0;
+
+    @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+    public static class FilterParamsBuilder {
+    }
+
+}
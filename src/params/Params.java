@@ -11,6 +11,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -135,6 +136,63 @@ public class Params extends AbstractParams {
     @Builder.Default
     protected int numBatchesForBatchedMetrics = 10;
 
+    /*
+     * Stop the sim before the final time once the batch-means standard error
+     * of the average cost falls below this target (if positive). The batches
+     * start with the given length and double as the run grows, and they are
+     * only computed if the target is positive
+     */
+    @JsonProperty
+    @Builder.Default
+    protected double batchMeansTargetStandardError = 0.0;
+
+    @JsonProperty
+    @Builder.Default
+    protected double batchMeansInitialBatchLength = 10.0;
+
+    /*
+     * Start recording the metrics as soon as the MSER-5 rule, applied to the
+     * average cost over intervals of the given length, detects the end of the
+     * warmup. The metrics start time is then the latest time to start
+     */
+    @JsonProperty
+    @Builder.Default
+    protected boolean automaticWarmup = false;
+
+    @JsonProperty
+    @Builder.Default
+    protected double warmupObservationLength = 1.0;
+
+    /*
+     * Draw the times to failure and repair with the ziggurat generator, which
+     * is faster but gives a different stream of intervals for the same seed
+     */
+    @JsonProperty
+    @Builder.Default
+    protected boolean zigguratSampling = false;
+
+    /*
+     * Draw the random variates from the non-overlapping streams of a
+     * RandomStreamFactory with the seed as the master seed. Replications of
+     * the same experiment should share the seed and differ in the replication.
+     */
+    @JsonProperty
+    @Builder.Default
+    protected boolean jumpableRandomStreams = false;
+
+    @JsonProperty
+    @Builder.Default
+    protected int replication = 0;
+
+    /*
+     * The filters of the high frequency rows of each recorder, keyed by the
+     * simple name of the recorder class. The rows recorded at an event pass
+     * through the filters in order
+     */
+    @JsonProperty
+    @Builder.Default
+    protected ImmutableMap<String, ImmutableList<FilterParams>> recorderFilters = ImmutableMap.of();
+
     @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
     public static class ParamsBuilder {
     }
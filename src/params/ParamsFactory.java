@@ -1,6 +1,7 @@
 package params;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -29,7 +30,10 @@ public class ParamsFactory {
     public Collection<Params> make() {
 
         if (jsonDir.isDirectory()) {
-            for (final File jsonFile : jsonDir.listFiles()) {
+            // Sort the files so that the sim ids do not change between runs
+            File[] jsonFiles = jsonDir.listFiles();
+            Arrays.sort(jsonFiles);
+            for (final File jsonFile : jsonFiles) {
                 if (isJson(jsonFile)) {
                     log.info(String.format("Reading json %s from %s", jsonFile, jsonDir));
                     this.paramsList.add(readFile(jsonFile));
@@ -65,6 +65,14 @@ public class PolicyParams extends AbstractParams {
     @Builder.Default
     protected Optional<Integer> maxProductionSequenceLength = Optional.empty();
 
+    /*
+     * The relative cost per event of the policy, used to dispatch the longest
+     * sims first (see ExperimentScheduler)
+     */
+    @JsonProperty
+    @Builder.Default
+    protected double costFactor = 1.0;
+
     /*
      * For the IdealDeviationAndFrequencyTrackingPolicy
      */
@@ -1,6 +1,8 @@
 package policies;
 
-import org.apache.log4j.Logger;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 
 import discreteEvent.Changeover;
 import discreteEvent.ControlEvent;
@@ -8,19 +10,18 @@ import lombok.Getter;
 import lombok.NonNull;
 import lowerbounds.SurplusCostLowerBound;
 import params.PolicyParams;
+import sim.CheckpointIO;
 import sim.Clock;
+import sim.ICheckpointable;
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
-public abstract class AbstractPolicy implements IPolicy {
+public abstract class AbstractPolicy implements IPolicy, ICheckpointable {
 
-    private static Logger logger = Logger.getLogger(AbstractPolicy.class);
-
-    @SuppressWarnings("unused")
-    private boolean debug = logger.isDebugEnabled();
-    private boolean trace = logger.isTraceEnabled();
+    private static HotPathLogger logger = HotPathLogger.getLogger(AbstractPolicy.class);
 
     private Sim    sim;
     private TimeInstant lastChangeoverTime = null;
@@ -69,27 +70,27 @@ public abstract class AbstractPolicy implements IPolicy {
             if (!machine.isChangingSetups()) {
 
                 if (isTimeToChangeOver()) {
-                    logger.trace(String.format("The machine is ready to change setups at time %s", clock.getTime()));
+                    logger.trace("The machine is ready to change setups at time %s", clock.getTime());
                     // Inform implementations that the run finished
                     noteEndOfRun();
                     startChangeover(nextItem());
                 } else {
-                    logger.trace(String.format("The machine is in the middle of a production run at time %s", clock.getTime()));
+                    logger.trace("The machine is in the middle of a production run at time %s", clock.getTime());
                     ControlEvent nextControl = onReady();
                     sim.getMasterScheduler().addEvent(nextControl);
                 }
 
             } else if (machine.isSetupComplete()) {
-                logger.trace(String.format("The machine has finished its setup change at time %s."
-                        + " Next control event will determine how much work to do", clock.getTime()));
+                logger.trace("The machine has finished its setup change at time %s."
+                        + " Next control event will determine how much work to do", clock.getTime());
                 machine.setSprint();
                 // Inform implementations that the setup is complete
                 noteNewSetup();
-                sim.getMasterScheduler().addEvent(new ControlEvent(sim.getTime()));
+                sim.getMasterScheduler().requestControl(sim.getTime());
 
             } else {
-                logger.debug(String.format("Nothing to do. Setup in progress and it is non-preemptive (time %s).", clock.getTime()));
-                sim.getMasterScheduler().addEvent(new ControlEvent(machine.getNextSetupCompleteTime()));
+                logger.debug("Nothing to do. Setup in progress and it is non-preemptive (time %s).", clock.getTime());
+                sim.getMasterScheduler().requestControl(machine.getNextSetupCompleteTime());
             }
         }
     }
@@ -98,18 +99,14 @@ public abstract class AbstractPolicy implements IPolicy {
      * Called once the current run has completed, and before the changeover to the next setup.
      */
     protected void noteEndOfRun() {
-        if ( logger.isDebugEnabled() ) {
-            String.format("Finishing run of item %s", this.currentSetup);
-        }
+        logger.debug("Finishing run of item %s", this.currentSetup);
     }
 
     /**
      * Called once a new setup has been identified. Can be overridden to update internal logic of the implementations.
      */
     protected void noteNewSetup() {
-        if ( logger.isDebugEnabled() ) {
-            String.format("Registering a new changeover to item %s", this.currentSetup);
-        }
+        logger.debug("Registering a new changeover to item %s", this.currentSetup);
         this.serviceLevelController.noteNewSetup(this.currentSetup);
     }
 
@@ -159,10 +156,8 @@ public abstract class AbstractPolicy implements IPolicy {
      * 
      */
     protected void startChangeover(@NonNull Item item) {
-        if (trace) {
-            logger.trace(String.format("Scheduling a changeover to the new item %s. Last changeover was at %s",
-                    item, lastChangeoverTime));
-        }
+        logger.trace("Scheduling a changeover to the new item %s. Last changeover was at %s", item,
+                lastChangeoverTime);
         if ( item.equals(this.machine.getSetup()) ) {
             logger.warn(String.format("Changing over to the same current setup %s!", item));
         }
@@ -182,4 +177,26 @@ public abstract class AbstractPolicy implements IPolicy {
         return item.getSurplusDeviation() + this.serviceLevelController.getControl(item);
     }
 
+    /**
+     * Writes the state that the policy keeps between control events. Policies
+     * that keep more state than what they compute in
+     * {@link #setUpPolicy(Sim)} must override this method and
+     * {@link #readState(DataInputStream)}, calling the super methods first.
+     */
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        CheckpointIO.writeTime(out, lastChangeoverTime);
+        out.writeBoolean(firstControl);
+        CheckpointIO.writeItem(out, currentSetup);
+        serviceLevelController.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        lastChangeoverTime = CheckpointIO.readTime(in);
+        firstControl = in.readBoolean();
+        currentSetup = CheckpointIO.readItem(in, machine);
+        serviceLevelController.readState(in);
+    }
+
 }
@@ -1,22 +1,41 @@
 package policies;
 
-import lombok.extern.apachecommons.CommonsLog;
 import sim.Sim;
 import system.Item;
+import util.HotPathLogger;
 
-@CommonsLog
 public abstract class ClearTheLargestWeightedDeviationPolicy extends ClearingPolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(ClearTheLargestWeightedDeviationPolicy.class);
+
+    // The weight of each item, indexed by item id
+    private double[] deviationWeights;
+
     /**
      * Returns the weight of the deviation for choosing the item with the
      * largest weighted deviation. Returns <code>null</code> if there is no
-     * weight for the given item.
+     * weight for the given item. The weights are computed once, when the
+     * policy is set up.
      * 
      * @param item
      * @return Double
      */
     protected abstract Double getDeviationWeight(Item item);
 
+    @Override
+    public void setUpPolicy(Sim sim) {
+        super.setUpPolicy(sim);
+        deviationWeights = new double[machine.getNumItems()];
+        for (Item item : machine) {
+            Double weight = getDeviationWeight(item);
+            if (weight == null) {
+                // This will throw an NPE
+                logger.fatal("No weight given for " + item + ". Check implementation of your policy");
+            }
+            deviationWeights[item.getId()] = weight;
+        }
+    }
+
     /**
      * Returns the item with largest weighted deviation (breaking ties by item
      * id and excluding in such a case the current setup).
@@ -29,34 +48,33 @@ public abstract class ClearTheLargestWeightedDeviationPolicy extends ClearingPol
         }
 
         double largestWeightedDeviation = 0.0;
-        Item nextItem = null;
+        int nextItemId = -1;
 
-        for (Item item : machine) {
-            Double weight = getDeviationWeight(item);
-            if (weight == null) {
-                // This will throw an NPE
-                log.fatal("No weight given for " + item + ". Check implementation of your policy");
-            }
+        for (int id = 0; id < deviationWeights.length; id++) {
             // Get the deviation
-            double weightedDeviation = weight * this.getSurplusDeviationWithControl(item);
+            double deviation = getSurplusDeviationWithControl(machine.getItemById(id));
+            double weightedDeviation = deviationWeights[id] * deviation;
             if (weightedDeviation > largestWeightedDeviation * ( 1 + Sim.SURPLUS_RELATIVE_TOLERANCE ) ) {
                 largestWeightedDeviation = weightedDeviation;
-                nextItem = item;
+                nextItemId = id;
+            }
+            if (logger.isTraceEnabled()) {
+                logger.trace(machine.getItemById(id) + " has a weighted surplus deviation of " + weightedDeviation
+                        + " and the max weighted dev so far is " + largestWeightedDeviation);
             }
-            log.trace(item + " has a weighted surplus deviation of " + weightedDeviation
-                    + " and the max weighted dev so far is " + largestWeightedDeviation);
         }
+        Item nextItem = nextItemId < 0 ? null : machine.getItemById(nextItemId);
 
         if (nextItem != null) {
             // Most likely scenario
-            log.trace("Next item to produce is " + nextItem + " which has the largest weighted deviation");
+            logger.trace("Next item to produce is %s which has the largest weighted deviation", nextItem);
         } else {
             // If all items have the same weighted deviation, find the next item
             // that's not the current setup
             for (Item item : machine) {
                 if (item != machine.getSetup()) {
                     nextItem = item;
-                    log.trace("All items had the same surplus deviation. Changing over to the next item " + nextItem);
+                    logger.trace("All items had the same surplus deviation. Changing over to the next item %s", nextItem);
                     break;
                 }
             }
@@ -1,17 +1,18 @@
 package policies;
 
-import lombok.extern.apachecommons.CommonsLog;
 import policies.tuning.ILowerHedgingPointsComputationMethod;
 import sim.Sim;
 import system.Item;
 import util.AlgorithmLoader;
 import discreteEvent.ControlEvent;
 import discreteEvent.SurplusControlEvent;
+import util.HotPathLogger;
 
 @Deprecated
-@CommonsLog
 public class CorrectedCMuPolicy extends AbstractPolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(CorrectedCMuPolicy.class);
+
 	private ILowerHedgingPointsComputationMethod lowerHedgingPoints;
 	
 	@Override
@@ -53,9 +54,7 @@ public class CorrectedCMuPolicy extends AbstractPolicy {
 		double maxCMu=-1;
 		for (Item item : machine){
 			if (item.onOrAboveTarget()){
-				if(log.isTraceEnabled()){
-					log.trace("Skipping " + item + " because it is at its target already");
-				}
+				logger.trace("Skipping %s because it is at its target already", item);
 				continue;
 			}
 			double surplusDelta = computeSurplusDelta(item);			
@@ -65,26 +64,22 @@ public class CorrectedCMuPolicy extends AbstractPolicy {
 			}
 			double averageMu = surplusDelta/timeToReach + item.getDemandRate();
 			double cMu = item.getBacklogCostRate()*averageMu;
-			if(log.isTraceEnabled()){log.trace("Average cmu for " + item + " is " + cMu);}
+			logger.trace("Average cmu for %s is %s", item, cMu);
 			if (cMu > maxCMu){
 				maxCMu = cMu;
 				nextItem = item;
 			}
 		}
-		if(log.isTraceEnabled()){log.trace("Maximizing cmu is " + nextItem);}
+		logger.trace("Maximizing cmu is %s", nextItem);
 		return nextItem;
 	}
 	
 	protected double computeSurplusDelta(Item item){
 		double surplusLevelDelta = item.getSurplusTarget() - lowerHedgingPoints.getLowerHedgingPoint(item);  
-		if(log.isTraceEnabled()){
-			log.trace("If producing " + item + " we would like a Delta suplus of " + surplusLevelDelta);
-		}
+		logger.trace("If producing %s we would like a Delta suplus of %s", item, surplusLevelDelta);
 		if (surplusLevelDelta + item.getSurplus() > item.getSurplusTarget()){
 			surplusLevelDelta = item.getSurplusTarget() - item.getSurplus();
-			if (log.isTraceEnabled()){
-				log.trace("Truncating delta in surplus to " + surplusLevelDelta + " so that target is not exceeded");
-			}
+			logger.trace("Truncating delta in surplus to %s so that target is not exceeded", surplusLevelDelta);
 		}
 		assert surplusLevelDelta >= -1.0 : "Surplus delta cannot be " + surplusLevelDelta;
 		return surplusLevelDelta;
@@ -1,5 +1,8 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
 
@@ -8,14 +11,15 @@ import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Table;
 
-import lombok.extern.apachecommons.CommonsLog;
 import params.PolicyParams;
 import policies.tuning.HeuristicBoundBasedLowerHedgingPointsComputationMethod;
 import policies.tuning.ILowerHedgingPointsComputationMethod;
 import policies.tuning.MakeToOrderBoundBasedLowerHedgingPointsComputationMethod;
+import sim.CheckpointIO;
 import sim.Sim;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * This version of the policy computes the target upper hedging point at the
@@ -37,9 +41,10 @@ import system.Machine;
  *
  */
 @Deprecated
-@CommonsLog
 public class DynamicHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(DynamicHedgingZonePolicy.class);
+
     /**
      * Defined as (mu - d) / (mubar - d)
      */
@@ -58,7 +63,7 @@ public class DynamicHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
     protected ILowerHedgingPointsComputationMethod getLowerHedgingPointComputationMethod(PolicyParams policyParams) {
         if ( policyParams.getLowerHedgingPointsComputationMethod()
                 .equals(MakeToOrderBoundBasedLowerHedgingPointsComputationMethod.class.getSimpleName()) ) {
-            log.info("Overriding the hedging point method to use the heuristic bound instead");
+            logger.info("Overriding the hedging point method to use the heuristic bound instead");
             return new HeuristicBoundBasedLowerHedgingPointsComputationMethod();
         } else {
             return super.getLowerHedgingPointComputationMethod(policyParams);
@@ -72,10 +77,10 @@ public class DynamicHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
             lockTarget();
         }
         boolean aboveTarget = machine.getSetup().getSurplus() >= this.currentSetupTarget - Sim.SURPLUS_TOLERANCE;
-        if ( log.isDebugEnabled() && aboveTarget ) {
-            log.debug(String.format("Current setup %s above target %.3f", machine.getSetup(), this.currentSetupTarget));
+        if ( logger.isDebugEnabled() && aboveTarget ) {
+            logger.debug("Current setup %s above target %.3f", machine.getSetup(), this.currentSetupTarget);
             for ( Item item : machine ) {
-                log.debug(String.format("Item %s Surplus %.3f", item, item.getSurplus()));
+                logger.debug("Item %s Surplus %.3f", item, item.getSurplus());
             }
         }
         return aboveTarget;
@@ -99,7 +104,7 @@ public class DynamicHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
     protected double currentSetupMinTimeToTarget(Machine machine) {
         double currentTarget = getTarget(this.currentSetup);
         double timeToReachCurrentTarget = this.currentSetup.getFluidTimeToSurplusLevel(currentTarget);
-        if ( log.isTraceEnabled() ) {
+        if ( logger.isTraceEnabled() ) {
             String.format("It will take %.5f to reach the current target of %.5f for %s",
                     timeToReachCurrentTarget, currentTarget, this.currentSetup);
         }
@@ -120,7 +125,7 @@ public class DynamicHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
             // then multiply by the mu factor.
             double zU = ( item.getSurplusDeviation() + this.nominalTargetShift.get(item) ) * this.muFactors.get(item) +
                     item.getSurplus();
-            if ( log.isTraceEnabled() ) {
+            if ( logger.isTraceEnabled() ) {
                 String.format("Target for item %s is %.5f", item, zU);
             }
             return zU + this.serviceLevelController.getControl(item);
@@ -132,16 +137,26 @@ public class DynamicHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
             throw new RuntimeException(String.format("Cannot lock the target because it is currently set to %.5f", this.currentSetupTarget));
         }
         this.currentSetupTarget = getTarget(this.currentSetup);
-        if ( log.isDebugEnabled() ) {
-            log.debug(String.format("Locking the target of %s to %.5f", this.currentSetup, this.currentSetupTarget));
-        }
+        logger.debug("Locking the target of %s to %.5f", this.currentSetup, this.currentSetupTarget);
     }
 
     protected void releaseLockedTarget() {
-        log.trace("Releasing locked target");
+        logger.trace("Releasing locked target");
         this.currentSetupTarget = null;
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        super.writeState(out);
+        CheckpointIO.writeDouble(out, this.currentSetupTarget);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        super.readState(in);
+        this.currentSetupTarget = CheckpointIO.readDouble(in);
+    }
+
     @VisibleForTesting
     protected static Map<Item, Double> computeMuFactors(final Machine machine) {
         Map<Item, Double> factors = Maps.newHashMap();
@@ -159,7 +174,9 @@ public class DynamicHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
             // The factor adjusts the length of runs based on mubar
             double factor = ( item.getProductionRate() - item.getDemandRate() ) / 
                     ( muBar - item.getDemandRate() );
-            log.debug(String.format("mu bar for %s is %.5f and its factor %.5f", item, muBar, factor));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("mu bar for %s is %.5f and its factor %.5f", item, muBar, factor));
+            }
             factors.put(item, factor);
         }
         return factors;
@@ -7,11 +7,11 @@ import java.util.NoSuchElementException;
 
 import lombok.Data;
 import lombok.ToString;
-import lombok.extern.apachecommons.CommonsLog;
 import policies.GRPControlCycle.GRPRunInfo;
 import sequences.ProductionSequence;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * A handy class for holding the information on the control cycle for
@@ -28,10 +28,11 @@ import system.Machine;
  * @author ftubilla
  *
  */
-@CommonsLog
 @ToString
 public class GRPControlCycle implements Iterator<GRPRunInfo> {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(GRPControlCycle.class);
+
     private final double[] runDuration;             // The duration of the run at each position of the sequence, after correcting with the control
     private final ProductionSequence sequence;
     private Integer currentPosition = null;         // The current position in the cycle's sequence
@@ -48,7 +49,7 @@ public class GRPControlCycle implements Iterator<GRPRunInfo> {
     public GRPControlCycle( final Machine machine, final ProductionSequence sequence, final Map<Item, Double> surplusTarget,
             final double[] sprintingTimeTarget, final double[][] gainMatrix ) {
 
-        log.trace("New control cycle. Updating correction vector.");
+        logger.trace("New control cycle. Updating correction vector.");
         this.runDuration = new double[sequence.getSize()];
         this.sequence = sequence;
         int n = machine.getNumItems();
@@ -58,8 +59,10 @@ public class GRPControlCycle implements Iterator<GRPRunInfo> {
         for ( int j = 0; j < n; j++ ) {
             Item item = machine.getItemById(j);
             error[j] = surplusTarget.get(item) - item.getSurplus();
-            log.trace(String.format("%s has a surplus error of %.2f (initial surplus target %.2f - current surplus %.2f)",
-                item, error[j], surplusTarget.get(item), item.getSurplus()));
+            if (logger.isTraceEnabled()) {
+                logger.trace(String.format("%s has a surplus error of %.2f (initial surplus target %.2f - current surplus %.2f)",
+                    item, error[j], surplusTarget.get(item), item.getSurplus()));
+            }
         }
 
         Map<Item, Double> netTotalRunTime = new HashMap<>();
@@ -73,19 +76,23 @@ public class GRPControlCycle implements Iterator<GRPRunInfo> {
             Item item = this.sequence.getItemAtPosition(i);
             netTotalRunTime.merge(item, runDuration, Double::sum);
             if ( runDuration < 0 ) {
-                log.trace(String.format("Item %s has negative production time (%.2f)! Setting to 0 its run time", item, runDuration));
+                logger.trace("Item %s has negative production time (%.2f)! Setting to 0 its run time", item, runDuration);
             }
             this.runDuration[i] = Math.max( 0, runDuration );
-            log.trace(String.format("The production time correction at position %d (%s) is %.2f. Updated sprinting time = %.2f",
-                i, item, correction, this.runDuration[i]));
+            if (logger.isTraceEnabled()) {
+                logger.trace(String.format("The production time correction at position %d (%s) is %.2f. Updated sprinting time = %.2f",
+                    i, item, correction, this.runDuration[i]));
+            }
         }
 
         // If the net run duration for an item is < 0, set all its positions to 0 (otw the system can become unstable)
         for ( int i = 0; i < this.sequence.getSize(); i++ ) {
             Item item = this.sequence.getItemAtPosition(i);
             if ( netTotalRunTime.get(item) < 0 ) {
-                log.trace(String.format("Setting to 0 the run time for %s at position %d because the item has a net negative total run duration",
-                        item, i));
+                if (logger.isTraceEnabled()) {
+                    logger.trace(String.format("Setting to 0 the run time for %s at position %d because the item has a net negative total run duration",
+                            item, i));
+                }
                 this.runDuration[i] = 0;
             }
         }
@@ -112,7 +119,7 @@ public class GRPControlCycle implements Iterator<GRPRunInfo> {
             return new GRPRunInfo(this.sequence.getItemAtPosition(this.currentPosition), 
                     this.runDuration[this.currentPosition]);
         } else {
-            log.trace(String.format("The control cycle with current position %d has no next run", this.currentPosition));
+            logger.trace("The control cycle with current position %d has no next run", this.currentPosition);
             throw new NoSuchElementException("No more GRP runs!");
         }
     }
@@ -1,5 +1,8 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -16,7 +19,6 @@ import com.google.common.collect.Table;
 
 import discreteEvent.ControlEvent;
 import lombok.Getter;
-import lombok.extern.apachecommons.CommonsLog;
 import policies.GRPControlCycle.GRPRunInfo;
 import policies.tuning.GallegoRecoveryPolicyControlMatrixCalculator;
 import sequences.OptimalFCyclicSchedule;
@@ -25,10 +27,12 @@ import sequences.ProductionSequence;
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
+import util.HotPathLogger;
 
-@CommonsLog
 public class GallegoRecoveryPolicy extends AbstractPolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(GallegoRecoveryPolicy.class);
+
     public static final double ARME_TOLERANCE = 1e-6;
     public static final double NON_CRUISING_CHECK_TOL = 1e-4;
 
@@ -53,7 +57,7 @@ public class GallegoRecoveryPolicy extends AbstractPolicy {
         ProductionSequence sequence = null;
         Optional<ImmutableList<Integer>> sequenceOpt = this.policyParams.getUserDefinedProductionSequence();
         if ( sequenceOpt.isPresent() ) {
-            log.debug("Reading user-defined production sequence");
+            logger.debug("Reading user-defined production sequence");
             List<Item> itemSequence = StreamSupport.stream( sequenceOpt.get().spliterator(), false)
                 .map( i -> this.machine.getItemById(i) ).collect(Collectors.toList());
             sequence = new ProductionSequence(itemSequence);
@@ -73,7 +77,7 @@ public class GallegoRecoveryPolicy extends AbstractPolicy {
         }
 
         // Compute the f-cyclic optimal schedule
-        log.debug(String.format("Setting up GRP with sequence %s", sequence));
+        logger.debug("Setting up GRP with sequence %s", sequence);
         this.sequenceLength = sequence.getSize();
         this.schedule = new OptimalFCyclicSchedule(sequence, sim.getParams().getMachineEfficiency());
         try {
@@ -82,12 +86,12 @@ public class GallegoRecoveryPolicy extends AbstractPolicy {
             throw new RuntimeException("Could not solve for the optimal f-cyclic schedule", e);
         }
         sim.getDerivedParams().setGallegoRecoveryPolicySequence(this.schedule);
-        log.debug(String.format("Computed optimal f-cyclic schedule with cost %.2f", this.schedule.getScheduleCost()));
+        logger.debug("Computed optimal f-cyclic schedule with cost %.2f", this.schedule.getScheduleCost());
 
         // Ensure that the schedule is non-cruising
         for ( int n = 0; n < this.sequenceLength; n++ ) {
             if ( this.schedule.getOptimalCruisingTime(n) > NON_CRUISING_CHECK_TOL ) {
-                 log.warn("Gallego only works with non-cruising systems!");
+                 logger.warn("Gallego only works with non-cruising systems!");
             }
         }
 
@@ -96,13 +100,13 @@ public class GallegoRecoveryPolicy extends AbstractPolicy {
         for ( int n = 0; n < this.sequenceLength; n++ ) {
             this.sprintingTimeTarget[n] = this.schedule.getOptimalSprintingTimeWithBacklog(n) +
                     this.schedule.getOptimalSprintingTimeWithInventory(n);
-            log.debug(String.format("Position %d has a sprinting target time of %.2f", n, this.sprintingTimeTarget[n]));
+            logger.debug("Position %d has a sprinting target time of %.2f", n, this.sprintingTimeTarget[n]);
         }
         this.initialSurplusTarget = new HashMap<>();
         for ( Item item : sim.getMachine() ) {
             this.initialSurplusTarget.put(item,
                     this.schedule.getSurplusPriorToFirstSetup(item));
-            log.debug(String.format("%s has a start-of-cycle surplus target of %.2f", item, this.initialSurplusTarget.get(item)));
+            logger.debug("%s has a start-of-cycle surplus target of %.2f", item, this.initialSurplusTarget.get(item));
         }
 
         // Calculate the G matrix
@@ -125,10 +129,10 @@ public class GallegoRecoveryPolicy extends AbstractPolicy {
     protected ControlEvent onReady() {
         if ( this.currentRunStartTime == null ) {
             this.currentRunStartTime = this.clock.getTime();
-            log.trace(String.format("Starting run %s at time %.2f", this.currentRun, this.currentRunStartTime.doubleValue()));
+            logger.trace("Starting run %s at time %.2f", this.currentRun, this.currentRunStartTime.doubleValue());
         }
         double remainingTime = this.getTimeRemainingCurrentRun();
-        log.trace(String.format("Machine should continue sprinting for %.2f more time units", remainingTime));
+        logger.trace("Machine should continue sprinting for %.2f more time units", remainingTime);
         return new ControlEvent(this.clock.getTime().add(remainingTime));
     }
 
@@ -136,8 +140,8 @@ public class GallegoRecoveryPolicy extends AbstractPolicy {
     protected boolean isTimeToChangeOver() {
         double timeTolerance = Sim.SURPLUS_TOLERANCE / this.machine.getSetup().getDemandRate();
         double remainingTime = this.getTimeRemainingCurrentRun();
-        log.trace(String.format("Checking if it's time for a changeover: remaining run time %6.3e and tolerance %1.2e)",
-               remainingTime, timeTolerance));
+        logger.trace("Checking if it's time for a changeover: remaining run time %6.3e and tolerance %1.2e)", remainingTime,
+                timeTolerance);
         return remainingTime <= timeTolerance;
     }
 
@@ -150,13 +154,13 @@ public class GallegoRecoveryPolicy extends AbstractPolicy {
             }
             this.controlCycle = new GRPControlCycle(this.machine, this.getSchedule().getSequence(), surplusTarget,
                     this.sprintingTimeTarget, this.gainMatrix);
-            log.trace(String.format("Computing a new control cycle:%n%s", this.controlCycle));
+            logger.trace("Computing a new control cycle:%n%s", this.controlCycle);
         }
         this.currentRun = this.controlCycle.next();
         this.currentRunStartTime = null;
         Item nextItem = this.currentRun.getItem();
         if ( this.currentRun.getRunDuration() < 0 ) {
-            log.trace(String.format("The duration for %s is negative, so it will be capped at 0", nextItem));
+            logger.trace("The duration for %s is negative, so it will be capped at 0", nextItem);
         }
         return nextItem;
     }
@@ -195,4 +199,14 @@ public class GallegoRecoveryPolicy extends AbstractPolicy {
         return Optional.of(table);
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        throw new UnsupportedOperationException("Checkpoints do not keep the control cycles of the policy");
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        throw new UnsupportedOperationException("Checkpoints do not keep the control cycles of the policy");
+    }
+
 }
@@ -14,7 +14,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import com.google.common.collect.Maps;
 
 import discreteEvent.ControlEvent;
-import lombok.extern.apachecommons.CommonsLog;
 import params.PolicyParams;
 import policies.tuning.ILowerHedgingPointsComputationMethod;
 import policies.tuning.IPriorityComparator;
@@ -22,6 +21,7 @@ import sim.Sim;
 import system.Item;
 import system.Machine;
 import util.AlgorithmLoader;
+import util.HotPathLogger;
 
 /**
  * Abstract class for implementing a <i>non-cruising</i> hedging zone policy,
@@ -33,9 +33,10 @@ import util.AlgorithmLoader;
  *
  */
 @Deprecated
-@CommonsLog
 public abstract class GeneralizedHedgingZonePolicy extends AbstractPolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(GeneralizedHedgingZonePolicy.class);
+
     protected IPriorityComparator priorityComparator;
     protected List<Item>          sortedItems;
     protected Map<Item, Double>   hedgingZoneSize;  // The difference between the upper and lower hedging points
@@ -61,16 +62,16 @@ public abstract class GeneralizedHedgingZonePolicy extends AbstractPolicy {
         for ( Item item : this.machine ) {
             double dZItem = item.getSurplusTarget() - lowerHedgingPointsComputation.getLowerHedgingPoint(item);
             this.hedgingZoneSize.put(item, dZItem);
-            log.debug(String.format("Setting the hedging zone for %s to %.3f", item, dZItem));
+            logger.debug("Setting the hedging zone for %s to %.3f", item, dZItem);
         }
 
         // Check that the policy is not meant to be used for cruising systems
         if (this.policyParams.getUserDefinedIsCruising().isPresent() && this.policyParams.getUserDefinedIsCruising().get() ) {
-            log.warn("Cruising is set to true by the user but right now the policy is non cruising!!!");
+            logger.warn("Cruising is set to true by the user but right now the policy is non cruising!!!");
             throw new RuntimeException("Cruising is not implemented yet");
         }
         if ( sim.getSurplusCostLowerBound().getIsCruising() ) {
-            log.warn("The sim instance is a cruising instance (according to the lower bound), but cruising is not enabled in this policy!");
+            logger.warn("The sim instance is a cruising instance (according to the lower bound), but cruising is not enabled in this policy!");
         }
 
     }
@@ -138,14 +139,16 @@ public abstract class GeneralizedHedgingZonePolicy extends AbstractPolicy {
     protected Item nextItem() {
 
         if (!isTimeToChangeOver()) {
-            log.trace("It is not time to change over yet, so returning null as the next item!");
+            logger.trace("It is not time to change over yet, so returning null as the next item!");
             return null;
         }
 
         // Compute the set of items R(1) whose deviation exceeds the hedging zone
         Set<Item> hedgingZoneReadyItems = this.sortedItems.stream()
                 .filter( item -> !this.isInTheHedgingZone(this.machine, item, this.hedgingZoneSize.get(item)) )
-                .peek(item -> log.trace(String.format("%s is in the set R(1)", item)))
+                .peek(item -> {
+                    logger.trace("%s is in the set R(1)", item);
+                })
                 .collect(Collectors.toSet());
 
         // Determine the ready set by taking the highest priority items outside their hedging zone
@@ -160,19 +163,19 @@ public abstract class GeneralizedHedgingZonePolicy extends AbstractPolicy {
                         // This is the first highest-priority item in the zone ready set. Add it to the ready set
                         highestPriorityZoneReadyItem = item;
                         readyItems.add(item);
-                        log.trace(String.format("Adding %s as a high-priority ready item", item));
+                        logger.trace("Adding %s as a high-priority ready item", item);
                     } else {
                         // Only add this item to the set if it has the same priority as the highest-priority zone ready item
                         if ( this.priorityComparator.compare(highestPriorityZoneReadyItem, item) == 0 ) {
                             readyItems.add(item);
-                            log.trace(String.format("Adding %s to the high-priority ready items", item));
+                            logger.trace("Adding %s to the high-priority ready items", item);
                         }
                     }
                 }
             }
         } else {
             // Case 2: set R(1) is empty. Set to all items (except for the current setup)
-            log.debug("The ready set R(1) is empty. Adding all items to the ready set");
+            logger.debug("The ready set R(1) is empty. Adding all items to the ready set");
             readyItems.addAll( this.sortedItems );
             readyItems.remove( this.currentSetup );
         }
@@ -199,7 +202,7 @@ public abstract class GeneralizedHedgingZonePolicy extends AbstractPolicy {
         Item returnItem = null;
         if ( maximizingPairOpt.isPresent() ) {
             Pair<Item, Double> maximizingPair = maximizingPairOpt.get();
-            log.trace(String.format("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight()));
+            logger.trace("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight());
             returnItem = maximizingPair.getLeft();
         }
         return Optional.ofNullable(returnItem);
@@ -15,7 +15,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import com.google.common.collect.Maps;
 
 import discreteEvent.ControlEvent;
-import lombok.extern.apachecommons.CommonsLog;
 import params.PolicyParams;
 import policies.tuning.ILowerHedgingPointsComputationMethod;
 import policies.tuning.IPriorityComparator;
@@ -23,6 +22,7 @@ import sim.Sim;
 import system.Item;
 import system.Machine;
 import util.AlgorithmLoader;
+import util.HotPathLogger;
 
 /**
  * Abstract class for implementing a <i>non-cruising</i> hedging zone policy,
@@ -36,9 +36,10 @@ import util.AlgorithmLoader;
  * @author ftubilla
  *
  */
-@CommonsLog
 public abstract class GeneralizedHedgingZonePolicyV2 extends AbstractPolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(GeneralizedHedgingZonePolicyV2.class);
+
     protected IPriorityComparator priorityComparator;
     protected List<Item>          sortedItems;
     protected Map<Item, Double>   hedgingZoneSize;  // The difference between the upper and lower hedging points
@@ -64,16 +65,16 @@ public abstract class GeneralizedHedgingZonePolicyV2 extends AbstractPolicy {
         for ( Item item : this.machine ) {
             double dZItem = item.getSurplusTarget() - lowerHedgingPointsComputation.getLowerHedgingPoint(item);
             this.hedgingZoneSize.put(item, dZItem);
-            log.debug(String.format("Setting the hedging zone for %s to %.3f", item, dZItem));
+            logger.debug("Setting the hedging zone for %s to %.3f", item, dZItem);
         }
 
         // Check that the policy is not meant to be used for cruising systems
         if (this.policyParams.getUserDefinedIsCruising().isPresent() && this.policyParams.getUserDefinedIsCruising().get() ) {
-            log.warn("Cruising is set to true by the user but right now the policy is non cruising!!!");
+            logger.warn("Cruising is set to true by the user but right now the policy is non cruising!!!");
             throw new RuntimeException("Cruising is not implemented yet");
         }
         if ( sim.getSurplusCostLowerBound().getIsCruising() ) {
-            log.warn("The sim instance is a cruising instance (according to the lower bound), but cruising is not enabled in this policy!");
+            logger.warn("The sim instance is a cruising instance (according to the lower bound), but cruising is not enabled in this policy!");
         }
 
     }
@@ -105,7 +106,7 @@ public abstract class GeneralizedHedgingZonePolicyV2 extends AbstractPolicy {
     protected Item nextItem() {
 
         if (!isTimeToChangeOver()) {
-            log.trace("It is not time to change over yet, so returning null as the next item!");
+            logger.trace("It is not time to change over yet, so returning null as the next item!");
             return null;
         }
 
@@ -148,7 +149,9 @@ public abstract class GeneralizedHedgingZonePolicyV2 extends AbstractPolicy {
         Set<Item> hedgingZoneReadyItems = StreamSupport.stream(items.spliterator(), false)
                 .filter( item -> !item.equals(currentSetup) &&
                                     getTargetImpl.apply(item) - item.getSurplus() > hedgingZone.get(item) )
-                .peek(item -> log.trace(String.format("%s is in the set R(1)", item)))
+                .peek(item -> {
+                    logger.trace("%s is in the set R(1)", item);
+                })
                 .collect(Collectors.toSet());
         return hedgingZoneReadyItems;
     }
@@ -201,7 +204,7 @@ public abstract class GeneralizedHedgingZonePolicyV2 extends AbstractPolicy {
         Item returnItem = null;
         if ( maximizingPairOpt.isPresent() ) {
             Pair<Item, Double> maximizingPair = maximizingPairOpt.get();
-            log.trace(String.format("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight()));
+            logger.trace("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight());
             returnItem = maximizingPair.getLeft();
         }
         return Optional.ofNullable(returnItem);
@@ -1,6 +1,5 @@
 package policies;
 
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -8,22 +7,22 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
-import org.apache.commons.lang3.tuple.Pair;
-
 import com.google.common.annotations.VisibleForTesting;
 
 import discreteEvent.ControlEvent;
 import discreteEvent.SurplusControlEvent;
-import lombok.extern.apachecommons.CommonsLog;
 import policies.tuning.ILowerHedgingPointsComputationMethod;
 import policies.tuning.IPriorityComparator;
 import sim.Sim;
 import system.Item;
+import system.ItemStates;
 import util.AlgorithmLoader;
+import util.HotPathLogger;
 
-@CommonsLog
 public class HedgingZonePolicy extends AbstractPolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(HedgingZonePolicy.class);
+
     public static final double EXIT_HEDGING_ZONE_TOL = 1e-9;
 
     protected IPriorityComparator                  priorityComparator;
@@ -31,6 +30,9 @@ public class HedgingZonePolicy extends AbstractPolicy {
     protected ILowerHedgingPointsComputationMethod lowerHedgingPoints;
     protected double                               cruisingParameter;
 
+    // The difference between the surplus target and the lower hedging point of each item, indexed by item id
+    private double[]                               hedgingZoneSizes;
+
     @Override
     public void setUpPolicy(final Sim sim) {
 
@@ -49,11 +51,16 @@ public class HedgingZonePolicy extends AbstractPolicy {
         this.lowerHedgingPoints = AlgorithmLoader.load("policies.tuning",
                 this.policyParams.getLowerHedgingPointsComputationMethod(), ILowerHedgingPointsComputationMethod.class);
         this.lowerHedgingPoints.compute(sim);
+        this.hedgingZoneSizes = new double[this.machine.getNumItems()];
+        for (Item item : this.machine) {
+            this.hedgingZoneSizes[item.getId()] = item.getSurplusTarget()
+                    - this.lowerHedgingPoints.getLowerHedgingPoint(item);
+        }
 
         // TODO For now, we assume the policy never cruises
         this.cruisingParameter = 0.0;
         if (this.policyParams.getUserDefinedIsCruising().isPresent() && this.policyParams.getUserDefinedIsCruising().get()) {
-            log.warn("Cruising is set to true by the user but right now the policy is non cruising!!!");
+            logger.warn("Cruising is set to true by the user but right now the policy is non cruising!!!");
             throw new RuntimeException("Cruising is not implemented yet");
         }
     }
@@ -88,25 +95,28 @@ public class HedgingZonePolicy extends AbstractPolicy {
     protected Item nextItem() {
 
         if (!isTimeToChangeOver()) {
-            log.trace("It is not time to change over yet, so returning null as the next item!");
+            logger.trace("It is not time to change over yet, so returning null as the next item!");
             return null;
         }
 
-        // Compute the set R(f) of items whose deviation exceeds their fractional hedging zone
-        Set<Item> fractionalReadyItems = this.sortedItems.stream()
-                .filter( item -> !this.isInTheFractionalHedgingZone(this.cruisingParameter, item ) )
-                .collect(Collectors.toSet());
+        // Compute the set R(f) of items whose deviation exceeds their fractional hedging zone, and the set R(1) of
+        // items whose deviation exceeds the hedging zone
+        Set<Item> fractionalReadyItems = new HashSet<Item>();
+        Set<Item> hedgingZoneReadyItems = new HashSet<Item>();
+        for ( Item item : this.sortedItems ) {
+            if ( !this.isInTheFractionalHedgingZone(this.cruisingParameter, item) ) {
+                fractionalReadyItems.add(item);
+            }
+            if ( !this.isInTheFractionalHedgingZone(1.0, item) ) {
+                hedgingZoneReadyItems.add(item);
+                logger.trace("%s is in the set R(1)", item);
+            }
+        }
 
         if ( fractionalReadyItems.isEmpty() ) {
             throw new RuntimeException("The policy says is time to change over but the fractional ready set is empty");
         }
 
-        // Compute the set R(1) of items whose deviation exceeds the hedging zone
-        Set<Item> hedgingZoneReadyItems = this.sortedItems.stream()
-                .filter( item -> !this.isInTheFractionalHedgingZone(1.0, item) )
-                .peek(item -> log.trace(String.format("%s is in the set R(1)", item)))
-                .collect(Collectors.toSet());
-
         // Determine the ready set by taking the highest priority items in R(1) or, if it's empty, all the items in R(f)
         Set<Item> readyItems = new HashSet<Item>();
         if ( !hedgingZoneReadyItems.isEmpty() ) {
@@ -118,19 +128,19 @@ public class HedgingZonePolicy extends AbstractPolicy {
                         // This is the first highest-priority item in the zone ready set. Add it to the ready set
                         highestPriorityZoneReadyItem = item;
                         readyItems.add(item);
-                        log.trace(String.format("Adding %s as a high-priority ready item", item));
+                        logger.trace("Adding %s as a high-priority ready item", item);
                     } else {
                         // Only add this item to the set if it has the same priority as the highest-priority zone ready item
                         if ( this.priorityComparator.compare(highestPriorityZoneReadyItem, item) == 0 ) {
                             readyItems.add(item);
-                            log.trace(String.format("Adding %s to the high-priority ready items", item));
+                            logger.trace("Adding %s to the high-priority ready items", item);
                         }
                     }
                 }
             }
         } else {
             // Case 2: set R(1) is empty. Set the ready set to R(f)
-            log.debug("The ready set R(1) is empty. Adding all items from R(f) to the ready set");
+            logger.debug("The ready set R(1) is empty. Adding all items from R(f) to the ready set");
             readyItems.addAll( fractionalReadyItems );
         }
 
@@ -173,17 +183,15 @@ public class HedgingZonePolicy extends AbstractPolicy {
      */
     @VisibleForTesting
     protected boolean isInTheFractionalHedgingZone( final double fraction, final Item item ) {
-        return item.getSurplusDeviation() <=
-                    fraction  * ( item.getSurplusTarget() - lowerHedgingPoints.getLowerHedgingPoint(item) );
+        int id = item.getId();
+        return this.machine.getItemStates().getSurplusDeviation(id) <= fraction * this.hedgingZoneSizes[id];
     }
 
     @VisibleForTesting
     protected double computeTimeToExitFractionalHedgingZone(final double fraction) {
         double minExitTime = Double.MAX_VALUE;
         for (Item item : this.sortedItems) {
-            double zu = item.getSurplusTarget();
-            double zl = this.lowerHedgingPoints.getLowerHedgingPoint(item);
-            double surplusBoundary = zu - fraction * ( zu - zl );
+            double surplusBoundary = item.getSurplusTarget() - fraction * this.hedgingZoneSizes[item.getId()];
             double exitTime = item.getFluidTimeToSurplusLevel( surplusBoundary );
             assert exitTime >= 0 : "The system is not in the hedging zone!";
             if (exitTime < minExitTime) {
@@ -194,16 +202,20 @@ public class HedgingZonePolicy extends AbstractPolicy {
     }
 
     protected Optional<Item> selectItemFromReadySet(final Set<Item> readyItems) {
-        Optional<Pair<Item, Double>> maximizingPairOpt = 
-                readyItems.stream()
-                .map( item -> Pair.of(item,
-                   item.getSurplusDeviation() / ( item.getSurplusTarget() - this.lowerHedgingPoints.getLowerHedgingPoint(item) ) ) )
-                .max( Comparator.comparingDouble( ( Pair<Item, Double> pair ) -> pair.getRight() ) );
+        ItemStates itemStates = this.machine.getItemStates();
         Item returnItem = null;
-        if ( maximizingPairOpt.isPresent() ) {
-            Pair<Item, Double> maximizingPair = maximizingPairOpt.get();
-            log.trace(String.format("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight()));
-            returnItem = maximizingPair.getLeft();
+        double largestRatio = 0.0;
+        for ( Item item : readyItems ) {
+            int id = item.getId();
+            double ratio = itemStates.getSurplusDeviation(id) / this.hedgingZoneSizes[id];
+            // Keep the first item in case of ties
+            if ( returnItem == null || Double.compare(ratio, largestRatio) > 0 ) {
+                returnItem = item;
+                largestRatio = ratio;
+            }
+        }
+        if ( returnItem != null && logger.isTraceEnabled() ) {
+            logger.trace(String.format("Item %s had the largest ratio of %.5f", returnItem, largestRatio));
         }
         return Optional.ofNullable(returnItem);
     }
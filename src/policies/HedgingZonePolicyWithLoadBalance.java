@@ -1,5 +1,8 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Optional;
@@ -13,9 +16,10 @@ import com.google.common.collect.Maps;
 
 import discreteEvent.ControlEvent;
 import discreteEvent.SurplusControlEvent;
-import lombok.extern.apachecommons.CommonsLog;
+import sim.CheckpointIO;
 import sim.Sim;
 import system.Item;
+import util.HotPathLogger;
 
 /**
  * The idea behind this policy is to take advantage of the fact that the HZP
@@ -36,10 +40,11 @@ import system.Item;
  * @author ftubilla
  *
  */
-@CommonsLog
 @Deprecated
 public class HedgingZonePolicyWithLoadBalance extends HedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(HedgingZonePolicyWithLoadBalance.class);
+
     private Map<Item, Double> productionTimeCorrectionFactor = Maps.newHashMap();
     private Map<Item, Double> latestTarget = Maps.newHashMap();
     private Double targetOfCurrentSetup = null;
@@ -56,8 +61,10 @@ public class HedgingZonePolicyWithLoadBalance extends HedgingZonePolicy {
         for ( Item item : sim.getMachine() ) {
             double itemUtil = item.getDemandRate() / item.getProductionRate();
             double correctionFactor = ( 1 - itemUtil ) / ( 1 - averageUtil );
-            log.debug(String.format("The utilization of %s is %.3f, and the average util %.3f. The correction factor is %.3f",
-                    item, itemUtil, averageUtil, correctionFactor));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("The utilization of %s is %.3f, and the average util %.3f. The correction factor is %.3f",
+                        item, itemUtil, averageUtil, correctionFactor));
+            }
             this.productionTimeCorrectionFactor.put(item, correctionFactor);
             this.latestTarget.put(item, item.getSurplusTarget());
         }
@@ -73,8 +80,10 @@ public class HedgingZonePolicyWithLoadBalance extends HedgingZonePolicy {
            if ( this.targetOfCurrentSetup != null ) {
             double currentSurplus = this.currentSetup.getSurplus();
             boolean isTimeToChangeOver = currentSurplus >= this.targetOfCurrentSetup - Sim.SURPLUS_TOLERANCE;
-            log.trace(String.format("Current setup %s surplus %.3f >= target surplus %.3f ? %s", this.currentSetup,
-                    currentSurplus, this.targetOfCurrentSetup, isTimeToChangeOver));
+            if (logger.isTraceEnabled()) {
+                logger.trace(String.format("Current setup %s surplus %.3f >= target surplus %.3f ? %s", this.currentSetup,
+                        currentSurplus, this.targetOfCurrentSetup, isTimeToChangeOver));
+            }
             return isTimeToChangeOver;
            }
         }
@@ -94,10 +103,12 @@ public class HedgingZonePolicyWithLoadBalance extends HedgingZonePolicy {
                     this.currentSetup.getSurplus();
             // Update the target for this item
             this.latestTarget.put(this.currentSetup, this.targetOfCurrentSetup);
-            log.debug(String.format("Setting the target surplus for current setup %s to %.2f" +
-                    " (original target is %.2f, surplus %.2f, time to reach %.2f)",
-                        this.currentSetup, this.targetOfCurrentSetup, this.currentSetup.getSurplusTarget(),
-                            this.currentSetup.getSurplus(), timeToReachTarget));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Setting the target surplus for current setup %s to %.2f" +
+                        " (original target is %.2f, surplus %.2f, time to reach %.2f)",
+                            this.currentSetup, this.targetOfCurrentSetup, this.currentSetup.getSurplusTarget(),
+                                this.currentSetup.getSurplus(), timeToReachTarget));
+            }
         }
         return new SurplusControlEvent(this.currentSetup, this.targetOfCurrentSetup, this.clock.getTime(), this.hasDiscreteMaterial);
     }
@@ -111,6 +122,20 @@ public class HedgingZonePolicyWithLoadBalance extends HedgingZonePolicy {
         return nextItem;
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        super.writeState(out);
+        CheckpointIO.writeItemValues(out, this.latestTarget, this.machine);
+        CheckpointIO.writeDouble(out, this.targetOfCurrentSetup);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        super.readState(in);
+        CheckpointIO.readItemValues(in, this.latestTarget, this.machine);
+        this.targetOfCurrentSetup = CheckpointIO.readDouble(in);
+    }
+
     @Override
     public boolean isTargetBased() {
         return false;
@@ -126,8 +151,10 @@ public class HedgingZonePolicyWithLoadBalance extends HedgingZonePolicy {
         // We are using the latest target AND the lower hedging point, so it's a bigger DZ than originally
         double deltaZ = Math.max(target, item.getSurplusTarget()) - this.lowerHedgingPoints.getLowerHedgingPoint(item);
         boolean isInTheFractionalHZ = target - item.getSurplus() <= fraction * deltaZ;
-        log.trace(String.format("%s has: latest target: %.2f delta_z: %.2f surplus: %.2f zone fraction %.2f. In the fractional hedging zone ? %s",
-                item, target, deltaZ, item.getSurplus(), fraction, isInTheFractionalHZ));
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format("%s has: latest target: %.2f delta_z: %.2f surplus: %.2f zone fraction %.2f. In the fractional hedging zone ? %s",
+                    item, target, deltaZ, item.getSurplus(), fraction, isInTheFractionalHZ));
+        }
         return isInTheFractionalHZ;
     }
 
@@ -157,7 +184,7 @@ public class HedgingZonePolicyWithLoadBalance extends HedgingZonePolicy {
         Item returnItem = null;
         if ( maximizingPairOpt.isPresent() ) {
             Pair<Item, Double> maximizingPair = maximizingPairOpt.get();
-            log.trace(String.format("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight()));
+            logger.trace("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight());
             returnItem = maximizingPair.getLeft();
         }
         return Optional.ofNullable(returnItem);
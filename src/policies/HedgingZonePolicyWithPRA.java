@@ -6,8 +6,8 @@ import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
 
-import lombok.extern.apachecommons.CommonsLog;
 import system.Item;
+import util.HotPathLogger;
 
 /**
  * A version of the HZP with production run anticipation (PRA), where we try to
@@ -19,9 +19,10 @@ import system.Item;
  *
  */
 @Deprecated
-@CommonsLog
 public class HedgingZonePolicyWithPRA extends HedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(HedgingZonePolicyWithPRA.class);
+
     // TODO Add unit test
 
     // TODO Move this parameter to PolicyParams
@@ -30,7 +31,7 @@ public class HedgingZonePolicyWithPRA extends HedgingZonePolicy {
     @Override
     protected Optional<Item> selectItemFromReadySet(final Set<Item> readyItems) {
 
-        log.trace(String.format("The ready items are %s", readyItems));
+        logger.trace("The ready items are %s", readyItems);
         
         // Find the minimum time available to leave the hedging zone
         Stream<Pair<Item, Double>> itemTimeAvailStream = 
@@ -41,14 +42,17 @@ public class HedgingZonePolicyWithPRA extends HedgingZonePolicy {
                         timeToLowerHP= item.getFluidTimeToSurplusLevel(this.lowerHedgingPoints.getLowerHedgingPoint(item));
                     }
                     return Pair.of(item, timeToLowerHP);
-        }).peek(pair ->
-        log.trace(String.format("Item %s had %.2f time units before reaching its lower hedging point %.2f",
-                pair.getLeft(), pair.getRight(), this.lowerHedgingPoints.getLowerHedgingPoint(pair.getLeft()))));
+        }).peek(pair -> {
+            if (logger.isTraceEnabled()) {
+                logger.trace(String.format("Item %s had %.2f time units before reaching its lower hedging point %.2f",
+                        pair.getLeft(), pair.getRight(), this.lowerHedgingPoints.getLowerHedgingPoint(pair.getLeft())));
+            }
+        });
 
         Optional<Pair<Item, Double>> constrainingItem = itemTimeAvailStream
                 .min( (p1, p2) -> Double.compare(p1.getRight(), p2.getRight()));
 
-        log.debug(String.format("Constraining item for PRA is %s", constrainingItem));
+        logger.debug("Constraining item for PRA is %s", constrainingItem);
         Optional<Double> timeAvailable = constrainingItem.map(p -> p.getRight());
 
         // Find the item whose run can be accommodated in this time
@@ -63,8 +67,9 @@ public class HedgingZonePolicyWithPRA extends HedgingZonePolicy {
                 double runTime = setupTime + ( target - surplus + setupTime * demandRate ) / ( productionRate - demandRate );
                 double timeRatio = runTime / timeAvailable.get();
                 return Pair.of(item, timeRatio);
-            }).peek( p -> log.trace(String.format("Item %s has a time ratio of %.2f", 
-                        p.getLeft(), p.getRight())));
+            }).peek(p -> {
+                logger.trace("Item %s has a time ratio of %.2f", p.getLeft(), p.getRight());
+            });
 
             // Find a new item that has a time ratio lower than 1 + tol 
             praItem = timeRatios.filter( pair -> 
@@ -73,11 +78,13 @@ public class HedgingZonePolicyWithPRA extends HedgingZonePolicy {
         }
         // If the item is not available, use the super
         if ( praItem.isPresent() ) {
-            log.debug(String.format("Doing a PRA run of item %s (current setup is %s)",
-                    praItem.get(), this.currentSetup));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Doing a PRA run of item %s (current setup is %s)",
+                        praItem.get(), this.currentSetup));
+            }
             return praItem;
         } else {
-            log.debug(String.format("No PRA run found."));
+            logger.debug("No PRA run found.");
             return super.selectItemFromReadySet(readyItems);
         }
 
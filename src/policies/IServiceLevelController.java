@@ -1,12 +1,13 @@
 package policies;
 
+import sim.ICheckpointable;
 import system.Item;
 
 /**
  * Interface for the service level controller, which adjusts an item's target based on
  * service level tracking performance.
   */
-public interface IServiceLevelController {
+public interface IServiceLevelController extends ICheckpointable {
 
     /**
      * Returns the current control to apply to the item's target (as an additive term)
@@ -1,16 +1,19 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
-import lombok.extern.apachecommons.CommonsLog;
 import lowerbounds.SurplusCostLowerBound;
 import sim.Sim;
 import system.Item;
+import util.HotPathLogger;
 import util.containers.FixedHorizonSurplusTrajectoryContainer;
 import util.containers.ISurplusTrajectoryContainer;
 import discreteEvent.ControlEvent;
-import discreteEvent.Event;
+import discreteEvent.EventContext;
 import discreteEvent.EventListener;
 import discreteEvent.SurplusControlEvent;
 
@@ -22,9 +25,10 @@ import discreteEvent.SurplusControlEvent;
  *
  */
 @Deprecated
-@CommonsLog
 public class IdealDeviationAndFrequencyTrackingPolicy extends AbstractPolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(IdealDeviationAndFrequencyTrackingPolicy.class);
+
 	private double learningRate;
 	private double deviationTrackingBias;
 	private Map<Item, Double> aveTimeBetweenRuns;
@@ -50,8 +54,8 @@ public class IdealDeviationAndFrequencyTrackingPolicy extends AbstractPolicy {
 		//Add an event listener to make sure the surplus trajectory container is in sync
 		sim.getListenersCoordinator().addBeforeEventListener(new EventListener() {			
 			@Override
-			public void execute(Event event, Sim sim) {
-				double time = event.getTime().doubleValue();
+			public void execute(EventContext context, Sim sim) {
+				double time = context.getEventTime().doubleValue();
 				double surplus[] = new double[machine.getNumItems()];
 				for (int i=0; i < surplus.length; i++) {
 					surplus[i] = machine.getItemById(i).getSurplus();
@@ -118,11 +122,11 @@ public class IdealDeviationAndFrequencyTrackingPolicy extends AbstractPolicy {
 
 		if (nextItem != null){
 			//Most likely scenario
-			log.trace("Next item to produce is " + nextItem);
-			if (log.isTraceEnabled()){
+			if (logger.isTraceEnabled()){
+				logger.trace("Next item to produce is " + nextItem);
 				for (Item item : machine) {
 					boolean isNext = nextItem.equals(item);
-					log.trace(String.format("time,item,is_next,deviation,deviation_if_produced,ideal_deviation," +
+					logger.trace(String.format("time,item,is_next,deviation,deviation_if_produced,ideal_deviation," +
 							"%s,%s,%s,%.3f,%.3f,%.3f",
 							clock.getTime(), item.getId(), isNext, 
 							item.getSurplusDeviation(), computeAveMaxDeviation(item), makeToOrderLowerBound.getIdealSurplusDeviation(item.getId())));
@@ -134,7 +138,7 @@ public class IdealDeviationAndFrequencyTrackingPolicy extends AbstractPolicy {
 			for (Item item : machine){
 				if (item != machine.getSetup()){
 					nextItem = item;
-					log.trace("All items had the same error ratio. Changing over to the next item " + nextItem);
+					logger.trace("All items had the same error ratio. Changing over to the next item %s", nextItem);
 					break;
 				}
 			}			
@@ -177,7 +181,17 @@ public class IdealDeviationAndFrequencyTrackingPolicy extends AbstractPolicy {
 
 		return aveMaxDev;
 	}
-	
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		throw new UnsupportedOperationException("Checkpoints do not keep the surplus trajectory of the policy");
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		throw new UnsupportedOperationException("Checkpoints do not keep the surplus trajectory of the policy");
+	}
+
 }
 
 
@@ -1,14 +1,18 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
-import lombok.extern.apachecommons.CommonsLog;
 import lowerbounds.SurplusCostLowerBound;
+import sim.CheckpointIO;
 import sim.Sim;
 import system.Item;
 import discreteEvent.ControlEvent;
 import discreteEvent.SurplusControlEvent;
+import util.HotPathLogger;
 
 /**
  * Selects the item that's farthest behind on its ideal frequency of setups,
@@ -18,9 +22,10 @@ import discreteEvent.SurplusControlEvent;
  *
  */
 @Deprecated
-@CommonsLog
 public class IdealFrequencyTrackingPolicy extends AbstractPolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(IdealFrequencyTrackingPolicy.class);
+
 	private double learningRate;
 	private Map<Item, Double> aveTimeBetweenRuns;
 	private SurplusCostLowerBound makeToOrderLowerBound;	
@@ -84,7 +89,7 @@ public class IdealFrequencyTrackingPolicy extends AbstractPolicy {
 		//Find the next item
 		Item nextItem = null;
 		if (doFreqMatching) {
-			log.trace("Doing frequency matching");
+			logger.trace("Doing frequency matching");
 			double largestFrequencyRatio = 0.0;
 			for (Item item : machine){
 				if (item.equals(machine.getSetup())) {					
@@ -101,7 +106,7 @@ public class IdealFrequencyTrackingPolicy extends AbstractPolicy {
 				}
 			}
 		} else {
-			log.trace("Doing deviation matching");
+			logger.trace("Doing deviation matching");
 			double largestDeviationRatio = 0.0;
 			for (Item item : machine){
 				if (item.equals(machine.getSetup())) {
@@ -117,13 +122,13 @@ public class IdealFrequencyTrackingPolicy extends AbstractPolicy {
 		
 		if (nextItem != null){
 			//Most likely scenario
-			log.trace("Next item to produce is " + nextItem);
+			logger.trace("Next item to produce is %s", nextItem);
 		} else {
 			//If all items have the same deviation ratio, find the next item that's not the current setup		
 			for (Item item : machine){
 				if (item != machine.getSetup()){
 					nextItem = item;
-					log.trace("All items had the same surplus deviation. Changing over to the next item " + nextItem);
+					logger.trace("All items had the same surplus deviation. Changing over to the next item %s", nextItem);
 					break;
 				}
 			}			
@@ -143,6 +148,18 @@ public class IdealFrequencyTrackingPolicy extends AbstractPolicy {
 	}
 
 
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		super.writeState(out);
+		CheckpointIO.writeItemValues(out, aveTimeBetweenRuns, machine);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		super.readState(in);
+		CheckpointIO.readItemValues(in, aveTimeBetweenRuns, machine);
+	}
+
 	private double computeAveTimeBetweenRuns(Item item){
 		double timeBetweenRunsIfProduced = clock.getTime().subtract(machine.getLastSetupTime(item)).doubleValue();
 		return (1-learningRate) * aveTimeBetweenRuns.get(item) + learningRate * timeBetweenRunsIfProduced;		
@@ -1,5 +1,8 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
 import system.Item;
 
 /**
@@ -31,4 +34,12 @@ public class InactiveServiceLevelController implements IServiceLevelController {
     public void noteNewSetup(Item item) {
     }
 
+    @Override
+    public void writeState(DataOutputStream out) {
+    }
+
+    @Override
+    public void readState(DataInputStream in) {
+    }
+
 }
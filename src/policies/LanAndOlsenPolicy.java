@@ -1,15 +1,16 @@
 package policies;
 
-import lombok.extern.apachecommons.CommonsLog;
 import lowerbounds.SurplusCostLowerBound;
 import sim.Sim;
 import system.Item;
 import discreteEvent.ControlEvent;
 import discreteEvent.SurplusControlEvent;
+import util.HotPathLogger;
 
-@CommonsLog
 public class LanAndOlsenPolicy extends AbstractPolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(LanAndOlsenPolicy.class);
+
     private SurplusCostLowerBound surplusCostLowerBound;
 
     @Override
@@ -18,7 +19,7 @@ public class LanAndOlsenPolicy extends AbstractPolicy {
         surplusCostLowerBound = sim.getSurplusCostLowerBound();
         // TODO For now, we assume the policy never cruises
         if (this.policyParams.getUserDefinedIsCruising().isPresent() && this.policyParams.getUserDefinedIsCruising().get()) {
-            log.warn("Cruising is set to true by the user but right now the policy is non cruising!!!");
+            logger.warn("Cruising is set to true by the user but right now the policy is non cruising!!!");
             throw new RuntimeException("Cruising is not implemented yet");
         }
     }
@@ -65,19 +66,19 @@ public class LanAndOlsenPolicy extends AbstractPolicy {
                 largestDeviationRatio = deviationRatio;
                 nextItem = item;
             }
-            log.trace(item + " has a deviation ratio of " + deviationRatio);
+            logger.trace("%s has a deviation ratio of %s", item, deviationRatio);
         }
 
         if (nextItem != null) {
             // Most likely scenario
-            log.trace("Next item to produce is " + nextItem + " which has the largest surplus deviation");
+            logger.trace("Next item to produce is %s which has the largest surplus deviation", nextItem);
         } else {
             // If all items have the same deviation ratio, find the next item
             // that's not the current setup
             for (Item item : machine) {
                 if (item != machine.getSetup()) {
                     nextItem = item;
-                    log.trace("All items had the same surplus deviation. Changing over to the next item " + nextItem);
+                    logger.trace("All items had the same surplus deviation. Changing over to the next item %s", nextItem);
                     break;
                 }
             }
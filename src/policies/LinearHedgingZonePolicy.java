@@ -5,10 +5,10 @@ import java.util.Map;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 
-import lombok.extern.apachecommons.CommonsLog;
 import sim.Sim;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * A generalized version of the HZP where the targets are a linear function of the surplus levels of the other items.
@@ -32,9 +32,10 @@ import system.Machine;
  *
  */
 @Deprecated
-@CommonsLog
 public class LinearHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(LinearHedgingZonePolicy.class);
+
     /**
      * Corresponds to d_i / ( N - 1 ) * (mu_i - d_i) / ( \sqrt( alpha d_i / c_i ) - d_i ) - 1
      */
@@ -54,10 +55,10 @@ public class LinearHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
     @Override
     protected boolean currentSetupOnOrAboveTarget(Machine machine) {
         boolean aboveTarget = machine.getSetup().getSurplus() >= getTarget(machine.getSetup()) - Sim.SURPLUS_TOLERANCE;
-        if ( log.isTraceEnabled() && aboveTarget ) {
-            log.trace(String.format("Current setup %s above target %.3f", machine.getSetup(), getTarget(machine.getSetup())));
+        if ( logger.isTraceEnabled() && aboveTarget ) {
+            logger.trace("Current setup %s above target %.3f", machine.getSetup(), getTarget(machine.getSetup()));
             for ( Item item : machine ) {
-                log.trace(String.format("Item %s Surplus %.3f", item, item.getSurplus()));
+                logger.trace("Item %s Surplus %.3f", item, item.getSurplus());
             }
         }
         return aboveTarget;
@@ -144,7 +145,9 @@ public class LinearHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
             // (Z^U_j_nominal - x_j + d_j * delta_time) / d_j * factor_i
             increment +=  projectedDeviation * factor / otherItem.getDemandRate();
         }
-        log.trace(String.format("The upper hedging point for %s has an increment of %.4f at %.4f time units from now", item, increment, deltaTime));
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format("The upper hedging point for %s has an increment of %.4f at %.4f time units from now", item, increment, deltaTime));
+        }
         return increment;
     }
 
@@ -158,7 +161,7 @@ public class LinearHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
             double alphaItem = item.getCCostRate() * item.getProductionRate() / ( item.getUtilization() );
             alpha += alphaItem / (double) numItems;
         }
-        log.debug(String.format("Computing alpha coefficient %.3f", alpha));
+        logger.debug("Computing alpha coefficient %.3f", alpha);
         // Now determine the multiplicative factors for each item
         for ( Item item : machine ) {
             // First term is ( d[i] / N - 1 )
@@ -167,7 +170,7 @@ public class LinearHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
             double term2 = ( item.getProductionRate() - item.getDemandRate() ) / (
                             Math.sqrt( alpha * item.getDemandRate() / item.getCCostRate() ) - item.getDemandRate() ) - 1;
             double factor = term1 * term2;
-            log.debug(String.format("Setting Delta ZU factor for item %s to %.3f", item, factor));
+            logger.debug("Setting Delta ZU factor for item %s to %.3f", item, factor);
             upperHedgingZoneFactors.put(item, factor);
         }
         return upperHedgingZoneFactors;
@@ -185,7 +188,7 @@ public class LinearHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
                 }
             }
             double expansionFactorI = Math.sqrt( 1 + Math.pow(factorI, 2) / sumSq );
-            log.debug(String.format("Setting the DZ expansion factor for item %s to %.3f", itemI, expansionFactorI));
+            logger.debug("Setting the DZ expansion factor for item %s to %.3f", itemI, expansionFactorI);
             expansionFactors.put(itemI, expansionFactorI);
         }
         return expansionFactors;
@@ -1,15 +1,18 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Map;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 
-import lombok.extern.apachecommons.CommonsLog;
 import sim.Sim;
 import system.Item;
 import system.Machine;
 import system.MachineSnapshot;
+import util.HotPathLogger;
 
 /**
  * A generalized version of the HZP where the target of item <tt>i</tt> depends on the surplus level at the
@@ -20,9 +23,10 @@ import system.MachineSnapshot;
  *
  */
 @Deprecated
-@CommonsLog
 public class LinearHedgingZonePolicyV2 extends GeneralizedHedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(LinearHedgingZonePolicyV2.class);
+
     private Map<Item, Double> upperHedgingZoneFactors;
     private MachineSnapshot startOfRunSnapshot;
 
@@ -36,11 +40,26 @@ public class LinearHedgingZonePolicyV2 extends GeneralizedHedgingZonePolicy {
     @Override
     public Item nextItem() {
         Item nextItem = super.nextItem();
-        log.debug(String.format("Resetting start-of-run snapshot in preparation for producing %s", nextItem));
+        logger.debug("Resetting start-of-run snapshot in preparation for producing %s", nextItem);
         this.startOfRunSnapshot = null;
         return nextItem;
     }
     
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        super.writeState(out);
+        out.writeBoolean(this.startOfRunSnapshot != null);
+        if ( this.startOfRunSnapshot != null ) {
+            this.startOfRunSnapshot.writeState(out);
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        super.readState(in);
+        this.startOfRunSnapshot = in.readBoolean() ? MachineSnapshot.read(in, this.machine) : null;
+    }
+
     @Override
     protected boolean currentSetupOnOrAboveTarget(Machine machine) {
         return machine.getSetup().getSurplus() >= getTarget(machine.getSetup()) - Sim.SURPLUS_TOLERANCE;
@@ -117,7 +136,7 @@ public class LinearHedgingZonePolicyV2 extends GeneralizedHedgingZonePolicy {
 
         double factor = this.upperHedgingZoneFactors.get(item);
         if ( this.startOfRunSnapshot == null ) {
-            log.debug("Getting a new machine snapshot tp compute the hedging points");
+            logger.debug("Getting a new machine snapshot tp compute the hedging points");
             this.startOfRunSnapshot = this.machine.getSnapshot();
         }
         double projectedDeviation;
@@ -128,7 +147,9 @@ public class LinearHedgingZonePolicyV2 extends GeneralizedHedgingZonePolicy {
         }
 
         double increment = projectedDeviation * factor;
-        log.trace(String.format("The upper hedging point for %s has an increment of %.4f at %.4f time units from now", item, increment, deltaTime));
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format("The upper hedging point for %s has an increment of %.4f at %.4f time units from now", item, increment, deltaTime));
+        }
         return increment;
     }
 
@@ -141,12 +162,12 @@ public class LinearHedgingZonePolicyV2 extends GeneralizedHedgingZonePolicy {
         for ( Item item : machine ) {
             alpha += item.getCCostRate() * item.getProductionRate() / ( numItems * item.getUtilization() );
         }
-        log.debug(String.format("Computing alpha coefficient %.3f", alpha));
+        logger.debug("Computing alpha coefficient %.3f", alpha);
         // Now determine the multiplicative factors for each item
         for ( Item item : machine ) {
             double factor = ( item.getProductionRate() - item.getDemandRate() ) / (
                     Math.sqrt( alpha * item.getDemandRate() / item.getCCostRate() ) - item.getDemandRate() ) - 1;
-            log.debug(String.format("Setting Delta ZU factor for item %s to %.3f", item, factor));
+            logger.debug("Setting Delta ZU factor for item %s to %.3f", item, factor);
             upperHedgingZoneFactors.put(item, factor);
         }
         return upperHedgingZoneFactors;
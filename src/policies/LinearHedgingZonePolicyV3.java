@@ -5,10 +5,10 @@ import java.util.Map;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 
-import lombok.extern.apachecommons.CommonsLog;
 import sim.Sim;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * A generalized version of the HZP where the targets are a linear function of the surplus levels of the other items.
@@ -35,9 +35,10 @@ import system.Machine;
  *
  */
 @Deprecated
-@CommonsLog
 public class LinearHedgingZonePolicyV3 extends GeneralizedHedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(LinearHedgingZonePolicyV3.class);
+
     /**
      * Corresponds to d_i / ( N - 1 ) * (mu_i - d_i) / ( \sqrt( alpha d_i / c_i ) - d_i ) - 1
      */
@@ -58,9 +59,9 @@ public class LinearHedgingZonePolicyV3 extends GeneralizedHedgingZonePolicy {
     protected boolean currentSetupOnOrAboveTarget(Machine machine) {
         boolean aboveTarget = machine.getSetup().getSurplus() >= getTarget(machine.getSetup()) - Sim.SURPLUS_TOLERANCE;
         if ( aboveTarget ) {
-            log.debug(String.format("Current setup %s above target %.3f", machine.getSetup(), getTarget(machine.getSetup())));
+            logger.debug("Current setup %s above target %.3f", machine.getSetup(), getTarget(machine.getSetup()));
             for ( Item item : machine ) {
-                log.debug(String.format("Item %s Surplus %.3f", item, item.getSurplus()));
+                logger.debug("Item %s Surplus %.3f", item, item.getSurplus());
             }
         }
         return aboveTarget;
@@ -147,7 +148,9 @@ public class LinearHedgingZonePolicyV3 extends GeneralizedHedgingZonePolicy {
             // (Z^U_j_nominal - x_j + d_j * delta_time) / d_j * factor_i
             increment +=  projectedDeviation * factor / otherItem.getDemandRate();
         }
-        log.trace(String.format("The upper hedging point for %s has an increment of %.4f at %.4f time units from now", item, increment, deltaTime));
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format("The upper hedging point for %s has an increment of %.4f at %.4f time units from now", item, increment, deltaTime));
+        }
         return increment;
     }
 
@@ -163,7 +166,7 @@ public class LinearHedgingZonePolicyV3 extends GeneralizedHedgingZonePolicy {
                 alpha = alphaItem;
             }
         }
-        log.debug(String.format("Computing alpha coefficient %.3f", alpha));
+        logger.debug("Computing alpha coefficient %.3f", alpha);
         // Now determine the multiplicative factors for each item
         for ( Item item : machine ) {
             // First term is d[i] / ( N - 1 )
@@ -172,7 +175,7 @@ public class LinearHedgingZonePolicyV3 extends GeneralizedHedgingZonePolicy {
             double term2 = ( item.getProductionRate() - item.getDemandRate() ) / (
                             Math.sqrt( alpha * item.getDemandRate() / item.getCCostRate() ) - item.getDemandRate() ) - 1;
             double factor = term1 * term2;
-            log.debug(String.format("Setting Delta ZU factor for item %s to %.3f", item, factor));
+            logger.debug("Setting Delta ZU factor for item %s to %.3f", item, factor);
             upperHedgingZoneFactors.put(item, factor);
         }
         return upperHedgingZoneFactors;
@@ -191,7 +194,7 @@ public class LinearHedgingZonePolicyV3 extends GeneralizedHedgingZonePolicy {
             }
             //TODO This is wrong: we are doing 1 / sumSq when in reality we need sum( 1/ sq)
             double expansionFactorI = Math.sqrt( 1 + Math.pow(factorI, 2) / sumSq );
-            log.debug(String.format("Setting the DZ expansion factor for item %s to %.3f", itemI, expansionFactorI));
+            logger.debug("Setting the DZ expansion factor for item %s to %.3f", itemI, expansionFactorI);
             expansionFactors.put(itemI, expansionFactorI);
         }
         return expansionFactors;
@@ -5,10 +5,10 @@ import java.util.Map;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 
-import lombok.extern.apachecommons.CommonsLog;
 import sim.Sim;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * A generalized version of the HZP where the targets are a function of the work-in-progress (measured off of the upper
@@ -37,9 +37,10 @@ import system.Machine;
  *
  */
 @Deprecated
-@CommonsLog
 public class LinearHedgingZonePolicyV4 extends GeneralizedHedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(LinearHedgingZonePolicyV4.class);
+
     /**
      * TODO Make configurable. Determines how much relative slack to have in the inequalities for truncation
      */
@@ -65,9 +66,9 @@ public class LinearHedgingZonePolicyV4 extends GeneralizedHedgingZonePolicy {
     protected boolean currentSetupOnOrAboveTarget(Machine machine) {
         boolean aboveTarget = machine.getSetup().getSurplus() >= getTarget(machine.getSetup()) - Sim.SURPLUS_TOLERANCE;
         if ( aboveTarget ) {
-            log.debug(String.format("Current setup %s above target %.3f", machine.getSetup(), getTarget(machine.getSetup())));
+            logger.debug("Current setup %s above target %.3f", machine.getSetup(), getTarget(machine.getSetup()));
             for ( Item item : machine ) {
-                log.debug(String.format("Item %s Surplus %.3f", item, item.getSurplus()));
+                logger.debug("Item %s Surplus %.3f", item, item.getSurplus());
             }
         }
         return aboveTarget;
@@ -156,7 +157,9 @@ public class LinearHedgingZonePolicyV4 extends GeneralizedHedgingZonePolicy {
             double vIContribution = Math.max(0, projectedDeviation) / otherItem.getProductionRate();
             increment +=  factor * vIContribution * item.getProductionRate() / nMinus1;
         }
-        log.trace(String.format("The upper hedging point for %s has an increment of %.4f at %.4f time units from now", item, increment, deltaTime));
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format("The upper hedging point for %s has an increment of %.4f at %.4f time units from now", item, increment, deltaTime));
+        }
         return increment;
     }
 
@@ -172,7 +175,7 @@ public class LinearHedgingZonePolicyV4 extends GeneralizedHedgingZonePolicy {
             alpha += item.getCCostRate() * item.getProductionRate() / ( item.getUtilization() * machine.getNumItems() );
             rho += item.getUtilization();
         }
-        log.debug(String.format("Computing alpha coefficient %.3f", alpha));
+        logger.debug("Computing alpha coefficient %.3f", alpha);
         // Now determine the multiplicative factors for each item
         double nMinus1 = machine.getNumItems() - 1;
         for ( Item item : machine ) {
@@ -189,8 +192,10 @@ public class LinearHedgingZonePolicyV4 extends GeneralizedHedgingZonePolicy {
                     ( nMinus1 / REL_SLACK_FACTOR ) * item.getUtilization() / ( 1 - rho + item.getUtilization() ));
             truncatedFactor = Math.min( truncatedFactor,
                     ( nMinus1 / REL_SLACK_FACTOR ) * ( 1 - item.getUtilization() ) / ( rho - item.getUtilization() ) );
-            log.debug(String.format("Setting Delta ZU factor for item %s to %.3f (%.3f before truncation)",
-                    item, truncatedFactor, factor));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Setting Delta ZU factor for item %s to %.3f (%.3f before truncation)",
+                        item, truncatedFactor, factor));
+            }
             upperHedgingZoneFactors.put(item, truncatedFactor);
         }
         return upperHedgingZoneFactors;
@@ -210,7 +215,7 @@ public class LinearHedgingZonePolicyV4 extends GeneralizedHedgingZonePolicy {
                 }
             }
             double expansionFactorI = Math.sqrt( 1 + sumSq );
-            log.debug(String.format("Setting the DZ expansion factor for item %s to %.3f", itemI, expansionFactorI));
+            logger.debug("Setting the DZ expansion factor for item %s to %.3f", itemI, expansionFactorI);
             expansionFactors.put(itemI, expansionFactorI);
         }
         return expansionFactors;
@@ -1,5 +1,8 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Optional;
@@ -12,10 +15,11 @@ import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Table;
 
-import lombok.extern.apachecommons.CommonsLog;
+import sim.CheckpointIO;
 import sim.Sim;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * This version of the policy computes the target upper hedging point at the
@@ -33,9 +37,10 @@ import system.Machine;
  *
  */
 @Deprecated
-@CommonsLog
 public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(LinearHedgingZonePolicyV5.class);
+
     // Parameters on the min-run length controller
     public static final double PROP_GAIN = 0.15;
     public static final double LEARN_RATE = 0.15;
@@ -68,8 +73,10 @@ public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
         for ( Item item : this.machine ) {
             double slackItem = 1 - item.getUtilization() / this.machine.getEfficiency();
             double minSurplusChangeItem = item.getDemandRate() * item.getSetupTime() * ( slackItem / slack - 1 );
-            log.debug(String.format("Initializing the min-run surplus change of %s to %.5f",
-                    item, minSurplusChangeItem));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Initializing the min-run surplus change of %s to %.5f",
+                        item, minSurplusChangeItem));
+            }
             this.minRunSurplusChangeLearned.put(item, minSurplusChangeItem);
         }
     }
@@ -82,9 +89,9 @@ public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
         }
         boolean aboveTarget = machine.getSetup().getSurplus() >= this.currentSetupTarget - Sim.SURPLUS_TOLERANCE;
         if ( aboveTarget ) {
-            log.debug(String.format("Current setup %s above target %.3f", machine.getSetup(), this.currentSetupTarget));
+            logger.debug("Current setup %s above target %.3f", machine.getSetup(), this.currentSetupTarget);
             for ( Item item : machine ) {
-                log.debug(String.format("Item %s Surplus %.3f", item, item.getSurplus()));
+                logger.debug("Item %s Surplus %.3f", item, item.getSurplus());
             }
         }
         return aboveTarget;
@@ -115,7 +122,7 @@ public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
     protected double currentSetupMinTimeToTarget(Machine machine) {
         double currentTarget = getTarget(this.currentSetup);
         double timeToReachCurrentTarget = this.currentSetup.getFluidTimeToSurplusLevel(currentTarget);
-        if ( log.isTraceEnabled() ) {
+        if ( logger.isTraceEnabled() ) {
             String.format("It will take %.5f to reach the current target of %.5f for %s",
                     timeToReachCurrentTarget, currentTarget, this.currentSetup);
         }
@@ -138,7 +145,7 @@ public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
         Item returnItem = null;
         if ( maximizingPairOpt.isPresent() ) {
             Pair<Item, Double> maximizingPair = maximizingPairOpt.get();
-            log.trace(String.format("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight()));
+            logger.trace("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight());
             returnItem = maximizingPair.getLeft();
         }
         return Optional.ofNullable(returnItem);
@@ -150,7 +157,7 @@ public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
             return this.currentSetupTarget;
         } else {
             double zU = item.getSurplusDeviation() * this.muFactor.get(item) + item.getSurplus();
-            if ( log.isTraceEnabled() ) {
+            if ( logger.isTraceEnabled() ) {
                 String.format("Target for item %s is %.5f", item, zU);
             }
             return zU;
@@ -168,26 +175,44 @@ public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
         this.currentSetupTarget = Math.min( 
                 Math.max(rawTarget, minRunLength + this.currentSetup.getSurplus()),
                 this.currentSetup.getSurplusTarget() );
-        if ( log.isDebugEnabled() ) {
-            log.debug(String.format("The min run length for current setup %s is %.5f. The raw target is %.5f. Locking"
+        if ( logger.isDebugEnabled() ) {
+            logger.debug(String.format("The min run length for current setup %s is %.5f. The raw target is %.5f. Locking"
                     + " the target to %.5f", this.currentSetup, minRunLength, rawTarget, this.currentSetupTarget));
         }
     }
 
     protected void releaseLockedTarget() {
-        log.trace("Releasing locked target");
+        logger.trace("Releasing locked target");
         this.currentSetupTarget = null;
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        super.writeState(out);
+        CheckpointIO.writeDouble(out, this.currentSetupTarget);
+        CheckpointIO.writeItemValues(out, this.startOfRunLearnedSurplus, this.machine);
+        CheckpointIO.writeItemValues(out, this.endOfRunLearnedSurplus, this.machine);
+        CheckpointIO.writeItemValues(out, this.endOfRunSurplusRelativeChange, this.machine);
+        CheckpointIO.writeItemValues(out, this.minRunSurplusChangeLearned, this.machine);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        super.readState(in);
+        this.currentSetupTarget = CheckpointIO.readDouble(in);
+        CheckpointIO.readItemValues(in, this.startOfRunLearnedSurplus, this.machine);
+        CheckpointIO.readItemValues(in, this.endOfRunLearnedSurplus, this.machine);
+        CheckpointIO.readItemValues(in, this.endOfRunSurplusRelativeChange, this.machine);
+        CheckpointIO.readItemValues(in, this.minRunSurplusChangeLearned, this.machine);
+    }
+
     @VisibleForTesting
     protected double updateLearnedStartOfRunSurplus(Item item) {
         double learnedSurplus = this.startOfRunLearnedSurplus.getOrDefault(item, item.getSurplus());
         double newSurplus = item.getSurplus();
         learnedSurplus = ( 1 - LEARN_RATE ) * learnedSurplus + LEARN_RATE * newSurplus;
         this.startOfRunLearnedSurplus.put(item, learnedSurplus);
-        if ( log.isTraceEnabled() ) {
-            log.trace(String.format("Prev-start of run surplus for %s set to %.5f", item, learnedSurplus));
-        }
+        logger.trace("Prev-start of run surplus for %s set to %.5f", item, learnedSurplus);
         return learnedSurplus;
     }
 
@@ -200,8 +225,8 @@ public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
         double newLearnedSurplus = ( 1 - LEARN_RATE ) * learnedSurplus + LEARN_RATE * newSurplus;
         this.endOfRunLearnedSurplus.put(item, newLearnedSurplus);
         this.endOfRunSurplusRelativeChange.put(item, change);
-        if ( log.isTraceEnabled() ) {
-            log.trace(String.format("End of run surplus for %s set to %.5f from %.5f (rel change %.5f)",
+        if ( logger.isTraceEnabled() ) {
+            logger.trace(String.format("End of run surplus for %s set to %.5f from %.5f (rel change %.5f)",
                     item, newLearnedSurplus, learnedSurplus, change));
         }
     }
@@ -223,7 +248,9 @@ public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
             // The factor adjusts the length of runs based on mubar
             double factor = ( item.getProductionRate() - item.getDemandRate() ) / 
                     ( muBar - item.getDemandRate() );
-            log.debug(String.format("mu bar for %s is %.5f and its factor %.5f", item, muBar, factor));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("mu bar for %s is %.5f and its factor %.5f", item, muBar, factor));
+            }
             factors.put(item, factor);
         }
         return factors;
@@ -234,8 +261,8 @@ public class LinearHedgingZonePolicyV5 extends GeneralizedHedgingZonePolicy {
         double minRunSurplusChange = this.minRunSurplusChangeLearned.get(item);
         double relChange = this.endOfRunSurplusRelativeChange.getOrDefault(item, 0.0);
         double gain = 1 - PROP_GAIN * relChange;
-        if (log.isTraceEnabled()) {
-            log.trace(String.format("Multiplying %s current min run length of %.5f by %.5f", item, minRunSurplusChange,
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format("Multiplying %s current min run length of %.5f by %.5f", item, minRunSurplusChange,
                     gain));
         }
         minRunSurplusChange = minRunSurplusChange * gain;
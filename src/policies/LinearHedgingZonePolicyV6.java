@@ -1,5 +1,8 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Optional;
@@ -12,10 +15,11 @@ import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Table;
 
-import lombok.extern.apachecommons.CommonsLog;
+import sim.CheckpointIO;
 import sim.Sim;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * This version of the policy computes the target upper hedging point at the
@@ -34,9 +38,10 @@ import system.Machine;
  *
  */
 @Deprecated
-@CommonsLog
 public class LinearHedgingZonePolicyV6 extends GeneralizedHedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(LinearHedgingZonePolicyV6.class);
+
     /**
      * A factor to be applied to the lower bound on min-run length in order to compute
      * the nominal target shift.
@@ -69,7 +74,7 @@ public class LinearHedgingZonePolicyV6 extends GeneralizedHedgingZonePolicy {
             // Compute the nominal target shift
             double shift = NOMINAL_TARGET_SHIFT_FACTOR * minSurplusChangeItem / this.muFactor.get(item) -
                     0.5 * this.hedgingZoneSize.get(item);
-            log.debug(String.format("Setting the nominal target shift for %s to %.5f", item, shift));
+            logger.debug("Setting the nominal target shift for %s to %.5f", item, shift);
             this.nominalTargetShift.put(item, shift);
         }
     }
@@ -82,9 +87,9 @@ public class LinearHedgingZonePolicyV6 extends GeneralizedHedgingZonePolicy {
         }
         boolean aboveTarget = machine.getSetup().getSurplus() >= this.currentSetupTarget - Sim.SURPLUS_TOLERANCE;
         if ( aboveTarget ) {
-            log.debug(String.format("Current setup %s above target %.3f", machine.getSetup(), this.currentSetupTarget));
+            logger.debug("Current setup %s above target %.3f", machine.getSetup(), this.currentSetupTarget);
             for ( Item item : machine ) {
-                log.debug(String.format("Item %s Surplus %.3f", item, item.getSurplus()));
+                logger.debug("Item %s Surplus %.3f", item, item.getSurplus());
             }
         }
         return aboveTarget;
@@ -108,7 +113,7 @@ public class LinearHedgingZonePolicyV6 extends GeneralizedHedgingZonePolicy {
     protected double currentSetupMinTimeToTarget(Machine machine) {
         double currentTarget = getTarget(this.currentSetup);
         double timeToReachCurrentTarget = this.currentSetup.getFluidTimeToSurplusLevel(currentTarget);
-        if ( log.isTraceEnabled() ) {
+        if ( logger.isTraceEnabled() ) {
             String.format("It will take %.5f to reach the current target of %.5f for %s",
                     timeToReachCurrentTarget, currentTarget, this.currentSetup);
         }
@@ -131,7 +136,7 @@ public class LinearHedgingZonePolicyV6 extends GeneralizedHedgingZonePolicy {
         Item returnItem = null;
         if ( maximizingPairOpt.isPresent() ) {
             Pair<Item, Double> maximizingPair = maximizingPairOpt.get();
-            log.trace(String.format("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight()));
+            logger.trace("Item %s had the largest ratio of %.5f", maximizingPair.getLeft(), maximizingPair.getRight());
             returnItem = maximizingPair.getLeft();
         }
         return Optional.ofNullable(returnItem);
@@ -146,7 +151,7 @@ public class LinearHedgingZonePolicyV6 extends GeneralizedHedgingZonePolicy {
             // then multiply by the mu factor.
             double zU = ( item.getSurplusDeviation() + this.nominalTargetShift.get(item) ) * this.muFactor.get(item) +
                     item.getSurplus();
-            if ( log.isTraceEnabled() ) {
+            if ( logger.isTraceEnabled() ) {
                 String.format("Target for item %s is %.5f", item, zU);
             }
             return zU;
@@ -162,16 +167,26 @@ public class LinearHedgingZonePolicyV6 extends GeneralizedHedgingZonePolicy {
         // Set the target to the greater of the raw target and the min run length, but never exceed the nominal target
         this.currentSetupTarget = Math.min(rawTarget,
                 this.currentSetup.getSurplusTarget() + this.nominalTargetShift.get(this.currentSetup) );
-        if ( log.isDebugEnabled() ) {
-            log.debug(String.format("Locking the target of %s to %.5f", this.currentSetup, this.currentSetupTarget));
-        }
+        logger.debug("Locking the target of %s to %.5f", this.currentSetup, this.currentSetupTarget);
     }
 
     protected void releaseLockedTarget() {
-        log.trace("Releasing locked target");
+        logger.trace("Releasing locked target");
         this.currentSetupTarget = null;
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        super.writeState(out);
+        CheckpointIO.writeDouble(out, this.currentSetupTarget);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        super.readState(in);
+        this.currentSetupTarget = CheckpointIO.readDouble(in);
+    }
+
     @VisibleForTesting
     protected static Map<Item, Double> computeMuFactors(final Machine machine) {
         Map<Item, Double> factors = Maps.newHashMap();
@@ -189,7 +204,9 @@ public class LinearHedgingZonePolicyV6 extends GeneralizedHedgingZonePolicy {
             // The factor adjusts the length of runs based on mubar
             double factor = ( item.getProductionRate() - item.getDemandRate() ) / 
                     ( muBar - item.getDemandRate() );
-            log.debug(String.format("mu bar for %s is %.5f and its factor %.5f", item, muBar, factor));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("mu bar for %s is %.5f and its factor %.5f", item, muBar, factor));
+            }
             factors.put(item, factor);
         }
         return factors;
@@ -1,27 +1,32 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Map;
 import java.util.stream.StreamSupport;
 
 import com.google.common.collect.Maps;
 
-import lombok.extern.apachecommons.CommonsLog;
 import metrics.surplusstatistics.StreamSurplusStatisticsCalculator;
 import params.PolicyParams;
+import sim.CheckpointIO;
 import sim.Clock;
 import sim.Sim;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * Implements a controller that may be used for matching a target service level by adjusting the
  * target surplus level of each item.
  *
  */
-@CommonsLog
 public class ProportionalServiceLevelController implements IServiceLevelController {
 
-    private final Map<Item, StreamSurplusStatisticsCalculator> latestSurplusStats;
+    private static HotPathLogger logger = HotPathLogger.getLogger(ProportionalServiceLevelController.class);
+
+    private Map<Item, StreamSurplusStatisticsCalculator> latestSurplusStats;
     private final Map<Item, Double> learnedServiceLevel;
     private final Map<Item, Double> targetServiceLevel;
     private final Map<Item, Double> itemPropGain;
@@ -65,7 +70,7 @@ public class ProportionalServiceLevelController implements IServiceLevelControll
             this.learningRate.put(item, this.initialLearningRate);
             // Set the controller gain to be proportional to the average ideal surplus deviation
             double itemGain = aveIdealDev * controllerPropGain;
-            log.info(String.format("Setting the service-level controller gain for item %s to %.5f",
+            logger.info(String.format("Setting the service-level controller gain for item %s to %.5f",
                     item, itemGain));
             this.itemPropGain.put(item, itemGain);
         }
@@ -99,8 +104,8 @@ public class ProportionalServiceLevelController implements IServiceLevelControll
             this.changeoversSinceLatestControl.put(item, 0);
             this.learningRate.put(item, this.learningRateDecayFactor * currentLearningRate);
 
-            if ( log.isTraceEnabled() ) {
-                log.trace(String.format("Updating the controller for item %s."
+            if ( logger.isTraceEnabled() ) {
+                logger.trace(String.format("Updating the controller for item %s."
                         + " Old service level %.5f, cycle service level %.5f, new %.5f. Learning rate is now %.5f.",
                         item, oldServiceLevel, cycleServiceLevel, newServiceLevel, this.learningRate.get(item)));
             }
@@ -115,8 +120,8 @@ public class ProportionalServiceLevelController implements IServiceLevelControll
     public double getControl(final Item item) {
         double error = this.targetServiceLevel.get(item) - this.learnedServiceLevel.get(item);
         double control = this.itemPropGain.get(item) * error;
-        if ( log.isTraceEnabled() ) {
-            log.trace(String.format("Service level controller for item %s is %.5f due to an error of %.5f",
+        if ( logger.isTraceEnabled() ) {
+            logger.trace(String.format("Service level controller for item %s is %.5f due to an error of %.5f",
                     item, control, error));
         }
         return control;
@@ -138,4 +143,24 @@ public class ProportionalServiceLevelController implements IServiceLevelControll
         return this.learningRate.get(item);
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        CheckpointIO.writeItemStates(out, this.latestSurplusStats, this.machine);
+        CheckpointIO.writeItemValues(out, this.learnedServiceLevel, this.machine);
+        CheckpointIO.writeItemValues(out, this.learningRate, this.machine);
+        for ( Item item : this.machine ) {
+            out.writeInt(this.changeoversSinceLatestControl.get(item));
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        this.latestSurplusStats = CheckpointIO.readItemStates(in, this.machine, StreamSurplusStatisticsCalculator::new);
+        CheckpointIO.readItemValues(in, this.learnedServiceLevel, this.machine);
+        CheckpointIO.readItemValues(in, this.learningRate, this.machine);
+        for ( Item item : this.machine ) {
+            this.changeoversSinceLatestControl.put(item, in.readInt());
+        }
+    }
+
 }
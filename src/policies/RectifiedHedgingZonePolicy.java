@@ -1,5 +1,8 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
 
@@ -7,15 +10,16 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
 
-import lombok.extern.apachecommons.CommonsLog;
 import params.PolicyParams;
 import policies.tuning.HeuristicBoundBasedLowerHedgingPointsComputationMethod;
 import policies.tuning.ILowerHedgingPointsComputationMethod;
 import policies.tuning.MakeToOrderBoundBasedLowerHedgingPointsComputationMethod;
+import sim.CheckpointIO;
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * A time-controlled version of the Dynamic Hedging Zone Policy. Note that, in the paper, we refer to this policy
@@ -27,9 +31,10 @@ import system.Machine;
  *
  */
 @Deprecated
-@CommonsLog
 public class RectifiedHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(RectifiedHedgingZonePolicy.class);
+
     private static final double MU_FACTOR_TOLERANCE = 1e-3;
     private static final double TIME_TOLERANCE = 1e-5;
 
@@ -54,7 +59,7 @@ public class RectifiedHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
     protected ILowerHedgingPointsComputationMethod getLowerHedgingPointComputationMethod(PolicyParams policyParams) {
         if ( policyParams.getLowerHedgingPointsComputationMethod()
                 .equals(MakeToOrderBoundBasedLowerHedgingPointsComputationMethod.class.getSimpleName()) ) {
-            log.info("Overriding the hedging point method to use the heuristic bound instead");
+            logger.info("Overriding the hedging point method to use the heuristic bound instead");
             return new HeuristicBoundBasedLowerHedgingPointsComputationMethod();
         } else {
             return super.getLowerHedgingPointComputationMethod(policyParams);
@@ -82,8 +87,8 @@ public class RectifiedHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
         double runTime = surplusChangeNeeded / ( this.machine.getEfficiency() *
                 this.currentSetup.getProductionRate() - this.currentSetup.getDemandRate());
         this.currentSetupRunTime = TimeInstant.at(runTime);
-        if ( log.isTraceEnabled() ) {
-            log.trace(String.format("Starting run of item %d; expected run time %.5f, surplus change needed %.5f",
+        if ( logger.isTraceEnabled() ) {
+            logger.trace(String.format("Starting run of item %d; expected run time %.5f, surplus change needed %.5f",
                 this.currentSetup.getId(), runTime, surplusChangeNeeded));
         }
     }
@@ -130,9 +135,7 @@ public class RectifiedHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
         }
         double surplusDev = item.getSurplusTarget() - surplusForTargetCalculation;
         double zU = ( surplusDev + this.nominalTargetShift.get(item) ) * this.muFactors.get(item) + surplusForTargetCalculation;
-        if (log.isTraceEnabled()) {
-            log.trace(String.format("Target for item %s is %.5f", item, zU));
-        }
+        logger.trace("Target for item %s is %.5f", item, zU);
         return zU + this.getServiceLevelController().getControl(item);
     }
 
@@ -141,6 +144,22 @@ public class RectifiedHedgingZonePolicy extends GeneralizedHedgingZonePolicy {
         return this.muFactors.get(item) >= 1.0 - MU_FACTOR_TOLERANCE; 
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        super.writeState(out);
+        CheckpointIO.writeTime(out, this.currentSetupRunTime);
+        CheckpointIO.writeTime(out, this.currentSetupStartTime);
+        CheckpointIO.writeDouble(out, this.currentSetupRunStartSurplus);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        super.readState(in);
+        this.currentSetupRunTime = CheckpointIO.readTime(in);
+        this.currentSetupStartTime = CheckpointIO.readTime(in);
+        this.currentSetupRunStartSurplus = CheckpointIO.readDouble(in);
+    }
+
     @Override
     public Optional<Table<String, String, Object>> getDataToRecordBeforeControl() {
         Table<String, String, Object> table = HashBasedTable.create();
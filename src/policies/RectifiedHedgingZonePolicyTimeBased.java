@@ -1,5 +1,8 @@
 package policies;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
 
@@ -8,15 +11,16 @@ import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Table;
 
-import lombok.extern.apachecommons.CommonsLog;
 import params.PolicyParams;
 import policies.tuning.HeuristicBoundBasedLowerHedgingPointsComputationMethod;
 import policies.tuning.ILowerHedgingPointsComputationMethod;
 import policies.tuning.MakeToOrderBoundBasedLowerHedgingPointsComputationMethod;
+import sim.CheckpointIO;
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
 import system.Machine;
+import util.HotPathLogger;
 
 /**
  * A time-controlled version of the Dynamic Hedging Zone Policy. Note that, in the paper, we refer to this policy
@@ -25,9 +29,10 @@ import system.Machine;
  * @author ftubilla
  *
  */
-@CommonsLog
 public class RectifiedHedgingZonePolicyTimeBased extends GeneralizedHedgingZonePolicyV2 {
 
+    private static HotPathLogger logger = HotPathLogger.getLogger(RectifiedHedgingZonePolicyTimeBased.class);
+
     private static final double MU_FACTOR_TOLERANCE = 1e-3;
     private static final double TIME_TOLERANCE = 1e-5;
 
@@ -52,7 +57,7 @@ public class RectifiedHedgingZonePolicyTimeBased extends GeneralizedHedgingZoneP
     protected ILowerHedgingPointsComputationMethod getLowerHedgingPointComputationMethod(PolicyParams policyParams) {
         if ( policyParams.getLowerHedgingPointsComputationMethod()
                 .equals(MakeToOrderBoundBasedLowerHedgingPointsComputationMethod.class.getSimpleName()) ) {
-            log.info("Overriding the hedging point method to use the heuristic bound instead");
+            logger.info("Overriding the hedging point method to use the heuristic bound instead");
             return new HeuristicBoundBasedLowerHedgingPointsComputationMethod();
         } else {
             return super.getLowerHedgingPointComputationMethod(policyParams);
@@ -101,9 +106,7 @@ public class RectifiedHedgingZonePolicyTimeBased extends GeneralizedHedgingZoneP
     protected double getTargetWithGivenSurplus(final Item item, final double surplusForTargetCalculation) {
         double surplusDev = item.getSurplusTarget() - surplusForTargetCalculation;
         double zU = ( surplusDev + this.nominalTargetShift.get(item) ) * this.muFactors.get(item) + surplusForTargetCalculation;
-        if (log.isTraceEnabled()) {
-            log.trace(String.format("Target for item %s is %.5f", item, zU));
-        }
+        logger.trace("Target for item %s is %.5f", item, zU);
         return zU + this.getServiceLevelController().getControl(item);
     }
 
@@ -118,13 +121,29 @@ public class RectifiedHedgingZonePolicyTimeBased extends GeneralizedHedgingZoneP
         double surplusChangeNeeded = currentSetupTarget - currentSetup.getSurplus();
         double runTime = surplusChangeNeeded / ( machine.getEfficiency() *
                 currentSetup.getProductionRate() - currentSetup.getDemandRate());
-        if ( log.isTraceEnabled() ) {
-            log.trace(String.format("Starting run of %s; expected run time %.5f, surplus change needed %.5f",
+        if ( logger.isTraceEnabled() ) {
+            logger.trace(String.format("Starting run of %s; expected run time %.5f, surplus change needed %.5f",
                 machine.getSetup(), runTime, surplusChangeNeeded));
         }
         return TimeInstant.at(runTime);
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        super.writeState(out);
+        CheckpointIO.writeTime(out, this.currentSetupRunTime);
+        CheckpointIO.writeTime(out, this.currentSetupStartTime);
+        CheckpointIO.writeDouble(out, this.currentSetupRunStartSurplus);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        super.readState(in);
+        this.currentSetupRunTime = CheckpointIO.readTime(in);
+        this.currentSetupStartTime = CheckpointIO.readTime(in);
+        this.currentSetupRunStartSurplus = CheckpointIO.readDouble(in);
+    }
+
     @Override
     public Optional<Table<String, String, Object>> getDataToRecordBeforeControl() {
         Table<String, String, Object> table = HashBasedTable.create();
@@ -160,7 +179,9 @@ public class RectifiedHedgingZonePolicyTimeBased extends GeneralizedHedgingZoneP
             // The factor adjusts the length of runs based on mubar
             double factor = ( machine.getEfficiency() * item.getProductionRate() - item.getDemandRate() ) / 
                             ( machine.getEfficiency() * muBar - item.getDemandRate() );
-            log.debug(String.format("mu bar for %s is %.5f and its factor %.5f", item, muBar, factor));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("mu bar for %s is %.5f and its factor %.5f", item, muBar, factor));
+            }
             factors.put(item, factor);
         }
         return factors;
@@ -174,7 +195,7 @@ public class RectifiedHedgingZonePolicyTimeBased extends GeneralizedHedgingZoneP
             // The goal is to shift the surplus target by some value such
             // DZ / (mu - d) = ( ZU + shift - x(0) ) / ( corrected_mu - d )
             nominalTargetShift.put(item, hedgingZoneSize.get(item) / muFactors.get(item) + item.getSurplus() - item.getSurplusTarget() );
-            log.debug(String.format("Nominal ZU shift for %s is %.4f", item, nominalTargetShift.get(item)));
+            logger.debug("Nominal ZU shift for %s is %.4f", item, nominalTargetShift.get(item));
         }
         return nominalTargetShift;
     }
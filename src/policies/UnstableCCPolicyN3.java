@@ -5,7 +5,6 @@ import system.Item;
 import system.Machine.FailureState;
 import system.Machine.OperationalState;
 import discreteEvent.Changeover;
-import discreteEvent.ControlEvent;
 
 public class UnstableCCPolicyN3 implements IPolicy {
 
@@ -76,12 +75,12 @@ public class UnstableCCPolicyN3 implements IPolicy {
                     Item setup = sim.getMachine().getSetup();
                     double workRemaining = setup.getFluidTimeToSurplusLevel(setup.getSurplusTarget());
                     sim.getMachine().setSprint();
-                    sim.getMasterScheduler().addEvent(new ControlEvent(sim.getTime().add(workRemaining)));
+                    sim.getMasterScheduler().requestControl(sim.getTime().add(workRemaining));
                 }
             } else if (sim.getMachine().getOperationalState() == OperationalState.SETUP) {
                 // Start producing
                 sim.getMachine().setSprint();
-                sim.getMasterScheduler().addEvent(new ControlEvent(sim.getTime()));
+                sim.getMasterScheduler().requestControl(sim.getTime());
             }
 
         }
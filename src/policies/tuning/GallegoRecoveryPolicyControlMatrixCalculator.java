@@ -73,7 +73,9 @@ public class GallegoRecoveryPolicyControlMatrixCalculator {
                     log.error(String.format("Could not parse line %s", l), e);
                     toleranceNotMet[0] = true;
                 } else {
-                    log.trace(String.format("Could not parse line %s", l));
+                    if (log.isTraceEnabled()) {
+                        log.trace(String.format("Could not parse line %s", l));
+                    }
                 }
             }
         });
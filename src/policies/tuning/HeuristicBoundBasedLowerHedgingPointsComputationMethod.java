@@ -39,7 +39,9 @@ public class HeuristicBoundBasedLowerHedgingPointsComputationMethod implements I
             double d = item.getDemandRate();
             double dZ = y - S * d;
             double lowerHP = item.getSurplusTarget() - dZ;
-            log.debug(String.format("Setting the lower hedging point for %s to %.3f", item, lowerHP));
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Setting the lower hedging point for %s to %.3f", item, lowerHP));
+            }
             lowerHedgingPoints.put(item, lowerHP);
         }
     }
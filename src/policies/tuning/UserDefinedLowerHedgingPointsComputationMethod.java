@@ -22,8 +22,10 @@ public class UserDefinedLowerHedgingPointsComputationMethod implements ILowerHed
 			ImmutableList<Double> listHedgingPoints = optional.get();
 			for (Item item : sim.getMachine()) {
 				lowerHedgingPoints.put(item, listHedgingPoints.get(item.getId()));
-				log.debug(String.format("Setting the lower hedging point of %s to %.5f (user-defined)",
-						item, lowerHedgingPoints.get(item)));
+				if (log.isDebugEnabled()) {
+					log.debug(String.format("Setting the lower hedging point of %s to %.5f (user-defined)",
+							item, lowerHedgingPoints.get(item)));
+				}
 			}
 		} else {
 			throw new Error("No lower hedging points were given!!");
@@ -1,10 +1,11 @@
 package processes.demand;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
 import org.apache.log4j.Logger;
 
 import discreteEvent.DemandArrival;
-import discreteEvent.Event;
-import discreteEvent.EventListener;
 import sim.Clock;
 import sim.Sim;
 import sim.TimeInstant;
@@ -13,8 +14,8 @@ import system.Item;
 /**
  * Implements a continuous demand process in which the demand accumulated during
  * an interval DT for product i is equal to the demand rate d_i times DT. Note
- * that this class *does not* generate DemandArrival events but instead uses
- * BeforeEventListeners to update the demand.
+ * that this class *does not* generate DemandArrival events but instead sets
+ * the rate at which the demand of each item accrues with time.
  * 
  * @author ftubilla
  * 
@@ -29,8 +30,8 @@ public class ContinuousDemandProcess implements IDemandProcess {
     public DemandArrival getNextDemandArrival(Item item, TimeInstant currentTime) {
         // Because the demand is continuous, we would have to either generate
         // demand arrival events every infinitesimal interval or exactly at the
-        // moment at which other events occur. However, the latter approach is
-        // better done through BeforeEventListeners.
+        // moment at which other events occur. Instead, each item accrues its
+        // demand with the time of the clock.
         //
         return null;
     }
@@ -38,28 +39,11 @@ public class ContinuousDemandProcess implements IDemandProcess {
     @Override
     public void init(final Sim sim) {
 
-        logger.debug("Initializing continuous demand process. Adding a BeforeEventListener to update the demand "
-                + "at the beginning of each event.");
+        logger.debug("Initializing continuous demand process. Each item accrues demand at its demand rate.");
         this.clock = sim.getClock();
-
-        sim.getListenersCoordinator().addBeforeEventListener(new EventListener() {
-
-            private TimeInstant latestUpdateTime = new TimeInstant(0.0);
-
-            // This function will be executed before handling any event, so that
-            // it is guaranteed that we start the handling of the event with
-            // updated demand info.
-            @Override
-            public void execute(Event event, Sim sim) {
-                TimeInstant deltaTime =  event.getTime().subtract(latestUpdateTime);
-                if (deltaTime.hasPassedEpoch(0)) {
-                    for (Item item : sim.getMachine()) {
-                        item.setCumulativeDemand(item.getCumulativeDemand() + item.getDemandRate() * deltaTime.doubleValue());
-                    }
-                    latestUpdateTime = event.getTime();
-                }
-            }
-        });
+        for (Item item : sim.getMachine()) {
+            item.setDemandAccrualRate(item.getDemandRate());
+        }
 
     }
 
@@ -75,4 +59,14 @@ public class ContinuousDemandProcess implements IDemandProcess {
         return clock.getTime();
     }
 
+    @Override
+    public void writeState(DataOutputStream out) {
+        // The process has no state
+    }
+
+    @Override
+    public void readState(DataInputStream in) {
+        // The process has no state
+    }
+
 }
@@ -1,24 +1,31 @@
 package processes.demand;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 import discreteEvent.DemandArrival;
+import sim.CheckpointIO;
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
+import system.Machine;
 
 public class DeterministicBatchesDemandProcess implements IDemandProcess {
 
-    private Map<Item, Integer>       batchSizes;
-    private Map<Item, Double>        interArrivalTimes;
-    private Map<Item, DemandArrival> scheduledArrivals;
+    private Map<Item, Integer>     batchSizes;
+    private Map<Item, Double>      interArrivalTimes;
+    // Demand arrivals are never delayed, so their times are fixed once scheduled
+    private Map<Item, TimeInstant> scheduledArrivalTimes;
+    private Machine                machine;
 
     @Override
     public DemandArrival getNextDemandArrival(Item item, TimeInstant currentTime) {
         DemandArrival arrival = new DemandArrival(item, currentTime.add(interArrivalTimes.get(item)),
                 batchSizes.get(item));
-        scheduledArrivals.put(item, arrival);
+        scheduledArrivalTimes.put(item, arrival.getTime());
         return arrival;
     }
 
@@ -27,7 +34,8 @@ public class DeterministicBatchesDemandProcess implements IDemandProcess {
 
         batchSizes = new HashMap<Item, Integer>(sim.getMachine().getNumItems());
         interArrivalTimes = new HashMap<Item, Double>(sim.getMachine().getNumItems());
-        scheduledArrivals = new HashMap<Item, DemandArrival>();
+        scheduledArrivalTimes = new HashMap<Item, TimeInstant>();
+        machine = sim.getMachine();
 
         int batchSize = sim.getParams().getDemandProcessParams().getDemandBatchSize();
         for (Item item : sim.getMachine()) {
@@ -36,7 +44,7 @@ public class DeterministicBatchesDemandProcess implements IDemandProcess {
             DemandArrival arrival = new DemandArrival(item, sim.getTime().add(interArrivalTimes.get(item)),
                     batchSizes.get(item));
             sim.getMasterScheduler().addEvent(arrival);
-            scheduledArrivals.put(item, arrival);
+            scheduledArrivalTimes.put(item, arrival.getTime());
         }
     }
 
@@ -47,7 +55,21 @@ public class DeterministicBatchesDemandProcess implements IDemandProcess {
 
     @Override
     public TimeInstant getNextScheduledDemandArrivalTime(Item item) {
-        return scheduledArrivals.get(item).getTime();
+        return scheduledArrivalTimes.get(item);
+    }
+
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        for (Item item : machine) {
+            CheckpointIO.writeTime(out, scheduledArrivalTimes.get(item));
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        for (Item item : machine) {
+            scheduledArrivalTimes.put(item, CheckpointIO.readTime(in));
+        }
     }
 
 }
@@ -1,6 +1,7 @@
 package processes.demand;
 
 import discreteEvent.DemandArrival;
+import sim.ICheckpointable;
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
@@ -11,7 +12,7 @@ import system.Item;
  * @author ftubilla
  * 
  */
-public interface IDemandProcess {
+public interface IDemandProcess extends ICheckpointable {
 
     /**
      * Generates the next demand arrival event for the given item. This method
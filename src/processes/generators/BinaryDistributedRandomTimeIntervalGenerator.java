@@ -2,12 +2,12 @@ package processes.generators;
 
 import java.util.*;
 
-import org.apache.log4j.Logger;
+import util.HotPathLogger;
 
 public class BinaryDistributedRandomTimeIntervalGenerator implements
 		IRandomTimeIntervalGenerator {
 
-	private static Logger logger = Logger
+	private static HotPathLogger logger = HotPathLogger
 			.getLogger(BinaryDistributedRandomTimeIntervalGenerator.class);
 
 	private double timeInterval1;
@@ -22,20 +22,22 @@ public class BinaryDistributedRandomTimeIntervalGenerator implements
 		this.timeInterval2 = timeInterval2;
 
 		this.generator = new Random(seed);
-		logger.debug("Initilizing a generator with seed " + seed + ", int1: "
-				+ timeInterval1 + " wp: " + prob1 + ", int2: " + timeInterval2
-				+ " wp: " + (1 - prob1));
+		if (logger.isDebugEnabled()) {
+			logger.debug("Initilizing a generator with seed " + seed + ", int1: "
+					+ timeInterval1 + " wp: " + prob1 + ", int2: " + timeInterval2
+					+ " wp: " + (1 - prob1));
+		}
 	}
 
 	@Override
 	public double nextTimeInterval() {
 		if (generator.nextDouble() < prob1) {
-			logger.trace("Generator below " + prob1 + " returning "
-					+ timeInterval1);
+			logger.trace("Generator below %f returning %f", prob1,
+					timeInterval1);
 			return timeInterval1;
 		} else {
-			logger.trace("Generator at or above " + prob1 + " returning "
-					+ timeInterval2);
+			logger.trace("Generator at or above %f returning %f", prob1,
+					timeInterval2);
 			return timeInterval2;
 		}
 	}
@@ -1,22 +1,34 @@
 package processes.generators;
 
-import org.apache.log4j.Logger;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import sim.ICheckpointable;
+import util.HotPathLogger;
 
 public class ExponentiallyDistributedRandomTimeIntervalGenerator implements
-		IRandomTimeIntervalGenerator {
+		IRandomTimeIntervalGenerator, ICheckpointable {
 
-	private static Logger logger = Logger
+	private static HotPathLogger logger = HotPathLogger
 			.getLogger(ExponentiallyDistributedRandomTimeIntervalGenerator.class);
 
 	private double mean;
-	private MersenneTwisterFast generator;
+	private IUniformRandomSource generator;
 
 	public ExponentiallyDistributedRandomTimeIntervalGenerator(long seed,
 			double mean) {
+		this(new MersenneTwisterFast(seed), mean);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Initializing generator with mean " + mean + " and seed "
+					+ seed);
+		}
+	}
+
+	public ExponentiallyDistributedRandomTimeIntervalGenerator(
+			IUniformRandomSource generator, double mean) {
 		this.mean = mean;
-		this.generator = new MersenneTwisterFast(seed);
-		logger.debug("Initializing generator with mean " + mean + " and seed "
-				+ seed);
+		this.generator = generator;
 	}
 
 	@Override
@@ -31,4 +43,14 @@ public class ExponentiallyDistributedRandomTimeIntervalGenerator implements
 		}
 	}
 
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		generator.writeState(out);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		generator.readState(in);
+	}
+
 }
@@ -0,0 +1,28 @@
+package processes.generators;
+
+import sim.ICheckpointable;
+
+/**
+ * A source of uniformly distributed random bits, from which the random time
+ * interval generators draw their variates. This allows the generators to run
+ * on either {@link MersenneTwisterFast} or the jumpable
+ * {@link Xoroshiro128PlusPlus} streams handed out by a
+ * {@link RandomStreamFactory}.
+ *
+ * @author ftubilla
+ *
+ */
+public interface IUniformRandomSource extends ICheckpointable {
+
+	public int nextInt();
+
+	public long nextLong();
+
+	/**
+	 * Returns a double uniformly distributed in [0, 1).
+	 *
+	 * @return double
+	 */
+	public double nextDouble();
+
+}
@@ -0,0 +1,48 @@
+package processes.generators;
+
+/**
+ * Hands out non-overlapping {@link Xoroshiro128PlusPlus} streams for the
+ * replications of an experiment. All the streams come from a single sequence
+ * of the generator seeded with the master seed. The sequence is split into
+ * blocks of 2^96 draws, one per replication (via long jumps), and each block
+ * into 2^32 substreams of 2^64 draws (via jumps), which can be assigned to the
+ * different random processes of a replication, or to each item of a process.
+ * No two streams overlap as long as each one draws fewer than 2^64 variates.
+ *
+ * @author ftubilla
+ *
+ */
+public class RandomStreamFactory {
+
+	private final long masterSeed;
+
+	public RandomStreamFactory(long masterSeed) {
+		this.masterSeed = masterSeed;
+	}
+
+	/**
+	 * Returns the given substream of the given replication. Calling this
+	 * method twice with the same arguments returns two generators in the same
+	 * state.
+	 *
+	 * @param replication
+	 * @param substream
+	 * @return generator
+	 */
+	public Xoroshiro128PlusPlus getStream(int replication, int substream) {
+		if (replication < 0 || substream < 0) {
+			throw new IllegalArgumentException(String.format(
+					"Invalid replication %d or substream %d", replication,
+					substream));
+		}
+		Xoroshiro128PlusPlus stream = new Xoroshiro128PlusPlus(masterSeed);
+		for (int i = 0; i < replication; i++) {
+			stream.longJump();
+		}
+		for (int i = 0; i < substream; i++) {
+			stream.jump();
+		}
+		return stream;
+	}
+
+}
@@ -0,0 +1,124 @@
+package processes.generators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import util.HotPathLogger;
+
+/**
+ * Shares the intervals drawn from one generator among several consumers, each
+ * of which reads the whole sequence of intervals through its own cursor. This
+ * allows several sims to be driven by exactly the same exogenous random draws
+ * (i.e., common random numbers) while drawing each interval only once.
+ * <p>
+ * The intervals that have been drawn but not yet read by every cursor are kept
+ * in a buffer, which is compacted as the slowest cursor advances. Thus, the
+ * buffer stays small as long as the consumers advance at a similar pace (see
+ * {@link sim.LockstepSimRunner}). The stream is not thread-safe.
+ *
+ * @author ftubilla
+ *
+ */
+public class SharedRandomTimeIntervalStream {
+
+	private static HotPathLogger logger = HotPathLogger
+			.getLogger(SharedRandomTimeIntervalStream.class);
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final IRandomTimeIntervalGenerator source;
+	private final List<Cursor> cursors = new ArrayList<Cursor>();
+
+	// The buffer holds the intervals with indices [firstIndex, firstIndex + size)
+	private double[] buffer = new double[INITIAL_CAPACITY];
+	private long firstIndex;
+	private int size;
+
+	public SharedRandomTimeIntervalStream(IRandomTimeIntervalGenerator source) {
+		this.source = source;
+	}
+
+	/**
+	 * Returns a new generator that reads the intervals of the stream from the
+	 * first one drawn.
+	 *
+	 * @return generator
+	 */
+	public IRandomTimeIntervalGenerator newCursor() {
+		if (firstIndex > 0) {
+			throw new IllegalStateException(
+					"Cannot add a cursor after the first intervals have been discarded");
+		}
+		Cursor cursor = new Cursor(this);
+		cursors.add(cursor);
+		return cursor;
+	}
+
+	/**
+	 * Returns the number of intervals currently held in the buffer.
+	 *
+	 * @return int
+	 */
+	public int getBufferedIntervals() {
+		return size;
+	}
+
+	private double get(long index) {
+		int offset = (int) (index - firstIndex);
+		if (offset == size) {
+			if (size == buffer.length) {
+				makeRoom();
+				offset = (int) (index - firstIndex);
+			}
+			buffer[size++] = source.nextTimeInterval();
+		}
+		return buffer[offset];
+	}
+
+	/**
+	 * Discards the intervals already read by every cursor and, if that does
+	 * not free any space, doubles the capacity of the buffer.
+	 */
+	private void makeRoom() {
+		long minIndex = Long.MAX_VALUE;
+		for (Cursor cursor : cursors) {
+			minIndex = Math.min(minIndex, cursor.nextIndex);
+		}
+		int discarded = (int) (minIndex - firstIndex);
+		if (discarded > 0) {
+			System.arraycopy(buffer, discarded, buffer, 0, size - discarded);
+			firstIndex = minIndex;
+			size -= discarded;
+		} else {
+			double[] newBuffer = new double[2 * buffer.length];
+			System.arraycopy(buffer, 0, newBuffer, 0, size);
+			buffer = newBuffer;
+			logger.debug("Grew the buffer of the shared stream to %d intervals", buffer.length);
+		}
+	}
+
+	private static class Cursor implements IRandomTimeIntervalGenerator {
+
+		private final SharedRandomTimeIntervalStream stream;
+		private long nextIndex;
+
+		private Cursor(SharedRandomTimeIntervalStream stream) {
+			this.stream = stream;
+		}
+
+		@Override
+		public double nextTimeInterval() {
+			return stream.get(nextIndex++);
+		}
+
+		/**
+		 * The source generator is warmed up by the owner of the stream, so
+		 * that every cursor reads the same intervals. This method does nothing.
+		 */
+		@Override
+		public void warmUp(int cycles) {
+		}
+
+	}
+
+}
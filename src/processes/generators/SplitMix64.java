@@ -0,0 +1,52 @@
+package processes.generators;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The SplitMix64 generator of Steele, Lea and Flood (2014). It has a period of
+ * 2^64 and passes most statistical tests, but it is mainly used here to expand
+ * a single seed into the 128 bits of state of a {@link Xoroshiro128PlusPlus}
+ * generator, as recommended by the authors of the latter.
+ *
+ * @author ftubilla
+ *
+ */
+public class SplitMix64 implements IUniformRandomSource {
+
+	private long state;
+
+	public SplitMix64(long seed) {
+		this.state = seed;
+	}
+
+	@Override
+	public long nextLong() {
+		long z = (state += 0x9e3779b97f4a7c15L);
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1p-53;
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		out.writeLong(state);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		state = in.readLong();
+	}
+
+}
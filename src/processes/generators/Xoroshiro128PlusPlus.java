@@ -0,0 +1,116 @@
+package processes.generators;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The xoroshiro128++ generator of Blackman and Vigna (2019), which has a period
+ * of 2^128 - 1 and only 128 bits of state. Its main advantage over
+ * {@link MersenneTwisterFast} is that it can jump ahead: {@link #jump()}
+ * advances the state by 2^64 draws and {@link #longJump()} by 2^96 draws, both
+ * in a fixed number of steps. Starting from a common state, different numbers
+ * of jumps give streams that are guaranteed not to overlap (see
+ * {@link RandomStreamFactory}).
+ *
+ * @author ftubilla
+ *
+ */
+public class Xoroshiro128PlusPlus implements IUniformRandomSource {
+
+	private static final long[] JUMP = { 0x2bd7a6a6e99c2ddcL, 0x0992ccaf6a6fca05L };
+	private static final long[] LONG_JUMP = { 0x360fd5f2cf8d5d99L, 0x9c6e6877736c46e3L };
+
+	private long s0;
+	private long s1;
+
+	/**
+	 * Creates a generator whose state is expanded from the given seed with
+	 * {@link SplitMix64}.
+	 *
+	 * @param seed
+	 */
+	public Xoroshiro128PlusPlus(long seed) {
+		SplitMix64 seeder = new SplitMix64(seed);
+		this.s0 = seeder.nextLong();
+		this.s1 = seeder.nextLong();
+	}
+
+	private Xoroshiro128PlusPlus(long s0, long s1) {
+		this.s0 = s0;
+		this.s1 = s1;
+	}
+
+	/**
+	 * Returns a new generator with the same state as this one.
+	 *
+	 * @return generator
+	 */
+	public Xoroshiro128PlusPlus copy() {
+		return new Xoroshiro128PlusPlus(s0, s1);
+	}
+
+	@Override
+	public long nextLong() {
+		final long s0 = this.s0;
+		long s1 = this.s1;
+		final long result = Long.rotateLeft(s0 + s1, 17) + s0;
+		s1 ^= s0;
+		this.s0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+		this.s1 = Long.rotateLeft(s1, 28);
+		return result;
+	}
+
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1p-53;
+	}
+
+	/**
+	 * Advances the state by 2^64 draws.
+	 */
+	public void jump() {
+		jump(JUMP);
+	}
+
+	/**
+	 * Advances the state by 2^96 draws.
+	 */
+	public void longJump() {
+		jump(LONG_JUMP);
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		out.writeLong(s0);
+		out.writeLong(s1);
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		s0 = in.readLong();
+		s1 = in.readLong();
+	}
+
+	private void jump(long[] polynomial) {
+		long newS0 = 0;
+		long newS1 = 0;
+		for (long word : polynomial) {
+			for (int bit = 0; bit < 64; bit++) {
+				if ((word & (1L << bit)) != 0) {
+					newS0 ^= s0;
+					newS1 ^= s1;
+				}
+				nextLong();
+			}
+		}
+		s0 = newS0;
+		s1 = newS1;
+	}
+
+}
@@ -0,0 +1,154 @@
+package processes.generators;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import sim.ICheckpointable;
+import util.HotPathLogger;
+
+/**
+ * Draws exponentially distributed intervals with the ziggurat method of
+ * Marsaglia and Tsang (2000), which in most cases needs a single random long,
+ * a table lookup and a multiplication instead of a logarithm. The intervals are
+ * generated in blocks into a buffer, so that the generator is only called in a
+ * tight loop and each call to {@link #nextTimeInterval()} just reads the next
+ * interval from the buffer.
+ * <p>
+ * The lowest 8 bits of each random long select the layer of the ziggurat and
+ * the highest 53 bits give the point within the layer. The stream of intervals
+ * is reproducible for a given seed, but it is not the same stream as that of
+ * {@link ExponentiallyDistributedRandomTimeIntervalGenerator}.
+ *
+ * @author ftubilla
+ *
+ */
+public class ZigguratExponentialRandomTimeIntervalGenerator implements
+		IRandomTimeIntervalGenerator, ICheckpointable {
+
+	private static HotPathLogger logger = HotPathLogger
+			.getLogger(ZigguratExponentialRandomTimeIntervalGenerator.class);
+
+	public static final int BLOCK_SIZE = 256;
+
+	private static final int LAYERS = 256;
+	private static final int LAYER_MASK = LAYERS - 1;
+	private static final double R = 7.69711747013104972;
+	private static final double V = 3.949659822581572e-3;
+	private static final double TWO_TO_53 = 0x1p53;
+
+	// Acceptance thresholds, widths and densities of the layers
+	private static final long[] K = new long[LAYERS];
+	private static final double[] W = new double[LAYERS];
+	private static final double[] F = new double[LAYERS];
+
+	static {
+		double d = R;
+		double t = d;
+		double q = V / Math.exp(-d);
+		K[0] = (long) ((d / q) * TWO_TO_53);
+		K[1] = 0;
+		W[0] = q / TWO_TO_53;
+		W[LAYERS - 1] = d / TWO_TO_53;
+		F[0] = 1.0;
+		F[LAYERS - 1] = Math.exp(-d);
+		for (int i = LAYERS - 2; i >= 1; i--) {
+			d = -Math.log(V / d + Math.exp(-d));
+			K[i + 1] = (long) ((d / t) * TWO_TO_53);
+			t = d;
+			F[i] = Math.exp(-d);
+			W[i] = d / TWO_TO_53;
+		}
+	}
+
+	private final double mean;
+	private final IUniformRandomSource generator;
+	private final double[] block = new double[BLOCK_SIZE];
+	private int nextInBlock = BLOCK_SIZE;
+
+	public ZigguratExponentialRandomTimeIntervalGenerator(long seed,
+			double mean) {
+		this(new MersenneTwisterFast(seed), mean);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Initializing ziggurat generator with mean " + mean
+					+ " and seed " + seed);
+		}
+	}
+
+	public ZigguratExponentialRandomTimeIntervalGenerator(
+			IUniformRandomSource generator, double mean) {
+		this.mean = mean;
+		this.generator = generator;
+	}
+
+	@Override
+	public double nextTimeInterval() {
+		if (nextInBlock == BLOCK_SIZE) {
+			fillBlock();
+		}
+		return block[nextInBlock++];
+	}
+
+	@Override
+	public void warmUp(int cycles) {
+		for (int i = 0; i < cycles; i++) {
+			generator.nextInt();
+		}
+	}
+
+	@Override
+	public void writeState(DataOutputStream out) throws IOException {
+		generator.writeState(out);
+		out.writeInt(nextInBlock);
+		for (int i = nextInBlock; i < BLOCK_SIZE; i++) {
+			out.writeDouble(block[i]);
+		}
+	}
+
+	@Override
+	public void readState(DataInputStream in) throws IOException {
+		generator.readState(in);
+		nextInBlock = in.readInt();
+		for (int i = nextInBlock; i < BLOCK_SIZE; i++) {
+			block[i] = in.readDouble();
+		}
+	}
+
+	private void fillBlock() {
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			block[i] = mean * nextStandardExponential();
+		}
+		nextInBlock = 0;
+	}
+
+	private double nextStandardExponential() {
+		long bits = generator.nextLong();
+		int layer = (int) bits & LAYER_MASK;
+		long u = bits >>> 11;
+		if (u < K[layer]) {
+			// Inside the rectangle of the layer (about 98.9% of the draws)
+			return u * W[layer];
+		}
+		return nextStandardExponentialSlowPath(layer, u);
+	}
+
+	private double nextStandardExponentialSlowPath(int layer, long u) {
+		while (true) {
+			if (layer == 0) {
+				// The tail beyond R is again exponential
+				return R - Math.log(1 - generator.nextDouble());
+			}
+			double x = u * W[layer];
+			if (F[layer] + generator.nextDouble() * (F[layer - 1] - F[layer]) < Math.exp(-x)) {
+				return x;
+			}
+			long bits = generator.nextLong();
+			layer = (int) bits & LAYER_MASK;
+			u = bits >>> 11;
+			if (u < K[layer]) {
+				return u * W[layer];
+			}
+		}
+	}
+
+}
@@ -1,10 +1,13 @@
 package processes.production;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import org.apache.log4j.Logger;
 
-import discreteEvent.Event;
-import discreteEvent.EventListener;
 import discreteEvent.ProductionDeparture;
+import sim.CheckpointIO;
 import sim.Clock;
 import sim.Sim;
 import sim.TimeInstant;
@@ -16,8 +19,9 @@ import system.Machine;
  * accumulated during a period DT for item i is equal to the production rate of
  * that item times DT whenever the machine is up and sprinting or the demand
  * rate times DT if the machine is cruising with i. Note that this implementor
- * *does not* generate ProductionDeparture events but instead uses
- * BeforeEventListener's to update the production.
+ * *does not* generate ProductionDeparture events but instead sets the rate at
+ * which the production of the current setup accrues whenever the state of the
+ * machine changes.
  * 
  * @author ftubilla
  * 
@@ -26,6 +30,8 @@ public class ContinuousProductionProcess implements IProductionProcess {
 
     private static Logger logger = Logger.getLogger(ContinuousProductionProcess.class);
     private Clock         clock;
+    private Machine       machine;
+    private Item          itemAccruing;
 
     @Override
     public ProductionDeparture getNextProductionDeparture(Item item, TimeInstant currentTime) {
@@ -42,37 +48,32 @@ public class ContinuousProductionProcess implements IProductionProcess {
         logger.debug("Initializing continuous production process");
 
         this.clock = sim.getClock();
-        sim.getListenersCoordinator().addBeforeEventListener(new EventListener() {
-            /**
-             * This listener makes sure that every time that an event occurs,
-             * the production of the current setup is updated according to the
-             * state of the machine.
-             */
-            @Override
-            public void execute(Event event, Sim sim) {
-                if (sim.getMachine().getFailureState() == Machine.FailureState.UP) {
-                    TimeInstant deltaTime = event.getTime().subtract(sim.getTime());
-                    for (Item item : sim.getMachine()) {
-                        // Execute only for the item that we are currently set
-                        // up for
-                        if (sim.getMachine().getSetup().equals(item)) {
-                            switch (sim.getMachine().getOperationalState()) {
-                                case SPRINT:
-                                    item.setCumulativeProduction(item.getCumulativeProduction()
-                                            + item.getProductionRate() * deltaTime.doubleValue());
-                                    break;
-                                case CRUISE:
-                                    item.setCumulativeProduction(item.getCumulativeProduction()
-                                            + item.getDemandRate() * deltaTime.doubleValue());
-                                    break;
-                                default:
-                                    // Do nothing
-                            }
-                        }
-                    }
-                }
+        this.machine = sim.getMachine();
+        noteMachineStateChange(machine);
+    }
+
+    @Override
+    public void noteMachineStateChange(Machine machine) {
+        // Only the item that we are currently set up for accrues production
+        Item setup = machine.getSetup();
+        if (itemAccruing != null && itemAccruing != setup) {
+            itemAccruing.setProductionAccrualRate(0);
+        }
+        itemAccruing = setup;
+        double rate = 0;
+        if (machine.isUp()) {
+            switch (machine.getOperationalState()) {
+                case SPRINT:
+                    rate = setup.getProductionRate();
+                    break;
+                case CRUISE:
+                    rate = setup.getDemandRate();
+                    break;
+                default:
+                    // Do nothing
             }
-        });
+        }
+        setup.setProductionAccrualRate(rate);
     }
 
     @Override
@@ -86,4 +87,14 @@ public class ContinuousProductionProcess implements IProductionProcess {
         return clock.getTime();
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        CheckpointIO.writeItem(out, itemAccruing);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        itemAccruing = CheckpointIO.readItem(in, machine);
+    }
+
 }
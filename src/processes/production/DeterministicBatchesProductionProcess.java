@@ -1,5 +1,7 @@
 package processes.production;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -51,6 +53,15 @@ public class DeterministicBatchesProductionProcess implements IProductionProcess
 		}
 		return nextEvent.getTime();
 	}
-	
-	
+
+	@Override
+	public void writeState(DataOutputStream out) {
+		// The process has no state, since the next departure is in the schedule
+	}
+
+	@Override
+	public void readState(DataInputStream in) {
+		// The process has no state, since the next departure is in the schedule
+	}
+
 }
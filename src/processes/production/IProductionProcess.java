@@ -1,9 +1,11 @@
 package processes.production;
 
 import discreteEvent.ProductionDeparture;
+import sim.ICheckpointable;
 import sim.Sim;
 import sim.TimeInstant;
 import system.Item;
+import system.Machine;
 
 /**
  * Interface for a production process that determines how much production is
@@ -12,7 +14,7 @@ import system.Item;
  * @author ftubilla
  *
  */
-public interface IProductionProcess {
+public interface IProductionProcess extends ICheckpointable {
 
     public ProductionDeparture getNextProductionDeparture(Item item, TimeInstant currentTime);
 
@@ -22,4 +24,14 @@ public interface IProductionProcess {
 
     public TimeInstant getNextScheduledProductionDepartureTime(Item item);
 
+    /**
+     * Called by the machine every time that its setup, operational state or
+     * failure state changes.
+     * 
+     * @param machine
+     */
+    public default void noteMachineStateChange(Machine machine) {
+        // Override
+    }
+
 }
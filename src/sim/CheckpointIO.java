@@ -0,0 +1,129 @@
+package sim;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import system.Item;
+import system.Machine;
+
+/**
+ * Reads and writes the values shared by the {@link ICheckpointable}
+ * components of a sim. Times are written exactly, and items are written by id
+ * and resolved against the machine of the sim being restored.
+ *
+ * @author ftubilla
+ *
+ */
+public final class CheckpointIO {
+
+    private CheckpointIO() {
+        /* Do not instantiate */
+    }
+
+    public static void writeTime(DataOutputStream out, TimeInstant time) throws IOException {
+        TimeInstant.write(out, time);
+    }
+
+    public static TimeInstant readTime(DataInputStream in) throws IOException {
+        return TimeInstant.read(in);
+    }
+
+    public static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    public static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    public static void writeItem(DataOutputStream out, Item item) throws IOException {
+        out.writeInt(item == null ? -1 : item.getId());
+    }
+
+    public static Item readItem(DataInputStream in, Machine machine) throws IOException {
+        int id = in.readInt();
+        return id < 0 ? null : machine.getItemById(id);
+    }
+
+    /**
+     * Writes the value of each item of the machine in the given map, which
+     * need not have a value for every item.
+     *
+     * @param out
+     * @param values
+     * @param machine
+     * @throws IOException
+     */
+    public static void writeItemValues(DataOutputStream out, Map<Item, Double> values, Machine machine)
+            throws IOException {
+        for (Item item : machine) {
+            writeDouble(out, values.get(item));
+        }
+    }
+
+    /**
+     * Replaces the contents of the given map with the values written by
+     * {@link #writeItemValues(DataOutputStream, Map, Machine)}.
+     *
+     * @param in
+     * @param values
+     * @param machine
+     * @throws IOException
+     */
+    public static void readItemValues(DataInputStream in, Map<Item, Double> values, Machine machine)
+            throws IOException {
+        values.clear();
+        for (Item item : machine) {
+            Double value = readDouble(in);
+            if (value != null) {
+                values.put(item, value);
+            }
+        }
+    }
+
+    /**
+     * Writes the state of the component of each item of the machine in the
+     * given map, which must have a component for every item.
+     *
+     * @param out
+     * @param states
+     * @param machine
+     * @throws IOException
+     */
+    public static void writeItemStates(DataOutputStream out, Map<Item, ? extends ICheckpointable> states,
+            Machine machine) throws IOException {
+        for (Item item : machine) {
+            states.get(item).writeState(out);
+        }
+    }
+
+    /**
+     * Reads the components written by
+     * {@link #writeItemStates(DataOutputStream, Map, Machine)} into new
+     * components given by the factory.
+     *
+     * @param in
+     * @param machine
+     * @param factory
+     * @return a map from each item to its component
+     * @throws IOException
+     */
+    public static <T extends ICheckpointable> Map<Item, T> readItemStates(DataInputStream in, Machine machine,
+            Supplier<T> factory) throws IOException {
+        Map<Item, T> states = new HashMap<Item, T>(machine.getNumItems());
+        for (Item item : machine) {
+            T state = factory.get();
+            state.readState(in);
+            states.put(item, state);
+        }
+        return states;
+    }
+
+}
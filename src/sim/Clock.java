@@ -1,5 +1,9 @@
 package sim;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import org.apache.log4j.Logger;
 
 /**
@@ -9,7 +13,7 @@ import org.apache.log4j.Logger;
  * @author ftubilla
  *
  */
-public class Clock {
+public class Clock implements ICheckpointable {
     private static Logger logger = Logger.getLogger(Clock.class);
 
     @SuppressWarnings("unused")
@@ -17,12 +21,14 @@ public class Clock {
     private boolean trace = logger.isTraceEnabled();
 
     private TimeInstant time;
+    private TimeInstant stateTime;
     private double  metricsActualStartTime;
     private double  metricsDesiredStartTime;
     private boolean isTimeToRecordData;
 
     public Clock(double metricsDesiredStartTime) {
         this.time = new TimeInstant(0); 
+        this.stateTime = time;
         this.metricsDesiredStartTime = metricsDesiredStartTime;
     }
 
@@ -36,6 +42,7 @@ public class Clock {
             logger.trace("Moving clock from " + time + " to " + newTime);
         }
         time = newTime;
+        stateTime = newTime;
         if (!isTimeToRecordData && time.doubleValue() >= metricsDesiredStartTime) {
             if (trace) {
                 logger.trace("Starting to record data at " + time);
@@ -45,10 +52,41 @@ public class Clock {
         }
     }
 
+    /**
+     * Ends the warmup period at the current time, before the metrics desired
+     * start time, so that the metrics are recorded from now on. Has no effect
+     * if the metrics are already being recorded.
+     */
+    public void endWarmup() {
+        if (!isTimeToRecordData) {
+            if (trace) {
+                logger.trace("Starting to record data at " + time);
+            }
+            metricsActualStartTime = time.doubleValue();
+            isTimeToRecordData = true;
+        }
+    }
+
+    // Package-protected method. Only the sim object should be calling it.
+    void advanceStateTo(TimeInstant newTime) {
+        stateTime = newTime;
+    }
+
     public TimeInstant getTime() {
         return time;
     }
 
+    /**
+     * Returns the time at which the state of the items is evaluated. It is the
+     * time of the clock, except while the listeners that run before an event
+     * are called, when it is already the time of the event.
+     * 
+     * @return TimeInstant
+     */
+    public TimeInstant getStateTime() {
+        return stateTime;
+    }
+
     public boolean isTimeToRecordData() {
         return isTimeToRecordData;
     }
@@ -102,6 +140,22 @@ public class Clock {
         return this.time.doubleValue() - metricsActualStartTime;
     }
 
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        CheckpointIO.writeTime(out, time);
+        CheckpointIO.writeTime(out, stateTime);
+        out.writeDouble(metricsActualStartTime);
+        out.writeBoolean(isTimeToRecordData);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        time = CheckpointIO.readTime(in);
+        stateTime = CheckpointIO.readTime(in);
+        metricsActualStartTime = in.readDouble();
+        isTimeToRecordData = in.readBoolean();
+    }
+
     @Override
     public String toString() {
         return this.time.toString();
@@ -0,0 +1,177 @@
+package sim;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.extern.apachecommons.CommonsLog;
+import params.Params;
+
+/**
+ * An append-only record of the sims of an experiment that have completed and
+ * whose output has been written to the recorder files, so that an experiment
+ * that stops halfway can be resumed without running those sims again. Each
+ * line holds the sim id, a hash of the params and the input file, separated by
+ * tabs. A sim is considered complete if the manifest has a line with the same
+ * input file and hash, so a sim whose json was edited after it ran is run
+ * again.
+ * <p>
+ * Each run of the experiment is an attempt, which starts with a line holding
+ * <tt>#attempt</tt>, the first sim id of the attempt and its number of sims
+ * (see {@link #startAttempt(int)}). The sims of an attempt take ids past those
+ * of the earlier attempts, so a sim that runs again after a crash never shares
+ * its id with the rows left by the sim that was cut short.
+ * <p>
+ * Every entry is synced to disk before {@link #markComplete} returns. The
+ * recorders must be flushed before a sim is marked complete, so that the
+ * manifest never lists a sim whose rows are missing from the output. The rows
+ * of sims that were running when the experiment stopped may be in the output
+ * files, so they should be dropped when resuming (see
+ * {@link output.RecorderOptions#getKeptSimIds()}), or the output filtered by
+ * the sim ids in the manifest.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+public class ExperimentManifest {
+
+    public static final String DEFAULT_FILE_NAME = "manifest.txt";
+
+    private static final String ATTEMPT_PREFIX = "#attempt";
+
+    private final File             file;
+    private final Set<String>      completedKeys   = new HashSet<String>();
+    private final Set<Integer>     completedSimIds = new HashSet<Integer>();
+    private final FileOutputStream out;
+    private int                    nextSimId;
+
+    /**
+     * Opens the manifest in the given file. If resume is true, the entries
+     * already in the file are read and new entries are appended; otherwise,
+     * the file is started over.
+     *
+     * @param file
+     * @param resume
+     * @throws IOException
+     */
+    public ExperimentManifest(File file, boolean resume) throws IOException {
+        this.file = file;
+        if (resume && file.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    if (fields.length == 3 && fields[0].equals(ATTEMPT_PREFIX)) {
+                        nextSimId = Math.max(nextSimId, Integer.parseInt(fields[1]) + Integer.parseInt(fields[2]));
+                    } else if (fields.length == 3) {
+                        completedKeys.add(getKey(fields[2], fields[1]));
+                        completedSimIds.add(Integer.parseInt(fields[0]));
+                        nextSimId = Math.max(nextSimId, Integer.parseInt(fields[0]) + 1);
+                    } else {
+                        // A line cut short by a crash
+                        log.warn(String.format("Ignoring malformed line '%s' in %s", line, file));
+                    }
+                }
+            }
+            log.info(String.format("Read %d completed sims from %s", completedKeys.size(), file));
+        }
+        this.out = new FileOutputStream(file, resume);
+    }
+
+    public int getNumCompleted() {
+        return completedKeys.size();
+    }
+
+    /**
+     * Returns the ids of the sims listed as complete.
+     *
+     * @return sim ids
+     */
+    public synchronized Set<Integer> getCompletedSimIds() {
+        return new HashSet<Integer>(completedSimIds);
+    }
+
+    /**
+     * Starts an attempt at running the given number of sims, and returns the
+     * first id of the attempt, which is past the ids of every earlier attempt
+     * (0 for the first attempt). The attempt is synced to disk before this
+     * method returns.
+     *
+     * @param numSims
+     * @return the first sim id
+     * @throws IOException
+     */
+    public synchronized int startAttempt(int numSims) throws IOException {
+        int firstSimId = nextSimId;
+        writeLine(String.format("%s\t%d\t%d%n", ATTEMPT_PREFIX, firstSimId, numSims));
+        nextSimId += numSims;
+        return firstSimId;
+    }
+
+    public synchronized boolean isComplete(Params params) {
+        return completedKeys.contains(getKey(params.getFile(), hash(params)));
+    }
+
+    /**
+     * Appends the sim to the manifest and syncs it to disk.
+     *
+     * @param simId
+     * @param params
+     * @throws IOException
+     */
+    public synchronized void markComplete(int simId, Params params) throws IOException {
+        String hash = hash(params);
+        writeLine(String.format("%d\t%s\t%s%n", simId, hash, params.getFile()));
+        completedKeys.add(getKey(params.getFile(), hash));
+        completedSimIds.add(simId);
+        nextSimId = Math.max(nextSimId, simId + 1);
+    }
+
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    @Override
+    public String toString() {
+        return "Manifest:" + file;
+    }
+
+    /**
+     * Returns the SHA-256 hash of the string representation of the params,
+     * which includes every field.
+     *
+     * @param params
+     * @return hex string
+     */
+    public static String hash(Params params) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(params.toString().getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void writeLine(String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        out.getFD().sync();
+    }
+
+    private static String getKey(String paramsFile, String hash) {
+        return paramsFile + "\t" + hash;
+    }
+
+}
@@ -0,0 +1,240 @@
+package sim;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.apachecommons.CommonsLog;
+import output.Recorders;
+import params.Params;
+import params.PolicyParams;
+
+/**
+ * Runs the sims of an experiment on a work-stealing pool, dispatching the
+ * longest sims first (the LPT rule), so that long sims do not start last and
+ * leave the other threads idle at the end of the experiment. The cost of each
+ * sim is estimated from its params before it runs (see
+ * {@link #estimateCost(Params)}); only the order of the estimates matters.
+ * <p>
+ * The sim ids are assigned in the order in which the params are given, so
+ * they do not depend on the dispatch order or on the number of threads. When
+ * the sims are tracked in a manifest, they take their ids from the attempt
+ * started in the manifest, so the sims that run again when resuming get ids
+ * that no earlier attempt used (see {@link ExperimentManifest}). At the
+ * end, the makespan efficiency (i.e., the fraction of the available thread
+ * time spent running sims) is logged and returned.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+public class ExperimentScheduler {
+
+    private final int                 numThreads;
+    private final Map<String, Double> policyCostFactors = new HashMap<String, Double>();
+
+    /**
+     * Creates a scheduler with one thread per available processor.
+     */
+    public ExperimentScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ExperimentScheduler(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Need at least one thread but got " + numThreads);
+        }
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Sets the relative cost per event of the given policy, overriding the
+     * cost factor in the policy params of its sims (1.0 by default), for
+     * policies that are known to take longer to make their decisions.
+     *
+     * @param policyName
+     * @param factor
+     */
+    public void setPolicyCostFactor(String policyName, double factor) {
+        policyCostFactors.put(policyName, factor);
+    }
+
+    /**
+     * Estimates the relative cost of running a sim with the given params. The
+     * number of events grows with the final time and, besides the setups,
+     * failures and control events of each item, includes the demand arrivals
+     * and production departures of every batch when the material is discrete.
+     * Each event takes time proportional to the number of items.
+     *
+     * @param params
+     * @return cost
+     */
+    public double estimateCost(Params params) {
+        int numItems = params.getNumItems();
+        double eventRate = numItems;
+        int demandBatchSize = params.getDemandProcessParams().getDemandBatchSize();
+        int productionBatchSize = params.getProductionProcessParams().getProductionBatchSize();
+        for (int i = 0; i < numItems; i++) {
+            if (demandBatchSize > 0) {
+                eventRate += params.getDemandRates().get(i) / demandBatchSize;
+            }
+            if (productionBatchSize > 0) {
+                eventRate += params.getDemandRates().get(i) / productionBatchSize;
+            }
+        }
+        PolicyParams policyParams = params.getPolicyParams();
+        double policyFactor = policyCostFactors.getOrDefault(policyParams.getName(), policyParams.getCostFactor());
+        return params.getFinalTime() * eventRate * numItems * policyFactor;
+    }
+
+    /**
+     * Runs a sim for each of the given params and blocks until all of them
+     * have finished. A sim that fails is logged and does not stop the others.
+     *
+     * @param expParams
+     * @param recorders
+     * @return the report of the run
+     * @throws InterruptedException
+     */
+    public Report run(Collection<Params> expParams, final Recorders recorders) throws InterruptedException {
+        try {
+            return run(expParams, recorders, null);
+        } catch (IOException e) {
+            // Only the manifest is written to
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs a sim for each of the given params that is not complete in the
+     * given manifest, and adds each sim to the manifest as soon as it finishes
+     * and its output has been flushed. Blocks until all the sims have
+     * finished.
+     *
+     * @param expParams
+     * @param recorders
+     * @param manifest
+     *            the manifest, or null to run every sim without keeping track
+     * @return the report of the run
+     * @throws InterruptedException
+     * @throws IOException
+     *             if the attempt could not be written to the manifest
+     */
+    public Report run(Collection<Params> expParams, final Recorders recorders, final ExperimentManifest manifest)
+            throws InterruptedException, IOException {
+
+        // The ids follow the given order, and the sims are dispatched by
+        // decreasing estimated cost
+        List<SimJob> jobs = new ArrayList<SimJob>(expParams.size());
+        int nextSimId = manifest != null ? manifest.startAttempt(expParams.size()) : 0;
+        for (Params params : expParams) {
+            int simId = nextSimId++;
+            if (manifest != null && manifest.isComplete(params)) {
+                log.info(String.format("Skipping sim %d from %s, which is already complete", simId,
+                        params.getFile()));
+                continue;
+            }
+            jobs.add(new SimJob(simId, params, estimateCost(params)));
+        }
+        Collections.sort(jobs, new Comparator<SimJob>() {
+            @Override
+            public int compare(SimJob job1, SimJob job2) {
+                int comparison = Double.compare(job2.estimatedCost, job1.estimatedCost);
+                return comparison != 0 ? comparison : Integer.compare(job1.simId, job2.simId);
+            }
+        });
+
+        final ProgressBar progressBar = new ProgressBar(10, jobs.size());
+        final AtomicLong busyNanos = new AtomicLong();
+        ExecutorService executor = Executors.newWorkStealingPool(numThreads);
+        progressBar.init();
+        progressBar.display();
+        long startTime = System.nanoTime();
+        for (final SimJob job : jobs) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long jobStartTime = System.nanoTime();
+                    try {
+                        Sim sim = new Sim(job.params, job.simId);
+                        log.info(String.format("Created %s with %s", sim, job.params));
+                        SimSetup.setUp(sim, recorders);
+                        sim.run(false);
+                        if (manifest != null) {
+                            recorders.flushAll();
+                            manifest.markComplete(job.simId, job.params);
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                        log.error(String.format("Could not run sim %s", job.params.getFile()), e);
+                    } finally {
+                        busyNanos.addAndGet(System.nanoTime() - jobStartTime);
+                        progressBar.addOneUnitOfProgress();
+                        progressBar.display();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        Report report = new Report(jobs.size(), numThreads, (System.nanoTime() - startTime) / 1e9,
+                busyNanos.get() / 1e9);
+        log.info(String.format("Finished %s", report));
+        return report;
+    }
+
+    private static class SimJob {
+
+        private final int    simId;
+        private final Params params;
+        private final double estimatedCost;
+
+        private SimJob(int simId, Params params, double estimatedCost) {
+            this.simId = simId;
+            this.params = params;
+            this.estimatedCost = estimatedCost;
+        }
+
+    }
+
+    @Getter
+    @ToString
+    public static class Report {
+
+        private final int    numSims;
+        private final int    numThreads;
+        private final double makespanSec;
+        private final double busySec;
+
+        private Report(int numSims, int numThreads, double makespanSec, double busySec) {
+            this.numSims = numSims;
+            this.numThreads = numThreads;
+            this.makespanSec = makespanSec;
+            this.busySec = busySec;
+        }
+
+        /**
+         * Returns the fraction of the thread time available during the
+         * makespan that was spent running sims.
+         *
+         * @return double
+         */
+        public double getMakespanEfficiency() {
+            return makespanSec > 0 ? busySec / (numThreads * makespanSec) : 1.0;
+        }
+
+    }
+
+}
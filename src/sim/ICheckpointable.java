@@ -0,0 +1,24 @@
+package sim;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A component of a sim that can write its state to a {@link SimCheckpoint}
+ * and read it back. The state is read into a component that has been freshly
+ * set up from the same params, so only the values that change while the sim
+ * runs need to be written, and references to other components (the clock,
+ * the machine and its items, etc.) are resolved by the component itself.
+ * Values kept per item are written in the order of the items in the machine.
+ *
+ * @author ftubilla
+ *
+ */
+public interface ICheckpointable {
+
+    public void writeState(DataOutputStream out) throws IOException;
+
+    public void readState(DataInputStream in) throws IOException;
+
+}
@@ -0,0 +1,118 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.extern.apachecommons.CommonsLog;
+import output.Recorders;
+import params.Params;
+import processes.generators.SharedRandomTimeIntervalStream;
+
+/**
+ * Runs several sims (e.g., the same system under different policies) side by
+ * side over one shared stream of times to failure and times to repair. Every
+ * sim sees exactly the same failures and repairs, so the sims are compared
+ * under common random numbers, and each interval is drawn only once.
+ * <p>
+ * The sims are advanced in lockstep, one step of simulated time at a time, so
+ * that the shared streams only need to buffer the intervals drawn within a
+ * step. All the params must have the same seed, mean time to fail and mean
+ * time to repair, and the results of each sim are the same as if it had been
+ * run on its own.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+public class LockstepSimRunner {
+
+    private final List<Sim>                      sims;
+    private final SharedRandomTimeIntervalStream failuresStream;
+    private final SharedRandomTimeIntervalStream repairsStream;
+    private final double                         stepLength;
+
+    /**
+     * Creates the runner with a step equal to the mean length of a
+     * failure-repair cycle.
+     *
+     * @param paramsCollection
+     * @param recorders
+     */
+    public LockstepSimRunner(Collection<Params> paramsCollection, Recorders recorders) {
+        this(paramsCollection, recorders, getDefaultStepLength(paramsCollection));
+    }
+
+    public LockstepSimRunner(Collection<Params> paramsCollection, Recorders recorders, double stepLength) {
+        if (paramsCollection.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one set of params to run");
+        }
+        if (!(stepLength > 0)) {
+            throw new IllegalArgumentException("The step length must be positive but was " + stepLength);
+        }
+        Params first = paramsCollection.iterator().next();
+        for (Params params : paramsCollection) {
+            if (params.getSeed() != first.getSeed() || params.getMeanTimeToFail() != first.getMeanTimeToFail()
+                    || params.getMeanTimeToRepair() != first.getMeanTimeToRepair()
+                    || params.isZigguratSampling() != first.isZigguratSampling()
+                    || params.isJumpableRandomStreams() != first.isJumpableRandomStreams()
+                    || params.getReplication() != first.getReplication()) {
+                throw new IllegalArgumentException(String.format(
+                        "All sims must have the same seed and failure and repair times to share the random draws, "
+                                + "but %s and %s differ",
+                        first, params));
+            }
+        }
+        this.stepLength = stepLength;
+        this.failuresStream = new SharedRandomTimeIntervalStream(SimSetup.newFailuresGenerator(first));
+        this.repairsStream = new SharedRandomTimeIntervalStream(SimSetup.newRepairsGenerator(first));
+        this.sims = new ArrayList<Sim>(paramsCollection.size());
+        for (Params params : paramsCollection) {
+            Sim sim = new Sim(params);
+            SimSetup.setUp(sim, recorders, failuresStream.newCursor(), repairsStream.newCursor());
+            sims.add(sim);
+        }
+    }
+
+    public List<Sim> getSims() {
+        return Collections.unmodifiableList(sims);
+    }
+
+    /**
+     * Runs all the sims to their final times and records the end of each sim.
+     */
+    public void run() {
+        log.info(String.format("Starting lockstep run of %d sims with steps of %.3f", sims.size(), stepLength));
+        for (Sim sim : sims) {
+            sim.start();
+        }
+        double horizon = 0;
+        boolean isRunning = true;
+        while (isRunning) {
+            horizon += stepLength;
+            isRunning = false;
+            for (Sim sim : sims) {
+                if (sim.continueSim()) {
+                    sim.runUntil(Math.min(horizon, sim.getParams().getFinalTime()), false);
+                    isRunning |= sim.continueSim();
+                }
+            }
+        }
+        for (Sim sim : sims) {
+            sim.recordEndOfSim();
+        }
+        log.info(String.format("Finished lockstep run of %d sims", sims.size()));
+    }
+
+    private static double getDefaultStepLength(Collection<Params> paramsCollection) {
+        // Without failures, a single step is enough
+        double stepLength = 0;
+        for (Params params : paramsCollection) {
+            double cycleLength = params.getMeanTimeToFail() + params.getMeanTimeToRepair();
+            stepLength = Math.max(stepLength, Double.isFinite(cycleLength) ? cycleLength : params.getFinalTime());
+        }
+        return stepLength > 0 ? stepLength : 1.0;
+    }
+
+}
@@ -0,0 +1,214 @@
+package sim;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import discreteEvent.EventContext;
+import discreteEvent.EventListener;
+import discreteEvent.ListenersCoordinator.Phase;
+import lombok.extern.apachecommons.CommonsLog;
+import metrics.surplusstatistics.StreamSurplusStatisticsCalculator;
+import params.DerivedParams;
+import system.Item;
+import system.Machine;
+
+/**
+ * Detects the end of the warmup period on-line with the MSER-5 rule of White
+ * et al. and starts recording the metrics as soon as it is found, instead of
+ * waiting for the fixed metrics start time in the params.
+ * <p>
+ * The average cost is observed over consecutive intervals of the length given
+ * in the params, and the observations are grouped in batches of
+ * {@link #BATCH_SIZE}. After each batch, the truncation point d* that
+ * minimizes the MSER statistic of the batch means is computed. The truncation
+ * is accepted once there are at least {@link #MIN_BATCHES} batches and d* lies
+ * in the first half of them. Since the metrics cannot be recorded backwards,
+ * they start at the time of the detection, which is never earlier than the
+ * truncation point. If no truncation is accepted before the metrics start time
+ * in the params, the metrics start then, as without the detector.
+ *
+ */
+@CommonsLog
+public class MserWarmupDetector implements ICheckpointable {
+
+    public static final int BATCH_SIZE  = 5;
+    public static final int MIN_BATCHES = 20;
+
+    private final Clock         clock;
+    private final Machine       machine;
+    private final DerivedParams derivedParams;
+    private final double        observationLength;
+
+    private double[] batchMeans      = new double[2 * MIN_BATCHES];
+    private double[] batchStartTimes = new double[2 * MIN_BATCHES];
+    private int      numBatches;
+    private double   currentBatchSum;
+    private int      currentBatchObservations;
+    private double   currentBatchStartTime;
+    private double   truncationTime  = Double.NaN;
+
+    private Map<Item, StreamSurplusStatisticsCalculator> currentObservation;
+    private TimeInstant                                  currentObservationStart;
+
+    public MserWarmupDetector(Sim sim) {
+        this.clock = sim.getClock();
+        this.machine = sim.getMachine();
+        this.derivedParams = sim.getDerivedParams();
+        this.observationLength = sim.getParams().getWarmupObservationLength();
+        if (!(observationLength > 0)) {
+            throw new IllegalArgumentException(
+                    "The warmup observation length must be positive but was " + observationLength);
+        }
+        startObservation(sim.getTime());
+
+        sim.getListenersCoordinator().addAfterEventListener(new EventListener() {
+            @Override
+            public void execute(EventContext context, Sim sim) {
+                if (!clock.isTimeToRecordData()) {
+                    addPoint(sim.getTime());
+                }
+            }
+        }, Phase.TRANSIENT);
+    }
+
+    private void addPoint(TimeInstant time) {
+        for (Item item : machine) {
+            currentObservation.get(item).addPoint(time, item.getSurplus());
+        }
+        if (time.doubleValueSince(currentObservationStart) >= observationLength) {
+            closeObservation();
+            startObservation(time);
+        }
+    }
+
+    private void startObservation(TimeInstant time) {
+        currentObservation = new HashMap<Item, StreamSurplusStatisticsCalculator>();
+        for (Item item : machine) {
+            StreamSurplusStatisticsCalculator calculator = new StreamSurplusStatisticsCalculator();
+            calculator.addPoint(time, item.getSurplus());
+            currentObservation.put(item, calculator);
+        }
+        if (currentBatchObservations == 0) {
+            currentBatchStartTime = time.doubleValue();
+        }
+        currentObservationStart = time;
+    }
+
+    private void closeObservation() {
+        double cost = 0.0;
+        for (Item item : machine) {
+            StreamSurplusStatisticsCalculator calculator = currentObservation.get(item);
+            cost += calculator.getAverageInventory() * item.getInventoryCostRate()
+                    + calculator.getAverageBacklog() * item.getBacklogCostRate();
+        }
+        currentBatchSum += cost;
+        currentBatchObservations++;
+        if (currentBatchObservations == BATCH_SIZE) {
+            addBatch(currentBatchSum / BATCH_SIZE);
+            currentBatchSum = 0.0;
+            currentBatchObservations = 0;
+        }
+    }
+
+    private void addBatch(double batchMean) {
+        if (numBatches == batchMeans.length) {
+            batchMeans = Arrays.copyOf(batchMeans, 2 * numBatches);
+            batchStartTimes = Arrays.copyOf(batchStartTimes, 2 * numBatches);
+        }
+        batchMeans[numBatches] = batchMean;
+        batchStartTimes[numBatches] = currentBatchStartTime;
+        numBatches++;
+        if (numBatches >= MIN_BATCHES) {
+            int truncation = findTruncation(batchMeans, numBatches);
+            if (truncation <= numBatches / 2) {
+                truncationTime = batchStartTimes[truncation];
+                derivedParams.setWarmupTruncationTime(truncationTime);
+                clock.endWarmup();
+                log.debug(String.format("MSER-5 truncated %d of %d batches at time %.3f, recording from %s",
+                        truncation, numBatches, truncationTime, clock.getTime()));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of batches d that minimizes the MSER statistic of the
+     * remaining batches, i.e., their sum of squared deviations from their mean
+     * divided by (n - d)^2. The sums over the remaining batches are
+     * accumulated from the last batch backwards.
+     */
+    static int findTruncation(double[] batchMeans, int numBatches) {
+        double sum = 0.0;
+        double sumOfSquares = 0.0;
+        double minStatistic = Double.POSITIVE_INFINITY;
+        int truncation = 0;
+        for (int d = numBatches - 1; d >= 0; d--) {
+            sum += batchMeans[d];
+            sumOfSquares += batchMeans[d] * batchMeans[d];
+            int remaining = numBatches - d;
+            if (remaining < 2) {
+                continue;
+            }
+            double sumOfSquaredDeviations = Math.max(0, sumOfSquares - sum * sum / remaining);
+            double statistic = sumOfSquaredDeviations / ((double) remaining * remaining);
+            if (statistic <= minStatistic) {
+                minStatistic = statistic;
+                truncation = d;
+            }
+        }
+        return truncation;
+    }
+
+    /**
+     * Returns the start of the warmup truncation accepted by the MSER-5 rule,
+     * or NaN if none was accepted before the metrics started.
+     *
+     * @return double
+     */
+    public double getTruncationTime() {
+        return truncationTime;
+    }
+
+    public int getNumBatches() {
+        return numBatches;
+    }
+
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeInt(numBatches);
+        for (int i = 0; i < numBatches; i++) {
+            out.writeDouble(batchMeans[i]);
+            out.writeDouble(batchStartTimes[i]);
+        }
+        out.writeDouble(currentBatchSum);
+        out.writeInt(currentBatchObservations);
+        out.writeDouble(currentBatchStartTime);
+        out.writeDouble(truncationTime);
+        CheckpointIO.writeItemStates(out, currentObservation, machine);
+        CheckpointIO.writeTime(out, currentObservationStart);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        numBatches = in.readInt();
+        if (numBatches > batchMeans.length) {
+            batchMeans = new double[2 * numBatches];
+            batchStartTimes = new double[2 * numBatches];
+        }
+        for (int i = 0; i < numBatches; i++) {
+            batchMeans[i] = in.readDouble();
+            batchStartTimes[i] = in.readDouble();
+        }
+        currentBatchSum = in.readDouble();
+        currentBatchObservations = in.readInt();
+        currentBatchStartTime = in.readDouble();
+        truncationTime = in.readDouble();
+        derivedParams.setWarmupTruncationTime(truncationTime);
+        currentObservation = CheckpointIO.readItemStates(in, machine, StreamSurplusStatisticsCalculator::new);
+        currentObservationStart = CheckpointIO.readTime(in);
+    }
+
+}
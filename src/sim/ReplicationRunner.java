@@ -0,0 +1,230 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.apachecommons.CommonsLog;
+import output.Recorders;
+import params.Params;
+
+/**
+ * Runs independent replications of the sim defined by one set of params in
+ * parallel, until the confidence intervals of the average cost are narrow
+ * enough. Each replication draws its failures and repairs from its own
+ * substream (see {@link processes.generators.RandomStreamFactory}), so the
+ * replications are independent and the results do not depend on the number of
+ * threads.
+ * <p>
+ * Both the raw average cost ({@link metrics.AverageSurplusMetrics}) and the
+ * average cost at the desired service levels
+ * ({@link metrics.AverageSurplusByServiceLevelMetrics}) are estimated. The
+ * runner stops once, for both costs, the half-width of the t-based confidence
+ * interval is at most the relative tolerance times the mean, or once the
+ * maximum number of replications has been run. The stopping rule is only
+ * checked on the replications completed in index order, so that a replication
+ * that happens to finish early cannot bias the estimate.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+public class ReplicationRunner {
+
+    public static final int    DEFAULT_MIN_REPLICATIONS = 5;
+    public static final int    DEFAULT_MAX_REPLICATIONS = 100;
+    public static final double DEFAULT_CONFIDENCE_LEVEL = 0.95;
+
+    private final Params    params;
+    private final Recorders recorders;
+    private final int       numThreads;
+    private final double    relativeTolerance;
+    private final double    confidenceLevel;
+    private final int       minReplications;
+    private final int       maxReplications;
+
+    public ReplicationRunner(Params params, Recorders recorders, int numThreads, double relativeTolerance) {
+        this(params, recorders, numThreads, relativeTolerance, DEFAULT_CONFIDENCE_LEVEL, DEFAULT_MIN_REPLICATIONS,
+                DEFAULT_MAX_REPLICATIONS);
+    }
+
+    public ReplicationRunner(Params params, Recorders recorders, int numThreads, double relativeTolerance,
+            double confidenceLevel, int minReplications, int maxReplications) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Need at least one thread but got " + numThreads);
+        }
+        if (!(relativeTolerance > 0)) {
+            throw new IllegalArgumentException("The relative tolerance must be positive but was " + relativeTolerance);
+        }
+        if (!(confidenceLevel > 0 && confidenceLevel < 1)) {
+            throw new IllegalArgumentException("The confidence level must be in (0,1) but was " + confidenceLevel);
+        }
+        if (minReplications < 2 || maxReplications < minReplications) {
+            throw new IllegalArgumentException(String.format(
+                    "Need 2 <= min replications <= max replications but got %d and %d", minReplications,
+                    maxReplications));
+        }
+        this.params = params;
+        this.recorders = recorders;
+        this.numThreads = numThreads;
+        this.relativeTolerance = relativeTolerance;
+        this.confidenceLevel = confidenceLevel;
+        this.minReplications = minReplications;
+        this.maxReplications = maxReplications;
+    }
+
+    /**
+     * Runs replications until the stopping rule is met and returns the
+     * estimates of the costs.
+     *
+     * @return results
+     * @throws ExecutionException
+     *             if one of the replications fails
+     * @throws InterruptedException
+     */
+    public Results run() throws ExecutionException, InterruptedException {
+        log.info(String.format("Starting replications of %s with relative tolerance %.4f on %d threads", params,
+                relativeTolerance, numThreads));
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CompletionService<Replication> completionService = new ExecutorCompletionService<Replication>(executor);
+        List<Replication> completed = new ArrayList<Replication>();
+        SummaryStatistics averageCosts = new SummaryStatistics();
+        SummaryStatistics serviceLevelCosts = new SummaryStatistics();
+        try {
+            int nextReplication = 0;
+            int running = 0;
+            while (nextReplication < Math.min(numThreads, maxReplications)) {
+                completionService.submit(newReplication(nextReplication++));
+                running++;
+            }
+            boolean isDone = false;
+            while (!isDone && running > 0) {
+                Replication replication = completionService.take().get();
+                running--;
+                while (completed.size() <= replication.index) {
+                    completed.add(null);
+                }
+                completed.set(replication.index, replication);
+
+                // Add the replications completed in index order
+                int n = (int) averageCosts.getN();
+                while (n < completed.size() && completed.get(n) != null) {
+                    averageCosts.addValue(completed.get(n).averageCost);
+                    serviceLevelCosts.addValue(completed.get(n).serviceLevelCost);
+                    n++;
+                }
+                isDone = n >= minReplications && isPreciseEnough(averageCosts) && isPreciseEnough(serviceLevelCosts);
+                if (!isDone && nextReplication < maxReplications) {
+                    completionService.submit(newReplication(nextReplication++));
+                    running++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Results results = new Results(newEstimate(averageCosts), newEstimate(serviceLevelCosts));
+        if (averageCosts.getN() >= maxReplications && !(isPreciseEnough(averageCosts)
+                && isPreciseEnough(serviceLevelCosts))) {
+            log.warn(String.format("Reached the maximum of %d replications before the tolerance %.4f: %s",
+                    maxReplications, relativeTolerance, results));
+        } else {
+            log.info(String.format("Finished replications: %s", results));
+        }
+        return results;
+    }
+
+    private Estimate newEstimate(SummaryStatistics statistics) {
+        return new Estimate((int) statistics.getN(), statistics.getMean(), getHalfWidth(statistics));
+    }
+
+    private boolean isPreciseEnough(SummaryStatistics statistics) {
+        return getHalfWidth(statistics) <= relativeTolerance * Math.abs(statistics.getMean());
+    }
+
+    private double getHalfWidth(SummaryStatistics statistics) {
+        long n = statistics.getN();
+        if (n < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double t = new TDistribution(n - 1).inverseCumulativeProbability(0.5 + confidenceLevel / 2);
+        return t * statistics.getStandardDeviation() / Math.sqrt(n);
+    }
+
+    private Callable<Replication> newReplication(final int index) {
+        final Params replicationParams = params.toBuilder().jumpableRandomStreams(true).replication(index).build();
+        return new Callable<Replication>() {
+            @Override
+            public Replication call() {
+                Sim sim = new Sim(replicationParams, index);
+                SimSetup.setUp(sim, recorders);
+                sim.run(false);
+                double averageCost = sim.getMetrics().getAverageSurplusMetrics().getAverageCost();
+                double serviceLevelCost = sim.getMetrics().getAverageSurplusByServiceLevelMetrics()
+                        .getAverageCost(sim.getDerivedParams().getServiceLevels());
+                log.debug(String.format("Replication %d has average cost %.5f and service level cost %.5f", index,
+                        averageCost, serviceLevelCost));
+                return new Replication(index, averageCost, serviceLevelCost);
+            }
+        };
+    }
+
+    private static class Replication {
+
+        private final int    index;
+        private final double averageCost;
+        private final double serviceLevelCost;
+
+        private Replication(int index, double averageCost, double serviceLevelCost) {
+            this.index = index;
+            this.averageCost = averageCost;
+            this.serviceLevelCost = serviceLevelCost;
+        }
+
+    }
+
+    @Getter
+    @ToString
+    public static class Results {
+
+        private final Estimate averageCost;
+        private final Estimate serviceLevelCost;
+
+        private Results(Estimate averageCost, Estimate serviceLevelCost) {
+            this.averageCost = averageCost;
+            this.serviceLevelCost = serviceLevelCost;
+        }
+
+        public int getNumReplications() {
+            return averageCost.getNumReplications();
+        }
+
+    }
+
+    @Getter
+    @ToString
+    public static class Estimate {
+
+        private final int    numReplications;
+        private final double mean;
+        private final double halfWidth;
+
+        private Estimate(int numReplications, double mean, double halfWidth) {
+            this.numReplications = numReplications;
+            this.mean = mean;
+            this.halfWidth = halfWidth;
+        }
+
+    }
+
+}
@@ -1,6 +1,5 @@
 package sim;
 
-import discreteEvent.ControlEvent;
 import discreteEvent.Event;
 import discreteEvent.Failure;
 import discreteEvent.ListenersCoordinator;
@@ -18,6 +17,12 @@ import processes.generators.IRandomTimeIntervalGenerator;
 import processes.production.IProductionProcess;
 import system.Machine;
 
+/**
+ * The simulation object, which holds the complete state of a run. The state
+ * of its components can be saved to a {@link SimCheckpoint}, which restores
+ * it onto a new sim set up from the same params, so that a run can be
+ * continued later.
+ */
 @CommonsLog
 public class Sim {
 
@@ -28,7 +33,7 @@ public class Sim {
     private static int sims = 0;
 
     private int                          id;
-    private final Params                 params;
+    private Params                       params;
     @Getter private final DerivedParams          derivedParams;
     private final MasterScheduler        masterScheduler;
     private final ListenersCoordinator   listenersCoordinator;
@@ -41,16 +46,31 @@ public class Sim {
     private Machine                      machine;
     private IPolicy                      policy;
     private Metrics                      metrics;
+    private MserWarmupDetector           warmupDetector;
     private Recorders                    recorders;
     private Clock                        clock;
     private SurplusCostLowerBound        surplusCostLowerBound;
+    private boolean                      started;
+    private final boolean                trace = log.isTraceEnabled();
 
     private static synchronized int newSimId() {
         return Sim.sims++;
     }
 
     public Sim(Params params) {
-        this.id = newSimId();
+        this(params, newSimId());
+    }
+
+    /**
+     * Creates a sim with the given id. Use this constructor when the ids need
+     * to be reproducible regardless of the order in which sims are created
+     * (e.g., when running several sims in parallel).
+     * 
+     * @param params
+     * @param id
+     */
+    public Sim(Params params, int id) {
+        this.id = id;
         log.info("Creating " + this);
         this.clock = new Clock(params.getMetricsStartTime());
         this.masterScheduler = new MasterScheduler(this);
@@ -68,17 +88,72 @@ public class Sim {
      * @param verbose
      */
     public void run(boolean verbose) {
+        start();
+        resume(verbose);
+    }
+
+    /**
+     * Schedules the first failure and the initial control event. Must be
+     * called once, before the sim is run with {@link #runUntil}.
+     */
+    public void start() {
+        if (started) {
+            throw new IllegalStateException(this + " has already been started");
+        }
         log.info(String.format("Starting run of sim %s from file %s", this.getId(), this.params.getFile()));
-        // Schedule the first failure and set an initial control event
         Event firstFailure = new Failure(this.getTime().add(getTheFailuresGenerator().nextTimeInterval()));
         this.getMasterScheduler().addEvent(firstFailure);
-        this.getMasterScheduler().addEvent(new ControlEvent(this.getTime()));
-        bar = new ProgressBar(5, getParams().getFinalTime());
+        this.getMasterScheduler().requestControl(this.getTime());
+        started = true;
+    }
+
+    /**
+     * Runs a started (or restored) sim until the final time in the params (or
+     * until the batch-means stopping rule is met) and records the end of the
+     * sim.
+     * 
+     * @param verbose
+     */
+    public void resume(boolean verbose) {
+        runUntil(getParams().getFinalTime(), verbose);
+        recordEndOfSim();
+    }
+
+    /**
+     * Reports the length of the run and the precision of the average cost in
+     * the derived params and records the end of the sim.
+     */
+    public void recordEndOfSim() {
+        derivedParams.setEndOfRun(getTime().doubleValue(), clock.getMetricsInitialTime(),
+                metrics.getBatchMeansCostMetrics());
+        if (hasConverged()) {
+            log.info(String.format("%s converged at time %s with a standard error of %.5f", this, getTime(),
+                    derivedParams.getBatchMeansStandardError()));
+        }
+        getRecorders().recordEndOfSim(this);
+    }
+
+    /**
+     * Handles events until the clock reaches the given time or there are no
+     * more events. The sim can then be saved to a {@link SimCheckpoint} or run
+     * further. Running past the final time in the params is allowed, but note
+     * that the batched metrics only cover the period up to the final time.
+     * 
+     * @param time
+     * @param verbose
+     */
+    public void runUntil(double time, boolean verbose) {
+        if (!started) {
+            throw new IllegalStateException(this + " must be started before it can run");
+        }
+        bar = new ProgressBar(5, time);
 
         // Main Loop of the Sim
-        while (continueSim()) {
+        while (!clock.hasReachedEpoch(time) && !eventsComplete() && !hasConverged()) {
 
-            log.trace("Sim time: " + getTime());
+            if (trace) {
+                log.trace("Sim time: " + getTime());
+            }
             if (verbose) {
                 bar.setProgress(getTime().doubleValue());
                 bar.display();
@@ -99,12 +174,50 @@ public class Sim {
             bar.setProgress(getTime().doubleValue());
             bar.display();
         }
+    }
 
-        getRecorders().recordEndOfSim(this);
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Marks a sim restored from a {@link SimCheckpoint} as started, since its
+     * first events are already in the restored schedules.
+     */
+    void markStarted() {
+        started = true;
+    }
+
+    /**
+     * Moves the final time in the params to the given later time, so that a
+     * restored sim can be extended with {@link #resume}. Note that once the
+     * metrics have started, the batches of the batched metrics are not
+     * changed, so they only cover the period up to the original final time.
+     * 
+     * @param finalTime
+     */
+    public void extendFinalTime(double finalTime) {
+        if (finalTime < params.getFinalTime()) {
+            throw new IllegalArgumentException(String.format("Cannot move the final time of %s from %s to %s", this,
+                    params.getFinalTime(), finalTime));
+        }
+        log.info(String.format("Extending the final time of %s to %s", this, finalTime));
+        params = params.toBuilder().finalTime(finalTime).build();
     }
 
     public boolean continueSim() {
-        return (!clock.hasReachedEpoch(params.getFinalTime()) && !eventsComplete());
+        return (!clock.hasReachedEpoch(params.getFinalTime()) && !eventsComplete() && !hasConverged());
+    }
+
+    /**
+     * Returns true if the params set a target standard error for the average
+     * cost and the batch means have reached it.
+     * 
+     * @return boolean
+     */
+    public boolean hasConverged() {
+        return metrics != null && metrics.getBatchMeansCostMetrics() != null
+                && metrics.getBatchMeansCostMetrics().hasConverged();
     }
 
     public IRandomTimeIntervalGenerator getTheFailuresGenerator() {
@@ -140,6 +253,17 @@ public class Sim {
         clock.advanceClockTo(newTime);
     }
 
+    /**
+     * Brings the state of the items up to the given time without advancing the
+     * time of the sim. The time of the sim catches up at the next call to
+     * {@link #setTime(TimeInstant)}.
+     * 
+     * @param newTime
+     */
+    public void advanceStateTo(TimeInstant newTime) {
+        clock.advanceStateTo(newTime);
+    }
+
     public TimeInstant getTime() {
         return clock.getTime();
     }
@@ -196,6 +320,14 @@ public class Sim {
         this.metrics = theMetrics;
     }
 
+    public MserWarmupDetector getWarmupDetector() {
+        return warmupDetector;
+    }
+
+    public void setWarmupDetector(MserWarmupDetector warmupDetector) {
+        this.warmupDetector = warmupDetector;
+    }
+
     public Recorders getRecorders() {
         return recorders;
     }
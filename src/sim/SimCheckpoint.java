@@ -0,0 +1,152 @@
+package sim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.extern.apachecommons.CommonsLog;
+import output.Recorders;
+import params.Params;
+import util.JsonReader;
+
+/**
+ * Saves the state of a sim to a compressed binary file and restores it, so
+ * that a run can be continued without simulating again the time before the
+ * checkpoint. For example, a sim can be saved once it reaches the metrics
+ * start time and then restored as many times as needed to run it to different
+ * final times, or a converged run can be extended without starting it over.
+ * <p>
+ * The checkpoint holds the params and the state of each
+ * {@link ICheckpointable} component of the sim: the clock, the machine and its
+ * items, the processes, the random generators, the events in the master
+ * scheduler, the policy, the metrics and the warmup detector. A sim is
+ * restored by setting up a new sim from the params and reading the state of
+ * each component into it, so the listeners and the other wiring between the
+ * components are never written. The recorders hold open files and are not
+ * included, so they must be given when the sim is restored, and the latest
+ * event is not kept. A sim with a component that cannot be checkpointed
+ * cannot be written. Checkpoints can only be read by the same
+ * {@link #VERSION} of the format.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+public class SimCheckpoint {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC       = 0x53494d43;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SimCheckpoint() {
+        /* Do not instantiate */
+    }
+
+    /**
+     * Writes the state of the sim to the given file. The checkpoint is first
+     * written to a temporary file and then moved into place, so an existing
+     * checkpoint is never left half-written.
+     *
+     * @param sim
+     * @param file
+     * @throws IOException
+     */
+    public static void write(Sim sim, File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sim.getId());
+            byte[] params = JsonReader.toJson(sim.getParams()).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(params.length);
+            out.write(params);
+            out.writeBoolean(sim.isStarted());
+            sim.getClock().writeState(out);
+            sim.getMachine().writeState(out);
+            sim.getDemandProcess().writeState(out);
+            sim.getProductionProcess().writeState(out);
+            checkpointable(sim.getTheFailuresGenerator(), "failures generator").writeState(out);
+            checkpointable(sim.getTheRepairsGenerator(), "repairs generator").writeState(out);
+            sim.getMasterScheduler().writeState(out);
+            checkpointable(sim.getPolicy(), "policy").writeState(out);
+            sim.getMetrics().writeState(out);
+            out.writeBoolean(sim.getWarmupDetector() != null);
+            if (sim.getWarmupDetector() != null) {
+                sim.getWarmupDetector().writeState(out);
+            }
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        log.info(String.format("Wrote checkpoint of %s at time %s to %s", sim, sim.getTime(), file));
+    }
+
+    /**
+     * Reads a sim from the given checkpoint file and attaches the given
+     * recorders to it. The sim can then be run with {@link Sim#resume} or
+     * {@link Sim#runUntil}.
+     *
+     * @param file
+     * @param recorders
+     * @return the restored sim
+     * @throws IOException
+     */
+    public static Sim read(File file, Recorders recorders) throws IOException {
+        Sim sim;
+        try (DataInputStream in = new DataInputStream(
+                new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(String.format("%s is not a checkpoint", file));
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new InvalidClassException(String.format(
+                        "Could not read checkpoint %s of version %d with version %d", file, version, VERSION));
+            }
+            int id = in.readInt();
+            byte[] params = new byte[in.readInt()];
+            in.readFully(params);
+            sim = new Sim(JsonReader.readJson(new String(params, StandardCharsets.UTF_8), Params.class), id);
+            SimSetup.setUp(sim, recorders);
+            boolean started = in.readBoolean();
+            sim.getClock().readState(in);
+            sim.getMachine().readState(in);
+            sim.getDemandProcess().readState(in);
+            sim.getProductionProcess().readState(in);
+            checkpointable(sim.getTheFailuresGenerator(), "failures generator").readState(in);
+            checkpointable(sim.getTheRepairsGenerator(), "repairs generator").readState(in);
+            sim.getMasterScheduler().readState(in, sim.getMachine());
+            checkpointable(sim.getPolicy(), "policy").readState(in);
+            sim.getMetrics().readState(in);
+            if (in.readBoolean()) {
+                sim.getWarmupDetector().readState(in);
+            }
+            if (started) {
+                sim.markStarted();
+            }
+        }
+        log.info(String.format("Restored %s at time %s from %s", sim, sim.getTime(), file));
+        return sim;
+    }
+
+    private static ICheckpointable checkpointable(Object component, String name) {
+        if (!(component instanceof ICheckpointable)) {
+            throw new UnsupportedOperationException(
+                    String.format("The %s %s cannot be checkpointed", name, component.getClass().getSimpleName()));
+        }
+        return (ICheckpointable) component;
+    }
+
+}
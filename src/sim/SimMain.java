@@ -9,19 +9,22 @@ package sim;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Properties;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
 
 import org.apache.log4j.PropertyConfigurator;
 
-import com.google.common.io.Files;
-
 import lombok.extern.apachecommons.CommonsLog;
+import output.OutputFormat;
+import output.Recorder;
+import output.RecorderOptions;
 import output.Recorders;
 import params.Params;
 import params.ParamsFactory;
@@ -36,11 +39,27 @@ import params.ParamsFactory;
 @CommonsLog
 public class SimMain {
 
+    public static final String STAGING_SUFFIX = ".incomplete";
+
     /**
      * Execute this method for running the simulation. The arguments are a path
      * to a directory with json's or a single json path, and an optional number
-     * of maximum parallel threads. The program will run a simulation per json
-     * file.
+     * of maximum parallel threads (by default, one per available processor).
+     * The program will run a simulation per json file, longest first. If the
+     * third argument is <tt>resume</tt>, the sims already listed in the
+     * manifest of the output directory are skipped, the rows of the sims that
+     * were cut short are dropped from the existing files and the output of the
+     * remaining sims is appended to them, under new sim ids. The format of the
+     * output files is given by the <tt>output.format</tt> property (TEXT by
+     * default, or BINARY).
+     * <p>
+     * The output is written straight into a staging directory in the archive
+     * path, as plain files unless the <tt>archive.compression.level</tt>
+     * property gives a gzip level (see {@link Deflater}) to compress them with.
+     * Only the text files can be compressed.
+     * Once all the sims finish, the staging directory is renamed to the
+     * archive directory of the experiment. If there is no archive path, the
+     * output is written to the output directory and is not archived.
      * 
      * @param args
      */
@@ -63,88 +82,84 @@ public class SimMain {
         try {
             numThreads = Integer.parseInt(args[1]);
         } catch (ArrayIndexOutOfBoundsException e) {
-            numThreads = 1;
+            numThreads = Runtime.getRuntime().availableProcessors();
         }
         log.info(String.format("Using %d threads", numThreads));
+        boolean resume = args.length > 2 && args[2].equals("resume");
 
         // Get the params
         ParamsFactory factory = new ParamsFactory(inputsPath);
         Collection<Params> expParams = factory.make();
 
-        final Recorders recorders = new Recorders();
-        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-        final ProgressBar progressBar = new ProgressBar(10, expParams.size());
-
-        long startTime = System.currentTimeMillis();
-        System.out.println("****EXPERIMENT START****");
-        progressBar.init();
-        progressBar.display();
-
-        // Create the sim tasks
-        for (final Params params : expParams) {
-            Runnable worker = new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        Sim sim = new Sim(params);
-                        log.info(String.format("Created %s with %s", sim, params));
-                        SimSetup.setUp(sim, recorders);
-                        sim.run(false);
-                        progressBar.addOneUnitOfProgress();
-                        progressBar.display();
-                    } catch ( Exception e ) {
-                        e.printStackTrace();
-                        log.error(String.format("Could not run sim %s", params.getFile()), e);
-                    }
-                }
-            };
-            executor.execute(worker);
+        String archivePath = properties.getProperty("archive.path");
+        File outputDir = archivePath != null ? getStagingDir(archivePath, args[0])
+                : new File(Recorder.DEFAULT_OUTPUT_DIR);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Could not create " + outputDir);
         }
-
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            /* Wait for experiment to finish */
+        log.info(String.format("Writing the output to %s", outputDir));
+        ExperimentManifest manifest = new ExperimentManifest(
+                new File(outputDir, ExperimentManifest.DEFAULT_FILE_NAME), resume);
+        if (resume) {
+            log.info(String.format("Resuming the experiment with %d completed sims", manifest.getNumCompleted()));
         }
-        long endTime = System.currentTimeMillis();
-        double elapsedSec = (endTime - startTime) / 1000.0;
+        OutputFormat format = OutputFormat.valueOf(properties.getProperty("output.format", "TEXT"));
+        String compression = properties.getProperty("archive.compression.level");
+        int compressionLevel = compression == null || compression.equals("none") ? Recorder.UNCOMPRESSED
+                : Integer.parseInt(compression);
+        final Recorders recorders = new Recorders(outputDir, RecorderOptions.builder()
+                .append(resume)
+                .keptSimIds(resume ? manifest.getCompletedSimIds() : null)
+                .format(format)
+                .compressionLevel(compressionLevel)
+                .build());
+        ExperimentScheduler scheduler = new ExperimentScheduler(numThreads);
+
+        System.out.println("****EXPERIMENT START****");
+        ExperimentScheduler.Report report = scheduler.run(expParams, recorders, manifest);
         System.out.println("****EXPERIMENT COMPLETED!****");
-        System.out.println(String.format("Total time %.2f sec", elapsedSec));
-        log.info(String.format("Finished experiment after %.2f sec", elapsedSec));
+        System.out.println(String.format("Total time %.2f sec", report.getMakespanSec()));
+        System.out.println(String.format("Makespan efficiency %.1f%%", 100 * report.getMakespanEfficiency()));
+        log.info(String.format("Finished experiment after %.2f sec", report.getMakespanSec()));
         recorders.closeAll();
-
-        try {
-            archiveOutput(properties.getProperty("archive.path"), args[0]);
-        } catch (Exception e) {
-            log.error("Could not archive output files!");
-            e.printStackTrace();
+        manifest.close();
+
+        if (archivePath != null) {
+            try {
+                archiveOutput(outputDir, archivePath, args[0]);
+            } catch (Exception e) {
+                log.error(String.format("Could not archive the output files in %s!", outputDir));
+                e.printStackTrace();
+            }
         }
 
     }
 
     /**
-     * Copy all output files to the archive folder
+     * Returns the directory of the archive path where the output of the
+     * experiment is written until it completes. The name does not change
+     * between runs, so that a stopped experiment can be resumed.
      */
-    private static void archiveOutput(String archiveFolderPath, String inputsFolderPath) throws Exception {
+    private static File getStagingDir(String archiveFolderPath, String inputsFolderPath) {
+        return new File(archiveFolderPath, getFolderName(inputsFolderPath) + STAGING_SUFFIX);
+    }
 
-        // Get the name of the inputs folder
-        String[] inputsPathComponents = inputsFolderPath.split(File.separator);
-        String inputsFolderName = inputsPathComponents[inputsPathComponents.length - 1];
-
-        // Make a directory in archive to hold the test results
-        Date now = new Date();
-        String timestamp = new SimpleDateFormat("yyyyMMddHHmm").format(now);
-        File archiveDir = new File(
-                String.format("%s%s%s_%s", archiveFolderPath, File.separator, inputsFolderName, timestamp));
-        archiveDir.mkdir();
-
-        // Copy all files
-        File outputDir = new File("output");
-        for (File outputFile : outputDir.listFiles()) {
-            log.info(String.format("Copying %s to %s", outputFile.getPath(), archiveDir.getPath()));
-            File destFile = new File(archiveDir + File.separator + outputFile.getName());
-            Files.copy(outputFile, destFile);
-        }
+    /**
+     * Renames the staging directory to the archive directory of the
+     * experiment, which has the name of the inputs folder and a timestamp.
+     */
+    private static void archiveOutput(File stagingDir, String archiveFolderPath, String inputsFolderPath)
+            throws Exception {
+        String timestamp = new SimpleDateFormat("yyyyMMddHHmm").format(new Date());
+        File archiveDir = new File(archiveFolderPath,
+                String.format("%s_%s", getFolderName(inputsFolderPath), timestamp));
+        log.info(String.format("Moving %s to %s", stagingDir, archiveDir));
+        Files.move(stagingDir.toPath(), archiveDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
 
+    private static String getFolderName(String inputsFolderPath) {
+        String[] inputsPathComponents = inputsFolderPath.split(File.separator);
+        return inputsPathComponents[inputsPathComponents.length - 1];
     }
 
     public static Properties getProperties() throws Exception {
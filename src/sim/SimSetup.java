@@ -13,37 +13,53 @@ import metrics.Metrics;
 import org.apache.log4j.Logger;
 
 import output.Recorders;
+import params.Params;
 import policies.IPolicy;
 import processes.demand.IDemandProcess;
 import processes.generators.ExponentiallyDistributedRandomTimeIntervalGenerator;
 import processes.generators.IRandomTimeIntervalGenerator;
+import processes.generators.IUniformRandomSource;
+import processes.generators.MersenneTwisterFast;
+import processes.generators.RandomStreamFactory;
+import processes.generators.ZigguratExponentialRandomTimeIntervalGenerator;
 import processes.production.IProductionProcess;
 import system.Item;
 import system.Machine;
 import util.AlgorithmLoader;
-import discreteEvent.Event;
+import discreteEvent.EventContext;
 import discreteEvent.EventListener;
 
 public class SimSetup {
 
     private static Logger logger = Logger.getLogger(SimSetup.class);
 
-    public static void setUp(Sim sim, Recorders recorders) {
+    /*
+     * The substreams of each replication used when the params ask for jumpable
+     * random streams. The substreams from ITEMS_SUBSTREAM on are reserved for
+     * item-specific processes, indexed by item id.
+     */
+    public static final int FAILURES_SUBSTREAM = 0;
+    public static final int REPAIRS_SUBSTREAM  = 1;
+    public static final int ITEMS_SUBSTREAM    = 2;
 
-        // Set the Failures/Repairs generators
+    public static void setUp(Sim sim, Recorders recorders) {
+        setUp(sim, recorders, newFailuresGenerator(sim.getParams()), newRepairsGenerator(sim.getParams()));
+    }
 
-        Random seedGenerator = new Random(sim.getParams().getSeed());
+    /**
+     * Sets up the sim with the given failures and repairs generators instead of
+     * creating them from the seed in the params.
+     * 
+     * @param sim
+     * @param recorders
+     * @param failuresGenerator
+     * @param repairsGenerator
+     */
+    public static void setUp(Sim sim, Recorders recorders, IRandomTimeIntervalGenerator failuresGenerator,
+            IRandomTimeIntervalGenerator repairsGenerator) {
 
-        long seedFailures = seedGenerator.nextLong();
-        IRandomTimeIntervalGenerator failuresGenerator = new ExponentiallyDistributedRandomTimeIntervalGenerator(
-                seedFailures, sim.getParams().getMeanTimeToFail());
-        failuresGenerator.warmUp(100);
+        // Set the Failures/Repairs generators
         sim.setTheFailuresGenerator(failuresGenerator);
-
-        long seedRepairs = seedGenerator.nextLong();
-        IRandomTimeIntervalGenerator repairsGenerator = new ExponentiallyDistributedRandomTimeIntervalGenerator(
-                seedRepairs, sim.getParams().getMeanTimeToRepair());
-        repairsGenerator.warmUp(100);
         sim.setTheRepairsGenerator(repairsGenerator);
 
         // Consistency checks
@@ -90,6 +106,9 @@ public class SimSetup {
         }
 
         // Initialize the metrics and recorders
+        if (sim.getParams().isAutomaticWarmup()) {
+            sim.setWarmupDetector(new MserWarmupDetector(sim));
+        }
         sim.setMetrics(new Metrics(sim));
         sim.setRecorders(recorders);
 
@@ -97,19 +116,80 @@ public class SimSetup {
         // before/after each event
         sim.getListenersCoordinator().addBeforeEventListener(new EventListener() {
             @Override
-            public void execute(Event event, Sim sim) {
-                sim.getRecorders().updateBeforeEvent(sim, event);
-                sim.getRecorders().recordBeforeEvent(sim, event);
+            public void execute(EventContext context, Sim sim) {
+                sim.getRecorders().updateBeforeEvent(sim, context.getEvent());
+                sim.getRecorders().recordBeforeEvent(sim, context.getEvent());
             }
         });
 
         sim.getListenersCoordinator().addAfterEventListener(new EventListener() {
             @Override
-            public void execute(Event event, Sim sim) {
-                sim.getRecorders().updateAfterEvent(sim, event);
-                sim.getRecorders().recordAfterEvent(sim, event);
+            public void execute(EventContext context, Sim sim) {
+                sim.getRecorders().updateAfterEvent(sim, context.getEvent());
+                sim.getRecorders().recordAfterEvent(sim, context.getEvent());
             }
         });
 
     }
+
+    /**
+     * Creates the generator of the times to failure for the given params. The
+     * generators of two params with the same seed and mean time to fail draw
+     * the same intervals.
+     * 
+     * @param params
+     * @return generator
+     */
+    public static IRandomTimeIntervalGenerator newFailuresGenerator(Params params) {
+        if (params.isJumpableRandomStreams()) {
+            return newExponentialGenerator(params, FAILURES_SUBSTREAM, params.getMeanTimeToFail());
+        }
+        Random seedGenerator = new Random(params.getSeed());
+        long seedFailures = seedGenerator.nextLong();
+        return newExponentialGenerator(params, seedFailures, params.getMeanTimeToFail());
+    }
+
+    /**
+     * Creates the generator of the times to repair for the given params. The
+     * generators of two params with the same seed and mean time to repair draw
+     * the same intervals.
+     * 
+     * @param params
+     * @return generator
+     */
+    public static IRandomTimeIntervalGenerator newRepairsGenerator(Params params) {
+        if (params.isJumpableRandomStreams()) {
+            return newExponentialGenerator(params, REPAIRS_SUBSTREAM, params.getMeanTimeToRepair());
+        }
+        Random seedGenerator = new Random(params.getSeed());
+        seedGenerator.nextLong();
+        long seedRepairs = seedGenerator.nextLong();
+        return newExponentialGenerator(params, seedRepairs, params.getMeanTimeToRepair());
+    }
+
+    private static IRandomTimeIntervalGenerator newExponentialGenerator(Params params, long seed, double mean) {
+        IRandomTimeIntervalGenerator generator = newExponentialGenerator(params, new MersenneTwisterFast(seed), mean);
+        generator.warmUp(100);
+        return generator;
+    }
+
+    /**
+     * Creates a generator on the given substream of the replication in the
+     * params. The streams of the {@link RandomStreamFactory} do not overlap, so
+     * they do not need to be warmed up.
+     */
+    private static IRandomTimeIntervalGenerator newExponentialGenerator(Params params, int substream, double mean) {
+        IUniformRandomSource source = new RandomStreamFactory(params.getSeed()).getStream(params.getReplication(),
+                substream);
+        return newExponentialGenerator(params, source, mean);
+    }
+
+    private static IRandomTimeIntervalGenerator newExponentialGenerator(Params params, IUniformRandomSource source,
+            double mean) {
+        if (params.isZigguratSampling()) {
+            return new ZigguratExponentialRandomTimeIntervalGenerator(source, mean);
+        } else {
+            return new ExponentiallyDistributedRandomTimeIntervalGenerator(source, mean);
+        }
+    }
 }
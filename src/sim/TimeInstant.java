@@ -1,56 +1,140 @@
 package sim;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 import lombok.EqualsAndHashCode;
 import lombok.extern.apachecommons.CommonsLog;
 
 /**
- * A class to represent a time instant or a period of time in the sim. This class has infinite precision,
- * which is key for maintaining precision in the sim regardless of the total simulation length.
- *  
+ * A class to represent a time instant or a period of time in the sim. The time is stored in fixed point as a pair of
+ * primitive longs: a signed whole part and an unsigned fraction in units of 2<sup>-64</sup>. Any double of magnitude
+ * at least 2<sup>-12</sup> is represented exactly, and additions and subtractions are exact, so the sim keeps its
+ * precision regardless of the total simulation length. Unlike a <code>BigDecimal</code>, the cost of each operation
+ * is constant and does not grow as binary fractions accumulate over long horizons.
+ *
  */
 @EqualsAndHashCode(callSuper = false)
 @CommonsLog
 public class TimeInstant extends Number implements Comparable<TimeInstant> {
 
-    public static final TimeInstant INFINITY = new TimeInstant(Double.MAX_VALUE, true);
+    public static final TimeInstant INFINITY = new TimeInstant(Long.MAX_VALUE, -1L);
 
-    private static final long serialVersionUID = 1L;
+    private static final TimeInstant NEGATIVE_INFINITY = new TimeInstant(Long.MIN_VALUE, 0L);
 
-    private final BigDecimal time;
+    private static final long serialVersionUID = 2L;
+
+    private static final double TWO_TO_63 = 0x1p63;
+    private static final double TWO_TO_64 = 0x1p64;
+    private static final double TWO_TO_MINUS_64 = 0x1p-64;
+    private static final BigDecimal TWO_TO_64_DECIMAL = new BigDecimal(TWO_TO_64);
+
+    private final long whole;
+    private final long fraction;
 
     public static TimeInstant at(final double time) {
         return new TimeInstant(time);
     }
 
     public TimeInstant(final double time) {
-        this( new BigDecimal(time) );
+        this(wholeOf(time), fractionOf(time));
     }
 
-    public TimeInstant(final BigDecimal time){
-        if ( time.compareTo(INFINITY.time) > 0 ) {
+    public TimeInstant(final BigDecimal time) {
+        BigDecimal floor = time.setScale(0, RoundingMode.FLOOR);
+        if (floor.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
             log.debug(String.format("Truncating the time (%s) since it exceeds the max value", time));
-            this.time = INFINITY.time;
+            this.whole = INFINITY.whole;
+            this.fraction = INFINITY.fraction;
+        } else if (floor.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0) {
+            this.whole = NEGATIVE_INFINITY.whole;
+            this.fraction = NEGATIVE_INFINITY.fraction;
         } else {
-            this.time = time;
+            this.whole = floor.longValue();
+            this.fraction = time.subtract(floor).multiply(TWO_TO_64_DECIMAL).toBigInteger().longValue();
+        }
+    }
+
+    private TimeInstant(final long whole, final long fraction) {
+        this.whole = whole;
+        this.fraction = fraction;
+    }
+
+    /**
+     * Writes the exact value of the given time, which may be <code>null</code>.
+     * 
+     * @param out
+     * @param time
+     * @throws IOException
+     */
+    static void write(final DataOutput out, final TimeInstant time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            out.writeLong(time.whole);
+            out.writeLong(time.fraction);
         }
     }
 
-    private TimeInstant(final double time, boolean ignore) {
-        this.time = new BigDecimal(time);
+    /**
+     * Reads a time written by {@link #write(DataOutput, TimeInstant)}.
+     * 
+     * @param in
+     * @return the time, or <code>null</code>
+     * @throws IOException
+     */
+    static TimeInstant read(final DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long whole = in.readLong();
+        long fraction = in.readLong();
+        return whole == INFINITY.whole && fraction == INFINITY.fraction ? INFINITY : new TimeInstant(whole, fraction);
     }
 
     public TimeInstant add(final TimeInstant other) {
-        return new TimeInstant(this.time.add(other.time));
+        return sum(this.whole, this.fraction, other.whole, other.fraction);
     }
 
     public TimeInstant add(final double delta) {
-        return new TimeInstant(this.time.add( new BigDecimal(delta)));
+        return sum(this.whole, this.fraction, wholeOf(delta), fractionOf(delta));
     }
 
     public TimeInstant subtract(final TimeInstant other) {
-        return new TimeInstant(this.time.subtract(other.time));
+        long fractionDiff = this.fraction - other.fraction;
+        long borrow = Long.compareUnsigned(this.fraction, other.fraction) < 0 ? 1 : 0;
+        long wholeDiff = this.whole - other.whole;
+        if (((this.whole ^ other.whole) & (this.whole ^ wholeDiff)) < 0) {
+            return wholeDiff < 0 ? INFINITY : NEGATIVE_INFINITY;
+        }
+        if (wholeDiff == Long.MIN_VALUE && borrow == 1) {
+            return NEGATIVE_INFINITY;
+        }
+        return new TimeInstant(wholeDiff - borrow, fractionDiff);
+    }
+
+    /**
+     * Returns the length of the period between the given (earlier) time instant and this one, as a double. This is
+     * equivalent to <code>this.subtract(earlier).doubleValue()</code> but does not create an intermediate object.
+     *
+     * @param earlier
+     * @return double
+     */
+    public double doubleValueSince(final TimeInstant earlier) {
+        if (this.isInfinity() && !earlier.isInfinity()) {
+            return Double.MAX_VALUE;
+        }
+        long fractionDiff = this.fraction - earlier.fraction;
+        long borrow = Long.compareUnsigned(this.fraction, earlier.fraction) < 0 ? 1 : 0;
+        long wholeDiff = this.whole - earlier.whole;
+        if (((this.whole ^ earlier.whole) & (this.whole ^ wholeDiff)) < 0
+                || (wholeDiff == Long.MIN_VALUE && borrow == 1)) {
+            // The period saturates; this is rare enough to allocate
+            return this.subtract(earlier).doubleValue();
+        }
+        return toDouble(wholeDiff - borrow, fractionDiff);
     }
 
     public boolean hasReachedEpoch(TimeInstant timeInstant) {
@@ -64,12 +148,12 @@ public class TimeInstant extends Number implements Comparable<TimeInstant> {
     /**
      * Returns <tt>true</tt> if the current time instant has reach the given epoch (i.e., if the current
      * time is greater or equal to the given epoch time).
-     * 
+     *
      * @param epoch
      * @return boolean
      */
     public boolean hasReachedEpoch(double epoch) {
-        return this.hasReachedEpoch(new TimeInstant(epoch));
+        return compare(this.whole, this.fraction, wholeOf(epoch), fractionOf(epoch)) >= 0;
     }
 
     /**
@@ -79,37 +163,121 @@ public class TimeInstant extends Number implements Comparable<TimeInstant> {
      * @return
      */
     public boolean hasPassedEpoch(double epoch) {
-        return this.hasPassedEpoch(new TimeInstant(epoch));
+        return compare(this.whole, this.fraction, wholeOf(epoch), fractionOf(epoch)) > 0;
     }
 
     @Override
     public int intValue() {
-        return this.time.intValue();
+        return (int) this.longValue();
     }
 
     @Override
     public long longValue() {
-        return this.time.longValue();
+        // Truncate towards zero
+        return this.whole < 0 && this.fraction != 0 ? this.whole + 1 : this.whole;
     }
 
     @Override
     public float floatValue() {
-        return this.time.floatValue();
+        return (float) this.doubleValue();
     }
 
     @Override
     public double doubleValue() {
-        return this.time.doubleValue();
+        if (this.isInfinity()) {
+            return Double.MAX_VALUE;
+        }
+        return toDouble(this.whole, this.fraction);
     }
 
     @Override
     public int compareTo(final TimeInstant other) {
-        return this.time.compareTo(other.time);
+        return compare(this.whole, this.fraction, other.whole, other.fraction);
     }
 
     @Override
     public String toString() {
-        return String.format("%.5f", this.time.doubleValue());
+        return String.format("%.5f", this.doubleValue());
+    }
+
+    private boolean isInfinity() {
+        return this.whole == INFINITY.whole && this.fraction == INFINITY.fraction;
+    }
+
+    private static int compare(long whole1, long fraction1, long whole2, long fraction2) {
+        int wholeComparison = Long.compare(whole1, whole2);
+        return wholeComparison != 0 ? wholeComparison : Long.compareUnsigned(fraction1, fraction2);
+    }
+
+    private static TimeInstant sum(long whole1, long fraction1, long whole2, long fraction2) {
+        long fractionSum = fraction1 + fraction2;
+        long carry = Long.compareUnsigned(fractionSum, fraction1) < 0 ? 1 : 0;
+        long wholeSum = whole1 + whole2;
+        if (((whole1 ^ wholeSum) & (whole2 ^ wholeSum)) < 0) {
+            return wholeSum < 0 ? INFINITY : NEGATIVE_INFINITY;
+        }
+        if (wholeSum == Long.MAX_VALUE && carry == 1) {
+            return INFINITY;
+        }
+        return new TimeInstant(wholeSum + carry, fractionSum);
+    }
+
+    private static double toDouble(long whole, long fraction) {
+        double fractionAsDouble;
+        if (fraction >= 0) {
+            fractionAsDouble = fraction;
+        } else {
+            // Unsigned conversion, keeping the lowest bit for correct rounding
+            fractionAsDouble = ((double) ((fraction >>> 1) | (fraction & 1))) * 2.0;
+        }
+        return whole + fractionAsDouble * TWO_TO_MINUS_64;
+    }
+
+    private static long wholeOf(double time) {
+        checkNotNaN(time);
+        if (time >= TWO_TO_63) {
+            return INFINITY.whole;
+        }
+        if (time < -TWO_TO_63) {
+            return NEGATIVE_INFINITY.whole;
+        }
+        if (time >= 0) {
+            return (long) Math.floor(time);
+        }
+        // Negate the representation of the absolute value
+        long positiveFraction = positiveFractionOf(-time);
+        long positiveWhole = (long) Math.floor(-time);
+        return positiveFraction == 0 ? -positiveWhole : ~positiveWhole;
+    }
+
+    private static long fractionOf(double time) {
+        checkNotNaN(time);
+        if (time >= TWO_TO_63) {
+            return INFINITY.fraction;
+        }
+        if (time < -TWO_TO_63) {
+            return NEGATIVE_INFINITY.fraction;
+        }
+        if (time >= 0) {
+            return positiveFractionOf(time);
+        }
+        return -positiveFractionOf(-time);
+    }
+
+    private static long positiveFractionOf(double time) {
+        // For non-negative values, the difference with the floor is exact
+        double scaledFraction = (time - Math.floor(time)) * TWO_TO_64;
+        if (scaledFraction < TWO_TO_63) {
+            return (long) scaledFraction;
+        } else {
+            return ((long) (scaledFraction - TWO_TO_63)) | Long.MIN_VALUE;
+        }
+    }
+
+    private static void checkNotNaN(double time) {
+        if (Double.isNaN(time)) {
+            throw new NumberFormatException("Cannot create a time instant from NaN");
+        }
     }
 
 }
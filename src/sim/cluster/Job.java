@@ -0,0 +1,82 @@
+package sim.cluster;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Properties;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A sim to be run by a worker, given by the id of the sim and the json file
+ * with its params, and the number of times it has already been attempted. Jobs
+ * are stored as properties files in the {@link JobDirectory}.
+ *
+ * @author ftubilla
+ *
+ */
+@Getter
+@ToString
+public class Job {
+
+    private static final String SIM_ID      = "simId";
+    private static final String PARAMS_FILE = "paramsFile";
+    private static final String ATTEMPTS    = "attempts";
+
+    private final int    simId;
+    private final String paramsFile;
+    private final int    attempts;
+
+    public Job(int simId, String paramsFile) {
+        this(simId, paramsFile, 0);
+    }
+
+    private Job(int simId, String paramsFile, int attempts) {
+        this.simId = simId;
+        this.paramsFile = paramsFile;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Returns a copy of this job with one more attempt.
+     *
+     * @return job
+     */
+    public Job withNextAttempt() {
+        return new Job(simId, paramsFile, attempts + 1);
+    }
+
+    /**
+     * Returns the name of the files and directories of this job, which sort in
+     * the order of the sim ids.
+     *
+     * @return name
+     */
+    public String getName() {
+        return String.format("job-%06d", simId);
+    }
+
+    void write(File file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(SIM_ID, Integer.toString(simId));
+        properties.setProperty(PARAMS_FILE, paramsFile);
+        properties.setProperty(ATTEMPTS, Integer.toString(attempts));
+        try (Writer writer = new FileWriter(file)) {
+            properties.store(writer, null);
+        }
+    }
+
+    static Job read(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(file)) {
+            properties.load(reader);
+        }
+        return new Job(Integer.parseInt(properties.getProperty(SIM_ID)), properties.getProperty(PARAMS_FILE),
+                Integer.parseInt(properties.getProperty(ATTEMPTS)));
+    }
+
+}
@@ -0,0 +1,312 @@
+package sim.cluster;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * A directory on the local file system through which a
+ * {@link JobDirectoryCoordinator} hands out jobs to its
+ * {@link JobDirectoryWorker}s. The directory has the following layout:
+ * <ul>
+ * <li><tt>pending/</tt> the jobs waiting for a worker</li>
+ * <li><tt>running/</tt> the jobs claimed by a worker, with the id of the
+ * worker appended to the file name</li>
+ * <li><tt>done/</tt> and <tt>failed/</tt> the finished jobs</li>
+ * <li><tt>heartbeats/</tt> a file per worker, touched periodically while the
+ * worker is alive</li>
+ * <li><tt>work/</tt> the recorder output of the jobs in progress</li>
+ * <li><tt>results/</tt> the recorder output of the completed jobs, in a
+ * directory per job</li>
+ * </ul>
+ * Every change of state is a rename within the directory, which is atomic, so
+ * each job is claimed by a single worker and the output of a job only appears
+ * in <tt>results/</tt> once it is complete.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+public class JobDirectory {
+
+    private static final String JOB_SUFFIX = ".job";
+
+    private final File root;
+    private final File pendingDir;
+    private final File runningDir;
+    private final File doneDir;
+    private final File failedDir;
+    private final File heartbeatsDir;
+    private final File workDir;
+    private final File resultsDir;
+
+    public JobDirectory(File root) throws IOException {
+        this.root = root;
+        this.pendingDir = makeDir("pending");
+        this.runningDir = makeDir("running");
+        this.doneDir = makeDir("done");
+        this.failedDir = makeDir("failed");
+        this.heartbeatsDir = makeDir("heartbeats");
+        this.workDir = makeDir("work");
+        this.resultsDir = makeDir("results");
+    }
+
+    public File getRoot() {
+        return root;
+    }
+
+    /**
+     * Adds the job to the pending jobs.
+     *
+     * @param job
+     * @throws IOException
+     */
+    public void submit(Job job) throws IOException {
+        File tempFile = newTempFile();
+        job.write(tempFile);
+        move(tempFile, new File(pendingDir, job.getName() + JOB_SUFFIX));
+    }
+
+    /**
+     * Claims the pending job with the lowest sim id for the given worker, or
+     * returns null if there are no pending jobs. If several workers try to
+     * claim the same job, only one of them succeeds and the others try the
+     * next job.
+     *
+     * @param workerId
+     * @return job
+     * @throws IOException
+     */
+    public Job claim(String workerId) throws IOException {
+        for (File pendingFile : listJobFiles(pendingDir)) {
+            File runningFile = new File(runningDir, pendingFile.getName() + "." + workerId);
+            try {
+                move(pendingFile, runningFile);
+            } catch (NoSuchFileException e) {
+                // Another worker claimed it first
+                continue;
+            }
+            return Job.read(runningFile);
+        }
+        return null;
+    }
+
+    /**
+     * Returns an empty directory for the recorder output of the given job.
+     *
+     * @param job
+     * @param workerId
+     * @return dir
+     * @throws IOException
+     */
+    public File newWorkDir(Job job, String workerId) throws IOException {
+        File dir = new File(workDir, job.getName() + "." + workerId);
+        deleteRecursively(dir);
+        if (!dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+        return dir;
+    }
+
+    /**
+     * Moves the output of the job to the results and the job to the done
+     * jobs. If the job already has results (because it was released while the
+     * worker was running it and then completed by another worker), the output
+     * is discarded.
+     *
+     * @param job
+     * @param workerId
+     * @param jobWorkDir
+     * @throws IOException
+     */
+    public void complete(Job job, String workerId, File jobWorkDir) throws IOException {
+        File jobResultsDir = new File(resultsDir, job.getName());
+        try {
+            move(jobWorkDir, jobResultsDir);
+        } catch (IOException e) {
+            if (!jobResultsDir.exists()) {
+                throw e;
+            }
+            log.warn(String.format("Discarding the output of %s by worker %s, which was already completed", job,
+                    workerId));
+            deleteRecursively(jobWorkDir);
+        }
+        try {
+            move(new File(runningDir, job.getName() + JOB_SUFFIX + "." + workerId),
+                    new File(doneDir, job.getName() + JOB_SUFFIX));
+        } catch (NoSuchFileException e) {
+            log.warn(String.format("%s was released from worker %s before it completed", job, workerId));
+        }
+    }
+
+    /**
+     * Takes the job away from the given worker and, if it has been attempted
+     * fewer than the maximum number of times, returns it to the pending jobs.
+     * Otherwise, the job is moved to the failed jobs. Returns false if the job
+     * was not running on the worker (e.g., if it was released already).
+     *
+     * @param job
+     * @param workerId
+     * @param maxAttempts
+     * @return true if the job was released
+     * @throws IOException
+     */
+    public boolean release(Job job, String workerId, int maxAttempts) throws IOException {
+        File releasedFile = newTempFile();
+        try {
+            move(new File(runningDir, job.getName() + JOB_SUFFIX + "." + workerId), releasedFile);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        Job nextAttempt = job.withNextAttempt();
+        nextAttempt.write(releasedFile);
+        if (nextAttempt.getAttempts() < maxAttempts) {
+            log.warn(String.format("Returning %s to the pending jobs after attempt %d on worker %s", job,
+                    nextAttempt.getAttempts(), workerId));
+            move(releasedFile, new File(pendingDir, job.getName() + JOB_SUFFIX));
+        } else {
+            log.error(String.format("%s failed after %d attempts", job, nextAttempt.getAttempts()));
+            move(releasedFile, new File(failedDir, job.getName() + JOB_SUFFIX));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the jobs currently claimed by the given worker.
+     *
+     * @param workerId
+     * @return jobs
+     * @throws IOException
+     */
+    public List<Job> getRunningJobs(String workerId) throws IOException {
+        List<Job> jobs = new ArrayList<Job>();
+        String suffix = JOB_SUFFIX + "." + workerId;
+        for (File runningFile : listFiles(runningDir)) {
+            if (runningFile.getName().endsWith(suffix)) {
+                try {
+                    jobs.add(Job.read(runningFile));
+                } catch (IOException e) {
+                    // Released or completed meanwhile
+                }
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Returns the ids of the workers that are running jobs.
+     *
+     * @return worker ids
+     */
+    public List<String> getBusyWorkers() {
+        List<String> workerIds = new ArrayList<String>();
+        for (File runningFile : listFiles(runningDir)) {
+            String name = runningFile.getName();
+            String workerId = name.substring(name.indexOf(JOB_SUFFIX + ".") + JOB_SUFFIX.length() + 1);
+            if (!workerIds.contains(workerId)) {
+                workerIds.add(workerId);
+            }
+        }
+        return workerIds;
+    }
+
+    public void heartbeat(String workerId) throws IOException {
+        File heartbeatFile = new File(heartbeatsDir, workerId);
+        if (!heartbeatFile.setLastModified(System.currentTimeMillis())) {
+            Files.write(heartbeatFile.toPath(), new byte[0]);
+        }
+    }
+
+    /**
+     * Returns the milliseconds since the last heartbeat of the given worker,
+     * or {@link Long#MAX_VALUE} if the worker has never sent one.
+     *
+     * @param workerId
+     * @return millis
+     */
+    public long getMillisSinceHeartbeat(String workerId) {
+        File heartbeatFile = new File(heartbeatsDir, workerId);
+        long lastModified = heartbeatFile.lastModified();
+        return lastModified > 0 ? System.currentTimeMillis() - lastModified : Long.MAX_VALUE;
+    }
+
+    public int getNumPendingJobs() {
+        return listJobFiles(pendingDir).size();
+    }
+
+    public int getNumRunningJobs() {
+        return listFiles(runningDir).size();
+    }
+
+    public int getNumDoneJobs() {
+        return listJobFiles(doneDir).size();
+    }
+
+    public int getNumFailedJobs() {
+        return listJobFiles(failedDir).size();
+    }
+
+    /**
+     * Returns the output directories of the completed jobs, sorted by sim id.
+     *
+     * @return dirs
+     */
+    public List<File> getResultDirs() {
+        return listFiles(resultsDir);
+    }
+
+    private File makeDir(String name) throws IOException {
+        File dir = new File(root, name);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+        return dir;
+    }
+
+    private File newTempFile() {
+        return new File(root, "tmp-" + UUID.randomUUID());
+    }
+
+    private static List<File> listJobFiles(File dir) {
+        List<File> jobFiles = new ArrayList<File>();
+        for (File file : listFiles(dir)) {
+            if (file.getName().endsWith(JOB_SUFFIX)) {
+                jobFiles.add(file);
+            }
+        }
+        return jobFiles;
+    }
+
+    private static List<File> listFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    private static void move(File source, File target) throws IOException {
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deleteRecursively(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+
+}
@@ -0,0 +1,259 @@
+package sim.cluster;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.apache.log4j.PropertyConfigurator;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.apachecommons.CommonsLog;
+import output.Recorder;
+import params.Params;
+import params.ParamsFactory;
+import sim.SimMain;
+
+/**
+ * Runs the sims of an experiment on several worker JVMs on the same host,
+ * handing out the jobs through a {@link JobDirectory}. The coordinator starts
+ * the {@link JobDirectoryWorker} processes, watches them and, when a worker
+ * dies or stops sending heartbeats, returns its job to the pending jobs (up to
+ * a maximum number of attempts) and starts a new worker. Once all the jobs are
+ * done, the recorder files of the jobs are merged by sim id into the output
+ * directory, with a single header per file.
+ * <p>
+ * The workers read the params from their json files, so every params must
+ * come from a file (e.g., from a {@link ParamsFactory}). The sim ids follow
+ * the order of the given params, as in {@link SimMain}.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+public class JobDirectoryCoordinator {
+
+    public static final int  DEFAULT_MAX_ATTEMPTS            = 3;
+    public static final long DEFAULT_HEARTBEAT_TIMEOUT_MILLIS = 30 * JobDirectoryWorker.HEARTBEAT_PERIOD_MILLIS;
+
+    private static final long POLL_PERIOD_MILLIS = 200;
+
+    private final JobDirectory         jobDirectory;
+    private final int                  numWorkers;
+    private final Map<String, Process> workers = new LinkedHashMap<String, Process>();
+    private final List<String>         jvmArgs = new ArrayList<String>();
+    private int                        maxAttempts            = DEFAULT_MAX_ATTEMPTS;
+    private long                       heartbeatTimeoutMillis = DEFAULT_HEARTBEAT_TIMEOUT_MILLIS;
+    private int                        numWorkersStarted;
+
+    public JobDirectoryCoordinator(JobDirectory jobDirectory, int numWorkers) {
+        if (numWorkers < 1) {
+            throw new IllegalArgumentException("Need at least one worker but got " + numWorkers);
+        }
+        this.jobDirectory = jobDirectory;
+        this.numWorkers = numWorkers;
+    }
+
+    /**
+     * Runs a cluster of workers on this host. The arguments are the inputs
+     * path (relative to the inputs path in the properties, as in
+     * {@link SimMain}), the job directory and the number of workers. The
+     * merged output is written to the default output directory.
+     *
+     * @param args
+     */
+    public static void main(String[] args) throws Exception {
+        Properties properties = SimMain.getProperties();
+        PropertyConfigurator.configure("config/log4j.properties");
+        String inputsPath = String.format("%s%s%s", properties.getProperty("inputs.path"), File.separator, args[0]);
+        Collection<Params> expParams = new ParamsFactory(inputsPath).make();
+        JobDirectoryCoordinator coordinator = new JobDirectoryCoordinator(new JobDirectory(new File(args[1])),
+                Integer.parseInt(args[2]));
+        Report report = coordinator.run(expParams, new File(Recorder.DEFAULT_OUTPUT_DIR));
+        System.out.println(report);
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public void setHeartbeatTimeoutMillis(long heartbeatTimeoutMillis) {
+        this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
+    }
+
+    /**
+     * Adds an argument for the JVMs of the workers (e.g., <tt>-Xmx2g</tt>).
+     *
+     * @param jvmArg
+     */
+    public void addJvmArg(String jvmArg) {
+        jvmArgs.add(jvmArg);
+    }
+
+    /**
+     * Submits a job per params, runs them on the workers and merges their
+     * output into the given directory. Blocks until every job is done or has
+     * failed the maximum number of attempts.
+     *
+     * @param expParams
+     * @param outputDir
+     * @return report
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public Report run(Collection<Params> expParams, File outputDir) throws IOException, InterruptedException {
+        int nextSimId = 0;
+        for (Params params : expParams) {
+            if (params.getFile() == null) {
+                throw new IllegalArgumentException("The workers can only run params read from a file but got "
+                        + params);
+            }
+            jobDirectory.submit(new Job(nextSimId++, new File(params.getFile()).getAbsolutePath()));
+        }
+        log.info(String.format("Submitted %d jobs to %s", nextSimId, jobDirectory.getRoot()));
+
+        try {
+            while (jobDirectory.getNumPendingJobs() > 0 || jobDirectory.getNumRunningJobs() > 0) {
+                releaseJobsOfDeadWorkers();
+                removeFinishedWorkers();
+                while (workers.size() < numWorkers && jobDirectory.getNumPendingJobs() > 0) {
+                    startWorker();
+                }
+                Thread.sleep(POLL_PERIOD_MILLIS);
+            }
+            for (Process worker : workers.values()) {
+                worker.waitFor();
+            }
+        } finally {
+            for (Process worker : workers.values()) {
+                worker.destroy();
+            }
+        }
+
+        mergeResults(outputDir);
+        Report report = new Report(jobDirectory.getNumDoneJobs(), jobDirectory.getNumFailedJobs(),
+                numWorkersStarted);
+        log.info(String.format("Finished %s", report));
+        return report;
+    }
+
+    private void releaseJobsOfDeadWorkers() throws IOException {
+        for (String workerId : jobDirectory.getBusyWorkers()) {
+            Process worker = workers.get(workerId);
+            boolean isDead = worker != null && !worker.isAlive();
+            boolean isSilent = jobDirectory.getMillisSinceHeartbeat(workerId) > heartbeatTimeoutMillis;
+            if (isDead || isSilent) {
+                log.warn(String.format("Worker %s is %s, releasing its jobs", workerId,
+                        isDead ? "dead" : "not sending heartbeats"));
+                for (Job job : jobDirectory.getRunningJobs(workerId)) {
+                    jobDirectory.release(job, workerId, maxAttempts);
+                }
+                if (worker != null) {
+                    worker.destroy();
+                }
+            }
+        }
+    }
+
+    private void removeFinishedWorkers() {
+        List<String> finishedWorkers = new ArrayList<String>();
+        for (Map.Entry<String, Process> entry : workers.entrySet()) {
+            if (!entry.getValue().isAlive()) {
+                finishedWorkers.add(entry.getKey());
+            }
+        }
+        for (String workerId : finishedWorkers) {
+            int exitValue = workers.remove(workerId).exitValue();
+            if (exitValue != 0) {
+                log.warn(String.format("Worker %s exited with code %d", workerId, exitValue));
+            }
+        }
+    }
+
+    private void startWorker() throws IOException {
+        String workerId = String.format("worker-%03d", numWorkersStarted++);
+        List<String> command = new ArrayList<String>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(JobDirectoryWorker.class.getName());
+        command.add(jobDirectory.getRoot().getAbsolutePath());
+        command.add(workerId);
+        command.add(Integer.toString(maxAttempts));
+        File logFile = new File(jobDirectory.getRoot(), workerId + ".log");
+        Process worker = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile).start();
+        workers.put(workerId, worker);
+        log.info(String.format("Started worker %s with output in %s", workerId, logFile));
+    }
+
+    /**
+     * Concatenates each recorder file of the completed jobs, in the order of
+     * the sim ids, keeping only the header of the first file.
+     */
+    private void mergeResults(File outputDir) throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Could not create " + outputDir);
+        }
+        List<File> resultDirs = jobDirectory.getResultDirs();
+        TreeSet<String> fileNames = new TreeSet<String>();
+        for (File resultDir : resultDirs) {
+            for (String fileName : resultDir.list()) {
+                fileNames.add(fileName);
+            }
+        }
+        for (String fileName : fileNames) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(outputDir, fileName)))) {
+                boolean hasHeader = false;
+                for (File resultDir : resultDirs) {
+                    File file = new File(resultDir, fileName);
+                    if (!file.exists()) {
+                        continue;
+                    }
+                    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                        String header = reader.readLine();
+                        if (header != null && !hasHeader) {
+                            writer.write(header);
+                            writer.newLine();
+                            hasHeader = true;
+                        }
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            writer.write(line);
+                            writer.newLine();
+                        }
+                    }
+                }
+            }
+        }
+        log.info(String.format("Merged %d files of %d jobs into %s", fileNames.size(), resultDirs.size(),
+                outputDir));
+    }
+
+    @Getter
+    @ToString
+    public static class Report {
+
+        private final int numDoneJobs;
+        private final int numFailedJobs;
+        private final int numWorkersStarted;
+
+        private Report(int numDoneJobs, int numFailedJobs, int numWorkersStarted) {
+            this.numDoneJobs = numDoneJobs;
+            this.numFailedJobs = numFailedJobs;
+            this.numWorkersStarted = numWorkersStarted;
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+package sim.cluster;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.PropertyConfigurator;
+
+import lombok.extern.apachecommons.CommonsLog;
+import output.RecorderOptions;
+import output.Recorders;
+import params.Params;
+import params.ParamsFactory;
+import sim.Sim;
+import sim.SimSetup;
+
+/**
+ * A worker process that runs the jobs of a {@link JobDirectory} one at a time
+ * until there are no pending jobs left. The output of each job is written to
+ * its own directory, which is moved to the results once the sim finishes, so
+ * a worker that crashes leaves no partial output behind. While it is alive,
+ * the worker sends a heartbeat every {@link #HEARTBEAT_PERIOD_MILLIS}.
+ *
+ * @author ftubilla
+ *
+ */
+@CommonsLog
+public class JobDirectoryWorker {
+
+    public static final long HEARTBEAT_PERIOD_MILLIS = 1000;
+
+    private final JobDirectory jobDirectory;
+    private final String       workerId;
+    private final int          maxAttempts;
+
+    public JobDirectoryWorker(JobDirectory jobDirectory, String workerId, int maxAttempts) {
+        this.jobDirectory = jobDirectory;
+        this.workerId = workerId;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * The arguments are the path to the job directory, the id of the worker
+     * and the maximum number of attempts per job.
+     *
+     * @param args
+     */
+    public static void main(String[] args) throws Exception {
+        if (new File("config/log4j.properties").exists()) {
+            PropertyConfigurator.configure("config/log4j.properties");
+        }
+        JobDirectoryWorker worker = new JobDirectoryWorker(new JobDirectory(new File(args[0])), args[1],
+                Integer.parseInt(args[2]));
+        worker.run();
+        System.exit(0);
+    }
+
+    /**
+     * Runs pending jobs until there are none left.
+     *
+     * @throws IOException
+     */
+    public void run() throws IOException {
+        log.info(String.format("Starting worker %s on %s", workerId, jobDirectory.getRoot()));
+        ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "heartbeat-" + workerId);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        jobDirectory.heartbeat(workerId);
+        heartbeats.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    jobDirectory.heartbeat(workerId);
+                } catch (IOException e) {
+                    log.error(String.format("Worker %s could not send a heartbeat", workerId), e);
+                }
+            }
+        }, HEARTBEAT_PERIOD_MILLIS, HEARTBEAT_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        try {
+            Job job;
+            while ((job = jobDirectory.claim(workerId)) != null) {
+                runJob(job);
+            }
+        } finally {
+            heartbeats.shutdownNow();
+        }
+        log.info(String.format("Worker %s found no more pending jobs", workerId));
+    }
+
+    private void runJob(Job job) throws IOException {
+        log.info(String.format("Worker %s is running %s", workerId, job));
+        File jobWorkDir = jobDirectory.newWorkDir(job, workerId);
+        Recorders recorders = new Recorders(jobWorkDir, RecorderOptions.DEFAULTS);
+        try {
+            Params params = new ParamsFactory(job.getParamsFile()).make().iterator().next();
+            Sim sim = new Sim(params, job.getSimId());
+            SimSetup.setUp(sim, recorders);
+            sim.run(false);
+        } catch (Exception e) {
+            log.error(String.format("Worker %s could not run %s", workerId, job), e);
+            recorders.closeAll();
+            jobDirectory.release(job, workerId, maxAttempts);
+            return;
+        }
+        recorders.closeAll();
+        jobDirectory.complete(job, workerId, jobWorkDir);
+    }
+
+}
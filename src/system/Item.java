@@ -6,102 +6,148 @@
 
 package system;
 
-import org.apache.log4j.Logger;
-
 import com.google.common.annotations.VisibleForTesting;
 
-import lombok.Getter;
 import params.Params;
+import sim.Clock;
 import sim.Sim;
+import util.HotPathLogger;
 
 /**
- * A part or product type that can be produced by the machine.
+ * A part or product type that can be produced by the machine. The parameters
+ * and the state of the item are held by an {@link ItemStates} store shared by
+ * all the items of the machine (or by a store of its own, if the item is
+ * created outside of a machine), and the item is a view over its row.
  * 
  * @author ftubilla
  * 
  */
 public class Item {
 
-    private static Logger logger = Logger.getLogger(Item.class);
-
-    // Parameters
-    private final double demandRate;
-    private final double productionRate;
-    @Getter private final double utilization;
-    private final double setupTime;
-    private final double inventoryCostRate;
-    private final double backlogCostRate;
-    private final double cCostRate;
-    private final double surplusTarget;
-    private final int    id;
-
-    // Variables
-    private double  cumulativeProduction;
-    private double  cumulativeDemand;
-    private double  surplus;
-    private double  inventory;
-    private double  backlog;
-    private boolean isUnderProduction = false;
+    private static HotPathLogger logger = HotPathLogger.getLogger(Item.class);
+
+    private final ItemStates states;
+    private final int        id;
+    // The row of the item in its store
+    private final int        row;
+    private boolean          isUnderProduction = false;
 
     public Item(int id, Params params) {
+        this(id, params, null);
+    }
+
+    /**
+     * Creates an item whose cumulative production and demand can accrue
+     * continuously with the time of the given clock. The item has an
+     * {@link ItemStates} of its own, so it shares no state with any other
+     * item.
+     * 
+     * @param id
+     * @param params
+     * @param clock
+     */
+    public Item(int id, Params params, Clock clock) {
+        this(ItemStates.forStandaloneItem(params, clock, id), id, 0);
+    }
+
+    /**
+     * Creates a view over the item with the given id in a store holding all
+     * the items of the params (e.g., to build a group of items for a test
+     * without a machine).
+     * 
+     * @param states
+     * @param id
+     */
+    public Item(ItemStates states, int id) {
+        this(states, id, id);
+    }
+
+    private Item(ItemStates states, int id, int row) {
+        this.states = states;
         this.id = id;
-        this.demandRate = params.getDemandRates().get(id);
-        this.productionRate = params.getProductionRates().get(id);
-        this.utilization = this.demandRate / this.productionRate;
-        this.setupTime = params.getSetupTimes().get(id);
-        setCumulativeDemand(params.getInitialDemand().get(id));
-        this.surplusTarget = params.getSurplusTargets().get(id);
-        this.inventoryCostRate = params.getInventoryHoldingCosts().get(id);
-        this.backlogCostRate = params.getBacklogCosts().get(id);
-        this.cCostRate = computeCCost(params.getBacklogCosts().get(id), params.getInventoryHoldingCosts().get(id));
-        logger.debug(String.format(
-                "Created item %d with demand rate %.3f, production rate %.3f, setup time %.3f, surplus target %.3f, "
-                        + "inventory holding cost %.3f, backlog cost %.3f, c-cost %.3f",
-                this.id, this.demandRate, this.productionRate, this.setupTime, this.surplusTarget,
-                this.inventoryCostRate, this.backlogCostRate, this.cCostRate));
+        this.row = row;
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(
+                    "Created item %d with demand rate %.3f, production rate %.3f, setup time %.3f, surplus target %.3f, "
+                            + "inventory holding cost %.3f, backlog cost %.3f, c-cost %.3f",
+                    this.id, getDemandRate(), getProductionRate(), getSetupTime(), getSurplusTarget(),
+                    getInventoryCostRate(), getBacklogCostRate(), getCCostRate()));
+        }
     }
 
     public String toString() {
         return "Item:" + id;
     }
 
+    /**
+     * Items are equal if they are views over the same row of the same
+     * {@link ItemStates}. Their hash code is their id, so that hash-based
+     * collections of items are iterated in the same order in every run of a
+     * sim, including a sim restored from a checkpoint.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Item)) {
+            return false;
+        }
+        Item otherItem = (Item) other;
+        return id == otherItem.id && states == otherItem.states;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
     public double getCumulativeProduction() {
-        return cumulativeProduction;
+        return states.getCumulativeProduction(row);
     }
 
     public void setCumulativeProduction(double cumulativeProduction) {
-        logger.debug("Setting the cum. production of item " + id + " to " + cumulativeProduction);
-        this.cumulativeProduction = cumulativeProduction;
-        updateSurplus();
+        states.setCumulativeProduction(row, cumulativeProduction);
     }
 
     public double getCumulativeDemand() {
-        return cumulativeDemand;
+        return states.getCumulativeDemand(row);
     }
 
     public void setCumulativeDemand(double cumulativeDemand) {
-        logger.debug("Setting the cum. demand of item " + id + " to " + cumulativeDemand);
-        this.cumulativeDemand = cumulativeDemand;
-        updateSurplus();
+        states.setCumulativeDemand(row, cumulativeDemand);
     }
 
-    private void updateSurplus() {
-        surplus = cumulativeProduction - cumulativeDemand;
-        inventory = Math.max(surplus, 0);
-        backlog = Math.max(-surplus, 0);
-        logger.trace("Item " + id + " surplus: " + surplus + " inventory: " + inventory + " backlog: " + backlog);
+    /**
+     * Sets the rate at which the cumulative production of the item grows with
+     * the time of the clock, starting now.
+     * 
+     * @param productionAccrualRate
+     */
+    public void setProductionAccrualRate(double productionAccrualRate) {
+        states.setProductionAccrualRate(row, productionAccrualRate);
+    }
+
+    /**
+     * Sets the rate at which the cumulative demand of the item grows with the
+     * time of the clock, starting now.
+     * 
+     * @param demandAccrualRate
+     */
+    public void setDemandAccrualRate(double demandAccrualRate) {
+        states.setDemandAccrualRate(row, demandAccrualRate);
     }
 
     public boolean onTarget() {
-        return Math.abs(surplus - surplusTarget) < Sim.SURPLUS_TOLERANCE ? true : false;
+        return Math.abs(getSurplus() - getSurplusTarget()) < Sim.SURPLUS_TOLERANCE ? true : false;
     }
 
     public boolean onOrAboveTarget() {
-        return onOrAboveSurplusValue(surplusTarget);
+        return onOrAboveSurplusValue(getSurplusTarget());
     }
 
     public boolean onOrAboveSurplusValue(double surplusValue) {
-        return surplus >= surplusValue - Sim.SURPLUS_TOLERANCE;
+        return getSurplus() >= surplusValue - Sim.SURPLUS_TOLERANCE;
     }
 
     /**
@@ -117,7 +163,7 @@ public class Item {
         if (surplusDiff <= 0) {
             return -surplusDiff / this.getDemandRate();
         } else {
-            return surplusDiff / (productionRate - demandRate);
+            return surplusDiff / (getProductionRate() - getDemandRate());
         }
     }
 
@@ -126,39 +172,43 @@ public class Item {
     }
 
     public double getSurplus() {
-        return surplus;
+        return states.getSurplus(row);
     }
 
     public double getSurplusDeviation() {
-        return surplusTarget - surplus;
+        return states.getSurplusDeviation(row);
     }
 
     public double getSurplusTarget() {
-        return surplusTarget;
+        return states.getSurplusTarget(row);
     }
 
     public double getInventory() {
-        return inventory;
+        return Math.max(getSurplus(), 0);
     }
 
     public double getBacklog() {
-        return backlog;
+        return Math.max(-getSurplus(), 0);
     }
 
     public double getDemandRate() {
-        return demandRate;
+        return states.getDemandRate(row);
     }
 
     public double getProductionTime() {
-        return productionRate;
+        return states.getProductionRate(row);
+    }
+
+    public double getUtilization() {
+        return getDemandRate() / getProductionRate();
     }
 
     public double getInventoryCostRate() {
-        return inventoryCostRate;
+        return states.getInventoryCostRate(row);
     }
 
     public double getBacklogCostRate() {
-        return backlogCostRate;
+        return states.getBacklogCostRate(row);
     }
 
     /**
@@ -172,15 +222,15 @@ public class Item {
      * @return c-cost
      */
     public double getCCostRate() {
-        return this.cCostRate;
+        return states.getCCostRate(row);
     }
 
     public double getSetupTime() {
-        return setupTime;
+        return states.getSetupTime(row);
     }
 
     public double getProductionRate() {
-        return productionRate;
+        return states.getProductionRate(row);
     }
 
     public boolean isUnderProduction() {
@@ -188,19 +238,20 @@ public class Item {
     }
 
     public void setUnderProduction() {
-        if (logger.isTraceEnabled()) {
-            logger.trace("Setting " + this + " under production");
-        }
+        logger.trace("Setting %s under production", this);
         isUnderProduction = true;
     }
 
     public void unsetUnderProduction() {
-        if (logger.isTraceEnabled()) {
-            logger.trace("Unsetting " + this + " under production");
-        }
+        logger.trace("Unsetting %s under production", this);
         isUnderProduction = false;
     }
 
+    @VisibleForTesting
+    ItemStates getStates() {
+        return states;
+    }
+
     @VisibleForTesting
     protected static double computeCCost(final double b, final double h) {
         if ( Double.isFinite(b) && Double.isFinite(h) ) {
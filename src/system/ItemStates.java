@@ -0,0 +1,279 @@
+package system;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import params.Params;
+import sim.CheckpointIO;
+import sim.Clock;
+import sim.ICheckpointable;
+import sim.TimeInstant;
+import util.HotPathLogger;
+
+/**
+ * Holds the parameters and the state of all the items of a machine in arrays indexed by item id, so that policies
+ * and metrics that scan every item on each decision can do so in tight loops over primitive values. The {@link Item}
+ * objects are views over a row of these arrays. An item created outside of a machine has a store of its own, with
+ * the item in its only row (see {@link #forStandaloneItem(Params, Clock, int)}).
+ * <p>
+ * Under continuous processes, the cumulative production and demand of an item grow linearly between changes in the
+ * state of the machine. Rather than updating every item on every event, the store keeps their values at an anchor
+ * time for each item, together with the rates at which they accrue, and evaluates them at the state time of the
+ * clock (see {@link Clock#getStateTime()}) when they are read. The rates are set by the production and demand
+ * processes, and each time that a rate or a value of an item is set, the item is re-anchored at the current time.
+ *
+ * @author ftubilla
+ *
+ */
+public class ItemStates implements ICheckpointable {
+
+    private static HotPathLogger logger = HotPathLogger.getLogger(ItemStates.class);
+
+    private final int           numItems;
+    private final Clock         clock;
+
+    // Parameters
+    private final double[]      demandRates;
+    private final double[]      productionRates;
+    private final double[]      setupTimes;
+    private final double[]      surplusTargets;
+    private final double[]      inventoryCostRates;
+    private final double[]      backlogCostRates;
+    private final double[]      cCostRates;
+
+    // Variables, as of the anchor time of each item
+    private final TimeInstant[] anchorTimes;
+    private final double[]      cumulativeProduction;
+    private final double[]      cumulativeDemand;
+    private final double[]      surplus;
+    private final double[]      productionAccrualRates;
+    private final double[]      demandAccrualRates;
+    private int                 numItemsAccruing;
+
+    /**
+     * Creates the store for the items in the given params. If the clock is <code>null</code>, the production and
+     * demand of the items can only be changed through discrete updates.
+     *
+     * @param params
+     * @param clock
+     */
+    public ItemStates(Params params, Clock clock) {
+        this(params, clock, 0, params.getNumItems());
+    }
+
+    /**
+     * Creates the store for the given number of items in the params, starting with the given id, so that the row of
+     * each item is its id minus the first id.
+     */
+    private ItemStates(Params params, Clock clock, int firstId, int numItems) {
+        this.numItems = numItems;
+        this.clock = clock;
+        this.demandRates = new double[numItems];
+        this.productionRates = new double[numItems];
+        this.setupTimes = new double[numItems];
+        this.surplusTargets = new double[numItems];
+        this.inventoryCostRates = new double[numItems];
+        this.backlogCostRates = new double[numItems];
+        this.cCostRates = new double[numItems];
+        this.anchorTimes = new TimeInstant[numItems];
+        this.cumulativeProduction = new double[numItems];
+        this.cumulativeDemand = new double[numItems];
+        this.surplus = new double[numItems];
+        this.productionAccrualRates = new double[numItems];
+        this.demandAccrualRates = new double[numItems];
+        for (int id = 0; id < numItems; id++) {
+            int paramsId = firstId + id;
+            demandRates[id] = params.getDemandRates().get(paramsId);
+            productionRates[id] = params.getProductionRates().get(paramsId);
+            setupTimes[id] = params.getSetupTimes().get(paramsId);
+            surplusTargets[id] = params.getSurplusTargets().get(paramsId);
+            inventoryCostRates[id] = params.getInventoryHoldingCosts().get(paramsId);
+            backlogCostRates[id] = params.getBacklogCosts().get(paramsId);
+            cCostRates[id] = Item.computeCCost(backlogCostRates[id], inventoryCostRates[id]);
+            anchorTimes[id] = clock == null ? null : clock.getStateTime();
+            cumulativeDemand[id] = params.getInitialDemand().get(paramsId);
+            surplus[id] = -cumulativeDemand[id];
+        }
+    }
+
+    /**
+     * Returns a store holding only the item with the given id, for an item created outside of a machine. The item
+     * is in the first row of the store.
+     *
+     * @param params
+     * @param clock
+     * @param id
+     * @return ItemStates
+     */
+    static ItemStates forStandaloneItem(Params params, Clock clock, int id) {
+        return new ItemStates(params, clock, id, 1);
+    }
+
+    public int getNumItems() {
+        return numItems;
+    }
+
+    public double getDemandRate(int id) {
+        return demandRates[id];
+    }
+
+    public double getProductionRate(int id) {
+        return productionRates[id];
+    }
+
+    public double getSetupTime(int id) {
+        return setupTimes[id];
+    }
+
+    public double getSurplusTarget(int id) {
+        return surplusTargets[id];
+    }
+
+    public double getInventoryCostRate(int id) {
+        return inventoryCostRates[id];
+    }
+
+    public double getBacklogCostRate(int id) {
+        return backlogCostRates[id];
+    }
+
+    public double getCCostRate(int id) {
+        return cCostRates[id];
+    }
+
+    public double getCumulativeProduction(int id) {
+        return cumulativeProduction[id] + productionAccrualRates[id] * getTimeSinceAnchor(id);
+    }
+
+    public double getCumulativeDemand(int id) {
+        return cumulativeDemand[id] + demandAccrualRates[id] * getTimeSinceAnchor(id);
+    }
+
+    public double getSurplus(int id) {
+        if (productionAccrualRates[id] == 0 && demandAccrualRates[id] == 0) {
+            return surplus[id];
+        }
+        return getCumulativeProduction(id) - getCumulativeDemand(id);
+    }
+
+    public double getSurplusDeviation(int id) {
+        return surplusTargets[id] - getSurplus(id);
+    }
+
+    /**
+     * Copies the current surplus of every item into the given array, which
+     * must have at least one entry per item.
+     *
+     * @param destination
+     */
+    public void copySurplus(double[] destination) {
+        if (numItemsAccruing > 0) {
+            for (int id = 0; id < numItems; id++) {
+                anchor(id);
+            }
+        }
+        System.arraycopy(surplus, 0, destination, 0, numItems);
+    }
+
+    void setCumulativeProduction(int id, double value) {
+        logger.debug("Setting the cum. production of item %d to %f", id, value);
+        anchor(id);
+        cumulativeProduction[id] = value;
+        updateSurplus(id);
+    }
+
+    void setCumulativeDemand(int id, double value) {
+        logger.debug("Setting the cum. demand of item %d to %f", id, value);
+        anchor(id);
+        cumulativeDemand[id] = value;
+        updateSurplus(id);
+    }
+
+    void setProductionAccrualRate(int id, double rate) {
+        if (rate != productionAccrualRates[id]) {
+            assert clock != null : "Cannot accrue production without a clock";
+            logger.trace("Setting the production accrual rate of item %d to %f", id, rate);
+            anchor(id);
+            updateAccruing(id, rate, demandAccrualRates[id]);
+            productionAccrualRates[id] = rate;
+        }
+    }
+
+    void setDemandAccrualRate(int id, double rate) {
+        if (rate != demandAccrualRates[id]) {
+            assert clock != null : "Cannot accrue demand without a clock";
+            logger.trace("Setting the demand accrual rate of item %d to %f", id, rate);
+            anchor(id);
+            updateAccruing(id, productionAccrualRates[id], rate);
+            demandAccrualRates[id] = rate;
+        }
+    }
+
+    private void updateAccruing(int id, double newProductionRate, double newDemandRate) {
+        boolean wasAccruing = productionAccrualRates[id] != 0 || demandAccrualRates[id] != 0;
+        boolean isAccruing = newProductionRate != 0 || newDemandRate != 0;
+        if (wasAccruing != isAccruing) {
+            numItemsAccruing += isAccruing ? 1 : -1;
+        }
+    }
+
+    /**
+     * Moves the anchor of the item to the current time, adding the production
+     * and demand accrued since the previous anchor.
+     */
+    private void anchor(int id) {
+        if (clock != null) {
+            double timeSinceAnchor = getTimeSinceAnchor(id);
+            if (timeSinceAnchor > 0) {
+                cumulativeProduction[id] += productionAccrualRates[id] * timeSinceAnchor;
+                cumulativeDemand[id] += demandAccrualRates[id] * timeSinceAnchor;
+                updateSurplus(id);
+            }
+            anchorTimes[id] = clock.getStateTime();
+        }
+    }
+
+    /**
+     * Writes the variables of the items. The parameters are not written, since
+     * they are set from the params when the store is created.
+     */
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        for (int id = 0; id < numItems; id++) {
+            CheckpointIO.writeTime(out, anchorTimes[id]);
+            out.writeDouble(cumulativeProduction[id]);
+            out.writeDouble(cumulativeDemand[id]);
+            out.writeDouble(surplus[id]);
+            out.writeDouble(productionAccrualRates[id]);
+            out.writeDouble(demandAccrualRates[id]);
+        }
+        out.writeInt(numItemsAccruing);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        for (int id = 0; id < numItems; id++) {
+            anchorTimes[id] = CheckpointIO.readTime(in);
+            cumulativeProduction[id] = in.readDouble();
+            cumulativeDemand[id] = in.readDouble();
+            surplus[id] = in.readDouble();
+            productionAccrualRates[id] = in.readDouble();
+            demandAccrualRates[id] = in.readDouble();
+        }
+        numItemsAccruing = in.readInt();
+    }
+
+    private double getTimeSinceAnchor(int id) {
+        if (productionAccrualRates[id] == 0 && demandAccrualRates[id] == 0) {
+            return 0;
+        }
+        return clock.getStateTime().doubleValueSince(anchorTimes[id]);
+    }
+
+    private void updateSurplus(int id) {
+        surplus[id] = cumulativeProduction[id] - cumulativeDemand[id];
+        logger.trace("Item %d surplus: %f", id, surplus[id]);
+    }
+
+}
@@ -1,20 +1,22 @@
 package system;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-
-import org.apache.log4j.Logger;
 
 import discreteEvent.MasterScheduler;
 import discreteEvent.ScheduleType;
 import lombok.Getter;
 import params.Params;
 import processes.production.IProductionProcess;
+import sim.CheckpointIO;
 import sim.Clock;
+import sim.ICheckpointable;
 import sim.TimeInstant;
+import util.HotPathLogger;
 
 /**
  * The main entity used in the sim. Holds the reference to the items that can be
@@ -23,11 +25,9 @@ import sim.TimeInstant;
  * @author ftubilla
  *
  */
-public class Machine implements Iterable<Item> {
-
-    private static Logger logger = Logger.getLogger(Machine.class);
+public class Machine implements Iterable<Item>, ICheckpointable {
 
-    public boolean trace = logger.isTraceEnabled();
+    private static HotPathLogger logger = HotPathLogger.getLogger(Machine.class);
 
     public static enum FailureState {
         UP, DOWN
@@ -38,7 +38,7 @@ public class Machine implements Iterable<Item> {
     };
 
     private Item               setup;
-    private Map<Integer, Item> itemMap;
+    private ItemStates         itemStates;
     private List<Item>         items;
     private OperationalState   operationalState;
     private FailureState       failureState;
@@ -46,7 +46,7 @@ public class Machine implements Iterable<Item> {
     private IProductionProcess productionProcess;
     private Clock              clock;
     private TimeInstant        changingOverUntil;
-    private Map<Item, TimeInstant>  lastSetupTime;
+    private TimeInstant[]      lastSetupTime;
     @Getter
     private final double       efficiency;
 
@@ -54,19 +54,17 @@ public class Machine implements Iterable<Item> {
 
         this.efficiency = params.getMachineEfficiency();
         int numItems = params.getNumItems();
-        itemMap = new HashMap<Integer, Item>(numItems);
+        itemStates = new ItemStates(params, clock);
         items = new ArrayList<Item>(numItems);
-        // Create items and itemSet
-        for (int id = 0; id < params.getNumItems(); id++) {
-            Item item = new Item(id, params);
-            items.add(item);
-            itemMap.put(id, item);
+        // Create the items as views over the item states
+        for (int id = 0; id < numItems; id++) {
+            items.add(new Item(itemStates, id));
         }
-        logger.debug("Creating a machine with " + itemMap.size() + " items");
+        logger.debug("Creating a machine with %d items", numItems);
 
         // Set the initial setup
         logger.info("Machine has initial setup " + params.getInitialSetup());
-        setup = itemMap.get(params.getInitialSetup());
+        setup = items.get(params.getInitialSetup());
 
         // Set the machine state
         failureState = FailureState.UP;
@@ -74,7 +72,7 @@ public class Machine implements Iterable<Item> {
 
         this.masterScheduler = masterScheduler;
         this.clock = clock;
-        this.lastSetupTime = new HashMap<>();
+        this.lastSetupTime = new TimeInstant[numItems];
     }
 
     public Item getSetup() {
@@ -105,32 +103,33 @@ public class Machine implements Iterable<Item> {
         assert isSetupComplete() : "The machine cannot fail while it is changing setups!";
         logger.debug("Setting the machine to FailureState DOWN");
         this.failureState = FailureState.DOWN;
+        noteStateChange();
         interruptProduction();
     }
 
     public void repair() {
         logger.debug("Setting the machine to FailureState UP");
         this.failureState = FailureState.UP;
+        noteStateChange();
         resumeProduction();
     }
 
     public void startChangeover(Item newSetup) {
-        logger.debug("Starting setup change from " + setup + " to " + newSetup);
+        logger.debug("Starting setup change from %s to %s", setup, newSetup);
         assert operationalState != OperationalState.SETUP : "The machine is already changing setups";
         assert failureState != FailureState.DOWN : "The machine cannot change setups while it's down";
         this.changingOverUntil = clock.getTime().add(newSetup.getSetupTime());
         setup.unsetUnderProduction();
         setup = newSetup;
         operationalState = OperationalState.SETUP;
-        lastSetupTime.put(newSetup, clock.getTime());
+        noteStateChange();
+        lastSetupTime[newSetup.getId()] = clock.getTime();
     }
 
     public boolean isSetupComplete() {
         if (this.operationalState == OperationalState.SETUP) {
-            if (trace) {
-                logger.trace("It is currently " + clock.getTime() + " and the machine will be changing over until "
-                        + changingOverUntil);
-            }
+            logger.trace("It is currently %s and the machine will be changing over until %s", clock.getTime(),
+                    changingOverUntil);
             return clock.hasReachedEpoch(changingOverUntil);
         } else {
             return true;
@@ -142,6 +141,7 @@ public class Machine implements Iterable<Item> {
         if (!isIdling()) {
             logger.debug("The machine is set to IDLE");
             this.operationalState = OperationalState.IDLE;
+            noteStateChange();
             interruptProduction();
         }
     }
@@ -154,6 +154,7 @@ public class Machine implements Iterable<Item> {
             assert failureState != FailureState.DOWN : "The machine cannot cruise if it's down";
             logger.debug("The machine is set to CRUISE");
             this.operationalState = OperationalState.CRUISE;
+            noteStateChange();
         }
     }
 
@@ -163,6 +164,7 @@ public class Machine implements Iterable<Item> {
             assert failureState != FailureState.DOWN : "The machine cannot sprint if it's down";
             logger.debug("The machine is set to SPRINT");
             this.operationalState = OperationalState.SPRINT;
+            noteStateChange();
             resumeProduction();
         }
     }
@@ -180,6 +182,16 @@ public class Machine implements Iterable<Item> {
         return items.size();
     }
 
+    /**
+     * Returns the parameters and state of the items, stored in arrays indexed
+     * by item id.
+     * 
+     * @return itemStates
+     */
+    public ItemStates getItemStates() {
+        return itemStates;
+    }
+
     public void setProductionProcess(IProductionProcess productionProcess) {
         this.productionProcess = productionProcess;
     }
@@ -212,6 +224,12 @@ public class Machine implements Iterable<Item> {
         return operationalState == OperationalState.SETUP;
     }
 
+    private void noteStateChange() {
+        if (productionProcess != null) {
+            productionProcess.noteMachineStateChange(this);
+        }
+    }
+
     private void resumeProduction() {
         logger.trace("Resuming production of machine");
         setup.setUnderProduction();
@@ -239,7 +257,37 @@ public class Machine implements Iterable<Item> {
      * @return timeInstant
      */
     public TimeInstant getLastSetupTime(Item item) {
-        return this.lastSetupTime.get(item);
+        return this.lastSetupTime[item.getId()];
+    }
+
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        itemStates.writeState(out);
+        CheckpointIO.writeItem(out, setup);
+        out.writeInt(operationalState.ordinal());
+        out.writeInt(failureState.ordinal());
+        CheckpointIO.writeTime(out, changingOverUntil);
+        for (Item item : items) {
+            CheckpointIO.writeTime(out, lastSetupTime[item.getId()]);
+            out.writeBoolean(item.isUnderProduction());
+        }
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        itemStates.readState(in);
+        setup = CheckpointIO.readItem(in, this);
+        operationalState = OperationalState.values()[in.readInt()];
+        failureState = FailureState.values()[in.readInt()];
+        changingOverUntil = CheckpointIO.readTime(in);
+        for (Item item : items) {
+            lastSetupTime[item.getId()] = CheckpointIO.readTime(in);
+            if (in.readBoolean()) {
+                item.setUnderProduction();
+            } else {
+                item.unsetUnderProduction();
+            }
+        }
     }
 
 }
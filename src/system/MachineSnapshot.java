@@ -1,40 +1,63 @@
 package system;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-
-import org.apache.log4j.Logger;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 
+import sim.CheckpointIO;
 import sim.Clock;
 import sim.TimeInstant;
+import util.HotPathLogger;
 
 public class MachineSnapshot {
-    private static Logger logger = Logger.getLogger(MachineSnapshot.class);
-
-    @SuppressWarnings("unused")
-    private boolean debug = logger.isDebugEnabled();
-    private boolean trace = logger.isTraceEnabled();
+    private static HotPathLogger logger = HotPathLogger.getLogger(MachineSnapshot.class);
 
-    private Map<Item, Double> surplus;
-    private Map<Item, Double> surplusDeviations;
-    private TimeInstant            snapshotTime;
+    private ItemStates  itemStates;
+    private double[]    surplus;
+    private TimeInstant snapshotTime;
 
     public MachineSnapshot(Machine machine, Clock clock) {
 
-        if (trace) {
-            logger.trace("Creating snapshot of the machine at time " + clock.getTime());
-        }
+        logger.trace("Creating snapshot of the machine at time %s", clock.getTime());
         snapshotTime = clock.getTime();
-        surplus = new LinkedHashMap<Item, Double>();
-        surplusDeviations = new LinkedHashMap<Item, Double>();
-        for (Item item : machine) {
-            surplus.put(item, item.getSurplus());
-            surplusDeviations.put(item, item.getSurplusDeviation());
+        itemStates = machine.getItemStates();
+        surplus = new double[itemStates.getNumItems()];
+        itemStates.copySurplus(surplus);
+    }
+
+    private MachineSnapshot(ItemStates itemStates, double[] surplus, TimeInstant snapshotTime) {
+        this.itemStates = itemStates;
+        this.surplus = surplus;
+        this.snapshotTime = snapshotTime;
+    }
+
+    /**
+     * Reads a snapshot of the given machine written by
+     * {@link #writeState(DataOutputStream)}.
+     * 
+     * @param in
+     * @param machine
+     * @return snapshot
+     * @throws IOException
+     */
+    public static MachineSnapshot read(DataInputStream in, Machine machine) throws IOException {
+        TimeInstant snapshotTime = CheckpointIO.readTime(in);
+        double[] surplus = new double[machine.getNumItems()];
+        for (int id = 0; id < surplus.length; id++) {
+            surplus[id] = in.readDouble();
+        }
+        return new MachineSnapshot(machine.getItemStates(), surplus, snapshotTime);
+    }
+
+    public void writeState(DataOutputStream out) throws IOException {
+        CheckpointIO.writeTime(out, snapshotTime);
+        for (double value : surplus) {
+            out.writeDouble(value);
         }
     }
 
     public double getSurplusDeviation(Item item) {
-        return surplusDeviations.get(item);
+        return itemStates.getSurplusTarget(item.getId()) - surplus[item.getId()];
     }
 
     public TimeInstant getSnapshotTime() {
@@ -42,9 +65,7 @@ public class MachineSnapshot {
     }
 
     public double getSurplus(Item item) {
-        return surplus.get(item);
+        return surplus[item.getId()];
     }
 
 }
-
-
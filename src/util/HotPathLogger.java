@@ -0,0 +1,181 @@
+package util;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A thin wrapper around a log4j logger for code that runs on every event. The message of a trace or debug call is
+ * given as a format string (see {@link String#format(String, Object...)}) plus its arguments, and it is only built if
+ * the level is enabled. There are overloads taking primitive arguments so that they are not boxed, and no varargs
+ * overloads so that no array is created. Thus, a disabled call does not allocate any memory. For messages that do not
+ * fit any of the overloads, guard the call with {@link #isTraceEnabled()} or {@link #isDebugEnabled()}.
+ *
+ * @author ftubilla
+ *
+ */
+public final class HotPathLogger {
+
+    private final Logger logger;
+
+    public static HotPathLogger getLogger(Class<?> clazz) {
+        return new HotPathLogger(Logger.getLogger(clazz));
+    }
+
+    private HotPathLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    public boolean isTraceEnabled() {
+        return logger.isTraceEnabled();
+    }
+
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public void trace(String message) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(message);
+        }
+    }
+
+    public void trace(String format, Object arg) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg));
+        }
+    }
+
+    public void trace(String format, Object arg1, Object arg2) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void trace(String format, Object arg1, Object arg2, Object arg3) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    public void trace(String format, long arg) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg));
+        }
+    }
+
+    public void trace(String format, double arg) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg));
+        }
+    }
+
+    public void trace(String format, Object arg1, long arg2) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void trace(String format, Object arg1, double arg2) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void trace(String format, long arg1, double arg2) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void trace(String format, double arg1, double arg2) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void trace(String format, long arg1, double arg2, double arg3, double arg4) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(String.format(format, arg1, arg2, arg3, arg4));
+        }
+    }
+
+    public void debug(String message) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(message);
+        }
+    }
+
+    public void debug(String format, Object arg) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(format, arg));
+        }
+    }
+
+    public void debug(String format, Object arg1, Object arg2) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void debug(String format, Object arg1, Object arg2, Object arg3) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    public void debug(String format, long arg) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(format, arg));
+        }
+    }
+
+    public void debug(String format, double arg) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(format, arg));
+        }
+    }
+
+    public void debug(String format, Object arg1, long arg2) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void debug(String format, Object arg1, double arg2) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void debug(String format, long arg1, double arg2) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void debug(String format, double arg1, double arg2) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format(format, arg1, arg2));
+        }
+    }
+
+    public void info(String message) {
+        logger.info(message);
+    }
+
+    public void warn(String message) {
+        logger.warn(message);
+    }
+
+    public void error(String message) {
+        logger.error(message);
+    }
+
+    public void error(String message, Throwable throwable) {
+        logger.error(message, throwable);
+    }
+
+    public void fatal(String message) {
+        logger.fatal(message);
+    }
+
+}
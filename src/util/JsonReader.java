@@ -1,8 +1,11 @@
 package util;
 
 import java.io.File;
+import java.io.IOException;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -34,11 +37,7 @@ public class JsonReader {
     public static <T> T readJson(File file, Class<T> clazz) {
         T object = null;
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new Jdk8Module());
-            mapper.registerModule(new GuavaModule());
-            mapper.configure(JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS, true);
-            object = mapper.readValue(file, clazz);
+            object = newMapper().readValue(file, clazz);
         } catch (Exception e) {
             log.fatal("Problem reading json file " + file);
             e.printStackTrace();
@@ -47,5 +46,39 @@ public class JsonReader {
         return object;
     }
 
+    /**
+     * Writes the given object as a json string that can be read back with
+     * {@link #readJson(String, Class)}.
+     * 
+     * @param object
+     * @return json
+     * @throws JsonProcessingException
+     */
+    public static String toJson(Object object) throws JsonProcessingException {
+        return newMapper().writeValueAsString(object);
+    }
+
+    /**
+     * Reads an object from a json string written by {@link #toJson(Object)}.
+     * Unlike the json files, the string may hold derived properties (i.e.,
+     * those with a getter but no setter), which are ignored.
+     * 
+     * @param json
+     * @param clazz
+     * @return object
+     * @throws IOException
+     */
+    public static <T> T readJson(String json, Class<T> clazz) throws IOException {
+        return newMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false).readValue(json, clazz);
+    }
+
+    private static ObjectMapper newMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new Jdk8Module());
+        mapper.registerModule(new GuavaModule());
+        mapper.configure(JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS, true);
+        return mapper;
+    }
+
 }
 
@@ -37,4 +37,42 @@ public class EventTest extends SimBasicTest {
 
     }
 
+    @Test
+    public void testBeforeEventListenersSeeThePreviousTime() {
+
+        Params params = Params.builder()
+                .numItems(2)
+                .demandRates(c(0.1, 0.2))
+                .productionRates(c(1.0, 1.0))
+                .setupTimes(c(1.0, 1.0))
+                .surplusTargets(c(0.0, 0.0))
+                .initialDemand(c(0.0, 0.0))
+                .build();
+        Sim sim = getSim(params);
+        final TimeInstant[] listenerTime = new TimeInstant[1];
+        final double[] listenerSurplus = new double[1];
+        sim.getListenersCoordinator().addBeforeEventListener(new IEventListener() {
+            @Override
+            public void execute(EventContext context, Sim sim) {
+                listenerTime[0] = sim.getTime();
+                listenerSurplus[0] = sim.getMachine().getItemById(1).getSurplus();
+            }
+
+            @Override
+            public int getId() {
+                return 0;
+            }
+        });
+
+        new DummyEvent(10, ScheduleType.DEMAND).handle(sim);
+
+        // The sim time is advanced after the listeners, but they see the
+        // surplus at the time of the event
+        assertEquals( TimeInstant.at(0), listenerTime[0] );
+        assertEquals( -2.0, listenerSurplus[0], 1e-9 );
+        assertEquals( TimeInstant.at(10), sim.getTime() );
+        assertEquals( -2.0, sim.getMachine().getItemById(1).getSurplus(), 1e-9 );
+
+    }
+
 }
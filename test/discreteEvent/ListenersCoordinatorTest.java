@@ -0,0 +1,49 @@
+package discreteEvent;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import discreteEvent.ListenersCoordinator.Phase;
+import sim.Sim;
+
+public class ListenersCoordinatorTest {
+
+    @Test
+    public void testListenersByEventClassAndPhase() {
+
+        ListenersCoordinator coordinator = new ListenersCoordinator();
+        IEventListener allEvents = new DummyListener();
+        IEventListener recordingOnly = new DummyListener();
+        IEventListener controlOnly = new DummyListener();
+        IEventListener transientFailures = new DummyListener();
+        coordinator.addAfterEventListener(allEvents);
+        coordinator.addAfterEventListener(recordingOnly, Phase.METRICS_RECORDING);
+        coordinator.addAfterEventListener(controlOnly, Phase.ALL, ControlEvent.class);
+        coordinator.addAfterEventListener(transientFailures, Phase.TRANSIENT, Failure.class);
+
+        assertArrayEquals(new IEventListener[] { allEvents, transientFailures },
+                coordinator.getAfterEventListeners(Failure.class, false));
+        assertArrayEquals(new IEventListener[] { allEvents, recordingOnly },
+                coordinator.getAfterEventListeners(Failure.class, true));
+        // Subclasses of the subscribed event class are included
+        assertArrayEquals(new IEventListener[] { allEvents, recordingOnly, controlOnly },
+                coordinator.getAfterEventListeners(SurplusControlEvent.class, true));
+        assertEquals(0, coordinator.getBeforeEventListeners(Failure.class, true).length);
+
+        // Adding a listener updates the cached arrays
+        IEventListener beforeListener = new DummyListener();
+        coordinator.addBeforeEventListener(beforeListener);
+        assertArrayEquals(new IEventListener[] { beforeListener },
+                coordinator.getBeforeEventListeners(Failure.class, true));
+
+    }
+
+    private static class DummyListener extends EventListener {
+        @Override
+        public void execute(EventContext context, Sim sim) {
+        }
+    }
+
+}
@@ -4,6 +4,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -57,4 +61,144 @@ public class MasterSchedulerTest extends SimBasicTest {
         assertEquals( new TimeInstant(44), masterScheduler.nextEventTime() );
     }
 
+    @Test
+    public void testTiesBrokenByScheduleType() {
+        MasterScheduler masterScheduler = new MasterScheduler(new Clock(0));
+        Event repair = new DummyEvent(1, ScheduleType.REPAIRS);
+        Event control = new DummyEvent(1, ScheduleType.CONTROL);
+        Event failure = new DummyEvent(1, ScheduleType.FAILURES);
+        Event demand = new DummyEvent(1, ScheduleType.DEMAND);
+        Event production = new DummyEvent(0.5, ScheduleType.PRODUCTION);
+        masterScheduler.addEvent(repair);
+        masterScheduler.addEvent(control);
+        masterScheduler.addEvent(failure);
+        masterScheduler.addEvent(demand);
+        masterScheduler.addEvent(production);
+        assertEquals( production, masterScheduler.getNextEvent() );
+        assertEquals( demand, masterScheduler.getNextEvent() );
+        assertEquals( control, masterScheduler.getNextEvent() );
+        assertEquals( failure, masterScheduler.getNextEvent() );
+        assertEquals( repair, masterScheduler.getNextEvent() );
+        assertEquals( null, masterScheduler.getNextEvent() );
+    }
+
+    @Test
+    public void testHeldEventsAreSkipped() {
+        Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.getTime()).thenReturn(new TimeInstant(0));
+        MasterScheduler masterScheduler = new MasterScheduler(clock);
+        Event failure = new DummyEvent(1, ScheduleType.FAILURES);
+        Event repair = new DummyEvent(5, ScheduleType.REPAIRS);
+        masterScheduler.addEvent(failure);
+        masterScheduler.addEvent(repair);
+        masterScheduler.holdDelayableEvents();
+        assertEquals( new TimeInstant(5), masterScheduler.nextEventTime() );
+        Mockito.when(clock.getTime()).thenReturn(new TimeInstant(5));
+        assertEquals( repair, masterScheduler.getNextEvent() );
+        masterScheduler.releaseAndDelayEvents();
+        assertEquals( failure, masterScheduler.getNextEvent() );
+        assertEquals( new TimeInstant(6), failure.getTime() );
+    }
+
+    @Test
+    public void testControlRequestsAreCoalesced() {
+        Clock clock = new Clock(0);
+        MasterScheduler masterScheduler = new MasterScheduler(clock);
+        masterScheduler.requestControl(new TimeInstant(3));
+        masterScheduler.requestControl(new TimeInstant(2));
+        masterScheduler.addEvent(new ControlEvent(new TimeInstant(4)));
+        masterScheduler.addEvent(new DummyEvent(2, ScheduleType.DEMAND));
+        assertEquals( 2, masterScheduler.getTransientCoalescedControlRequests() );
+
+        // The demand event goes first, then the earliest control event
+        assertEquals( ScheduleType.DEMAND, masterScheduler.getNextEvent().getScheduleType() );
+        Event control = masterScheduler.getNextEvent();
+        assertEquals( ControlEvent.class, control.getClass() );
+        assertEquals( new TimeInstant(2), control.getTime() );
+        assertTrue( masterScheduler.eventsComplete() );
+
+        // A new request does not modify the control event that was returned
+        masterScheduler.requestControl(new TimeInstant(5));
+        assertEquals( new TimeInstant(2), control.getTime() );
+        assertEquals( new TimeInstant(5), masterScheduler.nextEventTime() );
+        masterScheduler.dumpEvents();
+        assertTrue( masterScheduler.eventsComplete() );
+    }
+
+    @Test
+    public void testSameTimeEventsAreFirstInFirstOut() {
+        MasterScheduler masterScheduler = new MasterScheduler(new Clock(0));
+        Event[] events = new Event[20];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new DummyEvent(1, ScheduleType.DEMAND);
+            masterScheduler.addEvent(events[i]);
+            assertEquals( i, events[i].getId() );
+        }
+        for (int i = 0; i < events.length; i++) {
+            assertEquals( events[i], masterScheduler.getNextEvent() );
+        }
+    }
+
+    @Test
+    public void testTriggersByScheduleTypeAndClass() {
+        MasterScheduler masterScheduler = new MasterScheduler(new Clock(0));
+        final List<Event> anyEvent = new ArrayList<>();
+        final List<Event> failures = new ArrayList<>();
+        final List<Event> controls = new ArrayList<>();
+        masterScheduler.addTrigger(new AbstractScheduleTrigger() {
+            @Override
+            public void trigger(Event eventAdded) {
+                anyEvent.add(eventAdded);
+            }
+        });
+        masterScheduler.addTrigger(new AbstractScheduleTrigger() {
+            @Override
+            public void trigger(Event eventAdded) {
+                failures.add(eventAdded);
+            }
+        }, ScheduleType.FAILURES);
+        masterScheduler.addTrigger(new AbstractScheduleTrigger() {
+            @Override
+            public void trigger(Event eventAdded) {
+                controls.add(eventAdded);
+            }
+        }, ControlEvent.class);
+
+        Event demand = new DummyEvent(1, ScheduleType.DEMAND);
+        Event failure = new DummyEvent(2, ScheduleType.FAILURES);
+        masterScheduler.addEvent(demand);
+        masterScheduler.addEvent(failure);
+        masterScheduler.addEvent(new DummyEvent(3, ScheduleType.FAILURES));
+        masterScheduler.requestControl(new TimeInstant(4));
+
+        // Each trigger is called only once, for the first matching event
+        assertEquals( Arrays.asList(demand), anyEvent );
+        assertEquals( Arrays.asList(failure), failures );
+        assertEquals( 1, controls.size() );
+        assertEquals( ControlEvent.class, controls.get(0).getClass() );
+    }
+
+    @Test
+    public void testCoalescedControlRequestsDoNotCallTriggers() {
+        MasterScheduler masterScheduler = new MasterScheduler(new Clock(0));
+        masterScheduler.requestControl(new TimeInstant(4));
+        final List<Event> controls = new ArrayList<>();
+        masterScheduler.addTrigger(new AbstractScheduleTrigger() {
+            @Override
+            public void trigger(Event eventAdded) {
+                controls.add(eventAdded);
+            }
+        }, ControlEvent.class);
+
+        // Both requests are merged into the pending control event
+        masterScheduler.requestControl(new TimeInstant(5));
+        masterScheduler.requestControl(new TimeInstant(3));
+        assertTrue( controls.isEmpty() );
+        assertEquals( new TimeInstant(3), masterScheduler.nextEventTime() );
+
+        masterScheduler.getNextEvent();
+        masterScheduler.requestControl(new TimeInstant(6));
+        assertEquals( 1, controls.size() );
+    }
+
 }
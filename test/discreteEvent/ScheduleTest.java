@@ -52,4 +52,54 @@ public class ScheduleTest extends SimBasicTest {
 
     }
 
+    @Test
+    public void testEventsAddedAfterDelay() {
+
+        Schedule schedule = new Schedule(ScheduleType.PRODUCTION, new Clock(0));
+
+        Event event1 = new DummyEvent(1, ScheduleType.PRODUCTION);
+        Event event2 = new DummyEvent(3, ScheduleType.PRODUCTION);
+        schedule.addEvent(event1);
+        schedule.addEvent(event2);
+        schedule.delayEvents(TimeInstant.at(5));
+        // This event should be sequenced between the two delayed events
+        Event event3 = new DummyEvent(7, ScheduleType.PRODUCTION);
+        schedule.addEvent(event3);
+        schedule.delayEvents(TimeInstant.at(1));
+
+        assertEquals(TimeInstant.at(7), schedule.nextEventTime());
+        assertEquals(event1, schedule.getNextEvent());
+        assertEquals(event3, schedule.getNextEvent());
+        assertEquals(TimeInstant.at(8), event3.getTime());
+        assertEquals(event2, schedule.getNextEvent());
+        assertEquals(TimeInstant.at(9), event2.getTime());
+        assertTrue(schedule.eventsComplete());
+
+    }
+
+    @Test
+    public void testQueuedEventsShowTheirDelayedTime() {
+
+        Schedule schedule = new Schedule(ScheduleType.PRODUCTION, new Clock(0));
+
+        Event event1 = new DummyEvent(1, ScheduleType.PRODUCTION);
+        Event event2 = new DummyEvent(3, ScheduleType.PRODUCTION);
+        schedule.addEvent(event1);
+        schedule.addEvent(event2);
+        schedule.delayEvents(TimeInstant.at(5));
+        // The event behind the head is read before it is polled
+        assertEquals(TimeInstant.at(8), event2.getTime());
+        schedule.delayEvents(TimeInstant.at(1));
+        assertEquals(TimeInstant.at(9), event2.getTime());
+        assertEquals(TimeInstant.at(7), event1.getTime());
+
+        // Dumped events keep the time at which they were dumped
+        Schedule dumpable = new Schedule(ScheduleType.CONTROL, new Clock(0));
+        Event event3 = new DummyEvent(2, ScheduleType.CONTROL);
+        dumpable.addEvent(event3);
+        dumpable.dumpEvents();
+        assertEquals(TimeInstant.at(2), event3.getTime());
+
+    }
+
 }
@@ -0,0 +1,73 @@
+package metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import params.Params;
+import sim.Sim;
+import util.SimBasicTest;
+
+public class BatchMeansCostMetricsTest extends SimBasicTest {
+
+    private static final double UNREACHABLE_TARGET = 1e-12;
+
+    @Test
+    public void testNoBatchMeansWithoutTarget() {
+        Sim sim = runSim(0.0);
+        assertNull(sim.getMetrics().getBatchMeansCostMetrics());
+        assertFalse(sim.hasConverged());
+        assertTrue(sim.getTime().doubleValue() >= 1000);
+        assertEquals(sim.getTime().doubleValue(), sim.getDerivedParams().getRunLength(), 0);
+        assertTrue(Double.isNaN(sim.getDerivedParams().getBatchMeansStandardError()));
+    }
+
+    @Test
+    public void testRunsToTheFinalTimeIfTheTargetIsNotReached() {
+        Sim sim = runSim(UNREACHABLE_TARGET);
+        BatchMeansCostMetrics metrics = sim.getMetrics().getBatchMeansCostMetrics();
+        assertFalse(sim.hasConverged());
+        assertTrue(sim.getTime().doubleValue() >= 1000);
+        // 90 batches of length 10 are merged once into batches of length 20
+        assertEquals(20.0, metrics.getBatchLength(), 0);
+        assertTrue(metrics.getNumBatches() >= BatchMeansCostMetrics.MAX_BATCHES / 2);
+        assertTrue(metrics.getStandardError() > 0);
+        assertEquals(sim.getTime().doubleValue(), sim.getDerivedParams().getRunLength(), 0);
+        assertEquals(metrics.getStandardError(), sim.getDerivedParams().getBatchMeansStandardError(), 0);
+    }
+
+    @Test
+    public void testStopsOnceTheTargetIsReached() {
+        double target = runSim(UNREACHABLE_TARGET).getMetrics().getBatchMeansCostMetrics().getStandardError() * 10;
+        Sim sim = runSim(target);
+        assertTrue(sim.hasConverged());
+        assertTrue(sim.getTime().doubleValue() < 1000);
+        assertEquals(BatchMeansCostMetrics.MIN_BATCHES, sim.getDerivedParams().getBatchMeansNumBatches());
+        assertTrue(sim.getDerivedParams().getBatchMeansStandardError() <= target);
+        assertEquals(sim.getTime().doubleValue(), sim.getDerivedParams().getRunLength(), 0);
+
+        // The batches after the stop are left out of the batched metrics
+        double[] batchedCosts = sim.getMetrics().getBatchedAverageSurplusMetrics().getBatchedAverageCosts();
+        assertTrue(batchedCosts.length > 0);
+        assertTrue(batchedCosts.length < sim.getParams().getNumBatchesForBatchedMetrics());
+        for (double cost : batchedCosts) {
+            assertTrue(cost > 0);
+        }
+    }
+
+    private Sim runSim(double targetStandardError) {
+        Params params = getThreeItemParams("ClearTheLargestDeviationPolicy")
+                .metricsStartTime(100)
+                .finalTime(1000)
+                .batchMeansTargetStandardError(targetStandardError)
+                .batchMeansInitialBatchLength(10)
+                .build();
+        Sim sim = newSim(params);
+        sim.run(false);
+        return sim;
+    }
+
+}
@@ -0,0 +1,220 @@
+package output;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import params.Params;
+import params.ParamsFactory;
+import sim.Sim;
+import sim.SimSetup;
+import sim.TimeInstant;
+
+public class ColumnarReaderTest {
+
+    private static final RecorderOptions BINARY = RecorderOptions.builder().format(OutputFormat.BINARY).build();
+
+    enum Column {
+        SIM_ID, TIME, ITEM, EVENT, VALUE
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        File file = new File(folder.getRoot(), "rows.bin");
+        Recorder recorder = new Recorder(file.getPath(), BINARY);
+        recorder.writeHeader(Column.class);
+        Object[] row = new Object[5];
+        row[0] = 3;
+        row[1] = new TimeInstant(1.5);
+        row[2] = 0;
+        row[3] = "FAILURE";
+        row[4] = -2.25;
+        recorder.record(row);
+        // The recorders may reuse the row
+        row[2] = "NA";
+        row[4] = Double.NaN;
+        recorder.record(row);
+        recorder.record("4 2.0 1 REPAIR a value with spaces");
+        recorder.close();
+
+        ColumnarReader reader = new ColumnarReader(file);
+        assertEquals(Arrays.asList("SIM_ID", "TIME", "ITEM", "EVENT", "VALUE"), reader.getColumnNames());
+        List<Object[]> rows = reader.readAll();
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[] { 3L, 1.5, "0", "FAILURE", "-2.25" }, rows.get(0));
+        assertArrayEquals(new Object[] { 3L, 1.5, "NA", "FAILURE", "NaN" }, rows.get(1));
+        assertArrayEquals(new Object[] { 4L, 2.0, "1", "REPAIR", "a value with spaces" }, rows.get(2));
+        assertEquals(1, reader.read("ITEM", 1, 1).size());
+    }
+
+    @Test
+    public void testFiltersSkipBlocks() throws Exception {
+        File file = new File(folder.getRoot(), "rows.bin");
+        Recorder recorder = new Recorder(file.getPath(), BINARY);
+        recorder.writeHeader(Column.class);
+        int numSims = 5;
+        int numRows = 3 * Recorder.BLOCK_NUM_ROWS;
+        for (int simId = 0; simId < numSims; simId++) {
+            for (int i = 0; i < numRows; i++) {
+                recorder.record(new Object[] { simId, new TimeInstant(i * 0.1), i % 3, "EVENT", 1.0 * i });
+            }
+            recorder.handOffBufferedRows();
+        }
+        recorder.close();
+
+        ColumnarReader reader = new ColumnarReader(file);
+        assertEquals(numSims * 3, reader.getNumBlocks());
+        assertEquals(numSims * numRows, reader.getNumRows());
+        List<Object[]> simRows = reader.readSim(2);
+        assertEquals(numRows, simRows.size());
+        for (int i = 0; i < numRows; i++) {
+            assertEquals(2L, simRows.get(i)[0]);
+            assertEquals((long) (i % 3), simRows.get(i)[2]);
+            assertEquals(1.0 * i, (Double) simRows.get(i)[4], 0);
+        }
+        assertEquals("Only the blocks of the sim are decoded", 3, reader.getNumDecodedBlocks());
+
+        List<Object[]> timeRows = new ColumnarReader(file).readTimeRange(0.0, 0.45);
+        assertEquals(numSims * 5, timeRows.size());
+    }
+
+    @Test
+    public void testColumnTypesAreFixedByTheFirstBlock() throws Exception {
+        File file = new File(folder.getRoot(), "rows.bin");
+        Recorder recorder = new Recorder(file.getPath(), BINARY);
+        recorder.writeHeader(Column.class);
+        recorder.record(new Object[] { 0, 0.5, "NA", "EVENT", 1.5 });
+        recorder.handOffBufferedRows();
+        recorder.record(new Object[] { 1, 1.0, 2, "EVENT", 2 });
+        recorder.close();
+        // Appending keeps the types in the header
+        recorder = new Recorder(file.getPath(), BINARY.toBuilder().append(true).build());
+        recorder.writeHeader(Column.class);
+        recorder.record(new Object[] { 2, 2, 3, "EVENT", 3L });
+        recorder.close();
+
+        ColumnarReader reader = new ColumnarReader(file);
+        assertArrayEquals(new byte[] { ColumnarFormat.TYPE_LONG, ColumnarFormat.TYPE_DOUBLE,
+                ColumnarFormat.TYPE_STRING, ColumnarFormat.TYPE_STRING, ColumnarFormat.TYPE_DOUBLE },
+                reader.getColumnTypes());
+        List<Object[]> rows = reader.readAll();
+        assertEquals(3, reader.getNumBlocks());
+        assertArrayEquals(new Object[] { 1L, 1.0, "2", "EVENT", 2.0 }, rows.get(1));
+        assertArrayEquals(new Object[] { 2L, 2.0, "3", "EVENT", 3.0 }, rows.get(2));
+    }
+
+    @Test
+    public void testAppendAfterBlockCutShort() throws Exception {
+        File file = new File(folder.getRoot(), "rows.bin");
+        Recorder recorder = new Recorder(file.getPath(), BINARY);
+        recorder.writeHeader(Column.class);
+        for (int i = 0; i < Recorder.BLOCK_NUM_ROWS + 904; i++) {
+            recorder.record(new Object[] { 0, 0.1 * i, i % 3, "EVENT", 1.0 * i });
+        }
+        recorder.close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 100);
+        }
+        recorder = new Recorder(file.getPath(), BINARY.toBuilder().append(true).build());
+        recorder.writeHeader(Column.class);
+        for (int i = 0; i < 10; i++) {
+            recorder.record(new Object[] { 1, 0.1 * i, i % 3, "EVENT", 1.0 * i });
+        }
+        recorder.close();
+
+        ColumnarReader reader = new ColumnarReader(file);
+        assertEquals(2, reader.getNumBlocks());
+        assertEquals(Recorder.BLOCK_NUM_ROWS, reader.readSim(0).size());
+        assertEquals(10, reader.readSim(1).size());
+    }
+
+    @Test
+    public void testAppendKeepsOnlyTheGivenSims() throws Exception {
+        File file = new File(folder.getRoot(), "rows.bin");
+        Recorder recorder = new Recorder(file.getPath(), BINARY);
+        recorder.writeHeader(Column.class);
+        for (int simId = 0; simId < 3; simId++) {
+            recorder.record(new Object[] { simId, 0.5, 0, "EVENT", 1.0 });
+        }
+        recorder.close();
+        recorder = new Recorder(file.getPath(),
+                BINARY.toBuilder().append(true).keptSimIds(Collections.singleton(1)).build());
+        recorder.writeHeader(Column.class);
+        recorder.record(new Object[] { 3, 0.5, 0, "EVENT", 1.0 });
+        recorder.close();
+
+        ColumnarReader reader = new ColumnarReader(file);
+        assertEquals(2, reader.getNumRows());
+        assertEquals(1, reader.readSim(1).size());
+        assertEquals(1, reader.readSim(3).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompressedBinaryFileIsRejected() {
+        new Recorder(new File(folder.getRoot(), "rows.bin").getPath(),
+                BINARY.toBuilder().compressionLevel(Deflater.BEST_SPEED).build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecimalInIntegerColumnIsRejected() {
+        ColumnarFormat.encodeBlock(Arrays.<Object[]> asList(new Object[] { 1.5 }),
+                new byte[] { ColumnarFormat.TYPE_LONG });
+    }
+
+    @Test
+    public void testSimOutput() throws Exception {
+        Params params = new ParamsFactory("test/resources/base_3_items.json").make().iterator().next().toBuilder()
+                .recordHighFreq(true).build();
+        Recorders recorders = new Recorders(folder.getRoot(), BINARY);
+        Sim sim = new Sim(params, 7);
+        SimSetup.setUp(sim, recorders);
+        sim.run(false);
+        recorders.closeAll();
+
+        ColumnarReader reader = new ColumnarReader(new File(folder.getRoot(), "time_metrics.bin"));
+        List<Object[]> rows = reader.readSim(7);
+        assertTrue(rows.size() > 0);
+        assertEquals(rows.size(), reader.getNumRows());
+        double lastTime = 0.0;
+        for (Object[] row : rows) {
+            double time = (Double) row[1];
+            assertTrue(time >= lastTime);
+            lastTime = time;
+        }
+        assertTrue(new ColumnarReader(new File(folder.getRoot(), "params.bin")).readSim(7).size() > 0);
+    }
+
+    @Test
+    public void testIgnoresBlockCutShort() throws Exception {
+        File file = new File(folder.getRoot(), "rows.bin");
+        Recorder recorder = new Recorder(file.getPath(), BINARY);
+        recorder.writeHeader(Column.class);
+        for (int simId = 0; simId < 2; simId++) {
+            recorder.record(new Object[] { simId, 0.0, 0, "EVENT", 1.0 });
+            recorder.handOffBufferedRows();
+        }
+        recorder.close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        ColumnarReader reader = new ColumnarReader(file);
+        assertEquals(1, reader.getNumBlocks());
+        assertTrue(reader.readSim(1).isEmpty());
+        assertEquals(1, reader.readSim(0).size());
+    }
+
+}
@@ -0,0 +1,123 @@
+package output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import params.FilterParams;
+import params.Params;
+import params.ParamsFactory;
+import sim.Sim;
+import sim.SimSetup;
+import system.Item;
+
+public class FilterChainTest {
+
+    private static final String TIME_METRICS_RECORDER = TimeMetricsRecorder.class.getSimpleName();
+    private static final int    NUM_ITEMS             = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSmallDeviationsFilter() {
+        Item item = mock(Item.class);
+        when(item.getSurplusDeviation()).thenReturn(2.0);
+        assertTrue(new SmallDeviationsFilter(item, 1.0).passFilter(null));
+        assertFalse(new SmallDeviationsFilter(item, 3.0).passFilter(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecimationFilterMustBeLast() {
+        new FilterChain(ImmutableList.of(
+                FilterParams.builder().name(LargestTriangleThreeBucketsFilter.class.getSimpleName()).build(),
+                FilterParams.builder().name(SampleRateFilter.class.getSimpleName()).build()));
+    }
+
+    @Test
+    public void testSampleRateFilter() throws Exception {
+        Params params = getParams().toBuilder().recorderFilters(ImmutableMap.of(TIME_METRICS_RECORDER,
+                ImmutableList.of(FilterParams.builder().samplePeriod(100.0).build()))).build();
+        List<Object[]> allRows = runSim(getParams().toBuilder().recorderFilters(ImmutableMap.of()).build(), "all");
+        List<Object[]> rows = runSim(params, "sampled");
+        assertTrue(rows.size() < allRows.size());
+        assertEquals(0, rows.size() % NUM_ITEMS);
+        // The sampled events are more than a period apart
+        for (int i = NUM_ITEMS; i < rows.size(); i += NUM_ITEMS) {
+            assertTrue(getTime(rows.get(i)) - getTime(rows.get(i - NUM_ITEMS)) > 100.0);
+        }
+    }
+
+    @Test
+    public void testLargestTriangleThreeBucketsFilter() throws Exception {
+        Params params = getParams();
+        double bucketLength = params.getRecorderFilters().get(TIME_METRICS_RECORDER).get(0).getBucketLength();
+        List<Object[]> allRows = runSim(params.toBuilder().recorderFilters(ImmutableMap.of()).build(), "all");
+        List<Object[]> rows = runSim(params, "decimated");
+        assertTrue(rows.size() < allRows.size());
+        assertEquals("The rows of an event are kept together", 0, rows.size() % NUM_ITEMS);
+        assertEquals("The first event is kept", getTime(allRows.get(0)), getTime(rows.get(0)), 0);
+        assertEquals("The last event is kept", getTime(allRows.get(allRows.size() - 1)),
+                getTime(rows.get(rows.size() - 1)), 0);
+
+        // At most one event per item is kept in each bucket, plus the first
+        // and the last events
+        Map<Long, Integer> numRowsPerBucket = new HashMap<Long, Integer>();
+        double lastTime = 0.0;
+        for (Object[] row : rows) {
+            double time = getTime(row);
+            assertTrue(time >= lastTime);
+            lastTime = time;
+            long bucket = (long) Math.floor((time - getTime(rows.get(0))) / bucketLength);
+            Integer numRows = numRowsPerBucket.get(bucket);
+            numRowsPerBucket.put(bucket, numRows == null ? 1 : numRows + 1);
+        }
+        for (int numRows : numRowsPerBucket.values()) {
+            assertTrue(numRows <= (NUM_ITEMS + 1) * NUM_ITEMS);
+        }
+
+        // The text files keep the same rows
+        File textDir = folder.newFolder("text");
+        Recorders recorders = new Recorders(textDir, RecorderOptions.DEFAULTS);
+        Sim sim = new Sim(params, 1);
+        SimSetup.setUp(sim, recorders);
+        sim.run(false);
+        recorders.closeAll();
+        List<String> lines = Files.readAllLines(new File(textDir, "time_metrics.txt").toPath());
+        assertEquals(rows.size() + 1, lines.size());
+    }
+
+    private Params getParams() throws Exception {
+        return new ParamsFactory("test/resources/filtered_3_items.json").make().iterator().next();
+    }
+
+    private List<Object[]> runSim(Params params, String dirName) throws Exception {
+        File outputDir = folder.newFolder(dirName);
+        Recorders recorders = new Recorders(outputDir, RecorderOptions.builder().format(OutputFormat.BINARY).build());
+        Sim sim = new Sim(params, 1);
+        SimSetup.setUp(sim, recorders);
+        sim.run(false);
+        recorders.closeAll();
+        return new ColumnarReader(new File(outputDir, "time_metrics.bin")).readSim(1);
+    }
+
+    private static double getTime(Object[] row) {
+        return ((Number) row[1]).doubleValue();
+    }
+
+}
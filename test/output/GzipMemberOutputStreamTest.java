@@ -0,0 +1,91 @@
+package output;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GzipMemberOutputStreamTest {
+
+    enum Column {
+        SIM_ID, VALUE
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMembersAreReadAsOneFile() throws Exception {
+        File file = new File(folder.getRoot(), "rows.txt.gz");
+        GzipMemberOutputStream out = new GzipMemberOutputStream(new FileOutputStream(file), 9, 512);
+        out.write("a\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        out.flush();
+        out.write("b\nc\n".getBytes(StandardCharsets.UTF_8));
+        out.close();
+        List<String> lines = readLines(file);
+        assertEquals(3, lines.size());
+        assertEquals("c", lines.get(2));
+        assertEquals(file.length(), GzipMemberOutputStream.truncateToCompleteMembers(file));
+    }
+
+    @Test
+    public void testResumeDropsMemberCutShort() throws Exception {
+        File dir = folder.getRoot();
+        Recorder recorder = new Recorder(new File(dir, "rows.txt").getPath(),
+                RecorderOptions.builder().compressionLevel(Deflater.BEST_SPEED).build());
+        recorder.writeHeader(Column.class);
+        recorder.record(new Object[] { 0, 1.5 });
+        recorder.flush();
+        long completeLength = new File(dir, "rows.txt.gz").length();
+        for (int i = 0; i < 1000; i++) {
+            recorder.record(new Object[] { 1, 1.0 * i });
+        }
+        recorder.close();
+
+        // Cut the last member short, as if the experiment had crashed
+        File file = new File(dir, "rows.txt.gz");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 10);
+        }
+        recorder = new Recorder(new File(dir, "rows.txt").getPath(),
+                RecorderOptions.builder().append(true).compressionLevel(Deflater.BEST_SPEED).build());
+        assertEquals(completeLength, file.length());
+        recorder.writeHeader(Column.class);
+        recorder.record(new Object[] { 2, 2.5 });
+        recorder.close();
+
+        List<String> lines = readLines(file);
+        assertEquals(3, lines.size());
+        assertEquals("SIM_ID VALUE ", lines.get(0));
+        assertEquals("0 1.5 ", lines.get(1));
+        assertEquals("2 2.5 ", lines.get(2));
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+}
@@ -0,0 +1,170 @@
+package output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import sim.TimeInstant;
+
+public class RecorderTest {
+
+    enum Column {
+        SIM_ID, ROW
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRowsOfEachSimAreInOrder() throws Exception {
+        File file = new File(folder.getRoot(), "rows.txt");
+        final Recorder recorder = new Recorder(file.getPath());
+        recorder.writeHeader(Column.class);
+        final int numSims = 8;
+        final int numRows = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < numSims; i++) {
+            final int simId = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int row = 0; row < numRows; row++) {
+                        recorder.record(new Object[] { simId, row });
+                    }
+                    recorder.handOffBufferedRows();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        recorder.close();
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(numSims * numRows + 1, lines.size());
+        assertEquals("SIM_ID ROW ", lines.get(0));
+        Map<Integer, Integer> nextRows = new HashMap<Integer, Integer>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(" ");
+            int simId = Integer.parseInt(fields[0]);
+            int nextRow = nextRows.containsKey(simId) ? nextRows.get(simId) : 0;
+            assertEquals(nextRow, Integer.parseInt(fields[1]));
+            nextRows.put(simId, nextRow + 1);
+        }
+        assertEquals(numSims, nextRows.size());
+    }
+
+    @Test
+    public void testPendingWritesAreBounded() throws Exception {
+        File file = new File(folder.getRoot(), "rows.txt");
+        final Recorder recorder = new Recorder(file.getPath());
+        recorder.writeHeader(Column.class);
+        final int numSims = 4;
+        final int numRows = 5000;
+        final AtomicInteger maxPendingWrites = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(numSims);
+        for (int i = 0; i < numSims; i++) {
+            final int simId = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // Hand off every row, so that the writer thread falls
+                    // behind
+                    for (int row = 0; row < numRows; row++) {
+                        recorder.record(new Object[] { simId, row });
+                        recorder.handOffBufferedRows();
+                        maxPendingWrites.accumulateAndGet(recorder.getNumPendingWrites(), Math::max);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        recorder.close();
+
+        assertTrue(maxPendingWrites.get() <= Recorder.MAX_PENDING_WRITES);
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(numSims * numRows + 1, lines.size());
+    }
+
+    @Test
+    public void testRowWriterMatchesRecord() throws Exception {
+        File file = new File(folder.getRoot(), "rows.txt");
+        Recorder recorder = new Recorder(file.getPath());
+        Object[] row = new Object[] { 3, new TimeInstant(12.3456789), "EVENT", 0.1 + 0.2, -1e-9, 123456.75,
+                Double.NaN, 2.5e12 };
+        recorder.record(row);
+        recorder.newRow()
+                .writeInt(3)
+                .writeTime(new TimeInstant(12.3456789))
+                .writeString("EVENT")
+                .writeDouble(0.1 + 0.2)
+                .writeDouble(-1e-9)
+                .writeDouble(123456.75)
+                .writeDouble(Double.NaN)
+                .writeDouble(2.5e12)
+                .endRow();
+        recorder.close();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals("3 12.34568 EVENT 0.3 -0 123456.75 NaN 2500000000000 ", lines.get(0));
+        assertEquals(lines.get(0), lines.get(1));
+    }
+
+    @Test
+    public void testFlushKeepsRowBeingWritten() throws Exception {
+        File file = new File(folder.getRoot(), "rows.txt");
+        final Recorder recorder = new Recorder(file.getPath());
+        RowWriter rowWriter = recorder.newRow().writeInt(1);
+        Thread flusher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                recorder.flush();
+            }
+        });
+        flusher.start();
+        flusher.join();
+        assertEquals(0, file.length());
+        rowWriter.writeInt(2).endRow();
+        recorder.close();
+        assertEquals("1 2 ", Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).get(0));
+    }
+
+    @Test
+    public void testFlushWritesTheRowsOfAllThreads() throws Exception {
+        File file = new File(folder.getRoot(), "rows.txt");
+        final Recorder recorder = new Recorder(file.getPath());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 3; i++) {
+            final int simId = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    recorder.record(simId + " done");
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        recorder.flush();
+        assertEquals(3, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+        recorder.close();
+    }
+
+}
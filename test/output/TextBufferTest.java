@@ -0,0 +1,123 @@
+package output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TextBufferTest {
+
+    @Test
+    public void testAppendDecimalMatchesNumberFormat() {
+        Random random = new Random(11);
+        for (int digits = 0; digits <= TextBuffer.MAX_FAST_DIGITS; digits++) {
+            NumberFormat formatter = NumberFormat.getNumberInstance(Locale.US);
+            formatter.setMaximumFractionDigits(digits);
+            formatter.setGroupingUsed(false);
+            for (int i = 0; i < 20000; i++) {
+                double value = getValue(random);
+                TextBuffer buffer = new TextBuffer(4);
+                if (buffer.appendDecimal(value, digits, false)) {
+                    assertEquals("Formatting " + value, formatter.format(value), toString(buffer));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAppendFixedDecimalMatchesStringFormat() {
+        Random random = new Random(12);
+        for (int i = 0; i < 100000; i++) {
+            double value = getValue(random);
+            TextBuffer buffer = new TextBuffer(4);
+            if (buffer.appendDecimal(value, 5, true)) {
+                assertEquals("Formatting " + value, String.format(Locale.US, "%.5f", value), toString(buffer));
+            }
+        }
+    }
+
+    @Test
+    public void testLargeValuesMatchFormatters() {
+        Random random = new Random(13);
+        int numAppended = 0;
+        for (int digits = 0; digits <= TextBuffer.MAX_FAST_DIGITS; digits++) {
+            NumberFormat formatter = NumberFormat.getNumberInstance(Locale.US);
+            formatter.setMaximumFractionDigits(digits);
+            formatter.setGroupingUsed(false);
+            for (int i = 0; i < 20000; i++) {
+                double value = Math.scalb(random.nextDouble() + 1, 20 + random.nextInt(32));
+                TextBuffer buffer = new TextBuffer(4);
+                if (buffer.appendDecimal(value, digits, false)) {
+                    assertEquals("Formatting " + value, formatter.format(value), toString(buffer));
+                    numAppended++;
+                }
+                if (buffer.appendDecimal(value, 5, true)) {
+                    assertEquals("Formatting " + value, String.format(Locale.US, "%.5f", value), toString(buffer));
+                }
+            }
+        }
+        assertTrue(numAppended > 0);
+    }
+
+    @Test
+    public void testEdgeCases() {
+        assertEquals("0", format(0.0, 6));
+        assertEquals("-0", format(-0.0, 6));
+        assertEquals("-0", format(-1e-9, 6));
+        assertEquals("1", format(0.9999999, 6));
+        assertEquals("-12.5", format(-12.5, 6));
+        assertEquals("123456789", format(123456789.0, 6));
+        // Ties are left to the JDK formatters
+        assertFalse(new TextBuffer(4).appendDecimal(0.0078125, 6, false));
+        assertFalse(new TextBuffer(4).appendDecimal(1e20, 6, false));
+        // Values whose ulp is coarser than the digits
+        assertFalse(new TextBuffer(4).appendDecimal(1e15 + 0.125, 6, false));
+        assertFalse(new TextBuffer(4).appendDecimal(1e12 + 1.0 / 8192, 4, false));
+        assertEquals("1000000000000.5", format(1e12 + 0.5 + 1.0 / 8192, 3));
+        assertFalse(new TextBuffer(4).appendDecimal(1.5, 12, false));
+    }
+
+    @Test
+    public void testAppendLongAndRemoveFirst() {
+        TextBuffer buffer = new TextBuffer(2);
+        buffer.append(-120L);
+        buffer.append(' ');
+        buffer.append(Long.MIN_VALUE);
+        buffer.append(" \u00e9");
+        String expected = "-120 " + Long.MIN_VALUE + " \u00e9";
+        expected = new String(expected.getBytes(Charset.defaultCharset()), Charset.defaultCharset());
+        assertEquals(expected.getBytes(Charset.defaultCharset()).length, buffer.length());
+        assertEquals("-120 ", new String(buffer.removeFirst(5), Charset.defaultCharset()));
+        assertEquals(expected.substring(5), toString(buffer));
+    }
+
+    private static double getValue(Random random) {
+        switch (random.nextInt(4)) {
+        case 0:
+            return random.nextGaussian() * 100;
+        case 1:
+            return Math.round(random.nextGaussian() * 1e4) / 128.0;
+        case 2:
+            return random.nextInt(2000) - 1000;
+        default:
+            return random.nextGaussian() * Math.pow(10, random.nextInt(20) - 8);
+        }
+    }
+
+    private static String format(double value, int digits) {
+        TextBuffer buffer = new TextBuffer(4);
+        buffer.appendDecimal(value, digits, false);
+        return toString(buffer);
+    }
+
+    private static String toString(TextBuffer buffer) {
+        return new String(buffer.removeFirst(buffer.length()), Charset.defaultCharset());
+    }
+
+}
@@ -18,6 +18,7 @@ import com.google.common.collect.Sets;
 
 import params.Params;
 import system.Item;
+import system.ItemStates;
 import util.SimBasicTest;
 
 public class GeneralizedHedgingZonePolicyV2Test extends SimBasicTest {
@@ -34,9 +35,10 @@ public class GeneralizedHedgingZonePolicyV2Test extends SimBasicTest {
                 .initialDemand(c(10, 20, 30))
                 .productionRates(c(1, 1, 1))
                 .build();
-        this.item0 = new Item(0, params);
-        this.item1 = new Item(1, params);
-        this.item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        this.item0 = new Item(states, 0);
+        this.item1 = new Item(states, 1);
+        this.item2 = new Item(states, 2);
     }
 
     @Test
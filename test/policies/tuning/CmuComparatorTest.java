@@ -10,6 +10,7 @@ import org.junit.Test;
 import params.Params;
 import params.Params.ParamsBuilder;
 import system.Item;
+import system.ItemStates;
 import util.SimBasicTest;
 
 public class CmuComparatorTest extends SimBasicTest {
@@ -35,9 +36,10 @@ public class CmuComparatorTest extends SimBasicTest {
             .setupTimes(c(5,5,2));
 
         Params params = builder.build();
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         
         Comparator<Item> comparator = new CMuComparator(tol);
         
@@ -55,9 +57,10 @@ public class CmuComparatorTest extends SimBasicTest {
             .inventoryHoldingCosts(c(1.0, 1.0, 1.0));
 
         params = builder.build();
-        item0 = new Item(0, params);
-        item1 = new Item(1, params);
-        item2 = new Item(2, params);
+        states = new ItemStates(params, null);
+        item0 = new Item(states, 0);
+        item1 = new Item(states, 1);
+        item2 = new Item(states, 2);
 
         comparator = new CMuComparator(tol);
 
@@ -76,9 +79,10 @@ public class CmuComparatorTest extends SimBasicTest {
             .inventoryHoldingCosts(c(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
 
         params = builder.build();
-        item0 = new Item(0, params);
-        item1 = new Item(1, params);
-        item2 = new Item(2, params);
+        states = new ItemStates(params, null);
+        item0 = new Item(states, 0);
+        item1 = new Item(states, 1);
+        item2 = new Item(states, 2);
 
         comparator = new CMuComparator(tol);
 
@@ -10,6 +10,7 @@ import params.Params;
 import params.Params.ParamsBuilder;
 import sequences.ProductionSequence;
 import system.Item;
+import system.ItemStates;
 import util.SimBasicTest;
 
 public class GallegoRecoveryPolicyControlMatrixCalculatorTest extends SimBasicTest {
@@ -31,9 +32,10 @@ public class GallegoRecoveryPolicyControlMatrixCalculatorTest extends SimBasicTe
             .setupTimes(c(1,1,1));
 
         Params params = paramsBuilder.build();
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         
         GallegoRecoveryPolicyControlMatrixCalculator calculator = new GallegoRecoveryPolicyControlMatrixCalculator(params);
         ProductionSequence sequence = new ProductionSequence(item0, item1, item2, item1, item2);
@@ -104,11 +106,12 @@ public class GallegoRecoveryPolicyControlMatrixCalculatorTest extends SimBasicTe
             .setupTimes(c(1, 4, 3, 2, 2));
         
         Params params = builder.build();
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
-        Item item3 = new Item(3, params);
-        Item item4 = new Item(4, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
+        Item item3 = new Item(states, 3);
+        Item item4 = new Item(states, 4);
         
         GallegoRecoveryPolicyControlMatrixCalculator calculator = new GallegoRecoveryPolicyControlMatrixCalculator(params);
         ProductionSequence sequence = new ProductionSequence(item3, item4, item0, item1, item3, item4, item0, item2);
@@ -142,9 +145,10 @@ public class GallegoRecoveryPolicyControlMatrixCalculatorTest extends SimBasicTe
             .setupTimes(c(1, 1, 1));
         
         Params params = paramsBuilder.build();
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         
         GallegoRecoveryPolicyControlMatrixCalculator calculator = new GallegoRecoveryPolicyControlMatrixCalculator(params);
         ProductionSequence sequence = new ProductionSequence(item1, item0, item2);
@@ -176,9 +180,10 @@ public class GallegoRecoveryPolicyControlMatrixCalculatorTest extends SimBasicTe
             .productionRates(c(2.0, 2.0, 2.0));
 
         Params params = paramsBuilder.build();
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
 
         GallegoRecoveryPolicyControlMatrixCalculator calculator = new GallegoRecoveryPolicyControlMatrixCalculator(params);
         ProductionSequence sequence = new ProductionSequence(item1, item0, item2);
@@ -0,0 +1,66 @@
+package processes.generators;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the cost of drawing a time to failure with the inverse transform of
+ * {@link ExponentiallyDistributedRandomTimeIntervalGenerator} and with the
+ * block-buffered ziggurat of
+ * {@link ZigguratExponentialRandomTimeIntervalGenerator}. Both generators are
+ * called through the interface, as the failure and repair events do. Run with
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; processes.generators.ExponentialGeneratorsBenchmark
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExponentialGeneratorsBenchmark {
+
+	private IRandomTimeIntervalGenerator inverseTransform;
+	private IRandomTimeIntervalGenerator ziggurat;
+
+	@Setup
+	public void setup() {
+		inverseTransform = new ExponentiallyDistributedRandomTimeIntervalGenerator(
+				42, 10.0);
+		ziggurat = new ZigguratExponentialRandomTimeIntervalGenerator(42, 10.0);
+	}
+
+	@Benchmark
+	public double inverseTransform() {
+		return inverseTransform.nextTimeInterval();
+	}
+
+	@Benchmark
+	public double ziggurat() {
+		return ziggurat.nextTimeInterval();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder().include(
+				ExponentialGeneratorsBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,83 @@
+package processes.generators;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class RandomStreamFactoryTest {
+
+	@Test
+	public void testReferenceOutputs() {
+		// Reference values of xoroshiro128++ seeded with splitmix64(42)
+		Xoroshiro128PlusPlus stream = new Xoroshiro128PlusPlus(42);
+		assertEquals(-1690267358668702685L, stream.nextLong());
+		assertEquals(6098722386207918385L, stream.nextLong());
+		assertEquals(-905081495677017275L, stream.nextLong());
+
+		stream = new Xoroshiro128PlusPlus(42);
+		stream.jump();
+		assertEquals(-2393818737776610973L, stream.nextLong());
+
+		stream = new Xoroshiro128PlusPlus(42);
+		stream.longJump();
+		assertEquals(-3691256680574437969L, stream.nextLong());
+	}
+
+	@Test
+	public void testSameArgumentsGiveSameStream() {
+		RandomStreamFactory factory = new RandomStreamFactory(42);
+		assertArrayEquals(draw(factory.getStream(3, 2), 100),
+				draw(new RandomStreamFactory(42).getStream(3, 2), 100));
+	}
+
+	@Test
+	public void testStreamsDiffer() {
+		RandomStreamFactory factory = new RandomStreamFactory(42);
+		long[] base = draw(factory.getStream(0, 0), 100);
+		assertFalse(Arrays.equals(base, draw(factory.getStream(1, 0), 100)));
+		assertFalse(Arrays.equals(base, draw(factory.getStream(0, 1), 100)));
+		assertFalse(Arrays.equals(draw(factory.getStream(1, 0), 100),
+				draw(factory.getStream(0, 1), 100)));
+	}
+
+	@Test
+	public void testSubstreamsAreJumps() {
+		RandomStreamFactory factory = new RandomStreamFactory(42);
+		Xoroshiro128PlusPlus stream = factory.getStream(1, 0).copy();
+		stream.jump();
+		stream.jump();
+		assertArrayEquals(draw(factory.getStream(1, 2), 100), draw(stream, 100));
+	}
+
+	@Test
+	public void testUnitInterval() {
+		Xoroshiro128PlusPlus stream = new RandomStreamFactory(7).getStream(0, 0);
+		double sum = 0;
+		int samples = 100000;
+		for (int i = 0; i < samples; i++) {
+			double u = stream.nextDouble();
+			assertTrue(u >= 0 && u < 1);
+			sum += u;
+		}
+		assertEquals(0.5, sum / samples, 0.01);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeReplication() {
+		new RandomStreamFactory(42).getStream(-1, 0);
+	}
+
+	private long[] draw(IUniformRandomSource source, int n) {
+		long[] draws = new long[n];
+		for (int i = 0; i < n; i++) {
+			draws[i] = source.nextLong();
+		}
+		return draws;
+	}
+
+}
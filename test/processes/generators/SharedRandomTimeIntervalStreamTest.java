@@ -0,0 +1,45 @@
+package processes.generators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SharedRandomTimeIntervalStreamTest {
+
+	@Test
+	public void testCursorsReadTheSameIntervals() {
+		IRandomTimeIntervalGenerator reference = new ExponentiallyDistributedRandomTimeIntervalGenerator(
+				42, 2.0);
+		SharedRandomTimeIntervalStream stream = new SharedRandomTimeIntervalStream(
+				new ExponentiallyDistributedRandomTimeIntervalGenerator(42, 2.0));
+		IRandomTimeIntervalGenerator cursor1 = stream.newCursor();
+		IRandomTimeIntervalGenerator cursor2 = stream.newCursor();
+
+		// Advance the cursors at different paces
+		int numIntervals = 1000;
+		double[] expected = new double[numIntervals];
+		for (int i = 0; i < numIntervals; i++) {
+			expected[i] = reference.nextTimeInterval();
+			assertEquals(expected[i], cursor1.nextTimeInterval(), 0);
+			if (i % 2 == 1) {
+				assertEquals(expected[i - 1], cursor2.nextTimeInterval(), 0);
+				assertEquals(expected[i], cursor2.nextTimeInterval(), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testBufferIsCompactedAsTheCursorsAdvance() {
+		SharedRandomTimeIntervalStream stream = new SharedRandomTimeIntervalStream(
+				new ExponentiallyDistributedRandomTimeIntervalGenerator(42, 2.0));
+		IRandomTimeIntervalGenerator cursor1 = stream.newCursor();
+		IRandomTimeIntervalGenerator cursor2 = stream.newCursor();
+		for (int i = 0; i < 10000; i++) {
+			cursor1.nextTimeInterval();
+			cursor2.nextTimeInterval();
+		}
+		assertTrue(stream.getBufferedIntervals() <= 64);
+	}
+
+}
@@ -0,0 +1,49 @@
+package processes.generators;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ZigguratExponentialRandomTimeIntervalGeneratorTest {
+
+	@Test
+	public void testDistribution() {
+		double mean = 2.5;
+		IRandomTimeIntervalGenerator generator = new ZigguratExponentialRandomTimeIntervalGenerator(
+				1234, mean);
+		generator.warmUp(100);
+		int samples = 1000000;
+		double[] quantiles = { 0.01, 0.1, 0.5, 1.0, 2.0, 4.0, 8.0 };
+		int[] countsBelow = new int[quantiles.length];
+		double sum = 0;
+		double sumOfSquares = 0;
+		for (int i = 0; i < samples; i++) {
+			double x = generator.nextTimeInterval() / mean;
+			sum += x;
+			sumOfSquares += x * x;
+			for (int j = 0; j < quantiles.length; j++) {
+				if (x <= quantiles[j]) {
+					countsBelow[j]++;
+				}
+			}
+		}
+		assertEquals(1.0, sum / samples, 0.005);
+		assertEquals(1.0, sumOfSquares / samples - Math.pow(sum / samples, 2), 0.01);
+		for (int j = 0; j < quantiles.length; j++) {
+			double expected = 1 - Math.exp(-quantiles[j]);
+			assertEquals("CDF at " + quantiles[j], expected, countsBelow[j] / (double) samples, 0.002);
+		}
+	}
+
+	@Test
+	public void testReproducibleForAGivenSeed() {
+		IRandomTimeIntervalGenerator generator1 = new ZigguratExponentialRandomTimeIntervalGenerator(
+				99, 1.0);
+		IRandomTimeIntervalGenerator generator2 = new ZigguratExponentialRandomTimeIntervalGenerator(
+				99, 1.0);
+		for (int i = 0; i < 3 * ZigguratExponentialRandomTimeIntervalGenerator.BLOCK_SIZE; i++) {
+			assertEquals(generator1.nextTimeInterval(), generator2.nextTimeInterval(), 0);
+		}
+	}
+
+}
@@ -8,6 +8,7 @@ import org.junit.Test;
 import params.Params;
 import params.Params.ParamsBuilder;
 import system.Item;
+import system.ItemStates;
 import util.SimBasicTest;
 
 public class OptimalFCCyclicScheduleTest extends SimBasicTest {
@@ -28,9 +29,10 @@ public class OptimalFCCyclicScheduleTest extends SimBasicTest {
 
         Params params = paramsBuilder.build();
 
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         ProductionSequence sequence = new ProductionSequence(item0, item1, item2);
 
         OptimalFCyclicSchedule schedule = new OptimalFCyclicSchedule(sequence, 1.0);
@@ -98,9 +100,10 @@ public class OptimalFCCyclicScheduleTest extends SimBasicTest {
             .setupTimes(c( 7.77777778,  1.11111111,  1.11111111 ));
 
         Params params = paramsBuilder.build();
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         ProductionSequence sequence = new ProductionSequence(item0, item1, item2);
 
         OptimalFCyclicSchedule schedule = new OptimalFCyclicSchedule(sequence, 1.0);
@@ -148,9 +151,10 @@ public class OptimalFCCyclicScheduleTest extends SimBasicTest {
             .setupTimes(c( 7.77777778,  1.11111111,  1.11111111 ));
 
         Params params = paramsBuilder.build();
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         
         ProductionSequence sequence = new ProductionSequence(item0, item1, item2, item1, item2, item1, item2);
         OptimalFCyclicSchedule schedule = new OptimalFCyclicSchedule(sequence, 0.91);
@@ -9,6 +9,7 @@ import org.junit.Test;
 import params.Params;
 import params.Params.ParamsBuilder;
 import system.Item;
+import system.ItemStates;
 import util.SimBasicTest;
 
 public class OptimalFCyclicScheduleComparatorTest extends SimBasicTest {
@@ -29,9 +30,10 @@ public class OptimalFCyclicScheduleComparatorTest extends SimBasicTest {
 
         Params params = paramsBuilder.build();
 
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         ProductionSequence sequence1 = new ProductionSequence(item0, item1, item2);
         ProductionSequence sequence2 = new ProductionSequence(item0, item1, item2);
 
@@ -57,9 +59,10 @@ public class OptimalFCyclicScheduleComparatorTest extends SimBasicTest {
 
         Params params = paramsBuilder.build();
 
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         ProductionSequence sequence1 = new ProductionSequence(item0, item1, item2);
         ProductionSequence sequence2 = new ProductionSequence(item0, item1, item2, item0, item1, item2);
 
@@ -86,9 +89,10 @@ public class OptimalFCyclicScheduleComparatorTest extends SimBasicTest {
 
         Params params = paramsBuilder.build();
 
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         ProductionSequence sequence1 = new ProductionSequence(item0, item1, item2);
         ProductionSequence sequence2 = new ProductionSequence(item2, item1, item2, item0, item1);
 
@@ -116,9 +120,10 @@ public class OptimalFCyclicScheduleComparatorTest extends SimBasicTest {
 
         Params params = paramsBuilder.build();
 
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         ProductionSequence sequence1 = new ProductionSequence(item0, item1, item2);
         ProductionSequence sequence2 = new ProductionSequence(item1, item2, item0);
         ProductionSequence sequence3 = new ProductionSequence(item2, item0, item1);
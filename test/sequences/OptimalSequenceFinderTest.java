@@ -14,6 +14,7 @@ import params.Params;
 import params.Params.ParamsBuilder;
 import sequences.OptimalSequenceFinder.SearchNode;
 import system.Item;
+import system.ItemStates;
 import util.SimBasicTest;
 
 public class OptimalSequenceFinderTest extends SimBasicTest {
@@ -33,9 +34,10 @@ public class OptimalSequenceFinderTest extends SimBasicTest {
             .setupTimes(c( 7.77777778,  1.11111111,  1.11111111 ));
 
         Params params = paramsBuilder.build();
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
 
         SearchNode node = new OptimalSequenceFinder.SearchNode(item0, item1);
         assertFalse( node.containsAllItems(Sets.newHashSet(item0, item1, item2) ) );
@@ -70,9 +72,10 @@ public class OptimalSequenceFinderTest extends SimBasicTest {
             .setupTimes(c( 7.77777778,  1.11111111,  1.11111111 ));
 
         Params params = paramsBuilder.build();
-        Item item0 = new Item(0, params);
-        Item item1 = new Item(1, params);
-        Item item2 = new Item(2, params);
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        Item item2 = new Item(states, 2);
         double tol = 1e-4;
         OptimalSequenceFinder finder = new OptimalSequenceFinder( Lists.newArrayList(item0, item1, item2), 0.91);
         OptimalFCyclicSchedule schedule = finder.find(12, 8);
@@ -1,5 +1,6 @@
 package sim;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -18,6 +19,20 @@ public class ClockTest {
         assertTrue(clock.hasPassedEpoch(4e7));
     }
 
+    @Test
+    public void testEndWarmup() {
+        Clock clock = new Clock(100);
+        clock.advanceClockBy(30);
+        assertFalse(clock.isTimeToRecordData());
+        clock.endWarmup();
+        assertTrue(clock.isTimeToRecordData());
+        assertEquals(30, clock.getMetricsInitialTime(), 0);
+        // The warmup can only end once
+        clock.advanceClockBy(10);
+        clock.endWarmup();
+        assertEquals(30, clock.getMetricsInitialTime(), 0);
+    }
+
     @Test
     public void testToString() {
         Clock clock = new Clock(0);
@@ -0,0 +1,168 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import output.RecorderOptions;
+import output.Recorders;
+import params.Params;
+import util.SimBasicTest;
+
+public class ExperimentManifestTest extends SimBasicTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testResume() throws Exception {
+        File file = new File(folder.getRoot(), ExperimentManifest.DEFAULT_FILE_NAME);
+        Params params1 = getParams("sim1.json", 100);
+        Params params2 = getParams("sim2.json", 100);
+        ExperimentManifest manifest = new ExperimentManifest(file, false);
+        assertFalse(manifest.isComplete(params1));
+        manifest.markComplete(0, params1);
+        assertTrue(manifest.isComplete(params1));
+        manifest.close();
+
+        // A line cut short by a crash is ignored
+        Files.write(file.toPath(), "1\tabc".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        manifest = new ExperimentManifest(file, true);
+        assertEquals(1, manifest.getNumCompleted());
+        assertTrue(manifest.isComplete(params1));
+        assertFalse(manifest.isComplete(params2));
+        assertFalse("A sim whose params changed must run again", manifest.isComplete(getParams("sim1.json", 200)));
+        manifest.close();
+
+        manifest = new ExperimentManifest(file, false);
+        assertEquals(0, manifest.getNumCompleted());
+        assertFalse(manifest.isComplete(params1));
+        manifest.close();
+    }
+
+    @Test
+    public void testSchedulerSkipsCompletedSims() throws Exception {
+        File file = new File(folder.getRoot(), ExperimentManifest.DEFAULT_FILE_NAME);
+        List<Params> expParams = new ArrayList<Params>();
+        expParams.add(getParams("sim1.json", 100));
+        expParams.add(getParams("sim2.json", 200));
+        expParams.add(getParams("sim3.json", 300));
+        ExperimentManifest manifest = new ExperimentManifest(file, false);
+        manifest.markComplete(1, expParams.get(1));
+        manifest.close();
+
+        manifest = new ExperimentManifest(file, true);
+        ExperimentScheduler.Report report = new ExperimentScheduler(2).run(expParams, noRecorders(), manifest);
+        manifest.close();
+        assertEquals(2, report.getNumSims());
+
+        // The remaining sims get ids that no earlier attempt used
+        Set<String> simIds = new HashSet<String>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.startsWith("#")) {
+                simIds.add(line.split("\t")[0]);
+            }
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("1", "2", "4")), simIds);
+        manifest = new ExperimentManifest(file, true);
+        for (Params params : expParams) {
+            assertTrue(manifest.isComplete(params));
+        }
+        manifest.close();
+    }
+
+    @Test
+    public void testResumeAfterSimCutShort() throws Exception {
+        File outputDir = folder.newFolder("output");
+        File file = new File(outputDir, ExperimentManifest.DEFAULT_FILE_NAME);
+        File failureEvents = new File(outputDir, "failure_events.txt");
+        List<Params> expParams = new ArrayList<Params>();
+        expParams.add(getParams("sim1.json", 300).toBuilder().recordHighFreq(true).build());
+        expParams.add(getParams("sim2.json", 300).toBuilder().recordHighFreq(true).build());
+
+        // The first sim completes, and the second one is cut short after its
+        // rows were flushed along with those of the first sim and while
+        // writing a row
+        ExperimentManifest manifest = new ExperimentManifest(file, false);
+        Recorders recorders = new Recorders(outputDir, RecorderOptions.DEFAULTS);
+        assertEquals(0, manifest.startAttempt(expParams.size()));
+        Sim sim = new Sim(expParams.get(0), 0);
+        SimSetup.setUp(sim, recorders);
+        sim.run(false);
+        recorders.flushAll();
+        manifest.markComplete(0, expParams.get(0));
+        Sim cutSim = new Sim(expParams.get(1), 1);
+        SimSetup.setUp(cutSim, recorders);
+        cutSim.start();
+        cutSim.runUntil(200, false);
+        recorders.flushAll();
+        Files.write(failureEvents.toPath(), "1 201.5".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertTrue(getRowsBySimId(failureEvents).containsKey("1"));
+        manifest.close();
+
+        manifest = new ExperimentManifest(file, true);
+        recorders = new Recorders(outputDir, RecorderOptions.builder()
+                .append(true)
+                .keptSimIds(manifest.getCompletedSimIds())
+                .build());
+        ExperimentScheduler.Report report = new ExperimentScheduler(1).run(expParams, recorders, manifest);
+        recorders.closeAll();
+        manifest.close();
+        assertEquals(1, report.getNumSims());
+
+        File straightDir = folder.newFolder("straight");
+        Recorders straightRecorders = new Recorders(straightDir, RecorderOptions.DEFAULTS);
+        new ExperimentScheduler(1).run(expParams, straightRecorders);
+        straightRecorders.closeAll();
+
+        // The rows of the cut sim are gone and the sim ran again under a new
+        // id, without mixing its rows with a partial line
+        Map<String, List<String>> rows = getRowsBySimId(failureEvents);
+        Map<String, List<String>> straightRows = getRowsBySimId(new File(straightDir, "failure_events.txt"));
+        assertEquals(new HashSet<String>(Arrays.asList("0", "3")), rows.keySet());
+        assertEquals(new HashSet<Integer>(Arrays.asList(0, 3)),
+                new ExperimentManifest(file, true).getCompletedSimIds());
+        assertEquals(straightRows.get("0"), rows.get("0"));
+        assertEquals(straightRows.get("1"), rows.get("3"));
+    }
+
+    /**
+     * Returns the rows of each sim in the text file, without their sim id.
+     */
+    private static Map<String, List<String>> getRowsBySimId(File textFile) throws IOException {
+        Map<String, List<String>> rows = new HashMap<String, List<String>>();
+        List<String> lines = Files.readAllLines(textFile.toPath(), Charset.defaultCharset());
+        for (String line : lines.subList(1, lines.size())) {
+            String[] tokens = line.split(" ", 2);
+            rows.computeIfAbsent(tokens[0], simId -> new ArrayList<String>()).add(tokens[1]);
+        }
+        return rows;
+    }
+
+    private Params getParams(String file, double finalTime) {
+        return getThreeItemParams("ClearTheLargestDeviationPolicy")
+                .metricsStartTime(50)
+                .finalTime(finalTime)
+                .file(file)
+                .build();
+    }
+
+}
@@ -0,0 +1,100 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import output.Recorder;
+import output.Recorders;
+import params.DemandProcessParams;
+import params.Params;
+import util.SimBasicTest;
+
+public class ExperimentSchedulerTest extends SimBasicTest {
+
+    @Test
+    public void testEstimateCost() {
+        ExperimentScheduler scheduler = new ExperimentScheduler(2);
+        Params params = getParams(200);
+        double cost = scheduler.estimateCost(params);
+        assertEquals(2 * cost, scheduler.estimateCost(getParams(400)), 1e-9);
+        Params discreteParams = params.toBuilder()
+                .demandProcessParams(new DemandProcessParams("DeterministicBatchesDemandProcess", 1)).build();
+        assertTrue(scheduler.estimateCost(discreteParams) > cost);
+        Params slowPolicyParams = params.toBuilder()
+                .policyParams(params.getPolicyParams().toBuilder().costFactor(2.0).build()).build();
+        assertEquals(2 * cost, scheduler.estimateCost(slowPolicyParams), 1e-9);
+        scheduler.setPolicyCostFactor("ClearTheLargestDeviationPolicy", 3.0);
+        assertEquals(3 * cost, scheduler.estimateCost(params), 1e-9);
+        assertEquals(3 * cost, scheduler.estimateCost(slowPolicyParams), 1e-9);
+    }
+
+    @Test
+    public void testRunsAllSims() throws Exception {
+        List<Params> expParams = new ArrayList<Params>();
+        expParams.add(getParams(100));
+        expParams.add(getParams(300));
+        expParams.add(getParams(200));
+        ExperimentScheduler.Report report = new ExperimentScheduler(2).run(expParams, noRecorders());
+        assertEquals(3, report.getNumSims());
+        assertTrue(report.getBusySec() > 0);
+        assertTrue(report.getMakespanEfficiency() > 0 && report.getMakespanEfficiency() <= 1);
+    }
+
+    @Test
+    public void testDispatchesTheLongestSimsFirst() throws Exception {
+        List<Params> expParams = new ArrayList<Params>();
+        expParams.add(getParams(100));
+        expParams.add(getParams(300));
+        expParams.add(getParams(200));
+        expParams.add(getParams(300));
+        // With a single thread, the sims finish in the order they are dispatched
+        List<Sim> finishedSims = runSims(expParams, 1);
+        List<Integer> simIds = new ArrayList<Integer>();
+        for (Sim sim : finishedSims) {
+            simIds.add(sim.getId());
+        }
+        assertEquals(Arrays.asList(1, 3, 2, 0), simIds);
+    }
+
+    @Test
+    public void testSimIdsFollowTheGivenOrder() throws Exception {
+        List<Params> expParams = new ArrayList<Params>();
+        for (double finalTime : new double[] { 100, 300, 200, 400, 150 }) {
+            expParams.add(getParams(finalTime));
+        }
+        for (int numThreads : new int[] { 1, 3 }) {
+            List<Sim> finishedSims = runSims(expParams, numThreads);
+            assertEquals(expParams.size(), finishedSims.size());
+            for (Sim sim : finishedSims) {
+                assertEquals(expParams.get(sim.getId()).getFinalTime(), sim.getParams().getFinalTime(), 0);
+            }
+        }
+    }
+
+    /**
+     * Runs the sims and returns them in the order in which they finished.
+     */
+    private List<Sim> runSims(List<Params> expParams, int numThreads) throws Exception {
+        final List<Sim> finishedSims = Collections.synchronizedList(new ArrayList<Sim>());
+        Recorders recorders = new Recorders(new ArrayList<Recorder>()) {
+            @Override
+            public void recordEndOfSim(Sim sim) {
+                finishedSims.add(sim);
+            }
+        };
+        new ExperimentScheduler(numThreads).run(expParams, recorders);
+        return finishedSims;
+    }
+
+    private Params getParams(double finalTime) {
+        return getThreeItemParams("ClearTheLargestDeviationPolicy").metricsStartTime(50).finalTime(finalTime).build();
+    }
+
+}
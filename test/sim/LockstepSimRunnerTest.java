@@ -0,0 +1,60 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import metrics.AverageSurplusMetrics;
+import params.Params;
+import system.Item;
+import util.SimBasicTest;
+
+public class LockstepSimRunnerTest extends SimBasicTest {
+
+    @Test
+    public void testLockstepRunsEqualSeparateRuns() {
+        List<Params> paramsList = new ArrayList<Params>();
+        paramsList.add(getParams("ClearTheLargestDeviationPolicy"));
+        paramsList.add(getParams("HedgingZonePolicy"));
+        LockstepSimRunner runner = new LockstepSimRunner(paramsList, noRecorders());
+        runner.run();
+
+        for (int i = 0; i < paramsList.size(); i++) {
+            Sim separateSim = newSim(paramsList.get(i));
+            separateSim.run(false);
+            Sim lockstepSim = runner.getSims().get(i);
+            assertEquals(separateSim.getTime(), lockstepSim.getTime());
+            AverageSurplusMetrics separateMetrics = separateSim.getMetrics().getAverageSurplusMetrics();
+            AverageSurplusMetrics lockstepMetrics = lockstepSim.getMetrics().getAverageSurplusMetrics();
+            for (Item item : separateSim.getMachine()) {
+                Item lockstepItem = lockstepSim.getMachine().getItemById(item.getId());
+                assertEquals(separateMetrics.getAverageInventory(item), lockstepMetrics.getAverageInventory(lockstepItem), 0);
+                assertEquals(separateMetrics.getAverageBacklog(item), lockstepMetrics.getAverageBacklog(lockstepItem), 0);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParamsMustShareTheFailures() {
+        List<Params> paramsList = new ArrayList<Params>();
+        paramsList.add(getParams("ClearTheLargestDeviationPolicy"));
+        paramsList.add(getParams("HedgingZonePolicy").toBuilder().seed(8).build());
+        new LockstepSimRunner(paramsList, noRecorders());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParamsMustShareTheReplication() {
+        List<Params> paramsList = new ArrayList<Params>();
+        paramsList.add(getParams("ClearTheLargestDeviationPolicy").toBuilder().jumpableRandomStreams(true).build());
+        paramsList.add(getParams("HedgingZonePolicy").toBuilder().jumpableRandomStreams(true).replication(1).build());
+        new LockstepSimRunner(paramsList, noRecorders());
+    }
+
+    private Params getParams(String policy) {
+        return getThreeItemParams(policy).metricsStartTime(100).finalTime(500).build();
+    }
+
+}
@@ -0,0 +1,71 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static util.UtilMethods.c;
+
+import org.junit.Test;
+
+import metrics.BatchedAverageSurplusMetrics;
+import params.Params;
+import util.SimBasicTest;
+
+public class MserWarmupDetectorTest extends SimBasicTest {
+
+    @Test
+    public void testFindTruncationAfterTrend() {
+        double[] batchMeans = new double[40];
+        for (int i = 0; i < 40; i++) {
+            batchMeans[i] = i < 8 ? 10.0 - i : 1.0 + (i % 2 == 0 ? 0.1 : -0.1);
+        }
+        assertEquals(8, MserWarmupDetector.findTruncation(batchMeans, batchMeans.length));
+    }
+
+    @Test
+    public void testFindTruncationWithoutTrend() {
+        double[] batchMeans = new double[40];
+        for (int i = 0; i < 40; i++) {
+            batchMeans[i] = 1.0 + (i % 2 == 0 ? 0.1 : -0.1);
+        }
+        assertEquals(0, MserWarmupDetector.findTruncation(batchMeans, batchMeans.length));
+    }
+
+    @Test
+    public void testStartsRecordingBeforeTheMetricsStartTime() {
+        Sim sim = runSim(true);
+        double truncationTime = sim.getDerivedParams().getWarmupTruncationTime();
+        double startTime = sim.getDerivedParams().getMetricsActualStartTime();
+        assertFalse(Double.isNaN(truncationTime));
+        assertTrue(startTime >= truncationTime);
+        assertTrue(startTime < 800);
+        assertEquals(sim.getClock().getMetricsInitialTime(), startTime, 0);
+
+        // The batched metrics cover the time from the actual start
+        BatchedAverageSurplusMetrics batchedMetrics = sim.getMetrics().getBatchedAverageSurplusMetrics();
+        int numBatches = sim.getParams().getNumBatchesForBatchedMetrics();
+        assertEquals((1000 - startTime) / numBatches, batchedMetrics.getBatchTime(), 1e-9);
+        assertEquals(numBatches, batchedMetrics.getBatchedAverageCosts().length);
+    }
+
+    @Test
+    public void testFixedStartWithoutDetector() {
+        Sim sim = runSim(false);
+        assertTrue(Double.isNaN(sim.getDerivedParams().getWarmupTruncationTime()));
+        assertTrue(sim.getDerivedParams().getMetricsActualStartTime() >= 800);
+    }
+
+    private Sim runSim(boolean automaticWarmup) {
+        Params params = getThreeItemParams("ClearTheLargestDeviationPolicy")
+                .initialDemand(c(20.0, 20.0, 20.0))
+                .metricsStartTime(800)
+                .finalTime(1000)
+                .automaticWarmup(automaticWarmup)
+                .warmupObservationLength(1.0)
+                .build();
+        Sim sim = newSim(params);
+        sim.run(false);
+        return sim;
+    }
+
+}
@@ -0,0 +1,47 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import params.Params;
+import util.SimBasicTest;
+
+public class ReplicationRunnerTest extends SimBasicTest {
+
+    @Test
+    public void testResultsDoNotDependOnTheNumberOfThreads() throws Exception {
+        ReplicationRunner.Results sequential = new ReplicationRunner(getParams(), noRecorders(), 1, 1e-9, 0.95, 4, 4)
+                .run();
+        ReplicationRunner.Results parallel = new ReplicationRunner(getParams(), noRecorders(), 3, 1e-9, 0.95, 4, 4)
+                .run();
+        assertEquals(4, sequential.getNumReplications());
+        assertEquals(4, parallel.getNumReplications());
+        assertEquals(sequential.getAverageCost().getMean(), parallel.getAverageCost().getMean(), 0);
+        assertEquals(sequential.getAverageCost().getHalfWidth(), parallel.getAverageCost().getHalfWidth(), 0);
+        assertEquals(sequential.getServiceLevelCost().getMean(), parallel.getServiceLevelCost().getMean(), 0);
+        assertTrue(sequential.getAverageCost().getHalfWidth() > 0);
+    }
+
+    @Test
+    public void testStopsAtTheTolerance() throws Exception {
+        double tolerance = 0.25;
+        ReplicationRunner.Results results = new ReplicationRunner(getParams(), noRecorders(), 2, tolerance, 0.95, 3,
+                30).run();
+        assertTrue(results.getNumReplications() >= 3);
+        ReplicationRunner.Estimate estimate = results.getAverageCost();
+        assertTrue(results.getNumReplications() == 30
+                || estimate.getHalfWidth() <= tolerance * estimate.getMean());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNeedsTwoReplications() {
+        new ReplicationRunner(getParams(), noRecorders(), 1, 0.1, 0.95, 1, 10);
+    }
+
+    private Params getParams() {
+        return getThreeItemParams("ClearTheLargestDeviationPolicy").metricsStartTime(100).finalTime(500).build();
+    }
+
+}
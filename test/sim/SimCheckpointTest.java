@@ -0,0 +1,102 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import metrics.AverageSurplusMetrics;
+import params.Params;
+import system.Item;
+import util.SimBasicTest;
+
+public class SimCheckpointTest extends SimBasicTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testResumedRunEqualsStraightRun() throws Exception {
+        Params params = getParams(500, "HedgingZonePolicy");
+
+        Sim straightSim = newSim(params);
+        straightSim.run(false);
+
+        Sim sim = newSim(params);
+        sim.start();
+        sim.runUntil(250, false);
+        File file = folder.newFile("checkpoint.bin");
+        SimCheckpoint.write(sim, file);
+        Sim restoredSim = SimCheckpoint.read(file, noRecorders());
+        restoredSim.resume(false);
+
+        assertSameState(straightSim, restoredSim);
+    }
+
+    @Test
+    public void testResumedRunWithStatefulComponentsEqualsStraightRun() throws Exception {
+        Params params = getParams(500, "DynamicHedgingZonePolicy").toBuilder()
+                .automaticWarmup(true)
+                .warmupObservationLength(2.0)
+                .build();
+
+        Sim straightSim = newSim(params);
+        straightSim.run(false);
+
+        Sim sim = newSim(params);
+        sim.start();
+        sim.runUntil(50, false);
+        File file = folder.newFile("checkpoint.bin");
+        SimCheckpoint.write(sim, file);
+        Sim restoredSim = SimCheckpoint.read(file, noRecorders());
+        restoredSim.resume(false);
+
+        assertSameState(straightSim, restoredSim);
+        assertEquals(straightSim.getClock().getMetricsInitialTime(), restoredSim.getClock().getMetricsInitialTime(),
+                0);
+    }
+
+    @Test
+    public void testExtendedRunEqualsLongerRun() throws Exception {
+        Sim longerSim = newSim(getParams(500, "ClearTheLargestDeviationPolicy"));
+        longerSim.run(false);
+
+        Sim sim = newSim(getParams(250, "ClearTheLargestDeviationPolicy"));
+        sim.run(false);
+        File file = folder.newFile("checkpoint.bin");
+        SimCheckpoint.write(sim, file);
+        Sim restoredSim = SimCheckpoint.read(file, noRecorders());
+        restoredSim.extendFinalTime(500);
+        restoredSim.resume(false);
+
+        assertSameState(longerSim, restoredSim);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCannotStartTwice() {
+        Sim sim = newSim(getParams(100, "ClearTheLargestDeviationPolicy"));
+        sim.start();
+        sim.start();
+    }
+
+    private void assertSameState(Sim expected, Sim actual) {
+        assertEquals(expected.getTime(), actual.getTime());
+        assertEquals(expected.getMachine().getSetup().getId(), actual.getMachine().getSetup().getId());
+        AverageSurplusMetrics expectedMetrics = expected.getMetrics().getAverageSurplusMetrics();
+        AverageSurplusMetrics actualMetrics = actual.getMetrics().getAverageSurplusMetrics();
+        for (Item item : expected.getMachine()) {
+            Item actualItem = actual.getMachine().getItemById(item.getId());
+            assertEquals(item.getSurplus(), actualItem.getSurplus(), 0);
+            assertEquals(expectedMetrics.getAverageInventory(item), actualMetrics.getAverageInventory(actualItem), 0);
+            assertEquals(expectedMetrics.getAverageBacklog(item), actualMetrics.getAverageBacklog(actualItem), 0);
+        }
+    }
+
+    private Params getParams(double finalTime, String policy) {
+        return getThreeItemParams(policy).metricsStartTime(100).finalTime(finalTime).build();
+    }
+
+}
@@ -0,0 +1,86 @@
+package sim;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+import output.Recorder;
+import output.Recorders;
+import params.Params;
+
+/**
+ * Measures the events per second handled by a sim whose clock has reached the given final time. The sim is run up
+ * to the final time in the setup, and each operation then handles one more event, so the throughput is in events
+ * per second and should not depend on the final time. The rates of the system are scaled down so that the setup
+ * reaches the longest horizon with about a hundred thousand events. Run with
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; sim.SimThroughputBenchmark
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimThroughputBenchmark {
+
+    private static final double TIME_SCALE = 1e3;
+
+    @Param({ "1e4", "1e6", "1e8" })
+    private double finalTime;
+
+    private Sim sim;
+
+    @Setup
+    public void setup() {
+        Params params = Params.builder()
+                .numItems(3)
+                .demandRates(ImmutableList.of(0.1 / TIME_SCALE, 0.2 / TIME_SCALE, 0.1 / TIME_SCALE))
+                .productionRates(ImmutableList.of(1.0 / TIME_SCALE, 1.0 / TIME_SCALE, 1.0 / TIME_SCALE))
+                .setupTimes(ImmutableList.of(TIME_SCALE, TIME_SCALE, TIME_SCALE))
+                .surplusTargets(ImmutableList.of(0.0, 0.0, 0.0))
+                .initialDemand(ImmutableList.of(0.0, 0.0, 0.0))
+                .meanTimeToFail(100 * TIME_SCALE)
+                .meanTimeToRepair(TIME_SCALE)
+                .finalTime(finalTime)
+                .seed(7)
+                .build();
+        sim = new Sim(params, 0);
+        SimSetup.setUp(sim, new Recorders(Collections.<Recorder> emptyList()));
+        sim.start();
+        sim.runUntil(finalTime, false);
+    }
+
+    @Benchmark
+    public TimeInstant handleEvent() {
+        // Keep handling events past the final time
+        sim.getNextEvent().handle(sim);
+        return sim.getTime();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(SimThroughputBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+}
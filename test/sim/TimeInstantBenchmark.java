@@ -0,0 +1,85 @@
+package sim;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Micro-benchmark of the time arithmetic done by the sim on every event: scheduling an event at the current time
+ * plus a random interval, comparing it against the final time, and computing the elapsed time since the last event.
+ * The benchmark is parameterized by the simulated horizon, since the cost of these operations should not depend on
+ * how far the clock has advanced. Run with
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; sim.TimeInstantBenchmark
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeInstantBenchmark {
+
+    private static final int NUM_INTERVALS = 1024;
+
+    @Param({ "1e4", "1e6", "1e8" })
+    private double horizon;
+
+    private double[] intervals;
+    private TimeInstant startTime;
+    private TimeInstant finalTime;
+    private TimeInstant currentTime;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        intervals = new double[NUM_INTERVALS];
+        for (int i = 0; i < NUM_INTERVALS; i++) {
+            intervals[i] = -Math.log(1 - random.nextDouble());
+        }
+        // Start close to the horizon, after accumulating many inexact increments
+        currentTime = new TimeInstant(0);
+        double start = horizon * 0.99;
+        while (!currentTime.hasReachedEpoch(start)) {
+            currentTime = currentTime.add(start / 1000 + intervals[index++ & (NUM_INTERVALS - 1)]);
+        }
+        startTime = currentTime;
+        finalTime = new TimeInstant(horizon);
+    }
+
+    @Benchmark
+    public void eventCycle(Blackhole blackhole) {
+        TimeInstant nextEventTime = currentTime.add(intervals[index++ & (NUM_INTERVALS - 1)]);
+        blackhole.consume(nextEventTime.compareTo(finalTime));
+        blackhole.consume(nextEventTime.hasReachedEpoch(horizon));
+        blackhole.consume(nextEventTime.doubleValueSince(currentTime));
+        blackhole.consume(nextEventTime.subtract(currentTime));
+        currentTime = nextEventTime.hasReachedEpoch(finalTime) ? startTime : nextEventTime;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(TimeInstantBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+}
@@ -27,4 +27,53 @@ public class TimeInstantTest {
         System.out.println(String.format("Time %s", t1));
     }
 
+    @Test
+    public void testNegativeValues() {
+        TimeInstant t = new TimeInstant(-2.75);
+        assertEquals(-2.75, t.doubleValue(), 0);
+        assertEquals(-2, t.longValue());
+        assertEquals(new TimeInstant(0), t.add(2.75));
+        assertEquals(-1.0, new TimeInstant(1).subtract(new TimeInstant(2)).doubleValue(), 0);
+        assertTrue(t.compareTo(new TimeInstant(-2.5)) < 0);
+    }
+
+    @Test
+    public void testPrecisionOverLongHorizons() {
+        TimeInstant t = new TimeInstant(1e8);
+        TimeInstant tNext = t.add(1e-9);
+        assertTrue(tNext.hasPassedEpoch(t));
+        assertEquals(1e-9, tNext.doubleValueSince(t), 1e-18);
+        assertEquals(t, tNext.subtract(new TimeInstant(1e-9)));
+        // Additions are exact, so the order in which the periods are added does not matter
+        TimeInstant a = new TimeInstant(1e7).add(0.1).add(0.2);
+        TimeInstant b = new TimeInstant(0.2).add(0.1).add(1e7);
+        assertEquals(a, b);
+        TimeInstant sum = new TimeInstant(0);
+        for (int i = 0; i < 10; i++) {
+            sum = sum.add(0.1);
+        }
+        assertTrue(sum.hasPassedEpoch(0.9));
+    }
+
+    @Test
+    public void testInfinity() {
+        assertEquals(Double.MAX_VALUE, TimeInstant.INFINITY.doubleValue(), 0);
+        assertEquals(TimeInstant.INFINITY, TimeInstant.INFINITY.add(1));
+        assertEquals(TimeInstant.INFINITY, new TimeInstant(Double.MAX_VALUE));
+        assertEquals(TimeInstant.INFINITY, new TimeInstant(Double.POSITIVE_INFINITY));
+        assertTrue(TimeInstant.INFINITY.hasPassedEpoch(1e12));
+        assertEquals(Double.MAX_VALUE, TimeInstant.INFINITY.doubleValueSince(new TimeInstant(5)), 0);
+        assertEquals(Double.MAX_VALUE, TimeInstant.INFINITY.doubleValueSince(new TimeInstant(-5)), 0);
+        assertEquals(0, TimeInstant.INFINITY.doubleValueSince(TimeInstant.INFINITY), 0);
+        TimeInstant large = new TimeInstant(0x1p62);
+        TimeInstant negativeLarge = new TimeInstant(-0x1p62);
+        assertEquals(large.subtract(negativeLarge).doubleValue(), large.doubleValueSince(negativeLarge), 0);
+        assertEquals(negativeLarge.subtract(large).doubleValue(), negativeLarge.doubleValueSince(large), 0);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNaN() {
+        new TimeInstant(Double.NaN);
+    }
+
 }
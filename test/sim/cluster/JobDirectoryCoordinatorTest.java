@@ -0,0 +1,74 @@
+package sim.cluster;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import params.Params;
+import params.ParamsFactory;
+import util.SimBasicTest;
+
+public class JobDirectoryCoordinatorTest extends SimBasicTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRunsAndMergesJobsOnSeveralWorkers() throws Exception {
+        List<Params> expParams = new ArrayList<Params>();
+        for (int seed = 1; seed <= 3; seed++) {
+            expParams.add(writeParams("params" + seed + ".json", seed));
+        }
+        JobDirectoryCoordinator coordinator = new JobDirectoryCoordinator(
+                new JobDirectory(folder.newFolder("jobs")), 2);
+        File outputDir = folder.newFolder("output");
+        JobDirectoryCoordinator.Report report = coordinator.run(expParams, outputDir);
+        assertEquals(3, report.getNumDoneJobs());
+        assertEquals(0, report.getNumFailedJobs());
+
+        List<String> lines = Files.readAllLines(new File(outputDir, "average_surplus_metrics.txt").toPath());
+        assertEquals("SIM_ID METRIC ITEM VALUE ", lines.get(0));
+        // Each sim records 3 metrics for each of the 3 items and the cost
+        assertEquals(1 + 3 * 10, lines.size());
+        for (int i = 1; i < lines.size(); i++) {
+            assertEquals((i - 1) / 10, Integer.parseInt(lines.get(i).split(" ")[0]));
+        }
+    }
+
+    @Test
+    public void testRetriesTheJobsOfCrashedWorkers() throws Exception {
+        List<Params> expParams = new ArrayList<Params>();
+        expParams.add(writeParams("params1.json", 1));
+        Params crashingParams = writeParams("params2.json", 2);
+        expParams.add(crashingParams);
+        // The worker exits when it cannot read the params
+        Files.write(new File(crashingParams.getFile()).toPath(), "{".getBytes(StandardCharsets.UTF_8));
+
+        JobDirectoryCoordinator coordinator = new JobDirectoryCoordinator(
+                new JobDirectory(folder.newFolder("jobs")), 1);
+        coordinator.setMaxAttempts(2);
+        JobDirectoryCoordinator.Report report = coordinator.run(expParams, folder.newFolder("output"));
+        assertEquals(1, report.getNumDoneJobs());
+        assertEquals(1, report.getNumFailedJobs());
+        // The first worker crashes on the second job, and its replacement
+        // crashes again on the retry
+        assertEquals(2, report.getNumWorkersStarted());
+    }
+
+    private Params writeParams(String fileName, int seed) throws Exception {
+        String json = new String(Files.readAllBytes(new File("test/resources/base_3_items.json").toPath()),
+                StandardCharsets.UTF_8).replace("\"seed\": 1", "\"seed\": " + seed);
+        File file = new File(folder.getRoot(), fileName);
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        return new ParamsFactory(file.getPath()).make().iterator().next();
+    }
+
+}
@@ -0,0 +1,68 @@
+package sim.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JobDirectoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testClaimInOrderOfSimIds() throws Exception {
+        JobDirectory jobDirectory = new JobDirectory(folder.newFolder("jobs"));
+        jobDirectory.submit(new Job(1, "b.json"));
+        jobDirectory.submit(new Job(0, "a.json"));
+        assertEquals(0, jobDirectory.claim("w1").getSimId());
+        assertEquals(1, jobDirectory.claim("w2").getSimId());
+        assertNull(jobDirectory.claim("w1"));
+        assertEquals(2, jobDirectory.getNumRunningJobs());
+        assertEquals("a.json", jobDirectory.getRunningJobs("w1").get(0).getParamsFile());
+    }
+
+    @Test
+    public void testReleaseRetriesUntilTheMaximumAttempts() throws Exception {
+        JobDirectory jobDirectory = new JobDirectory(folder.newFolder("jobs"));
+        jobDirectory.submit(new Job(0, "a.json"));
+        Job job = jobDirectory.claim("w1");
+        assertTrue(jobDirectory.release(job, "w1", 2));
+        assertFalse(jobDirectory.release(job, "w1", 2));
+        assertEquals(1, jobDirectory.getNumPendingJobs());
+
+        job = jobDirectory.claim("w2");
+        assertEquals(1, job.getAttempts());
+        assertTrue(jobDirectory.release(job, "w2", 2));
+        assertEquals(0, jobDirectory.getNumPendingJobs());
+        assertEquals(1, jobDirectory.getNumFailedJobs());
+    }
+
+    @Test
+    public void testCompleteMovesTheOutputToTheResults() throws Exception {
+        JobDirectory jobDirectory = new JobDirectory(folder.newFolder("jobs"));
+        jobDirectory.submit(new Job(0, "a.json"));
+        Job job = jobDirectory.claim("w1");
+        File workDir = jobDirectory.newWorkDir(job, "w1");
+        assertTrue(new File(workDir, "output.txt").createNewFile());
+        jobDirectory.complete(job, "w1", workDir);
+        assertEquals(1, jobDirectory.getNumDoneJobs());
+        assertEquals(0, jobDirectory.getNumRunningJobs());
+        assertTrue(new File(jobDirectory.getResultDirs().get(0), "output.txt").exists());
+    }
+
+    @Test
+    public void testHeartbeats() throws Exception {
+        JobDirectory jobDirectory = new JobDirectory(folder.newFolder("jobs"));
+        assertEquals(Long.MAX_VALUE, jobDirectory.getMillisSinceHeartbeat("w1"));
+        jobDirectory.heartbeat("w1");
+        assertTrue(jobDirectory.getMillisSinceHeartbeat("w1") < 60000);
+    }
+
+}
@@ -1,11 +1,15 @@
 package system;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static util.UtilMethods.c;
 
 import org.junit.Test;
 
 import params.Params;
+import sim.Sim;
+import sim.TimeInstant;
 
 public class ItemTest {
 
@@ -32,6 +36,95 @@ public class ItemTest {
         assertEquals( 15 / 8.0, item.getCCostRate(), tol );
     }
 
+    @Test
+    public void testSurplusAccruesWithTheClock() {
+
+        Params params = Params.builder()
+                .numItems(1)
+                .demandRates(c(2.0))
+                .productionRates(c(4.0))
+                .initialDemand(c(10.0))
+                .build();
+        Sim sim = new Sim(params, 0);
+        Item item = new Item(0, params, sim.getClock());
+        double tol = 1e-9;
+
+        item.setDemandAccrualRate(item.getDemandRate());
+        sim.setTime(new TimeInstant(3));
+        assertEquals( 16.0, item.getCumulativeDemand(), tol );
+        assertEquals( -16.0, item.getSurplus(), tol );
+        assertEquals( 16.0, item.getBacklog(), tol );
+
+        // Changing a rate keeps what was accrued so far
+        item.setProductionAccrualRate(item.getProductionRate());
+        sim.setTime(new TimeInstant(5));
+        assertEquals( 8.0, item.getCumulativeProduction(), tol );
+        assertEquals( 20.0, item.getCumulativeDemand(), tol );
+        assertEquals( -12.0, item.getSurplus(), tol );
+
+        // Discrete updates are applied on top of the accrued values
+        item.setCumulativeProduction(item.getCumulativeProduction() + 20.0);
+        item.setProductionAccrualRate(0);
+        sim.setTime(new TimeInstant(6));
+        assertEquals( 28.0, item.getCumulativeProduction(), tol );
+        assertEquals( 6.0, item.getSurplus(), tol );
+        assertEquals( 6.0, item.getInventory(), tol );
+    }
+
+    @Test
+    public void testItemsAreViewsOverTheItemStates() {
+
+        Params params = Params.builder()
+                .numItems(2)
+                .demandRates(c(1.0, 2.0))
+                .productionRates(c(4.0, 8.0))
+                .surplusTargets(c(5.0, 6.0))
+                .initialDemand(c(10.0, 20.0))
+                .build();
+        ItemStates states = new ItemStates(params, null);
+        Item item0 = new Item(states, 0);
+        Item item1 = new Item(states, 1);
+        double tol = 1e-9;
+
+        item1.setCumulativeProduction(25.0);
+        assertEquals( 5.0, states.getSurplus(1), tol );
+        assertEquals( 1.0, states.getSurplusDeviation(1), tol );
+        assertEquals( 8.0, item1.getProductionRate(), tol );
+        assertEquals( 15.0, item0.getSurplusDeviation(), tol );
+
+        double[] surplus = new double[2];
+        states.copySurplus(surplus);
+        assertEquals( -10.0, surplus[0], tol );
+        assertEquals( 5.0, surplus[1], tol );
+    }
+
+    @Test
+    public void testStandaloneItemsHaveTheirOwnStates() {
+
+        Params params = Params.builder()
+                .numItems(2)
+                .demandRates(c(1.0, 2.0))
+                .productionRates(c(4.0, 8.0))
+                .initialDemand(c(10.0, 20.0))
+                .build();
+        Item item0 = new Item(0, params);
+        Item item1 = new Item(1, params);
+        assertNotSame( item0.getStates(), item1.getStates() );
+        assertEquals( 1, item1.getStates().getNumItems() );
+        assertEquals( 2.0, item1.getDemandRate(), 1e-9 );
+        assertEquals( 8.0, item1.getProductionRate(), 1e-9 );
+        assertEquals( -20.0, item1.getSurplus(), 1e-9 );
+
+        // Another item with the same id does not share the state of the first
+        item0.setCumulativeProduction(15.0);
+        Item otherItem0 = new Item(0, params);
+        assertNotSame( item0.getStates(), otherItem0.getStates() );
+        assertNotEquals( item0, otherItem0 );
+        assertEquals( -10.0, otherItem0.getSurplus(), 1e-9 );
+        assertEquals( 5.0, item0.getSurplus(), 1e-9 );
+        assertEquals( -20.0, item1.getSurplus(), 1e-9 );
+    }
+
     @Test
     public void testCCostCalculator() {
         double tol = 1e-4;
@@ -0,0 +1,138 @@
+package util;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+import output.Recorder;
+import output.Recorders;
+import params.Params;
+import sim.Sim;
+import sim.SimSetup;
+import sim.TimeInstant;
+import system.Item;
+
+/**
+ * Measures the memory allocated by the logging done on every event when log4j is at INFO. The
+ * <tt>itemUpdates</tt> benchmark exercises the surplus updates of an {@link Item}, which log at DEBUG and TRACE
+ * through a {@link HotPathLogger}, and <tt>hotPathLogger</tt> makes the same kind of calls directly. For reference,
+ * <tt>concatenatedMessages</tt> builds the messages before calling log4j, as the event engine used to do. Run with
+ * the GC profiler to see the bytes allocated per operation (<tt>gc.alloc.rate.norm</tt>), which should be zero for
+ * the first two benchmarks. The <tt>eventLoop</tt> benchmark runs the main loop of a {@link Sim} over a fixed stretch
+ * of time, so that it also covers the logging done by the sim and its scheduler on every event:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; util.HotPathLoggerBenchmark -prof gc
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathLoggerBenchmark {
+
+    private static final double EVENT_LOOP_HORIZON = 100.0;
+
+    private static final HotPathLogger hotPathLogger = HotPathLogger.getLogger(HotPathLoggerBenchmark.class);
+    private static final Logger        logger        = Logger.getLogger(HotPathLoggerBenchmark.class);
+
+    private Item        item;
+    private TimeInstant time;
+    private double      quantity;
+    private Sim         sim;
+
+    @Setup
+    public void setup() {
+        BasicConfigurator.configure();
+        LogManager.getRootLogger().setLevel(Level.INFO);
+        Params params = Params.builder()
+                .numItems(1)
+                .demandRates(ImmutableList.of(0.5))
+                .productionRates(ImmutableList.of(1.0))
+                .setupTimes(ImmutableList.of(1.0))
+                .surplusTargets(ImmutableList.of(0.0))
+                .inventoryHoldingCosts(ImmutableList.of(1.0))
+                .backlogCosts(ImmutableList.of(1.0))
+                .initialDemand(ImmutableList.of(0.0))
+                .build();
+        item = new Item(0, params);
+        time = new TimeInstant(1234.5);
+        quantity = 0.75;
+        Params simParams = Params.builder()
+                .numItems(3)
+                .demandRates(ImmutableList.of(0.1, 0.2, 0.1))
+                .productionRates(ImmutableList.of(1.0, 1.0, 1.0))
+                .setupTimes(ImmutableList.of(1.0, 1.0, 1.0))
+                .surplusTargets(ImmutableList.of(0.0, 0.0, 0.0))
+                .initialDemand(ImmutableList.of(0.0, 0.0, 0.0))
+                .meanTimeToFail(100.0)
+                .meanTimeToRepair(1.0)
+                .finalTime(Double.MAX_VALUE)
+                .seed(7)
+                .build();
+        sim = new Sim(simParams, 0);
+        SimSetup.setUp(sim, new Recorders(Collections.<Recorder> emptyList()));
+        sim.start();
+    }
+
+    @Benchmark
+    public double itemUpdates() {
+        item.setCumulativeDemand(item.getCumulativeDemand() + quantity);
+        item.setCumulativeProduction(item.getCumulativeProduction() + quantity);
+        return item.getSurplus();
+    }
+
+    @Benchmark
+    public void hotPathLogger(Blackhole blackhole) {
+        hotPathLogger.debug("Creating demand arrival for Item %d with qty %f", item.getId(), quantity);
+        hotPathLogger.trace("Item %d surplus: %f inventory: %f backlog: %f", item.getId(), quantity, quantity,
+                quantity);
+        hotPathLogger.trace("Scheduling a new control event for time %s", time);
+        blackhole.consume(quantity);
+    }
+
+    @Benchmark
+    public void concatenatedMessages(Blackhole blackhole) {
+        logger.debug("Creating demand arrival for Item " + item.getId() + " with qty " + quantity);
+        logger.trace("Item " + item.getId() + " surplus: " + quantity + " inventory: " + quantity + " backlog: "
+                + quantity);
+        logger.trace(String.format("Scheduling a new control event for time %s", time));
+        blackhole.consume(quantity);
+    }
+
+    @Benchmark
+    public TimeInstant eventLoop() {
+        sim.runUntil(sim.getTime().doubleValue() + EVENT_LOOP_HORIZON, false);
+        return sim.getTime();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(HotPathLoggerBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+}
@@ -1,6 +1,9 @@
 package util;
 
 import static org.junit.Assert.assertTrue;
+import static util.UtilMethods.c;
+
+import java.util.ArrayList;
 
 import org.apache.log4j.PropertyConfigurator;
 import org.junit.Before;
@@ -10,8 +13,10 @@ import org.mockito.MockitoAnnotations;
 import discreteEvent.ControlEvent;
 import discreteEvent.Event;
 import discreteEvent.Failure;
+import output.Recorder;
 import output.Recorders;
 import params.Params;
+import params.PolicyParams;
 import sim.Sim;
 import sim.SimSetup;
 
@@ -47,4 +52,43 @@ public class SimBasicTest {
         return sim;
     }
 
+    /**
+     * Creates a new sim with id 0 that is set up without recorders. Unlike
+     * {@link #getSim(Params)}, the sim is not started, so it can be run with
+     * {@link Sim#run} or started and run with {@link Sim#runUntil}.
+     * 
+     * @param params
+     * @return Sim
+     */
+    protected Sim newSim(Params params) {
+        Sim sim = new Sim(params, 0);
+        SimSetup.setUp(sim, noRecorders());
+        return sim;
+    }
+
+    /**
+     * Returns the params builder of a small system of three items with
+     * failures, run with the given policy. The metrics start time and the
+     * final time are left to the test.
+     * 
+     * @param policy
+     * @return Params.ParamsBuilder
+     */
+    protected Params.ParamsBuilder getThreeItemParams(String policy) {
+        return Params.builder()
+                .numItems(3)
+                .demandRates(c(0.1, 0.2, 0.1))
+                .productionRates(c(1.0, 1.0, 1.0))
+                .setupTimes(c(1.0, 1.0, 1.0))
+                .initialDemand(c(0.0, 0.0, 0.0))
+                .meanTimeToFail(50)
+                .meanTimeToRepair(5)
+                .seed(7)
+                .policyParams(PolicyParams.builder().name(policy).build());
+    }
+
+    protected static Recorders noRecorders() {
+        return new Recorders(new ArrayList<Recorder>());
+    }
+
 }